@@ -19,6 +19,7 @@ import org.apache.oozie.service.XLogService;
 import org.apache.oozie.service.DagXLogInfoService;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.oozie.client.CoordinatorJob;
+import org.apache.oozie.client.WorkflowAction;
 import org.apache.oozie.client.WorkflowJob;
 import org.apache.oozie.client.OozieClient;
 import org.apache.oozie.command.CommandException;
@@ -53,6 +54,10 @@ import org.apache.oozie.command.wf.SuspendCommand;
 import org.apache.oozie.command.wf.SuspendXCommand;
 import org.apache.oozie.command.wf.WorkflowActionInfoCommand;
 import org.apache.oozie.command.wf.WorkflowActionInfoXCommand;
+import org.apache.oozie.executor.jpa.JPAExecutorException;
+import org.apache.oozie.executor.jpa.WorkflowActionGetJPAExecutor;
+import org.apache.oozie.service.ActionCheckerService;
+import org.apache.oozie.service.JPAService;
 import org.apache.oozie.service.Services;
 import org.apache.oozie.service.CallableQueueService;
 import org.apache.oozie.util.ParamChecker;
@@ -348,6 +353,10 @@ public class DagEngine extends BaseEngine {
         XLog.Info.get().clearParameter(XLogService.USER);
         XCallable<Void> command = null;
 
+        ActionCheckerService checker = Services.get().get(ActionCheckerService.class);
+        if (checker != null && checker.isAdaptiveCheck() && isRunningAction(actionId)) {
+            checker.callbackReceived(actionId);
+        }
         if (useXCommand) {
             command = new CompletedActionXCommand(actionId, externalStatus, actionData, HIGH_PRIORITY);
         }
@@ -359,6 +368,27 @@ public class DagEngine extends BaseEngine {
         }
     }
 
+    /**
+     * Return if a callback action ID resolves to a running workflow action.
+     *
+     * @param actionId workflow action ID.
+     * @return if the action exists and is running.
+     */
+    private boolean isRunningAction(String actionId) {
+        JPAService jpaService = Services.get().get(JPAService.class);
+        if (jpaService == null) {
+            return false;
+        }
+        try {
+            WorkflowActionBean action = jpaService.execute(new WorkflowActionGetJPAExecutor(actionId));
+            return action.getStatus() == WorkflowAction.Status.RUNNING;
+        }
+        catch (JPAExecutorException ex) {
+            LOG.debug("Ignoring callback of unknown action [{0}]", actionId);
+            return false;
+        }
+    }
+
     /**
      * Return the info about a job.
      *
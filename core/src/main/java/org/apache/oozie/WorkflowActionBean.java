@@ -24,6 +24,7 @@ import java.util.Properties;
 import javax.persistence.Basic;
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.Lob;
 import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
@@ -64,6 +65,10 @@ import org.apache.openjpa.persistence.jdbc.Index;
 
     @NamedQuery(name = "GET_RUNNING_ACTIONS", query = "select OBJECT(a) from WorkflowActionBean a where a.pending = 1 AND a.status = 'RUNNING' AND a.lastCheckTimestamp < :lastCheckTime"),
 
+    @NamedQuery(name = "GET_PENDING_ACTIONS_SUMMARY_AFTER_ID", query = "select a.id, a.wfId, a.type, a.status, a.externalId, a.pendingAgeTimestamp from WorkflowActionBean a where a.pending = 1 AND a.pendingAgeTimestamp < :pendingAge AND a.status <> 'RUNNING' AND a.id > :id order by a.id"),
+
+    @NamedQuery(name = "GET_RUNNING_ACTIONS_SUMMARY", query = "select a.id, a.wfId, a.type, a.status, a.externalId, a.pendingAgeTimestamp from WorkflowActionBean a where a.pending = 1 AND a.status = 'RUNNING' AND a.lastCheckTimestamp < :lastCheckTime"),
+
     @NamedQuery(name = "GET_RETRY_MANUAL_ACTIONS", query = "select OBJECT(a) from WorkflowActionBean a where a.wfId = :wfId AND (a.status = 'START_RETRY' OR a.status = 'START_MANUAL' OR a.status = 'END_RETRY' OR a.status = 'END_MANUAL')") })
 
 public class WorkflowActionBean extends JsonWorkflowAction implements Writable {
@@ -116,6 +121,7 @@ public class WorkflowActionBean extends JsonWorkflowAction implements Writable {
     @Transient
     private Date pendingAge;
 
+    @Basic(fetch = FetchType.LAZY)
     @Column(name = "sla_xml")
     @Lob
     private String slaXml = null;
@@ -456,6 +456,18 @@ public abstract class ActionExecutor {
      */
     public abstract void kill(Context context, WorkflowAction action) throws ActionExecutorException;
 
+    /**
+     * Return if the external system notifies the completion of the actions through their callback URL.
+     * <p/>
+     * The actions of executors returning <code>true</code> are checked on a backoff schedule by the {@link
+     * org.apache.oozie.service.ActionCheckerService}.
+     *
+     * @return <code>false</code>, executors whose actions notify their completion must override it.
+     */
+    public boolean hasCompletionCallback() {
+        return false;
+    }
+
     /**
      * Return if the external status indicates that the action has completed.
      *
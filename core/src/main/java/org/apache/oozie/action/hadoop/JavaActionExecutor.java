@@ -41,6 +41,7 @@ import org.apache.hadoop.fs.permission.AccessControlException;
 import org.apache.hadoop.mapred.JobClient;
 import org.apache.hadoop.mapred.JobConf;
 import org.apache.hadoop.mapred.JobID;
+import org.apache.hadoop.mapred.JobStatus;
 import org.apache.hadoop.mapred.RunningJob;
 import org.apache.hadoop.util.DiskChecker;
 import org.apache.oozie.WorkflowJobBean;
@@ -66,6 +67,17 @@ import org.apache.hadoop.security.token.TokenIdentifier;
 
 public class JavaActionExecutor extends ActionExecutor {
 
+    /**
+     * If the launcher jobs of the actions being checked are first looked up in a shared snapshot of the incomplete
+     * jobs of their JobTracker.
+     */
+    public static final String CONF_BATCH_CHECK = CONF_PREFIX + "hadoop.check.batch";
+
+    /**
+     * Time, in seconds, a snapshot of the incomplete jobs of a JobTracker is used for.
+     */
+    public static final String CONF_BATCH_CHECK_TTL = CONF_PREFIX + "hadoop.check.batch.ttl";
+
     private static final String HADOOP_USER = "user.name";
     private static final String HADOOP_UGI = "hadoop.job.ugi";
     private static final String HADOOP_JOB_TRACKER = "mapred.job.tracker";
@@ -74,6 +86,8 @@ public class JavaActionExecutor extends ActionExecutor {
     private static final Set<String> DISALLOWED_PROPERTIES = new HashSet<String>();
 
     private static int maxActionOutputLen;
+    private static boolean batchCheck;
+    private static long batchCheckTtl;
 
     private static final String SUCCEEDED = "SUCCEEDED";
     private static final String KILLED = "KILLED";
@@ -116,6 +130,8 @@ public class JavaActionExecutor extends ActionExecutor {
     public void initActionType() {
         super.initActionType();
         maxActionOutputLen = getOozieConf().getInt(CallbackServlet.CONF_MAX_DATA_LEN, 2 * 1024);
+        batchCheck = getOozieConf().getBoolean(CONF_BATCH_CHECK, false);
+        batchCheckTtl = getOozieConf().getLong(CONF_BATCH_CHECK_TTL, 30) * 1000;
         try {
             List<Class> classes = getLauncherClasses();
             Class[] launcherClasses = classes.toArray(new Class[classes.size()]);
@@ -779,8 +795,57 @@ public class JavaActionExecutor extends ActionExecutor {
         return Services.get().get(HadoopAccessorService.class).createJobClient(user, group, jobConf);
     }
 
+    /**
+     * Return if the launcher job of an action is still running according to the snapshot of the incomplete jobs of
+     * its JobTracker, shared by all the actions of the same JobTracker, user and group.
+     * <p/>
+     * If the snapshot cannot be taken the method returns <code>false</code> and the action is checked as usual.
+     *
+     * @param context executor context.
+     * @param action action to check.
+     * @return <code>true</code> if the launcher job is in the snapshot of the incomplete jobs.
+     */
+    protected boolean isLauncherRunning(final Context context, WorkflowAction action) {
+        if (action.getExternalId() == null) {
+            return false;
+        }
+        try {
+            Element actionXml = XmlUtils.parseXml(action.getConf());
+            Configuration conf = createBaseHadoopConf(context, actionXml);
+            final JobConf jobConf = new JobConf();
+            XConfiguration.copy(conf, jobConf);
+            String jobTracker = jobConf.get(HADOOP_JOB_TRACKER);
+            if (jobTracker == null) {
+                return false;
+            }
+            Set<String> incompleteJobs = RunningJobsCache.getIncompleteJobs(jobTracker, context.getWorkflow()
+                    .getUser(), context.getWorkflow().getGroup(), batchCheckTtl, new RunningJobsCache.Loader() {
+                public JobStatus[] load() throws Exception {
+                    JobClient jobClient = createJobClient(context, jobConf);
+                    try {
+                        return jobClient.jobsToComplete();
+                    }
+                    finally {
+                        jobClient.close();
+                    }
+                }
+            });
+            return incompleteJobs != null && incompleteJobs.contains(action.getExternalId());
+        }
+        catch (Exception ex) {
+            XLog.getLog(getClass()).debug("Could not check action in batch, {0}", ex.getMessage(), ex);
+            return false;
+        }
+    }
+
     @Override
     public void check(Context context, WorkflowAction action) throws ActionExecutorException {
+        if (batchCheck && isLauncherRunning(context, action)) {
+            context.setExternalStatus(RUNNING);
+            XLog.getLog(getClass()).info(XLog.STD, "checking action, external ID [{0}] status [{1}]",
+                    action.getExternalId(), action.getExternalStatus());
+            return;
+        }
         JobClient jobClient = null;
         boolean exception = false;
         try {
@@ -962,6 +1027,16 @@ public class JavaActionExecutor extends ActionExecutor {
         FINAL_STATUS.add(FAILED_KILLED);
     }
 
+    /**
+     * The launcher job notifies its completion through the callback URL injected in its configuration.
+     *
+     * @return <code>true</code>.
+     */
+    @Override
+    public boolean hasCompletionCallback() {
+        return true;
+    }
+
     @Override
     public boolean isCompleted(String externalStatus) {
         return FINAL_STATUS.contains(externalStatus);
@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.action.hadoop;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.hadoop.mapred.JobStatus;
+
+/**
+ * Snapshots of the incomplete jobs of JobTrackers, per JobTracker, user and group.
+ * <p/>
+ * A snapshot is taken with a single <code>JobClient.jobsToComplete()</code> call and it is shared by all the action
+ * checks for the same JobTracker, user and group until it expires. Concurrent checks wait for the snapshot being taken
+ * instead of taking their own.
+ */
+public class RunningJobsCache {
+
+    /**
+     * Takes a snapshot of the incomplete jobs of a JobTracker.
+     */
+    public static interface Loader {
+
+        /**
+         * Return the status of the incomplete jobs.
+         *
+         * @return the status of the incomplete jobs, <code>null</code> if the JobTracker does not support it.
+         * @throws Exception thrown if the snapshot could not be taken.
+         */
+        public JobStatus[] load() throws Exception;
+    }
+
+    private static final ConcurrentMap<String, Snapshot> SNAPSHOTS = new ConcurrentHashMap<String, Snapshot>();
+
+    private static class Snapshot {
+        private long takenAt;
+        private boolean loaded;
+        private Set<String> jobIds;
+
+        private synchronized Set<String> get(long ttl, Loader loader) throws Exception {
+            long now = System.currentTimeMillis();
+            if (!loaded || now - takenAt > ttl) {
+                loaded = false;
+                JobStatus[] statuses = loader.load();
+                Set<String> ids = null;
+                if (statuses != null) {
+                    ids = new HashSet<String>(statuses.length * 2);
+                    for (JobStatus status : statuses) {
+                        ids.add(status.getJobID().toString());
+                    }
+                }
+                jobIds = ids;
+                takenAt = now;
+                loaded = true;
+            }
+            return jobIds;
+        }
+    }
+
+    /**
+     * Return the IDs of the incomplete jobs of a JobTracker for a user and group.
+     *
+     * @param jobTracker JobTracker address.
+     * @param user user name.
+     * @param group group name.
+     * @param ttl time, in milliseconds, a snapshot is used for.
+     * @param loader loader taking the snapshot if there is none or if it has expired.
+     * @return the IDs of the incomplete jobs, <code>null</code> if the JobTracker does not support listing them.
+     * @throws Exception thrown if the snapshot could not be taken.
+     */
+    public static Set<String> getIncompleteJobs(String jobTracker, String user, String group, long ttl, Loader loader)
+            throws Exception {
+        String key = user + "," + group + "," + jobTracker.toLowerCase().trim();
+        Snapshot snapshot = SNAPSHOTS.get(key);
+        if (snapshot == null) {
+            snapshot = new Snapshot();
+            Snapshot existing = SNAPSHOTS.putIfAbsent(key, snapshot);
+            if (existing != null) {
+                snapshot = existing;
+            }
+        }
+        return snapshot.get(ttl, loader);
+    }
+
+    /**
+     * Discard all the snapshots.
+     */
+    public static void clear() {
+        SNAPSHOTS.clear();
+    }
+
+}
@@ -23,6 +23,7 @@ import javax.persistence.Column;
 import javax.persistence.DiscriminatorColumn;
 import javax.persistence.DiscriminatorType;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.Id;
 import javax.persistence.Lob;
 import javax.persistence.Table;
@@ -57,6 +58,7 @@ public class JsonCoordinatorAction implements CoordinatorAction, JsonBean {
     @Transient
     private Date createdTime;
 
+    @Basic(fetch = FetchType.LAZY)
     @Column(name = "created_conf")
     @Lob
     private String createdConf;
@@ -74,14 +76,17 @@ public class JsonCoordinatorAction implements CoordinatorAction, JsonBean {
     @Transient
     private Date nominalTime;
 
+    @Basic(fetch = FetchType.LAZY)
     @Column(name = "run_conf")
     @Lob
     private String runConf;
 
+    @Basic(fetch = FetchType.LAZY)
     @Column(name = "action_xml")
     @Lob
     private String actionXml;
 
+    @Basic(fetch = FetchType.LAZY)
     @Column(name = "missing_dependencies")
     @Lob
     private String missingDependencies;
@@ -47,7 +47,7 @@ public class JsonWorkflowAction implements WorkflowAction, JsonBean {
     @Column(name = "type")
     private String type = null;
 
-    @Basic
+    @Basic(fetch = FetchType.LAZY)
     @Column(name = "conf")
     @Lob
     private String conf = null;
@@ -69,6 +69,7 @@ public class JsonWorkflowAction implements WorkflowAction, JsonBean {
     @Column(name = "transition")
     private String transition = null;
 
+    @Basic(fetch = FetchType.LAZY)
     @Column(name = "data")
     @Lob
     private String data = null;
@@ -93,6 +94,7 @@ public class JsonWorkflowAction implements WorkflowAction, JsonBean {
     @Column(name = "error_code")
     private String errorCode = null;
 
+    @Basic(fetch = FetchType.LAZY)
     @Column(name = "error_message")
     @Lob
     private String errorMessage = null;
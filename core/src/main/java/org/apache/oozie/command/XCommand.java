@@ -17,8 +17,12 @@ package org.apache.oozie.command;
 import org.apache.oozie.ErrorCode;
 import org.apache.oozie.FaultInjection;
 import org.apache.oozie.XException;
+import org.apache.oozie.executor.jpa.BatchJPAExecutor;
+import org.apache.oozie.executor.jpa.JPAExecutor;
+import org.apache.oozie.executor.jpa.JPAExecutorException;
 import org.apache.oozie.service.CallableQueueService;
 import org.apache.oozie.service.InstrumentationService;
+import org.apache.oozie.service.JPAService;
 import org.apache.oozie.service.MemoryLocksService;
 import org.apache.oozie.service.Services;
 import org.apache.oozie.util.Instrumentation;
@@ -45,6 +49,7 @@ import java.util.UUID;
  * <li>precondition check: verifies precondition for execution is still met</li>
  * <li>locking: obtains exclusive lock on key before executing the command</li>
  * <li>execution: command logic</li>
+ * <li>unit of work: JPA inserts and updates collected during the execution are flushed in a single transaction</li>
  * </ul>
  * <p/>
  * It has built in instrumentation and logging.
@@ -52,6 +57,8 @@ import java.util.UUID;
 public abstract class XCommand<T> implements XCallable<T> {
     public static final String DEFAULT_LOCK_TIMEOUT = "oozie.command.default.lock.timeout";
 
+    public static final String CONF_UNIT_OF_WORK = "oozie.command.jpa.unit.of.work";
+
     public static final String INSTRUMENTATION_GROUP = "commands";
 
     public static final Long DEFAULT_REQUEUE_DELAY = 10L;
@@ -67,6 +74,7 @@ public abstract class XCommand<T> implements XCallable<T> {
     private boolean used = false;
 
     private Map<Long, List<XCommand<?>>> commandQueue;
+    private List<JPAExecutor<?>> unitOfWork;
     protected boolean dryrun = false;
     protected Instrumentation instrumentation;
 
@@ -179,6 +187,66 @@ public abstract class XCommand<T> implements XCallable<T> {
         list.add(command);
     }
 
+    /**
+     * Add a JPA insert or update to the unit of work of the command.
+     * <p/>
+     * All the executors added during the execution of the current command are run in a single transaction once the
+     * command execution completes, or when {@link #flushUnitOfWork} is invoked.
+     * <p/>
+     * If the command execution throws an exception, the pending executors are discarded.
+     * <p/>
+     * If the unit of work is disabled, property {@link #CONF_UNIT_OF_WORK}, the executor is run right away.
+     *
+     * @param executor JPA executor to add to the unit of work, its return value is ignored.
+     * @throws CommandException thrown if the unit of work is disabled and the executor failed.
+     */
+    protected void addToUnitOfWork(JPAExecutor<?> executor) throws CommandException {
+        if (Services.get().getConf().getBoolean(CONF_UNIT_OF_WORK, true)) {
+            if (unitOfWork == null) {
+                unitOfWork = new ArrayList<JPAExecutor<?>>();
+            }
+            unitOfWork.add(executor);
+        }
+        else {
+            executeJPA(executor);
+        }
+    }
+
+    /**
+     * Run the pending executors of the unit of work in a single transaction.
+     * <p/>
+     * Commands must flush the unit of work before doing anything that needs the pending changes in the database, like
+     * invoking other commands synchronously.
+     *
+     * @throws CommandException thrown if the unit of work could not be committed.
+     */
+    protected void flushUnitOfWork() throws CommandException {
+        if (unitOfWork != null && !unitOfWork.isEmpty()) {
+            List<JPAExecutor<?>> executors = unitOfWork;
+            unitOfWork = null;
+            LOG.debug("Flushing unit of work of [{0}] JPA executors", executors.size());
+            if (executors.size() == 1) {
+                executeJPA(executors.get(0));
+            }
+            else {
+                executeJPA(new BatchJPAExecutor(executors));
+            }
+        }
+    }
+
+    private void executeJPA(JPAExecutor<?> executor) throws CommandException {
+        JPAService jpaService = Services.get().get(JPAService.class);
+        if (jpaService == null) {
+            throw new CommandException(ErrorCode.E0610);
+        }
+        try {
+            jpaService.execute(executor);
+        }
+        catch (JPAExecutorException ex) {
+            throw new CommandException(ex);
+        }
+    }
+
     /**
      * Obtain an exclusive lock on the {link #getEntityKey}.
      * <p/>
@@ -228,6 +296,7 @@ public abstract class XCommand<T> implements XCallable<T> {
         }
         used = true;
         commandQueue = null;
+        unitOfWork = null;
         Instrumentation instrumentation = Services.get().get(InstrumentationService.class).get();
         instrumentation.incr(INSTRUMENTATION_GROUP, getName() + ".executions", 1);
         Instrumentation.Cron callCron = new Instrumentation.Cron();
@@ -254,7 +323,13 @@ public abstract class XCommand<T> implements XCallable<T> {
                     LOG.debug("Execute command [{0}] key [{1}]", getName(), getEntityKey());
                     Instrumentation.Cron executeCron = new Instrumentation.Cron();
                     executeCron.start();
-                    ret = execute();
+                    try {
+                        ret = execute();
+                        flushUnitOfWork();
+                    }
+                    finally {
+                        unitOfWork = null;
+                    }
                     executeCron.stop();
                     instrumentation.addCron(INSTRUMENTATION_GROUP, getName() + ".execute", executeCron);
                 }
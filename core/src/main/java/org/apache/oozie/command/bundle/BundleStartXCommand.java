@@ -16,6 +16,7 @@ package org.apache.oozie.command.bundle;
 
 import java.io.IOException;
 import java.io.StringReader;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -34,7 +35,7 @@ import org.apache.oozie.command.PreconditionException;
 import org.apache.oozie.command.StartTransitionXCommand;
 import org.apache.oozie.command.coord.CoordSubmitXCommand;
 import org.apache.oozie.executor.jpa.BundleActionGetJPAExecutor;
-import org.apache.oozie.executor.jpa.BundleActionInsertJPAExecutor;
+import org.apache.oozie.executor.jpa.BundleActionsInsertJPAExecutor;
 import org.apache.oozie.executor.jpa.BundleActionUpdateJPAExecutor;
 import org.apache.oozie.executor.jpa.BundleJobGetJPAExecutor;
 import org.apache.oozie.executor.jpa.BundleJobUpdateJPAExecutor;
@@ -207,11 +208,11 @@ public class BundleStartXCommand extends StartTransitionXCommand {
                     throw new CommandException(ErrorCode.E1318, jobId);
                 }
 
+                List<BundleActionBean> actions = new ArrayList<BundleActionBean>();
                 for (Entry<String, Boolean> coordName : map.entrySet()) {
-                    BundleActionBean action = createBundleAction(jobId, coordName.getKey(), coordName.getValue());
-
-                    jpaService.execute(new BundleActionInsertJPAExecutor(action));
+                    actions.add(createBundleAction(jobId, coordName.getKey(), coordName.getValue()));
                 }
+                jpaService.execute(new BundleActionsInsertJPAExecutor(actions));
             }
             catch (JPAExecutorException je) {
                 throw new CommandException(je);
@@ -28,6 +28,7 @@ import org.apache.oozie.client.OozieClient;
 import org.apache.oozie.command.CommandException;
 import org.apache.oozie.coord.CoordELEvaluator;
 import org.apache.oozie.coord.CoordELFunctions;
+import org.apache.oozie.service.DatasetAvailabilityService;
 import org.apache.oozie.service.HadoopAccessorException;
 import org.apache.oozie.service.HadoopAccessorService;
 import org.apache.oozie.service.Services;
@@ -320,6 +321,10 @@ public class CoordActionInputCheckCommand extends CoordinatorCommand<Void> {
         String user = ParamChecker.notEmpty(actionConf.get(OozieClient.USER_NAME), OozieClient.USER_NAME);
         String group = ParamChecker.notEmpty(actionConf.get(OozieClient.GROUP_NAME), OozieClient.GROUP_NAME);
         try {
+            DatasetAvailabilityService availability = Services.get().get(DatasetAvailabilityService.class);
+            if (availability != null) {
+                return availability.exists(sPath, user, group, actionConf);
+            }
             return Services.get().get(HadoopAccessorService.class).createFileSystem(user, group, path.toUri(),
                     actionConf).exists(path);
         }
@@ -16,6 +16,7 @@ package org.apache.oozie.command.coord;
 
 import java.io.IOException;
 import java.io.StringReader;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 
@@ -34,6 +35,7 @@ import org.apache.oozie.coord.CoordELFunctions;
 import org.apache.oozie.executor.jpa.CoordActionGetJPAExecutor;
 import org.apache.oozie.executor.jpa.CoordJobGetJPAExecutor;
 import org.apache.oozie.executor.jpa.JPAExecutorException;
+import org.apache.oozie.service.DatasetAvailabilityService;
 import org.apache.oozie.service.HadoopAccessorException;
 import org.apache.oozie.service.HadoopAccessorService;
 import org.apache.oozie.service.JPAService;
@@ -58,10 +60,23 @@ public class CoordActionInputCheckXCommand extends CoordinatorXCommand<Void> {
     private CoordinatorActionBean coordAction = null;
     private CoordinatorJobBean coordJob = null;
     private JPAService jpaService = null;
+    private final boolean notified;
 
     public CoordActionInputCheckXCommand(String actionId) {
+        this(actionId, false);
+    }
+
+    /**
+     * Create an input check command.
+     *
+     * @param actionId coordinator action ID.
+     * @param notified true if the check is triggered by a data availability notification, the check is then not
+     *        filtered as a duplicate of the polling check of the action.
+     */
+    public CoordActionInputCheckXCommand(String actionId, boolean notified) {
         super("coord_action_input", "coord_action_input", 1);
         this.actionId = ParamChecker.notEmpty(actionId, "actionId");
+        this.notified = notified;
     }
 
     /* (non-Javadoc)
@@ -80,12 +95,7 @@ public class CoordActionInputCheckXCommand extends CoordinatorXCommand<Void> {
                     (nominalTime.getTime() - currentTime.getTime()), COMMAND_REQUEUE_INTERVAL));
             // update lastModifiedTime
             coordAction.setLastModifiedTime(new Date());
-            try {
-                jpaService.execute(new org.apache.oozie.executor.jpa.CoordActionUpdateJPAExecutor(coordAction));
-            }
-            catch (JPAExecutorException e) {
-                throw new CommandException(e);
-            }
+            addToUnitOfWork(new org.apache.oozie.executor.jpa.CoordActionUpdateJPAExecutor(coordAction));
             LOG.info("[" + actionId
                     + "]::ActionInputCheck:: nominal Time is newer than current time, so requeue and wait. Current="
                     + currentTime + ", nominal=" + nominalTime);
@@ -102,12 +112,20 @@ public class CoordActionInputCheckXCommand extends CoordinatorXCommand<Void> {
             StringBuilder nonExistList = new StringBuilder();
             StringBuilder nonResolvedList = new StringBuilder();
             CoordCommandUtils.getResolvedList(coordAction.getMissingDependencies(), nonExistList, nonResolvedList);
+            DatasetAvailabilityService availability = Services.get().get(DatasetAvailabilityService.class);
+            if (availability != null && availability.isPushEnabled() && nonExistList.length() > 0) {
+                // registered before the check, a notification received while the paths are checked is not lost
+                availability.registerWaitingAction(actionId, Arrays.asList(nonExistList.toString().split(
+                        CoordELFunctions.INSTANCE_SEPARATOR)));
+            }
 
             LOG.info("[" + actionId + "]::CoordActionInputCheck:: Missing deps:" + nonExistList.toString() + " "
                     + nonResolvedList.toString());
             boolean status = checkInput(actionXml, existList, nonExistList, actionConf);
             coordAction.setLastModifiedTime(currentTime);
             coordAction.setActionXml(actionXml.toString());
+            String[] missingPaths = (nonExistList.length() > 0)
+                    ? nonExistList.toString().split(CoordELFunctions.INSTANCE_SEPARATOR) : new String[0];
             if (nonResolvedList.length() > 0 && status == false) {
                 nonExistList.append(CoordCommandUtils.RESOLVED_UNRESOLVED_SEPARATOR).append(nonResolvedList);
             }
@@ -116,6 +134,9 @@ public class CoordActionInputCheckXCommand extends CoordinatorXCommand<Void> {
                 coordAction.setStatus(CoordinatorAction.Status.READY);
                 // pass jobID to the CoordActionReadyXCommand
                 queue(new CoordActionReadyXCommand(coordAction.getJobId()), 100);
+                if (availability != null) {
+                    availability.unregisterWaitingAction(actionId);
+                }
             }
             else {
                 long waitingTime = (currentTime.getTime() - Math.max(coordAction.getNominalTime().getTime(), coordAction
@@ -124,13 +145,22 @@ public class CoordActionInputCheckXCommand extends CoordinatorXCommand<Void> {
                 int timeOut = coordAction.getTimeOut();
                 if ((timeOut >= 0) && (waitingTime > timeOut)) {
                     queue(new CoordActionTimeOutXCommand(coordAction), 100);
+                    if (availability != null) {
+                        availability.unregisterWaitingAction(actionId);
+                    }
+                }
+                else if (availability != null && availability.isPushEnabled() && missingPaths.length > 0) {
+                    // the missing paths wake the action up when notified, polling is a fallback
+                    availability.registerWaitingAction(actionId, Arrays.asList(missingPaths));
+                    queue(new CoordActionInputCheckXCommand(coordAction.getId()), availability
+                            .getFallbackInterval());
                 }
                 else {
                     queue(new CoordActionInputCheckXCommand(coordAction.getId()), COMMAND_REQUEUE_INTERVAL);
                 }
             }
             coordAction.setLastModifiedTime(new Date());
-            jpaService.execute(new org.apache.oozie.executor.jpa.CoordActionUpdateJPAExecutor(coordAction));
+            addToUnitOfWork(new org.apache.oozie.executor.jpa.CoordActionUpdateJPAExecutor(coordAction));
         }
         catch (Exception e) {
             throw new CommandException(ErrorCode.E1021, e.getMessage(), e);
@@ -381,6 +411,10 @@ public class CoordActionInputCheckXCommand extends CoordinatorXCommand<Void> {
         String user = ParamChecker.notEmpty(actionConf.get(OozieClient.USER_NAME), OozieClient.USER_NAME);
         String group = ParamChecker.notEmpty(actionConf.get(OozieClient.GROUP_NAME), OozieClient.GROUP_NAME);
         try {
+            DatasetAvailabilityService availability = Services.get().get(DatasetAvailabilityService.class);
+            if (availability != null) {
+                return availability.exists(sPath, user, group, new Configuration());
+            }
             return Services.get().get(HadoopAccessorService.class).createFileSystem(user, group, path.toUri(),
                     new Configuration()).exists(path);
         }
@@ -473,6 +507,10 @@ public class CoordActionInputCheckXCommand extends CoordinatorXCommand<Void> {
     @Override
     protected void verifyPrecondition() throws CommandException, PreconditionException {
         if (coordAction.getStatus() != CoordinatorActionBean.Status.WAITING) {
+            DatasetAvailabilityService availability = Services.get().get(DatasetAvailabilityService.class);
+            if (availability != null) {
+                availability.unregisterWaitingAction(actionId);
+            }
             throw new PreconditionException(ErrorCode.E1100, "[" + actionId
                     + "]::CoordActionInputCheck:: Ignoring action. Should be in WAITING state, but state="
                     + coordAction.getStatus());
@@ -497,7 +535,7 @@ public class CoordActionInputCheckXCommand extends CoordinatorXCommand<Void> {
      */
     @Override
     public String getKey(){
-        return getName() + "_" + actionId;
+        return getName() + "_" + actionId + ((notified) ? "_notified" : "");
     }
 
 }
@@ -15,6 +15,7 @@
 package org.apache.oozie.command.coord;
 
 import java.io.StringReader;
+import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
 
@@ -29,6 +30,7 @@ import org.apache.oozie.coord.CoordUtils;
 import org.apache.oozie.coord.CoordinatorJobException;
 import org.apache.oozie.coord.SyncCoordAction;
 import org.apache.oozie.coord.TimeUnit;
+import org.apache.oozie.coord.UriTemplate;
 import org.apache.oozie.service.Services;
 import org.apache.oozie.service.UUIDService;
 import org.apache.oozie.util.DateUtils;
@@ -284,6 +286,11 @@ public class CoordCommandUtils {
         Element doneFlagElement = event.getChild("dataset", event.getNamespace()).getChild("done-flag",
                 event.getNamespace());
         String doneFlag = CoordUtils.getDoneFlag(doneFlagElement);
+        String uriTemplate = event.getChild("dataset", event.getNamespace()).getChild("uri-template",
+                event.getNamespace()).getTextTrim();
+        // date variable only templates are expanded without EL evaluation
+        UriTemplate compiledUriTemplate = UriTemplate.compile(uriTemplate);
+        Calendar instanceCal = Calendar.getInstance(DateUtils.getTimeZone("UTC"));
 
         for (int i = 0; i < instanceList.length; i++) {
             if(instanceList[i].trim().length() == 0) {
@@ -297,19 +304,24 @@ public class CoordCommandUtils {
                 unresolvedInstances.append(instanceList[i]);
                 continue;
             }
-            ELEvaluator eval = CoordELEvaluator.createURIELEvaluator(instanceList[i]);
             if (uris.length() > 0) {
                 uris.append(CoordELFunctions.INSTANCE_SEPARATOR);
                 urisWithDoneFlag.append(CoordELFunctions.INSTANCE_SEPARATOR);
             }
 
-            String uriPath = CoordELFunctions.evalAndWrap(eval, event.getChild("dataset", event.getNamespace())
-                    .getChild("uri-template", event.getNamespace()).getTextTrim());
-            uris.append(uriPath);
+            int start = uris.length();
+            if (compiledUriTemplate != null) {
+                instanceCal.setTime(DateUtils.parseDateUTC(instanceList[i]));
+                compiledUriTemplate.appendTo(uris, instanceCal);
+            }
+            else {
+                ELEvaluator eval = CoordELEvaluator.createURIELEvaluator(instanceList[i]);
+                uris.append(CoordELFunctions.evalAndWrap(eval, uriTemplate));
+            }
+            urisWithDoneFlag.append(uris, start, uris.length());
             if (doneFlag.length() > 0) {
-                uriPath += "/" + doneFlag;
+                urisWithDoneFlag.append('/').append(doneFlag);
             }
-            urisWithDoneFlag.append(uriPath);
         }
         return uris.toString();
     }
@@ -30,6 +30,7 @@ import org.apache.oozie.executor.jpa.CoordJobGetActionsJPAExecutor;
 import org.apache.oozie.executor.jpa.CoordJobGetJPAExecutor;
 import org.apache.oozie.executor.jpa.CoordJobUpdateJPAExecutor;
 import org.apache.oozie.executor.jpa.JPAExecutorException;
+import org.apache.oozie.service.DatasetAvailabilityService;
 import org.apache.oozie.service.JPAService;
 import org.apache.oozie.service.Services;
 import org.apache.oozie.util.LogUtils;
@@ -107,6 +108,10 @@ public class CoordKillXCommand extends KillTransitionXCommand {
         catch (JPAExecutorException e) {
             throw new CommandException(e);
         }
+        DatasetAvailabilityService availability = Services.get().get(DatasetAvailabilityService.class);
+        if (availability != null) {
+            availability.unregisterWaitingAction(action.getId());
+        }
     }
 
     @Override
@@ -17,14 +17,17 @@ package org.apache.oozie.command.coord;
 import java.io.IOException;
 import java.io.StringReader;
 import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.List;
 import java.util.TimeZone;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.oozie.CoordinatorActionBean;
 import org.apache.oozie.CoordinatorJobBean;
 import org.apache.oozie.ErrorCode;
+import org.apache.oozie.SLAEventBean;
 import org.apache.oozie.client.CoordinatorJob;
 import org.apache.oozie.client.Job;
 import org.apache.oozie.client.SLAEvent.SlaAppType;
@@ -33,11 +36,14 @@ import org.apache.oozie.command.MaterializeTransitionXCommand;
 import org.apache.oozie.command.PreconditionException;
 import org.apache.oozie.command.bundle.BundleStatusUpdateXCommand;
 import org.apache.oozie.coord.TimeUnit;
-import org.apache.oozie.executor.jpa.CoordActionInsertJPAExecutor;
+import org.apache.oozie.executor.jpa.BatchJPAExecutor;
 import org.apache.oozie.executor.jpa.CoordActionsActiveCountJPAExecutor;
+import org.apache.oozie.executor.jpa.CoordActionsInsertJPAExecutor;
 import org.apache.oozie.executor.jpa.CoordJobGetJPAExecutor;
 import org.apache.oozie.executor.jpa.CoordJobUpdateJPAExecutor;
+import org.apache.oozie.executor.jpa.JPAExecutor;
 import org.apache.oozie.executor.jpa.JPAExecutorException;
+import org.apache.oozie.executor.jpa.SLAEventInsertJPAExecutor;
 import org.apache.oozie.service.JPAService;
 import org.apache.oozie.service.Service;
 import org.apache.oozie.service.Services;
@@ -88,17 +94,17 @@ public class CoordMaterializeTransitionXCommand extends MaterializeTransitionXCo
     public void transitToNext() throws CommandException {
     }
 
-    /* (non-Javadoc)
-     * @see org.apache.oozie.command.TransitionXCommand#updateJob()
+    /**
+     * Update the coordinator job.
+     * <p/>
+     * The update is added to the unit of work of the command, it is committed in the same transaction as the
+     * materialized actions.
+     *
+     * @throws CommandException thrown if the job could not be updated.
      */
     @Override
     public void updateJob() throws CommandException {
-        try {
-            jpaService.execute(new CoordJobUpdateJPAExecutor(coordJob));
-        }
-        catch (JPAExecutorException jex) {
-            throw new CommandException(jex);
-        }
+        addToUnitOfWork(new CoordJobUpdateJPAExecutor(coordJob));
     }
 
     /* (non-Javadoc)
@@ -245,6 +251,9 @@ public class CoordMaterializeTransitionXCommand extends MaterializeTransitionXCo
 
     /**
      * Create action instances starting from "startMatdTime" to "endMatdTime" and store them into coord action table.
+     * <p/>
+     * All the actions of the window are created in memory first, they are inserted with their SLA registration events
+     * in a single transaction.
      *
      * @param dryrun if this is a dry run
      * @throws Exception thrown if failed to materialize actions
@@ -294,6 +303,8 @@ public class CoordMaterializeTransitionXCommand extends MaterializeTransitionXCo
         }
 
         String action = null;
+        List<CoordinatorActionBean> actionBeans = new ArrayList<CoordinatorActionBean>();
+        List<String> actionXmls = new ArrayList<String>();
         JPAService jpaService = Services.get().get(JPAService.class);
         int numWaitingActions = jpaService.execute(new CoordActionsActiveCountJPAExecutor(coordJob.getId()));
         int maxActionToBeCreated = coordJob.getMatThrottling() - numWaitingActions;
@@ -316,7 +327,8 @@ public class CoordMaterializeTransitionXCommand extends MaterializeTransitionXCo
             actionBean.setTimeOut(timeout);
 
             if (!dryrun) {
-                storeToDB(actionBean, action); // Storing to table
+                actionBeans.add(actionBean);
+                actionXmls.add(action);
             }
             else {
                 actionStrings.append("action for new instance");
@@ -329,6 +341,7 @@ public class CoordMaterializeTransitionXCommand extends MaterializeTransitionXCo
 
         endMatdTime = new Date(effStart.getTimeInMillis());
         if (!dryrun) {
+            storeToDB(actionBeans, actionXmls); // Storing to table
             return action;
         }
         else {
@@ -336,24 +349,39 @@ public class CoordMaterializeTransitionXCommand extends MaterializeTransitionXCo
         }
     }
 
-    private void storeToDB(CoordinatorActionBean actionBean, String actionXml) throws Exception {
-        LOG.debug("In storeToDB() coord action id = " + actionBean.getId() + ", size of actionXml = "
-                + actionXml.length());
-        actionBean.setActionXml(actionXml);
-
-        jpaService.execute(new CoordActionInsertJPAExecutor(actionBean));
-        writeActionRegistration(actionXml, actionBean);
+    private void storeToDB(List<CoordinatorActionBean> actionBeans, List<String> actionXmls) throws Exception {
+        if (actionBeans.isEmpty()) {
+            return;
+        }
+        List<JPAExecutor<?>> executors = new ArrayList<JPAExecutor<?>>(actionBeans.size() + 1);
+        executors.add(new CoordActionsInsertJPAExecutor(actionBeans));
+        for (int i = 0; i < actionBeans.size(); i++) {
+            CoordinatorActionBean actionBean = actionBeans.get(i);
+            String actionXml = actionXmls.get(i);
+            LOG.debug("In storeToDB() coord action id = " + actionBean.getId() + ", size of actionXml = "
+                    + actionXml.length());
+            actionBean.setActionXml(actionXml);
+            SLAEventBean slaEvent = createActionRegistration(actionXml, actionBean);
+            if (slaEvent != null) {
+                executors.add(new SLAEventInsertJPAExecutor(slaEvent));
+            }
+        }
+        LOG.debug("Storing [{0}] coord actions with [{1}] SLA events", actionBeans.size(), executors.size() - 1);
+        addToUnitOfWork(new BatchJPAExecutor(executors));
 
-        // TODO: time 100s should be configurable
-        queue(new CoordActionNotificationXCommand(actionBean), 100);
-        queue(new CoordActionInputCheckXCommand(actionBean.getId()), 100);
+        for (CoordinatorActionBean actionBean : actionBeans) {
+            // TODO: time 100s should be configurable
+            queue(new CoordActionNotificationXCommand(actionBean), 100);
+            queue(new CoordActionInputCheckXCommand(actionBean.getId()), 100);
+        }
     }
 
-    private void writeActionRegistration(String actionXml, CoordinatorActionBean actionBean) throws Exception {
+    private SLAEventBean createActionRegistration(String actionXml, CoordinatorActionBean actionBean)
+            throws Exception {
         Element eAction = XmlUtils.parseXml(actionXml);
         Element eSla = eAction.getChild("action", eAction.getNamespace()).getChild("info", eAction.getNamespace("sla"));
-        SLADbOperations.writeSlaRegistrationEvent(eSla, actionBean.getId(), SlaAppType.COORDINATOR_ACTION, coordJob
-                .getUser(), coordJob.getGroup(), LOG);
+        return SLADbOperations.createSlaRegistrationEvent(eSla, actionBean.getId(), SlaAppType.COORDINATOR_ACTION,
+                                                          coordJob.getUser(), coordJob.getGroup());
     }
 
     private void updateJobMaterializeInfo(CoordinatorJobBean job) throws CommandException {
@@ -392,6 +420,7 @@ public class CoordMaterializeTransitionXCommand extends MaterializeTransitionXCo
         // update bundle action only when status changes in coord job
         if (this.coordJob.getBundleId() != null) {
             if (!prevStatus.equals(coordJob.getStatus())) {
+                flushUnitOfWork();
                 BundleStatusUpdateXCommand bundleStatusUpdate = new BundleStatusUpdateXCommand(coordJob, prevStatus);
                 bundleStatusUpdate.call();
             }
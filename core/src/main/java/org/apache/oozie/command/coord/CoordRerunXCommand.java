@@ -41,12 +41,13 @@ import org.apache.oozie.command.PreconditionException;
 import org.apache.oozie.command.RerunTransitionXCommand;
 import org.apache.oozie.command.bundle.BundleStatusUpdateXCommand;
 import org.apache.oozie.coord.CoordELFunctions;
-import org.apache.oozie.executor.jpa.CoordActionGetJPAExecutor;
+import org.apache.oozie.executor.jpa.CoordActionsGetByIdsJPAExecutor;
 import org.apache.oozie.executor.jpa.CoordJobGetActionForNominalTimeJPAExecutor;
 import org.apache.oozie.executor.jpa.CoordJobGetActionsForDatesJPAExecutor;
 import org.apache.oozie.executor.jpa.CoordJobGetJPAExecutor;
 import org.apache.oozie.executor.jpa.CoordJobUpdateJPAExecutor;
 import org.apache.oozie.executor.jpa.JPAExecutorException;
+import org.apache.oozie.service.DatasetAvailabilityService;
 import org.apache.oozie.service.JPAService;
 import org.apache.oozie.service.Services;
 import org.apache.oozie.util.DateUtils;
@@ -148,17 +149,15 @@ public class CoordRerunXCommand extends RerunTransitionXCommand<CoordinatorActio
             }
         }
 
-        List<CoordinatorActionBean> coordActions = new ArrayList<CoordinatorActionBean>();
-        for (String id : actions) {
-            CoordinatorActionBean coordAction;
-            try {
-                coordAction = jpaService.execute(new CoordActionGetJPAExecutor(id));
-            }
-            catch (JPAExecutorException je) {
-                throw new CommandException(je);
-            }
-            coordActions.add(coordAction);
-            LOG.debug("Rerun coordinator for actionId='" + id + "'");
+        List<CoordinatorActionBean> coordActions;
+        try {
+            coordActions = jpaService.execute(new CoordActionsGetByIdsJPAExecutor(new ArrayList<String>(actions)));
+        }
+        catch (JPAExecutorException je) {
+            throw new CommandException(je);
+        }
+        for (CoordinatorActionBean coordAction : coordActions) {
+            LOG.debug("Rerun coordinator for actionId='" + coordAction.getId() + "'");
         }
         return coordActions;
     }
@@ -280,11 +279,16 @@ public class CoordRerunXCommand extends RerunTransitionXCommand<CoordinatorActio
                     if (uris != null) {
                         String[] uriArr = uris.split(CoordELFunctions.INSTANCE_SEPARATOR);
                         FsActionExecutor fsAe = new FsActionExecutor();
+                        DatasetAvailabilityService availability = Services.get().get(
+                                DatasetAvailabilityService.class);
                         for (String uri : uriArr) {
                             Path path = new Path(uri);
                             try {
                                 fsAe.delete(user, group, path);
                                 LOG.debug("Cleanup the output dir " + path);
+                                if (availability != null) {
+                                    availability.invalidate(uri);
+                                }
                             }
                             catch (ActionExecutorException ae) {
                                 LOG.warn("Failed to cleanup the output dir " + uri, ae);
@@ -31,7 +31,6 @@ import org.apache.oozie.client.SLAEvent.SlaAppType;
 import org.apache.oozie.client.SLAEvent.Status;
 import org.apache.oozie.command.CommandException;
 import org.apache.oozie.command.PreconditionException;
-import org.apache.oozie.executor.jpa.JPAExecutorException;
 import org.apache.oozie.executor.jpa.WorkflowActionGetJPAExecutor;
 import org.apache.oozie.executor.jpa.WorkflowActionUpdateJPAExecutor;
 import org.apache.oozie.executor.jpa.WorkflowJobGetJPAExecutor;
@@ -157,14 +156,14 @@ public class ActionEndXCommand extends ActionXCommand<Void> {
                         executor.getType());
                 wfAction.setErrorInfo(END_DATA_MISSING, "Execution Ended, but End Data Missing from Action");
                 failJob(context);
-                jpaService.execute(new WorkflowActionUpdateJPAExecutor(wfAction));
-                jpaService.execute(new WorkflowJobUpdateJPAExecutor(wfJob));
+                addToUnitOfWork(new WorkflowActionUpdateJPAExecutor(wfAction));
+                addToUnitOfWork(new WorkflowJobUpdateJPAExecutor(wfJob));
                 return null;
             }
             wfAction.setRetries(0);
             wfAction.setEndTime(new Date());
-            jpaService.execute(new WorkflowActionUpdateJPAExecutor(wfAction));
-            jpaService.execute(new WorkflowJobUpdateJPAExecutor(wfJob));
+            addToUnitOfWork(new WorkflowActionUpdateJPAExecutor(wfAction));
+            addToUnitOfWork(new WorkflowJobUpdateJPAExecutor(wfJob));
 
             Status slaStatus = null;
             switch (wfAction.getStatus()) {
@@ -225,17 +224,8 @@ public class ActionEndXCommand extends ActionXCommand<Void> {
             DagELFunctions.setActionInfo(wfInstance, wfAction);
             wfJob.setWorkflowInstance(wfInstance);
 
-            try {
-                jpaService.execute(new WorkflowActionUpdateJPAExecutor(wfAction));
-                jpaService.execute(new WorkflowJobUpdateJPAExecutor(wfJob));
-            }
-            catch (JPAExecutorException je) {
-                throw new CommandException(je);
-            }
-
-        }
-        catch (JPAExecutorException je) {
-            throw new CommandException(je);
+            addToUnitOfWork(new WorkflowActionUpdateJPAExecutor(wfAction));
+            addToUnitOfWork(new WorkflowJobUpdateJPAExecutor(wfJob));
         }
 
 
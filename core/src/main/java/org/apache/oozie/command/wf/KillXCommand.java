@@ -25,8 +25,8 @@ import org.apache.oozie.command.CommandException;
 import org.apache.oozie.command.PreconditionException;
 import org.apache.oozie.command.coord.CoordActionUpdateXCommand;
 import org.apache.oozie.executor.jpa.JPAExecutorException;
-import org.apache.oozie.executor.jpa.WorkflowActionUpdateJPAExecutor;
 import org.apache.oozie.executor.jpa.WorkflowActionsGetForJobJPAExecutor;
+import org.apache.oozie.executor.jpa.WorkflowActionsUpdateJPAExecutor;
 import org.apache.oozie.executor.jpa.WorkflowJobGetJPAExecutor;
 import org.apache.oozie.executor.jpa.WorkflowJobUpdateJPAExecutor;
 import org.apache.oozie.service.JPAService;
@@ -39,6 +39,7 @@ import org.apache.oozie.util.LogUtils;
 import org.apache.oozie.util.ParamChecker;
 import org.apache.oozie.util.db.SLADbXOperations;
 
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
@@ -115,13 +116,13 @@ public class KillXCommand extends WorkflowXCommand<Void> {
             wfJob.setWorkflowInstance(wfInstance);
         }
         try {
+            List<WorkflowActionBean> killedActions = new ArrayList<WorkflowActionBean>();
             for (WorkflowActionBean action : actionList) {
                 if (action.getStatus() == WorkflowActionBean.Status.RUNNING
                         || action.getStatus() == WorkflowActionBean.Status.DONE) {
                     action.setPending();
                     action.setStatus(WorkflowActionBean.Status.KILLED);
-
-                    jpaService.execute(new WorkflowActionUpdateJPAExecutor(action));
+                    killedActions.add(action);
 
                     queue(new ActionKillXCommand(action.getId(), action.getType()));
                 }
@@ -135,9 +136,12 @@ public class KillXCommand extends WorkflowXCommand<Void> {
                     action.resetPending();
                     SLADbXOperations.writeStausEvent(action.getSlaXml(), action.getId(), Status.KILLED,
                             SlaAppType.WORKFLOW_ACTION);
-                    jpaService.execute(new WorkflowActionUpdateJPAExecutor(action));
+                    killedActions.add(action);
                 }
             }
+            if (!killedActions.isEmpty()) {
+                jpaService.execute(new WorkflowActionsUpdateJPAExecutor(killedActions));
+            }
             jpaService.execute(new WorkflowJobUpdateJPAExecutor(wfJob));
             queue(new NotificationXCommand(wfJob));
         }
@@ -14,7 +14,9 @@
  */
 package org.apache.oozie.command.wf;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 
 import org.apache.oozie.ErrorCode;
 import org.apache.oozie.WorkflowActionBean;
@@ -24,7 +26,7 @@ import org.apache.oozie.command.CommandException;
 import org.apache.oozie.command.PreconditionException;
 import org.apache.oozie.command.coord.CoordActionUpdateXCommand;
 import org.apache.oozie.executor.jpa.JPAExecutorException;
-import org.apache.oozie.executor.jpa.WorkflowActionUpdateJPAExecutor;
+import org.apache.oozie.executor.jpa.WorkflowActionsUpdateJPAExecutor;
 import org.apache.oozie.executor.jpa.WorkflowJobGetActionsJPAExecutor;
 import org.apache.oozie.executor.jpa.WorkflowJobGetJPAExecutor;
 import org.apache.oozie.executor.jpa.WorkflowJobUpdateJPAExecutor;
@@ -61,13 +63,14 @@ public class ResumeXCommand extends WorkflowXCommand<Void> {
 
 
                 //for (WorkflowActionBean action : store.getActionsForWorkflow(id, false)) {
+                List<WorkflowActionBean> retryOrManualActions = new ArrayList<WorkflowActionBean>();
                 for (WorkflowActionBean action : jpaService.execute(new WorkflowJobGetActionsJPAExecutor(id))) {
 
                     // Set pending flag to true for the actions that are START_RETRY or
                     // START_MANUAL or END_RETRY or END_MANUAL
                     if (action.isRetryOrManual()) {
                         action.setPendingOnly();
-                        jpaService.execute(new WorkflowActionUpdateJPAExecutor(action));
+                        retryOrManualActions.add(action);
                     }
 
                     if (action.isPending()) {
@@ -99,6 +102,9 @@ public class ResumeXCommand extends WorkflowXCommand<Void> {
                     }
                 }
 
+                if (!retryOrManualActions.isEmpty()) {
+                    jpaService.execute(new WorkflowActionsUpdateJPAExecutor(retryOrManualActions));
+                }
                 jpaService.execute(new WorkflowJobUpdateJPAExecutor(workflow));
                 queue(new NotificationXCommand(workflow));
             }
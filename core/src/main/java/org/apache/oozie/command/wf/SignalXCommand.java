@@ -30,6 +30,8 @@ import org.apache.oozie.executor.jpa.JPAExecutorException;
 import org.apache.oozie.executor.jpa.WorkflowActionGetJPAExecutor;
 import org.apache.oozie.executor.jpa.WorkflowActionInsertJPAExecutor;
 import org.apache.oozie.executor.jpa.WorkflowActionUpdateJPAExecutor;
+import org.apache.oozie.executor.jpa.WorkflowActionsGetByIdsJPAExecutor;
+import org.apache.oozie.executor.jpa.WorkflowActionsUpdateJPAExecutor;
 import org.apache.oozie.executor.jpa.WorkflowJobGetJPAExecutor;
 import org.apache.oozie.executor.jpa.WorkflowJobUpdateJPAExecutor;
 import org.apache.oozie.service.ELService;
@@ -166,35 +168,34 @@ public class SignalXCommand extends WorkflowXCommand<Void> {
             if (!skipAction) {
                 wfAction.setTransition(workflowInstance.getTransition(wfAction.getName()));
             }
-            try {
-                jpaService.execute(new WorkflowActionUpdateJPAExecutor(wfAction));
-            }
-            catch (JPAExecutorException je) {
-                throw new CommandException(je);
-            }
+            addToUnitOfWork(new WorkflowActionUpdateJPAExecutor(wfAction));
         }
 
         if (completed) {
             try {
-                for (String actionToKillId : WorkflowStoreService.getActionsToKill(workflowInstance)) {
-                    WorkflowActionBean actionToKill;
-
-                    actionToKill = jpaService.execute(new WorkflowActionGetJPAExecutor(actionToKillId));
-
-                    actionToKill.setPending();
-                    actionToKill.setStatus(WorkflowActionBean.Status.KILLED);
-                    jpaService.execute(new WorkflowActionUpdateJPAExecutor(actionToKill));
-                    queue(new ActionKillXCommand(actionToKill.getId(), actionToKill.getType()));
+                List<String> actionsToKillIds = WorkflowStoreService.getActionsToKill(workflowInstance);
+                if (!actionsToKillIds.isEmpty()) {
+                    List<WorkflowActionBean> actionsToKill = jpaService.execute(
+                            new WorkflowActionsGetByIdsJPAExecutor(actionsToKillIds));
+                    for (WorkflowActionBean actionToKill : actionsToKill) {
+                        actionToKill.setPending();
+                        actionToKill.setStatus(WorkflowActionBean.Status.KILLED);
+                        queue(new ActionKillXCommand(actionToKill.getId(), actionToKill.getType()));
+                    }
+                    addToUnitOfWork(new WorkflowActionsUpdateJPAExecutor(actionsToKill));
                 }
 
-                for (String actionToFailId : WorkflowStoreService.getActionsToFail(workflowInstance)) {
-                    WorkflowActionBean actionToFail = jpaService.execute(new WorkflowActionGetJPAExecutor(
-                            actionToFailId));
-                    actionToFail.resetPending();
-                    actionToFail.setStatus(WorkflowActionBean.Status.FAILED);
-                    SLADbXOperations.writeStausEvent(wfAction.getSlaXml(), wfAction.getId(), Status.FAILED,
-                            SlaAppType.WORKFLOW_ACTION);
-                    jpaService.execute(new WorkflowActionUpdateJPAExecutor(actionToFail));
+                List<String> actionsToFailIds = WorkflowStoreService.getActionsToFail(workflowInstance);
+                if (!actionsToFailIds.isEmpty()) {
+                    List<WorkflowActionBean> actionsToFail = jpaService.execute(
+                            new WorkflowActionsGetByIdsJPAExecutor(actionsToFailIds));
+                    for (WorkflowActionBean actionToFail : actionsToFail) {
+                        actionToFail.resetPending();
+                        actionToFail.setStatus(WorkflowActionBean.Status.FAILED);
+                        SLADbXOperations.writeStausEvent(wfAction.getSlaXml(), wfAction.getId(), Status.FAILED,
+                                SlaAppType.WORKFLOW_ACTION);
+                    }
+                    addToUnitOfWork(new WorkflowActionsUpdateJPAExecutor(actionsToFail));
                 }
             }
             catch (JPAExecutorException je) {
@@ -239,15 +240,12 @@ public class SignalXCommand extends WorkflowXCommand<Void> {
                         } else {
                             wfAction.setErrorInfo(ErrorCode.E0729.toString(), actionConf);
                         }
-                        jpaService.execute(new WorkflowActionUpdateJPAExecutor(wfAction));
-                    }
-                    catch (JPAExecutorException je) {
-                        throw new CommandException(je);
                     }
                     catch (Exception ex) {
                         LOG.warn("Exception in SignalXCommand ", ex.getMessage(), ex);
                         throw new CommandException(ErrorCode.E0729, wfAction.getName(), ex);
                     }
+                    addToUnitOfWork(new WorkflowActionUpdateJPAExecutor(wfAction));
                 }
             }
 
@@ -267,7 +265,7 @@ public class SignalXCommand extends WorkflowXCommand<Void> {
                         oldAction = jpaService.execute(new WorkflowActionGetJPAExecutor(newAction.getId()));
 
                         oldAction.setPending();
-                        jpaService.execute(new WorkflowActionUpdateJPAExecutor(oldAction));
+                        addToUnitOfWork(new WorkflowActionUpdateJPAExecutor(oldAction));
 
                         queue(new SignalXCommand(jobId, oldAction.getId()));
                     }
@@ -276,7 +274,7 @@ public class SignalXCommand extends WorkflowXCommand<Void> {
                         String actionSlaXml = getActionSLAXml(newAction.getName(), workflowInstance.getApp()
                                 .getDefinition(), wfJob.getConf());
                         newAction.setSlaXml(actionSlaXml);
-                        jpaService.execute(new WorkflowActionInsertJPAExecutor(newAction));
+                        addToUnitOfWork(new WorkflowActionInsertJPAExecutor(newAction));
                         LOG.debug("SignalXCommand: Name: "+ newAction.getName() + ", Id: " +newAction.getId() + ", Authcode:" + newAction.getCred());
                         queue(new ActionStartXCommand(newAction.getId(), newAction.getType()));
                     }
@@ -287,15 +285,12 @@ public class SignalXCommand extends WorkflowXCommand<Void> {
             }
         }
 
-        try {
-            jpaService.execute(new WorkflowJobUpdateJPAExecutor(wfJob));
-        }
-        catch (JPAExecutorException je) {
-            throw new CommandException(je);
-        }
+        addToUnitOfWork(new WorkflowJobUpdateJPAExecutor(wfJob));
         LOG.debug(
                 "Updated the workflow status to " + wfJob.getId() + "  status =" + wfJob.getStatusStr());
         if (wfJob.getStatus() != WorkflowJob.Status.RUNNING && wfJob.getStatus() != WorkflowJob.Status.SUSPENDED) {
+            // the workflow job must be in the database before ending it
+            flushUnitOfWork();
             // update coordinator action
             new CoordActionUpdateXCommand(wfJob).call();
             new WfEndXCommand(wfJob).call(); //To delete the WF temp dir
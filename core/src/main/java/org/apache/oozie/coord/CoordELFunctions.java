@@ -27,7 +27,9 @@ import org.apache.oozie.util.DateUtils;
 import org.apache.oozie.util.ELEvaluator;
 import org.apache.oozie.util.ParamChecker;
 import org.apache.oozie.util.XLog;
+import org.apache.oozie.service.DatasetAvailabilityService;
 import org.apache.oozie.service.HadoopAccessorException;
+import org.apache.oozie.service.Service;
 import org.apache.oozie.service.Services;
 import org.apache.oozie.service.HadoopAccessorService;
 
@@ -42,6 +44,13 @@ public class CoordELFunctions {
     // INSTANCE_SEPARATOR is used to separate multiple directories into one tag.
     final public static String INSTANCE_SEPARATOR = "#";
     final public static String DIR_SEPARATOR = ",";
+
+    /**
+     * If true, latest and future instances are resolved listing the parent directories of the instances instead of
+     * checking them one at a time.
+     */
+    final public static String CONF_INPUT_LISTING = Service.CONF_PREFIX + "coord.input.listing";
+
     // TODO: in next release, support flexibility
     private static String END_OF_OPERATION_INDICATOR_FILE = "_SUCCESS";
 
@@ -244,14 +253,17 @@ public class CoordELFunctions {
             String group = ParamChecker.notEmpty((String) eval.getVariable(OozieClient.GROUP_NAME),
                     OozieClient.GROUP_NAME);
             String doneFlag = ds.getDoneFlag();
+            DatasetInstanceLister lister = createLister(user, group, conf, doneFlag);
+            UriTemplate compiledUriTemplate = ds.getCompiledUriTemplate();
             while (instance >= checkedInstance) {
-                ELEvaluator uriEval = getUriEvaluator(nominalInstanceCal);
-                String uriPath = uriEval.evaluate(uriTemplate, String.class);
+                String uriPath = (compiledUriTemplate != null) ? compiledUriTemplate.expand(nominalInstanceCal)
+                        : getUriEvaluator(nominalInstanceCal).evaluate(uriTemplate, String.class);
                 String pathWithDoneFlag = uriPath;
                 if (doneFlag.length() > 0) {
                     pathWithDoneFlag += "/" + doneFlag;
                 }
-                if (isPathAvailable(pathWithDoneFlag, user, group, conf)) {
+                if ((lister != null) ? lister.isAvailable(uriPath)
+                        : isPathAvailable(pathWithDoneFlag, user, group, conf)) {
                     XLog.getLog(CoordELFunctions.class).debug("Found future(" + available + "): " + pathWithDoneFlag);
                     if (available == n) {
                         XLog.getLog(CoordELFunctions.class).debug("Found future File: " + pathWithDoneFlag);
@@ -754,14 +766,17 @@ public class CoordELFunctions {
             String group = ParamChecker.notEmpty((String) eval.getVariable(OozieClient.GROUP_NAME),
                                                  OozieClient.GROUP_NAME);
             String doneFlag = ds.getDoneFlag();
+            DatasetInstanceLister lister = createLister(user, group, conf, doneFlag);
+            UriTemplate compiledUriTemplate = ds.getCompiledUriTemplate();
             while (nominalInstanceCal.compareTo(initInstance) >= 0) {
-                ELEvaluator uriEval = getUriEvaluator(nominalInstanceCal);
-                String uriPath = uriEval.evaluate(uriTemplate, String.class);
+                String uriPath = (compiledUriTemplate != null) ? compiledUriTemplate.expand(nominalInstanceCal)
+                        : getUriEvaluator(nominalInstanceCal).evaluate(uriTemplate, String.class);
                 String pathWithDoneFlag = uriPath;
                 if (doneFlag.length() > 0) {
                     pathWithDoneFlag += "/" + doneFlag;
                 }
-                if (isPathAvailable(pathWithDoneFlag, user, group, conf)) {
+                if ((lister != null) ? lister.isAvailable(uriPath)
+                        : isPathAvailable(pathWithDoneFlag, user, group, conf)) {
                     XLog.getLog(CoordELFunctions.class).debug("Found latest(" + available + "): " + pathWithDoneFlag);
                     if (available == offset) {
                         XLog.getLog(CoordELFunctions.class).debug("Found Latest File: " + pathWithDoneFlag);
@@ -796,10 +811,21 @@ public class CoordELFunctions {
         return retVal;
     }
 
-    // TODO : Not an efficient way. In a loop environment, we could do something
-    // outside the loop
     /**
-     * Check whether a URI path exists
+     * Create the lister resolving the instances of a dataset by parent directory.
+     *
+     * @return the lister, <code>null</code> if instances are checked one at a time.
+     */
+    private static DatasetInstanceLister createLister(String user, String group, Configuration conf,
+                                                      String doneFlag) {
+        if (Services.get().getConf().getBoolean(CONF_INPUT_LISTING, false)) {
+            return new DatasetInstanceLister(user, group, conf, doneFlag);
+        }
+        return null;
+    }
+
+    /**
+     * Check whether a URI path exists, through the {@link DatasetAvailabilityService} if available.
      *
      * @param sPath
      * @param conf
@@ -810,6 +836,10 @@ public class CoordELFunctions {
     private static boolean isPathAvailable(String sPath, String user, String group, Configuration conf)
             throws IOException, HadoopAccessorException {
         // sPath += "/" + END_OF_OPERATION_INDICATOR_FILE;
+        DatasetAvailabilityService availability = Services.get().get(DatasetAvailabilityService.class);
+        if (availability != null) {
+            return availability.exists(sPath, user, group, conf);
+        }
         Path path = new Path(sPath);
         return Services.get().get(HadoopAccessorService.class).
                 createFileSystem(user, group, path.toUri(), conf).exists(path);
@@ -0,0 +1,184 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.coord;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.oozie.service.DatasetAvailabilityService;
+import org.apache.oozie.service.HadoopAccessorException;
+import org.apache.oozie.service.HadoopAccessorService;
+import org.apache.oozie.service.Services;
+import org.apache.oozie.util.ParamChecker;
+import org.apache.oozie.util.XLog;
+
+/**
+ * Resolves the availability of the instances of a dataset by listing their parent directories.
+ * <p/>
+ * Instances are grouped by parent directory, each parent directory is listed once, with a
+ * <code>listStatus()</code> for datasets without done-flag or with a <code>globStatus()</code> of the done-flags of
+ * all its instances otherwise. The availability of the other instances of the same parent directory is then
+ * resolved in memory.
+ * <p/>
+ * If a parent directory cannot be listed, for example because of its permissions, or if its path contains glob
+ * characters, the availability of its instances is checked one instance at a time.
+ * <p/>
+ * If the {@link DatasetAvailabilityService} is available, an instance cached by the service is not listed, and the
+ * availability of the instances resolved by listing is cached by the service.
+ * <p/>
+ * A lister is meant to resolve a single EL function, listings are not refreshed.
+ */
+public class DatasetInstanceLister {
+    private static final String GLOB_CHARS = "*?[]{}\\";
+    private static final XLog LOG = XLog.getLog(DatasetInstanceLister.class);
+
+    private final String user;
+    private final String group;
+    private final Configuration conf;
+    private final String doneFlag;
+    private final int doneFlagDepth;
+    private final Map<String, Set<String>> listings = new HashMap<String, Set<String>>();
+    private int listed;
+
+    /**
+     * Create a dataset instance lister.
+     *
+     * @param user user name.
+     * @param group group name.
+     * @param conf configuration used to create the file system.
+     * @param doneFlag done-flag of the dataset, empty if the dataset does not have one.
+     */
+    public DatasetInstanceLister(String user, String group, Configuration conf, String doneFlag) {
+        this.user = ParamChecker.notEmpty(user, "user");
+        this.group = ParamChecker.notEmpty(group, "group");
+        this.conf = ParamChecker.notNull(conf, "conf");
+        this.doneFlag = ParamChecker.notNull(doneFlag, "doneFlag");
+        int depth = 0;
+        for (String name : doneFlag.split("/")) {
+            if (name.length() > 0) {
+                depth++;
+            }
+        }
+        doneFlagDepth = depth;
+    }
+
+    /**
+     * Check if a dataset instance is available.
+     *
+     * @param uriPath URI of the instance, without the done-flag.
+     * @return <code>true</code> if the instance, or its done-flag, exists.
+     * @throws IOException thrown if the file system could not be checked.
+     * @throws HadoopAccessorException thrown if the file system could not be created.
+     */
+    public boolean isAvailable(String uriPath) throws IOException, HadoopAccessorException {
+        Path path = new Path(uriPath);
+        Path checkPath = (doneFlag.length() > 0) ? new Path(path, doneFlag) : path;
+        DatasetAvailabilityService availability = Services.get().get(DatasetAvailabilityService.class);
+        if (availability != null) {
+            Boolean cached = availability.getCached(checkPath.toString(), user, group);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        Path parent = path.getParent();
+        Set<String> names = null;
+        if (parent != null) {
+            String key = parent.toString();
+            if (!listings.containsKey(key)) {
+                listings.put(key, list(parent));
+            }
+            names = listings.get(key);
+        }
+        if (names == null) {
+            return exists(checkPath);
+        }
+        boolean available = names.contains(path.getName());
+        if (availability != null) {
+            availability.put(checkPath.toString(), user, group, available);
+        }
+        return available;
+    }
+
+    /**
+     * Return the number of parent directories listed.
+     *
+     * @return the number of parent directories listed.
+     */
+    public int getListed() {
+        return listed;
+    }
+
+    private FileSystem getFileSystem(Path path) throws HadoopAccessorException {
+        return Services.get().get(HadoopAccessorService.class).createFileSystem(user, group, path.toUri(), conf);
+    }
+
+    private boolean exists(Path path) throws IOException, HadoopAccessorException {
+        DatasetAvailabilityService availability = Services.get().get(DatasetAvailabilityService.class);
+        if (availability != null) {
+            return availability.exists(path.toString(), user, group, conf);
+        }
+        return getFileSystem(path).exists(path);
+    }
+
+    /**
+     * Return the names of the available instances of a parent directory, <code>null</code> if it cannot be listed.
+     */
+    private Set<String> list(Path parent) throws HadoopAccessorException {
+        String pattern = parent.toUri().getPath() + doneFlag;
+        for (int i = 0; i < pattern.length(); i++) {
+            if (GLOB_CHARS.indexOf(pattern.charAt(i)) > -1) {
+                return null;
+            }
+        }
+        Set<String> names = new HashSet<String>();
+        FileSystem fs = getFileSystem(parent);
+        try {
+            FileStatus[] statuses;
+            if (doneFlag.length() > 0) {
+                statuses = fs.globStatus(new Path(parent, "*/" + doneFlag));
+            }
+            else {
+                statuses = fs.listStatus(parent);
+            }
+            listed++;
+            if (statuses != null) {
+                for (FileStatus status : statuses) {
+                    Path instance = status.getPath();
+                    for (int i = 0; i < doneFlagDepth; i++) {
+                        instance = instance.getParent();
+                    }
+                    names.add(instance.getName());
+                }
+            }
+        }
+        catch (FileNotFoundException ex) {
+            listed++;
+        }
+        catch (IOException ex) {
+            LOG.debug("Could not list [{0}], checking its instances one at a time: {1}", parent, ex.getMessage());
+            return null;
+        }
+        return names;
+    }
+
+}
@@ -30,6 +30,8 @@ public class SyncCoordDataset {
     protected Date initInstance;
     protected String uriTemplate;
     protected String doneFlag;
+    private UriTemplate compiledUriTemplate;
+    private boolean uriTemplateCompiled;
 
     /**
      * @return the name
@@ -85,6 +87,19 @@ public class SyncCoordDataset {
      */
     public void setUriTemplate(String uriTemplate) {
         this.uriTemplate = uriTemplate;
+        compiledUriTemplate = null;
+        uriTemplateCompiled = false;
+    }
+
+    /**
+     * @return the compiled uriTemplate, <code>null</code> if the uriTemplate must be evaluated with EL
+     */
+    public UriTemplate getCompiledUriTemplate() {
+        if (!uriTemplateCompiled) {
+            compiledUriTemplate = UriTemplate.compile(uriTemplate);
+            uriTemplateCompiled = true;
+        }
+        return compiledUriTemplate;
     }
 
     /**
@@ -0,0 +1,128 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.coord;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+
+/**
+ * A dataset URI template compiled into a list of literal and date variable segments.
+ * <p/>
+ * Only templates made of literal text and the <code>${YEAR}</code>, <code>${MONTH}</code>, <code>${DAY}</code>,
+ * <code>${HOUR}</code> and <code>${MINUTE}</code> variables can be compiled, they are expanded without EL evaluation,
+ * producing the same URIs. Other templates must be evaluated with EL.
+ */
+public class UriTemplate {
+    private static final String[] VARIABLES = {"YEAR", "MONTH", "DAY", "HOUR", "MINUTE"};
+    private static final int[] FIELDS = {Calendar.YEAR, Calendar.MONTH, Calendar.DAY_OF_MONTH, Calendar.HOUR_OF_DAY,
+            Calendar.MINUTE};
+
+    // literals[i] precedes the variable fields[i], the last literal follows the last variable
+    private final String[] literals;
+    private final int[] fields;
+    private final int length;
+
+    private UriTemplate(List<String> literals, List<Integer> fields) {
+        this.literals = literals.toArray(new String[literals.size()]);
+        this.fields = new int[fields.size()];
+        int len = 0;
+        for (int i = 0; i < this.fields.length; i++) {
+            this.fields[i] = fields.get(i);
+            len += 4;
+        }
+        for (String literal : this.literals) {
+            len += literal.length();
+        }
+        length = len;
+    }
+
+    /**
+     * Compile a URI template.
+     *
+     * @param template URI template.
+     * @return the compiled template, <code>null</code> if the template uses anything other than the date variables.
+     */
+    public static UriTemplate compile(String template) {
+        if (template == null || template.indexOf('\\') > -1) {
+            return null;
+        }
+        List<String> literals = new ArrayList<String>();
+        List<Integer> fields = new ArrayList<Integer>();
+        int start = 0;
+        int idx = template.indexOf('$');
+        while (idx > -1) {
+            if (idx + 1 >= template.length() || template.charAt(idx + 1) != '{') {
+                return null;
+            }
+            int end = template.indexOf('}', idx);
+            if (end == -1) {
+                return null;
+            }
+            int field = getField(template.substring(idx + 2, end).trim());
+            if (field == -1) {
+                return null;
+            }
+            literals.add(template.substring(start, idx));
+            fields.add(field);
+            start = end + 1;
+            idx = template.indexOf('$', start);
+        }
+        literals.add(template.substring(start));
+        return new UriTemplate(literals, fields);
+    }
+
+    private static int getField(String variable) {
+        for (int i = 0; i < VARIABLES.length; i++) {
+            if (VARIABLES[i].equals(variable)) {
+                return FIELDS[i];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Expand the template for a dataset instance.
+     *
+     * @param instance instance date, the date variables are taken in the time zone of the calendar.
+     * @return the URI of the instance.
+     */
+    public String expand(Calendar instance) {
+        return appendTo(new StringBuilder(length), instance).toString();
+    }
+
+    /**
+     * Expand the template for a dataset instance, appending the URI to a string builder.
+     *
+     * @param sb string builder to append the URI to.
+     * @param instance instance date, the date variables are taken in the time zone of the calendar.
+     * @return the string builder.
+     */
+    public StringBuilder appendTo(StringBuilder sb, Calendar instance) {
+        for (int i = 0; i < fields.length; i++) {
+            sb.append(literals[i]);
+            int value = instance.get(fields[i]);
+            if (fields[i] == Calendar.MONTH) {
+                value++;
+            }
+            if (fields[i] != Calendar.YEAR && value < 10) {
+                sb.append('0');
+            }
+            sb.append(value);
+        }
+        return sb.append(literals[fields.length]);
+    }
+
+}
@@ -0,0 +1,95 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.executor.jpa;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+
+import org.apache.oozie.service.JPAService;
+import org.apache.oozie.util.ParamChecker;
+
+/**
+ * Run a list of {@link JPAExecutor} in a single transaction.
+ * <p/>
+ * The executors are run in the given order with the same <code>EntityManager</code>, if any of them fails the whole
+ * transaction is rolled back. The pending inserts and updates are flushed together at commit time, which allows the
+ * JPA provider to batch the statements.
+ * <p/>
+ * Once the transaction has been committed the job bean caches are updated by the {@link JPACacheableExecutor}
+ * executors of the batch.
+ */
+public class BatchJPAExecutor implements JPACacheableExecutor<Void> {
+
+    private List<JPAExecutor<?>> executors;
+    private List<Object> results;
+
+    public BatchJPAExecutor(List<JPAExecutor<?>> executors) {
+        ParamChecker.notNull(executors, "executors");
+        this.executors = new ArrayList<JPAExecutor<?>>(executors);
+    }
+
+    /**
+     * Return the number of executors in the batch.
+     *
+     * @return the number of executors in the batch.
+     */
+    public int size() {
+        return executors.size();
+    }
+
+    /* (non-Javadoc)
+     * @see org.apache.oozie.executor.jpa.JPAExecutor#getName()
+     */
+    @Override
+    public String getName() {
+        return "BatchJPAExecutor";
+    }
+
+    /* (non-Javadoc)
+     * @see org.apache.oozie.executor.jpa.JPAExecutor#execute(javax.persistence.EntityManager)
+     */
+    @Override
+    public Void execute(EntityManager em) throws JPAExecutorException {
+        results = new ArrayList<Object>(executors.size());
+        for (JPAExecutor<?> executor : executors) {
+            results.add(executor.execute(em));
+        }
+        return null;
+    }
+
+    /* (non-Javadoc)
+     * @see org.apache.oozie.executor.jpa.JPACacheableExecutor#getFromCache(org.apache.oozie.service.JPAService)
+     */
+    @Override
+    public Void getFromCache(JPAService jpaService) {
+        return null;
+    }
+
+    /* (non-Javadoc)
+     * @see org.apache.oozie.executor.jpa.JPACacheableExecutor#updateCache(org.apache.oozie.service.JPAService, java.lang.Object)
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void updateCache(JPAService jpaService, Void result) {
+        for (int i = 0; i < executors.size(); i++) {
+            if (executors.get(i) instanceof JPACacheableExecutor) {
+                ((JPACacheableExecutor<Object>) executors.get(i)).updateCache(jpaService, results.get(i));
+            }
+        }
+    }
+
+}
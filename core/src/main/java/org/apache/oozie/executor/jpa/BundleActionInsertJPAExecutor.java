@@ -17,6 +17,7 @@ package org.apache.oozie.executor.jpa;
 import javax.persistence.EntityManager;
 
 import org.apache.oozie.BundleActionBean;
+import org.apache.oozie.service.StatusTransitService;
 import org.apache.oozie.util.ParamChecker;
 
 /**
@@ -50,6 +51,7 @@ public class BundleActionInsertJPAExecutor implements JPAExecutor<Void> {
     @Override
     public Void execute(EntityManager em) throws JPAExecutorException {
         em.persist(bundleAction);
+        StatusTransitService.bundleActionChanged(em, bundleAction.getBundleId());
         return null;
     }
 }
\ No newline at end of file
@@ -16,6 +16,7 @@ package org.apache.oozie.executor.jpa;
 
 import javax.persistence.EntityManager;
 import org.apache.oozie.BundleActionBean;
+import org.apache.oozie.service.StatusTransitService;
 import org.apache.oozie.util.ParamChecker;
 
 /**
@@ -49,6 +50,7 @@ public class BundleActionUpdateJPAExecutor implements JPAExecutor<Void> {
     @Override
     public Void execute(EntityManager em) throws JPAExecutorException {
         em.merge(bundleAction);
+        StatusTransitService.bundleActionChanged(em, bundleAction.getBundleId());
         return null;
     }
 
@@ -0,0 +1,58 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.executor.jpa;
+
+import java.util.List;
+
+import org.apache.oozie.BundleActionBean;
+
+/**
+ * Load the list of BundleAction for a list of IDs and return it.
+ */
+public class BundleActionsGetByIdsJPAExecutor extends GetByIdsJPAExecutor<BundleActionBean> {
+
+    /**
+     * The constructor for class {@link BundleActionsGetByIdsJPAExecutor}
+     *
+     * @param bundleActionIds bundle action IDs
+     */
+    public BundleActionsGetByIdsJPAExecutor(List<String> bundleActionIds) {
+        super(bundleActionIds);
+    }
+
+    /* (non-Javadoc)
+     * @see org.apache.oozie.executor.jpa.JPAExecutor#getName()
+     */
+    @Override
+    public String getName() {
+        return "BundleActionsGetByIdsJPAExecutor";
+    }
+
+    @Override
+    protected String getEntityName() {
+        return "BundleActionBean";
+    }
+
+    @Override
+    protected String getIdField() {
+        return "bundleActionId";
+    }
+
+    @Override
+    protected String getId(BundleActionBean bean) {
+        return bean.getBundleActionId();
+    }
+
+}
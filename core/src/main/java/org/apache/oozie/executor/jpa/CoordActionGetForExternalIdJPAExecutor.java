@@ -21,6 +21,7 @@ import javax.persistence.Query;
 
 import org.apache.oozie.CoordinatorActionBean;
 import org.apache.oozie.ErrorCode;
+import org.apache.oozie.service.JPAService;
 import org.apache.oozie.util.ParamChecker;
 
 /**
@@ -49,6 +50,7 @@ public class CoordActionGetForExternalIdJPAExecutor implements JPAExecutor<Coord
     @Override
     @SuppressWarnings("unchecked")
     public CoordinatorActionBean execute(EntityManager em) throws JPAExecutorException {
+        JPAService.fetchAll(em);
         try {
             CoordinatorActionBean caBean = null;
             Query q = em.createNamedQuery("GET_COORD_ACTION_FOR_EXTERNALID");
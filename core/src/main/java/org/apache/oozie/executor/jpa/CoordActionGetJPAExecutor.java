@@ -21,6 +21,7 @@ import javax.persistence.Query;
 
 import org.apache.oozie.CoordinatorActionBean;
 import org.apache.oozie.ErrorCode;
+import org.apache.oozie.service.JPAService;
 import org.apache.oozie.util.ParamChecker;
 
 /**
@@ -49,6 +50,7 @@ public class CoordActionGetJPAExecutor implements JPAExecutor<CoordinatorActionB
     @Override
     @SuppressWarnings("unchecked")
     public CoordinatorActionBean execute(EntityManager em) throws JPAExecutorException {
+        JPAService.fetchAll(em);
         List<CoordinatorActionBean> caBeans;
         try {
             Query q = em.createNamedQuery("GET_COORD_ACTION");
@@ -69,7 +71,7 @@ public class CoordActionGetJPAExecutor implements JPAExecutor<CoordinatorActionB
         }
     }
 
-    private CoordinatorActionBean getBeanForRunningCoordAction(CoordinatorActionBean a) {
+    static CoordinatorActionBean getBeanForRunningCoordAction(CoordinatorActionBean a) {
         if (a != null) {
             CoordinatorActionBean action = new CoordinatorActionBean();
             action.setId(a.getId());
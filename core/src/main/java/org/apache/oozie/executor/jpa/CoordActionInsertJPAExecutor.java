@@ -17,6 +17,7 @@ package org.apache.oozie.executor.jpa;
 import javax.persistence.EntityManager;
 
 import org.apache.oozie.CoordinatorActionBean;
+import org.apache.oozie.service.StatusTransitService;
 import org.apache.oozie.util.ParamChecker;
 
 /**
@@ -45,6 +46,7 @@ public class CoordActionInsertJPAExecutor implements JPAExecutor<String> {
     @Override
     public String execute(EntityManager em) throws JPAExecutorException {
         em.persist(coordAction);
+        StatusTransitService.coordActionChanged(em, coordAction.getJobId());
         return null;
     }
 }
\ No newline at end of file
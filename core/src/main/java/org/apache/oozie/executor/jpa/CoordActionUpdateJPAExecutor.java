@@ -6,6 +6,7 @@ import javax.persistence.EntityManager;
 
 import org.apache.oozie.CoordinatorActionBean;
 import org.apache.oozie.ErrorCode;
+import org.apache.oozie.service.StatusTransitService;
 import org.apache.oozie.util.ParamChecker;
 
 /**
@@ -33,6 +34,7 @@ public class CoordActionUpdateJPAExecutor implements JPAExecutor<Void> {
         try {
             coordAction.setLastModifiedTime(new Date());
             em.merge(coordAction);
+            StatusTransitService.coordActionChanged(em, coordAction.getJobId());
             return null;
         }
         catch (Exception e) {
@@ -0,0 +1,93 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.executor.jpa;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+import org.apache.oozie.ErrorCode;
+import org.apache.oozie.util.ParamChecker;
+
+/**
+ * Load the number of active (WAITING) actions of a list of coordinator jobs with grouped count queries.
+ * <p/>
+ * The counts are loaded with <code>IN</code> queries of up to {@link GetByIdsJPAExecutor#MAX_IDS_PER_QUERY} job IDs,
+ * jobs without active actions have a count of zero.
+ */
+public class CoordActionsActiveCountsJPAExecutor implements JPAExecutor<Map<String, Integer>> {
+
+    private List<String> coordJobIds = null;
+
+    /**
+     * The constructor for class {@link CoordActionsActiveCountsJPAExecutor}
+     *
+     * @param coordJobIds coordinator job IDs
+     */
+    public CoordActionsActiveCountsJPAExecutor(List<String> coordJobIds) {
+        this.coordJobIds = new ArrayList<String>(new LinkedHashSet<String>(ParamChecker.notNullElements(coordJobIds,
+                                                                                                         "coordJobIds")));
+    }
+
+    /* (non-Javadoc)
+     * @see org.apache.oozie.executor.jpa.JPAExecutor#getName()
+     */
+    @Override
+    public String getName() {
+        return "CoordActionsActiveCountsJPAExecutor";
+    }
+
+    /* (non-Javadoc)
+     * @see org.apache.oozie.executor.jpa.JPAExecutor#execute(javax.persistence.EntityManager)
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<String, Integer> execute(EntityManager em) throws JPAExecutorException {
+        Map<String, Integer> counts = new HashMap<String, Integer>();
+        for (String coordJobId : coordJobIds) {
+            counts.put(coordJobId, 0);
+        }
+        try {
+            int maxIds = GetByIdsJPAExecutor.MAX_IDS_PER_QUERY;
+            for (int start = 0; start < coordJobIds.size(); start += maxIds) {
+                List<String> chunk = coordJobIds.subList(start, Math.min(start + maxIds, coordJobIds.size()));
+                StringBuilder sb = new StringBuilder();
+                sb.append("select a.jobId, count(a) from CoordinatorActionBean a where a.status = 'WAITING'")
+                        .append(" AND a.jobId IN (");
+                for (int i = 0; i < chunk.size(); i++) {
+                    sb.append((i == 0) ? ":id" : ", :id").append(i);
+                }
+                sb.append(") group by a.jobId");
+                Query q = em.createQuery(sb.toString());
+                for (int i = 0; i < chunk.size(); i++) {
+                    q.setParameter("id" + i, chunk.get(i));
+                }
+                for (Object[] row : (List<Object[]>) q.getResultList()) {
+                    counts.put((String) row[0], ((Number) row[1]).intValue());
+                }
+            }
+        }
+        catch (Exception e) {
+            throw new JPAExecutorException(ErrorCode.E0603, e);
+        }
+        return counts;
+    }
+
+}
@@ -23,6 +23,7 @@ import javax.persistence.Query;
 
 import org.apache.oozie.CoordinatorActionBean;
 import org.apache.oozie.ErrorCode;
+import org.apache.oozie.service.JPAService;
 
 /**
  * Load the list of CoordinatorAction ordered by lastModifiedTime
@@ -48,6 +49,7 @@ public class CoordActionsGetByLastModifiedTimeJPAExecutor implements JPAExecutor
     @Override
     @SuppressWarnings("unchecked")
     public List<CoordinatorActionBean> execute(EntityManager em) throws JPAExecutorException {
+        JPAService.fetchAll(em);
         List<CoordinatorActionBean> baBeans;
         try {
             Query q = em.createNamedQuery("GET_COORD_ACTIONS_BY_LAST_MODIFIED_TIME");
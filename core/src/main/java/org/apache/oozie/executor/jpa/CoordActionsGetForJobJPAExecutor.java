@@ -21,6 +21,7 @@ import javax.persistence.Query;
 
 import org.apache.oozie.CoordinatorActionBean;
 import org.apache.oozie.ErrorCode;
+import org.apache.oozie.service.JPAService;
 import org.apache.oozie.util.ParamChecker;
 
 /**
@@ -58,6 +59,7 @@ public class CoordActionsGetForJobJPAExecutor implements JPAExecutor<List<Coordi
     @Override
     @SuppressWarnings("unchecked")
     public List<CoordinatorActionBean> execute(EntityManager em) throws JPAExecutorException {
+        JPAService.fetchAll(em);
         List<CoordinatorActionBean> caBeans;
         try {
             Query q;
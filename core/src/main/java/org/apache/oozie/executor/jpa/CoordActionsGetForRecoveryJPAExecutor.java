@@ -23,8 +23,13 @@ import javax.persistence.Query;
 
 import org.apache.oozie.CoordinatorActionBean;
 import org.apache.oozie.ErrorCode;
+import org.apache.oozie.service.JPAService;
 import org.apache.oozie.util.ParamChecker;
 
+/**
+ * Load the coordinator actions to recover, the pending SUSPENDED, KILLED or RUNNING actions and the WAITING or
+ * SUBMITTED actions that were not modified for more than a given time.
+ */
 public class CoordActionsGetForRecoveryJPAExecutor implements JPAExecutor<List<CoordinatorActionBean>> {
 
     private long checkAgeSecs = 0;
@@ -47,6 +52,7 @@ public class CoordActionsGetForRecoveryJPAExecutor implements JPAExecutor<List<C
      */
     @Override
     public List<CoordinatorActionBean> execute(EntityManager em) throws JPAExecutorException {
+        JPAService.fetchAll(em);
         List<CoordinatorActionBean> allActions = new ArrayList<CoordinatorActionBean>();
         List<CoordinatorActionBean> actions;
         try {
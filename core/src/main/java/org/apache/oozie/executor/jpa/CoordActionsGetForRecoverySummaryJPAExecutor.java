@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.executor.jpa;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+import org.apache.oozie.CoordinatorActionBean;
+import org.apache.oozie.ErrorCode;
+import org.apache.oozie.util.ParamChecker;
+
+/**
+ * Load a page of the summary of the coordinator actions to recover.
+ * <p/>
+ * The actions to recover are the pending SUSPENDED, KILLED and RUNNING actions and the WAITING and SUBMITTED actions
+ * that have not been modified for a given time. The pages are ordered by action ID, each page starting after the last
+ * action ID of the previous page. Only the id, job id, type, status, external id and pending columns are read, the
+ * returned beans have no other property set and must not be used to update the actions.
+ */
+public class CoordActionsGetForRecoverySummaryJPAExecutor implements JPAExecutor<List<CoordinatorActionBean>> {
+
+    private final long checkAgeSecs;
+    private final String lastId;
+    private final int limit;
+
+    /**
+     * Create an executor that loads a page of actions to recover.
+     *
+     * @param checkAgeSecs minimum age, in seconds, since the last modification of the actions.
+     * @param lastId ID of the last action of the previous page, <code>null</code> for the first page.
+     * @param limit maximum number of actions of the page.
+     */
+    public CoordActionsGetForRecoverySummaryJPAExecutor(long checkAgeSecs, String lastId, int limit) {
+        this.checkAgeSecs = checkAgeSecs;
+        this.lastId = (lastId != null) ? lastId : "";
+        this.limit = ParamChecker.checkGTZero(limit, "limit");
+    }
+
+    /* (non-Javadoc)
+     * @see org.apache.oozie.executor.jpa.JPAExecutor#getName()
+     */
+    @Override
+    public String getName() {
+        return "CoordActionsGetForRecoverySummaryJPAExecutor";
+    }
+
+    /* (non-Javadoc)
+     * @see org.apache.oozie.executor.jpa.JPAExecutor#execute(javax.persistence.EntityManager)
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<CoordinatorActionBean> execute(EntityManager em) throws JPAExecutorException {
+        List<CoordinatorActionBean> actionList = new ArrayList<CoordinatorActionBean>();
+        try {
+            Timestamp ts = new Timestamp(System.currentTimeMillis() - checkAgeSecs * 1000);
+            Query q = em.createNamedQuery("GET_COORD_ACTIONS_SUMMARY_FOR_RECOVERY_OLDER_THAN_AFTER_ID");
+            q.setParameter("lastModifiedTime", ts);
+            q.setParameter("id", lastId);
+            q.setMaxResults(limit);
+            List<Object[]> rows = q.getResultList();
+            for (Object[] arr : rows) {
+                actionList.add(CoordActionsRunningGetSummaryJPAExecutor.getBeanForSummaryFromArray(arr));
+            }
+        }
+        catch (Exception e) {
+            throw new JPAExecutorException(ErrorCode.E0603, e);
+        }
+        return actionList;
+    }
+}
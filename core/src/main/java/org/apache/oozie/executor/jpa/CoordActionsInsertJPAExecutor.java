@@ -0,0 +1,62 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.executor.jpa;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+
+import org.apache.oozie.CoordinatorActionBean;
+import org.apache.oozie.util.ParamChecker;
+
+/**
+ * Insert a list of CoordinatorActionBean beans in a single transaction.
+ * <p/>
+ * Each bean is inserted the same way {@link CoordActionInsertJPAExecutor} does.
+ */
+public class CoordActionsInsertJPAExecutor implements JPAExecutor<Void> {
+
+    private List<CoordinatorActionBean> coordActions = null;
+
+    /**
+     * The constructor for class {@link CoordActionsInsertJPAExecutor}
+     *
+     * @param coordActions coordinator action beans
+     */
+    public CoordActionsInsertJPAExecutor(List<CoordinatorActionBean> coordActions) {
+        this.coordActions = new ArrayList<CoordinatorActionBean>(ParamChecker.notNullElements(coordActions, "coordActions"));
+    }
+
+    /* (non-Javadoc)
+     * @see org.apache.oozie.executor.jpa.JPAExecutor#getName()
+     */
+    @Override
+    public String getName() {
+        return "CoordActionsInsertJPAExecutor";
+    }
+
+    /* (non-Javadoc)
+     * @see org.apache.oozie.executor.jpa.JPAExecutor#execute(javax.persistence.EntityManager)
+     */
+    @Override
+    public Void execute(EntityManager em) throws JPAExecutorException {
+        for (CoordinatorActionBean bean : coordActions) {
+            new CoordActionInsertJPAExecutor(bean).execute(em);
+        }
+        return null;
+    }
+
+}
@@ -23,6 +23,7 @@ import javax.persistence.Query;
 
 import org.apache.oozie.CoordinatorActionBean;
 import org.apache.oozie.ErrorCode;
+import org.apache.oozie.service.JPAService;
 
 /**
  * Load the list of running CoordinatorAction and return the list.
@@ -49,6 +50,7 @@ public class CoordActionsRunningGetJPAExecutor implements JPAExecutor<List<Coord
     @Override
     @SuppressWarnings("unchecked")
     public List<CoordinatorActionBean> execute(EntityManager em) throws JPAExecutorException {
+        JPAService.fetchAll(em);
         List<CoordinatorActionBean> actions;
         List<CoordinatorActionBean> actionList = new ArrayList<CoordinatorActionBean>();
         try {
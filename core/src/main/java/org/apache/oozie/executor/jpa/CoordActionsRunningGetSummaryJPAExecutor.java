@@ -0,0 +1,92 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.executor.jpa;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+import org.apache.oozie.CoordinatorActionBean;
+import org.apache.oozie.ErrorCode;
+import org.apache.oozie.client.CoordinatorAction;
+
+/**
+ * JPA Executor to get a summary of the running coordinator actions to check.
+ * <p/>
+ * Only the id, job id, type, status, external id and pending columns are read, the returned beans have no other
+ * property set and must not be used to update the actions.
+ */
+public class CoordActionsRunningGetSummaryJPAExecutor implements JPAExecutor<List<CoordinatorActionBean>> {
+
+    private final long checkAgeSecs;
+
+    public CoordActionsRunningGetSummaryJPAExecutor(long checkAgeSecs) {
+        this.checkAgeSecs = checkAgeSecs;
+    }
+
+    /* (non-Javadoc)
+     * @see org.apache.oozie.executor.jpa.JPAExecutor#getName()
+     */
+    @Override
+    public String getName() {
+        return "CoordActionsRunningGetSummaryJPAExecutor";
+    }
+
+    /* (non-Javadoc)
+     * @see org.apache.oozie.executor.jpa.JPAExecutor#execute(javax.persistence.EntityManager)
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<CoordinatorActionBean> execute(EntityManager em) throws JPAExecutorException {
+        List<CoordinatorActionBean> actionList = new ArrayList<CoordinatorActionBean>();
+        try {
+            Timestamp ts = new Timestamp(System.currentTimeMillis() - checkAgeSecs * 1000);
+            Query q = em.createNamedQuery("GET_RUNNING_ACTIONS_SUMMARY_OLDER_THAN");
+            q.setParameter("lastModifiedTime", ts);
+            List<Object[]> rows = q.getResultList();
+            for (Object[] arr : rows) {
+                actionList.add(getBeanForSummaryFromArray(arr));
+            }
+        }
+        catch (Exception e) {
+            throw new JPAExecutorException(ErrorCode.E0603, e);
+        }
+        return actionList;
+    }
+
+    /**
+     * Create a coordinator action bean from a summary row, the columns being id, job id, type, status, external id and,
+     * if selected, pending.
+     *
+     * @param arr summary row.
+     * @return coordinator action bean with the summary properties set.
+     */
+    static CoordinatorActionBean getBeanForSummaryFromArray(Object[] arr) {
+        CoordinatorActionBean action = new CoordinatorActionBean();
+        action.setId((String) arr[0]);
+        action.setJobId((String) arr[1]);
+        action.setType((String) arr[2]);
+        action.setStatus(CoordinatorAction.Status.valueOf((String) arr[3]));
+        action.setExternalId((String) arr[4]);
+        if (arr.length > 5) {
+            action.setPending((Integer) arr[5]);
+        }
+        return action;
+    }
+
+}
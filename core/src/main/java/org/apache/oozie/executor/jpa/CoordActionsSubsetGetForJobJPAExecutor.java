@@ -22,6 +22,7 @@ import javax.persistence.Query;
 
 import org.apache.oozie.CoordinatorActionBean;
 import org.apache.oozie.ErrorCode;
+import org.apache.oozie.service.JPAService;
 import org.apache.oozie.util.ParamChecker;
 
 /**
@@ -58,6 +59,7 @@ public class CoordActionsSubsetGetForJobJPAExecutor implements JPAExecutor<List<
     @Override
     @SuppressWarnings("unchecked")
     public List<CoordinatorActionBean> execute(EntityManager em) throws JPAExecutorException {
+        JPAService.fetchAll(em);
         List<CoordinatorActionBean> actions;
         List<CoordinatorActionBean> actionList = new ArrayList<CoordinatorActionBean>();
         try {
@@ -17,12 +17,13 @@ package org.apache.oozie.executor.jpa;
 import javax.persistence.EntityManager;
 
 import org.apache.oozie.CoordinatorJobBean;
+import org.apache.oozie.service.JPAService;
 import org.apache.oozie.util.ParamChecker;
 
 /**
  * Delete coord job
  */
-public class CoordJobDeleteJPAExecutor implements JPAExecutor<Void> {
+public class CoordJobDeleteJPAExecutor implements JPACacheableExecutor<Void> {
 
     private String coordJobId = null;
 
@@ -50,4 +51,21 @@ public class CoordJobDeleteJPAExecutor implements JPAExecutor<Void> {
     public String getName() {
         return "CoordJobDeleteJPAExecutor";
     }
-}
\ No newline at end of file
+
+    /* (non-Javadoc)
+     * @see org.apache.oozie.executor.jpa.JPACacheableExecutor#getFromCache(org.apache.oozie.service.JPAService)
+     */
+    @Override
+    public Void getFromCache(JPAService jpaService) {
+        return null;
+    }
+
+    /* (non-Javadoc)
+     * @see org.apache.oozie.executor.jpa.JPACacheableExecutor#updateCache(org.apache.oozie.service.JPAService, java.lang.Object)
+     */
+    @Override
+    public void updateCache(JPAService jpaService, Void result) {
+        jpaService.getCoordJobCache().invalidate(coordJobId);
+    }
+
+}
@@ -21,6 +21,7 @@ import javax.persistence.Query;
 
 import org.apache.oozie.CoordinatorActionBean;
 import org.apache.oozie.ErrorCode;
+import org.apache.oozie.service.JPAService;
 import org.apache.oozie.util.ParamChecker;
 
 /**
@@ -51,6 +52,7 @@ public class CoordJobGetActionByActionNumberJPAExecutor implements JPAExecutor<C
     @Override
     @SuppressWarnings("unchecked")
     public CoordinatorActionBean execute(EntityManager em) throws JPAExecutorException {
+        JPAService.fetchAll(em);
         try {
             CoordinatorActionBean caBean = null;
             Query q = em.createNamedQuery("GET_COORD_ACTION_FOR_COORD_JOB_BY_ACTION_NUMBER");
@@ -23,6 +23,7 @@ import javax.persistence.Query;
 
 import org.apache.oozie.CoordinatorActionBean;
 import org.apache.oozie.ErrorCode;
+import org.apache.oozie.service.JPAService;
 import org.apache.oozie.util.DateUtils;
 import org.apache.oozie.util.ParamChecker;
 
@@ -48,6 +49,7 @@ public class CoordJobGetActionForNominalTimeJPAExecutor implements JPAExecutor<C
     @Override
     @SuppressWarnings("unchecked")
     public CoordinatorActionBean execute(EntityManager em) throws JPAExecutorException {
+        JPAService.fetchAll(em);
         List<CoordinatorActionBean> actions;
         Query q = em.createNamedQuery("GET_ACTION_FOR_NOMINALTIME");
         q.setParameter("jobId", jobId);
@@ -0,0 +1,64 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.executor.jpa;
+
+import java.util.HashMap;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+import org.apache.oozie.ErrorCode;
+import org.apache.oozie.client.CoordinatorAction;
+import org.apache.oozie.util.ParamChecker;
+
+/**
+ * Load the number of actions per status of a coordinator job.
+ * <p/>
+ * The counts are computed by the database, no action is loaded.
+ */
+public class CoordJobGetActionStatusCountsJPAExecutor implements JPAExecutor<HashMap<CoordinatorAction.Status, Integer>> {
+
+    private String coordJobId = null;
+
+    public CoordJobGetActionStatusCountsJPAExecutor(String coordJobId) {
+        ParamChecker.notNull(coordJobId, "coordJobId");
+        this.coordJobId = coordJobId;
+    }
+
+    @Override
+    public String getName() {
+        return "CoordJobGetActionStatusCountsJPAExecutor";
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public HashMap<CoordinatorAction.Status, Integer> execute(EntityManager em) throws JPAExecutorException {
+        try {
+            Query q = em.createNamedQuery("GET_COORD_ACTIONS_STATUS_COUNTS_BY_JOBID");
+            q.setParameter("jobId", coordJobId);
+            List<Object[]> rows = q.getResultList();
+            HashMap<CoordinatorAction.Status, Integer> counts = new HashMap<CoordinatorAction.Status, Integer>();
+            for (Object[] arr : rows) {
+                counts.put(CoordinatorAction.Status.valueOf((String) arr[0]), ((Number) arr[1]).intValue());
+            }
+            return counts;
+        }
+        catch (Exception e) {
+            throw new JPAExecutorException(ErrorCode.E0603, e);
+        }
+    }
+
+}
@@ -24,6 +24,7 @@ import javax.persistence.Query;
 
 import org.apache.oozie.CoordinatorActionBean;
 import org.apache.oozie.ErrorCode;
+import org.apache.oozie.service.JPAService;
 import org.apache.oozie.util.ParamChecker;
 
 /**
@@ -49,6 +50,7 @@ public class CoordJobGetActionsForDatesJPAExecutor implements JPAExecutor<List<C
     @Override
     @SuppressWarnings("unchecked")
     public List<CoordinatorActionBean> execute(EntityManager em) throws JPAExecutorException {
+        JPAService.fetchAll(em);
         List<CoordinatorActionBean> actions;
         try {
             Query q = em.createNamedQuery("GET_ACTIONS_FOR_DATES");
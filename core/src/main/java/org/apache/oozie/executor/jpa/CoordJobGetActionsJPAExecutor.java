@@ -22,6 +22,7 @@ import javax.persistence.Query;
 
 import org.apache.oozie.CoordinatorActionBean;
 import org.apache.oozie.ErrorCode;
+import org.apache.oozie.service.JPAService;
 import org.apache.oozie.util.ParamChecker;
 
 /**
@@ -44,6 +45,7 @@ public class CoordJobGetActionsJPAExecutor implements JPAExecutor<List<Coordinat
     @Override
     @SuppressWarnings("unchecked")
     public List<CoordinatorActionBean> execute(EntityManager em) throws JPAExecutorException {
+        JPAService.fetchAll(em);
         List<CoordinatorActionBean> actionBeans = new ArrayList<CoordinatorActionBean>();
         try {
             Query q = em.createNamedQuery("GET_ACTIONS_FOR_COORD_JOB");
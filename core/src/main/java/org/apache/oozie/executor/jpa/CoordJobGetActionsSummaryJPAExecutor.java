@@ -0,0 +1,65 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.executor.jpa;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+import org.apache.oozie.CoordinatorActionBean;
+import org.apache.oozie.ErrorCode;
+import org.apache.oozie.util.ParamChecker;
+
+/**
+ * Load the summary of the coordinator actions of a coordinator job.
+ * <p/>
+ * Only the id, job id, type, status and external id columns are read, the returned beans have no other property set
+ * and must not be used to update the actions. As with {@link CoordJobGetActionsJPAExecutor}, the pending flag of the
+ * returned beans is not set.
+ */
+public class CoordJobGetActionsSummaryJPAExecutor implements JPAExecutor<List<CoordinatorActionBean>> {
+
+    private String coordJobId = null;
+
+    public CoordJobGetActionsSummaryJPAExecutor(String coordJobId) {
+        ParamChecker.notNull(coordJobId, "coordJobId");
+        this.coordJobId = coordJobId;
+    }
+
+    @Override
+    public String getName() {
+        return "CoordJobGetActionsSummaryJPAExecutor";
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<CoordinatorActionBean> execute(EntityManager em) throws JPAExecutorException {
+        List<CoordinatorActionBean> actionBeans = new ArrayList<CoordinatorActionBean>();
+        try {
+            Query q = em.createNamedQuery("GET_ACTIONS_SUMMARY_FOR_COORD_JOB");
+            q.setParameter("jobId", coordJobId);
+            List<Object[]> rows = q.getResultList();
+            for (Object[] arr : rows) {
+                actionBeans.add(CoordActionsRunningGetSummaryJPAExecutor.getBeanForSummaryFromArray(arr));
+            }
+            return actionBeans;
+        }
+        catch (Exception e) {
+            throw new JPAExecutorException(ErrorCode.E0603, e);
+        }
+    }
+}
@@ -21,14 +21,18 @@ import javax.persistence.Query;
 
 import org.apache.oozie.CoordinatorJobBean;
 import org.apache.oozie.ErrorCode;
+import org.apache.oozie.service.JPAService;
 import org.apache.oozie.util.ParamChecker;
 
 /**
  * Load the CoordinatorJob into a Bean and return it.
+ * <p/>
+ * If the job bean caches of the {@link JPAService} are enabled the bean is returned from the cache when available.
  */
-public class CoordJobGetJPAExecutor implements JPAExecutor<CoordinatorJobBean> {
+public class CoordJobGetJPAExecutor implements JPACacheableExecutor<CoordinatorJobBean> {
 
     private String coordJobId = null;
+    private long cacheStamp;
 
     public CoordJobGetJPAExecutor(String coordJobId) {
         ParamChecker.notNull(coordJobId, "coordJobId");
@@ -68,4 +72,69 @@ public class CoordJobGetJPAExecutor implements JPAExecutor<CoordinatorJobBean> {
             throw new JPAExecutorException(ErrorCode.E0604, coordJobId);
         }
     }
+
+    /* (non-Javadoc)
+     * @see org.apache.oozie.executor.jpa.JPACacheableExecutor#getFromCache(org.apache.oozie.service.JPAService)
+     */
+    @Override
+    public CoordinatorJobBean getFromCache(JPAService jpaService) {
+        JPABeanCache<CoordinatorJobBean> cache = jpaService.getCoordJobCache();
+        cacheStamp = cache.getStamp();
+        return cache.get(coordJobId);
+    }
+
+    /* (non-Javadoc)
+     * @see org.apache.oozie.executor.jpa.JPACacheableExecutor#updateCache(org.apache.oozie.service.JPAService, java.lang.Object)
+     */
+    @Override
+    public void updateCache(JPAService jpaService, CoordinatorJobBean result) {
+        jpaService.getCoordJobCache().putIfAbsent(result, cacheStamp);
+    }
+
+    /**
+     * Return a copy of a coordinator job bean with all its persistent fields.
+     *
+     * @param bean coordinator job bean.
+     * @return the copy of the coordinator job bean.
+     */
+    static CoordinatorJobBean copy(CoordinatorJobBean bean) {
+        CoordinatorJobBean copy = new CoordinatorJobBean();
+        copy.setId(bean.getId());
+        copy.setAppName(bean.getAppName());
+        copy.setAppPath(bean.getAppPath());
+        copy.setAppNamespace(bean.getAppNamespace());
+        copy.setExternalId(bean.getExternalId());
+        copy.setBundleId(bean.getBundleId());
+        copy.setConf(bean.getConf());
+        copy.setUser(bean.getUser());
+        copy.setGroup(bean.getGroup());
+        copy.setAuthToken(bean.getAuthToken());
+        copy.setStatus(bean.getStatus());
+        copy.setFrequency(bean.getFrequency());
+        copy.setTimeUnit(bean.getTimeUnit());
+        copy.setTimeZone(bean.getTimeZone());
+        copy.setConcurrency(bean.getConcurrency());
+        copy.setMatThrottling(bean.getMatThrottling());
+        copy.setExecution(bean.getExecutionOrder());
+        copy.setTimeout(bean.getTimeout());
+        copy.setLastActionNumber(bean.getLastActionNumber());
+        copy.setLastActionTime(bean.getLastActionTime());
+        copy.setNextMaterializedTime(bean.getNextMaterializedTime());
+        copy.setCreatedTime(bean.getCreatedTime());
+        copy.setStartTime(bean.getStartTime());
+        copy.setEndTime(bean.getEndTime());
+        copy.setPauseTime(bean.getPauseTime());
+        copy.setSuspendedTime(bean.getSuspendedTime());
+        copy.setLastModifiedTime(bean.getLastModifiedTime());
+        copy.setJobXml(bean.getJobXml());
+        copy.setOrigJobXml(bean.getOrigJobXml());
+        copy.setSlaXml(bean.getSlaXml());
+        if (bean.isPending()) {
+            copy.setPending();
+        }
+        if (bean.isDoneMaterialization()) {
+            copy.setDoneMaterialization();
+        }
+        return copy;
+    }
 }
\ No newline at end of file
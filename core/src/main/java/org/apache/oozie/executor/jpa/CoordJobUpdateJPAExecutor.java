@@ -3,12 +3,13 @@ package org.apache.oozie.executor.jpa;
 import javax.persistence.EntityManager;
 import org.apache.oozie.CoordinatorJobBean;
 import org.apache.oozie.ErrorCode;
+import org.apache.oozie.service.JPAService;
 import org.apache.oozie.util.ParamChecker;
 
 /**
  * Update the CoordinatorJob into a Bean and persist it.
  */
-public class CoordJobUpdateJPAExecutor implements JPAExecutor<Void> {
+public class CoordJobUpdateJPAExecutor implements JPACacheableExecutor<Void> {
 
     private CoordinatorJobBean coordJob = null;
 
@@ -47,4 +48,20 @@ public class CoordJobUpdateJPAExecutor implements JPAExecutor<Void> {
         return "CoordinatorUpdateJobJPAExecutor";
     }
 
+    /* (non-Javadoc)
+     * @see org.apache.oozie.executor.jpa.JPACacheableExecutor#getFromCache(org.apache.oozie.service.JPAService)
+     */
+    @Override
+    public Void getFromCache(JPAService jpaService) {
+        return null;
+    }
+
+    /* (non-Javadoc)
+     * @see org.apache.oozie.executor.jpa.JPACacheableExecutor#updateCache(org.apache.oozie.service.JPAService, java.lang.Object)
+     */
+    @Override
+    public void updateCache(JPAService jpaService, Void result) {
+        jpaService.getCoordJobCache().put(coordJob);
+    }
+
 }
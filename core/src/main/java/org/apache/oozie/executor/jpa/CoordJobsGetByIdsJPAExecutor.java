@@ -0,0 +1,71 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.executor.jpa;
+
+import java.util.List;
+
+import org.apache.oozie.ErrorCode;
+import org.apache.oozie.CoordinatorJobBean;
+
+/**
+ * Load the list of CoordinatorJob for a list of IDs and return it.
+ */
+public class CoordJobsGetByIdsJPAExecutor extends GetByIdsJPAExecutor<CoordinatorJobBean> {
+
+    /**
+     * The constructor for class {@link CoordJobsGetByIdsJPAExecutor}
+     *
+     * @param ids coordinator job IDs
+     */
+    public CoordJobsGetByIdsJPAExecutor(List<String> ids) {
+        super(ids);
+    }
+
+    /* (non-Javadoc)
+     * @see org.apache.oozie.executor.jpa.JPAExecutor#getName()
+     */
+    @Override
+    public String getName() {
+        return "CoordJobsGetByIdsJPAExecutor";
+    }
+
+    @Override
+    protected String getEntityName() {
+        return "CoordinatorJobBean";
+    }
+
+    @Override
+    protected String getIdField() {
+        return "id";
+    }
+
+    @Override
+    protected String getId(CoordinatorJobBean bean) {
+        return bean.getId();
+    }
+
+    @Override
+    protected ErrorCode getNotFoundErrorCode() {
+        return ErrorCode.E0604;
+    }
+
+    @Override
+    protected CoordinatorJobBean getBean(CoordinatorJobBean bean) {
+        // sync the transient status of the client bean, as the single job get executor does
+        bean.setStatus(bean.getStatus());
+        return bean;
+    }
+
+}
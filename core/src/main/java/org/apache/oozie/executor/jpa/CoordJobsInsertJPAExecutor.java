@@ -0,0 +1,62 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.executor.jpa;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+
+import org.apache.oozie.CoordinatorJobBean;
+import org.apache.oozie.util.ParamChecker;
+
+/**
+ * Insert a list of CoordinatorJobBean beans in a single transaction.
+ * <p/>
+ * Each bean is inserted the same way {@link CoordJobInsertJPAExecutor} does.
+ */
+public class CoordJobsInsertJPAExecutor implements JPAExecutor<Void> {
+
+    private List<CoordinatorJobBean> coordJobs = null;
+
+    /**
+     * The constructor for class {@link CoordJobsInsertJPAExecutor}
+     *
+     * @param coordJobs coordinator job beans
+     */
+    public CoordJobsInsertJPAExecutor(List<CoordinatorJobBean> coordJobs) {
+        this.coordJobs = new ArrayList<CoordinatorJobBean>(ParamChecker.notNullElements(coordJobs, "coordJobs"));
+    }
+
+    /* (non-Javadoc)
+     * @see org.apache.oozie.executor.jpa.JPAExecutor#getName()
+     */
+    @Override
+    public String getName() {
+        return "CoordJobsInsertJPAExecutor";
+    }
+
+    /* (non-Javadoc)
+     * @see org.apache.oozie.executor.jpa.JPAExecutor#execute(javax.persistence.EntityManager)
+     */
+    @Override
+    public Void execute(EntityManager em) throws JPAExecutorException {
+        for (CoordinatorJobBean bean : coordJobs) {
+            new CoordJobInsertJPAExecutor(bean).execute(em);
+        }
+        return null;
+    }
+
+}
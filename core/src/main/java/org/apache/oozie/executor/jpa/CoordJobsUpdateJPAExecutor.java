@@ -0,0 +1,81 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.executor.jpa;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+
+import org.apache.oozie.CoordinatorJobBean;
+import org.apache.oozie.service.JPAService;
+import org.apache.oozie.util.ParamChecker;
+
+/**
+ * Persist a list of CoordinatorJobBean beans in a single transaction.
+ * <p/>
+ * Each bean is updated the same way {@link CoordJobUpdateJPAExecutor} does.
+ */
+public class CoordJobsUpdateJPAExecutor implements JPACacheableExecutor<Void> {
+
+    private List<CoordinatorJobBean> coordJobs = null;
+
+    /**
+     * The constructor for class {@link CoordJobsUpdateJPAExecutor}
+     *
+     * @param coordJobs coordinator job beans
+     */
+    public CoordJobsUpdateJPAExecutor(List<CoordinatorJobBean> coordJobs) {
+        this.coordJobs = new ArrayList<CoordinatorJobBean>(ParamChecker.notNullElements(coordJobs, "coordJobs"));
+    }
+
+    /* (non-Javadoc)
+     * @see org.apache.oozie.executor.jpa.JPAExecutor#getName()
+     */
+    @Override
+    public String getName() {
+        return "CoordJobsUpdateJPAExecutor";
+    }
+
+    /* (non-Javadoc)
+     * @see org.apache.oozie.executor.jpa.JPAExecutor#execute(javax.persistence.EntityManager)
+     */
+    @Override
+    public Void execute(EntityManager em) throws JPAExecutorException {
+        for (CoordinatorJobBean bean : coordJobs) {
+            new CoordJobUpdateJPAExecutor(bean).execute(em);
+        }
+        return null;
+    }
+
+    /* (non-Javadoc)
+     * @see org.apache.oozie.executor.jpa.JPACacheableExecutor#getFromCache(org.apache.oozie.service.JPAService)
+     */
+    @Override
+    public Void getFromCache(JPAService jpaService) {
+        return null;
+    }
+
+    /* (non-Javadoc)
+     * @see org.apache.oozie.executor.jpa.JPACacheableExecutor#updateCache(org.apache.oozie.service.JPAService, java.lang.Object)
+     */
+    @Override
+    public void updateCache(JPAService jpaService, Void result) {
+        for (CoordinatorJobBean bean : coordJobs) {
+            jpaService.getCoordJobCache().put(bean);
+        }
+    }
+
+}
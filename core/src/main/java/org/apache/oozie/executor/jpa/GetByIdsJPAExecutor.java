@@ -0,0 +1,144 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.executor.jpa;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+import org.apache.oozie.ErrorCode;
+import org.apache.oozie.util.ParamChecker;
+
+/**
+ * Base class of the executors that load a list of beans by their IDs.
+ * <p/>
+ * The beans are loaded with <code>IN</code> queries of up to {@link #MAX_IDS_PER_QUERY} IDs and returned in the order
+ * of the given IDs, duplicated IDs are loaded once. If a bean does not exist the executor fails.
+ */
+public abstract class GetByIdsJPAExecutor<T> implements JPAExecutor<List<T>> {
+
+    /**
+     * Maximum number of IDs in the <code>IN</code> list of a single query.
+     */
+    public static final int MAX_IDS_PER_QUERY = 500;
+
+    private List<String> ids;
+
+    public GetByIdsJPAExecutor(List<String> ids) {
+        this.ids = new ArrayList<String>(new LinkedHashSet<String>(ParamChecker.notNullElements(ids, "ids")));
+    }
+
+    /**
+     * Return the name of the bean entity.
+     *
+     * @return the name of the bean entity.
+     */
+    protected abstract String getEntityName();
+
+    /**
+     * Return the name of the ID field of the bean entity.
+     *
+     * @return the name of the ID field of the bean entity.
+     */
+    protected abstract String getIdField();
+
+    /**
+     * Return the ID of a bean.
+     *
+     * @param bean bean.
+     * @return the ID of the bean.
+     */
+    protected abstract String getId(T bean);
+
+    /**
+     * Return the bean to return for a loaded bean.
+     * <p/>
+     * This implementation returns the loaded bean, subclasses should override it to return a copy if the single bean
+     * get executor of the entity does so.
+     *
+     * @param bean loaded bean.
+     * @return the bean to return.
+     */
+    protected T getBean(T bean) {
+        return bean;
+    }
+
+    /**
+     * Prepare the entity manager before the beans are loaded.
+     * <p/>
+     * This implementation does nothing, subclasses loading beans with lazy columns should override it to fetch them
+     * with the beans, as the single bean get executor of the entity does.
+     *
+     * @param em entity manager.
+     */
+    protected void prepare(EntityManager em) {
+    }
+
+    /**
+     * Return the error code used when a bean does not exist.
+     *
+     * @return the error code used when a bean does not exist.
+     */
+    protected ErrorCode getNotFoundErrorCode() {
+        return ErrorCode.E0605;
+    }
+
+    /* (non-Javadoc)
+     * @see org.apache.oozie.executor.jpa.JPAExecutor#execute(javax.persistence.EntityManager)
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<T> execute(EntityManager em) throws JPAExecutorException {
+        prepare(em);
+        Map<String, T> beans = new HashMap<String, T>();
+        try {
+            for (int start = 0; start < ids.size(); start += MAX_IDS_PER_QUERY) {
+                List<String> chunk = ids.subList(start, Math.min(start + MAX_IDS_PER_QUERY, ids.size()));
+                StringBuilder sb = new StringBuilder();
+                sb.append("select OBJECT(w) from ").append(getEntityName()).append(" w where w.").append(getIdField())
+                        .append(" IN (");
+                for (int i = 0; i < chunk.size(); i++) {
+                    sb.append((i == 0) ? ":id" : ", :id").append(i);
+                }
+                sb.append(")");
+                Query q = em.createQuery(sb.toString());
+                for (int i = 0; i < chunk.size(); i++) {
+                    q.setParameter("id" + i, chunk.get(i));
+                }
+                for (T bean : (List<T>) q.getResultList()) {
+                    beans.put(getId(bean), bean);
+                }
+            }
+        }
+        catch (Exception e) {
+            throw new JPAExecutorException(ErrorCode.E0603, e);
+        }
+        List<T> list = new ArrayList<T>(ids.size());
+        for (String id : ids) {
+            T bean = beans.get(id);
+            if (bean == null) {
+                throw new JPAExecutorException(getNotFoundErrorCode(), id);
+            }
+            list.add(getBean(bean));
+        }
+        return list;
+    }
+
+}
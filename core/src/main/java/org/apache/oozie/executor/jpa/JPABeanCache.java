@@ -0,0 +1,311 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.executor.jpa;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.oozie.CoordinatorJobBean;
+import org.apache.oozie.WorkflowJobBean;
+import org.apache.oozie.util.Instrumentation;
+import org.apache.oozie.util.ParamChecker;
+
+/**
+ * Size bounded, least recently used cache of beans keyed by their ID.
+ * <p/>
+ * The cache keeps its own copies of the beans, {@link #get} returns a new copy on every hit and {@link #put} stores a
+ * copy, callers are free to modify the beans they get from or give to the cache.
+ * <p/>
+ * The cache is fed by the {@link JPACacheableExecutor} executors once their transaction has been committed. Updated
+ * beans replace the cached ones with {@link #put}, loaded beans are added with {@link #putIfAbsent} so a reader that
+ * loaded a bean before a concurrent update cannot overwrite the updated bean.
+ * <p/>
+ * Every {@link #put} and {@link #invalidate} is stamped, a reader takes a stamp with {@link #getStamp} before loading a
+ * bean and the loaded bean is not cached if the bean was updated or invalidated after the stamp was taken.
+ */
+public abstract class JPABeanCache<T> {
+
+    /**
+     * Create a cache for {@link WorkflowJobBean} beans.
+     *
+     * @param maxSize maximum number of beans in the cache.
+     * @return the cache.
+     */
+    public static JPABeanCache<WorkflowJobBean> createWorkflowJobCache(int maxSize) {
+        return new JPABeanCache<WorkflowJobBean>("WorkflowJobCache", maxSize) {
+            @Override
+            protected WorkflowJobBean copy(WorkflowJobBean bean) {
+                return WorkflowJobGetJPAExecutor.copy(bean);
+            }
+
+            @Override
+            protected String getId(WorkflowJobBean bean) {
+                return bean.getId();
+            }
+        };
+    }
+
+    /**
+     * Create a cache for {@link CoordinatorJobBean} beans.
+     *
+     * @param maxSize maximum number of beans in the cache.
+     * @return the cache.
+     */
+    public static JPABeanCache<CoordinatorJobBean> createCoordJobCache(int maxSize) {
+        return new JPABeanCache<CoordinatorJobBean>("CoordJobCache", maxSize) {
+            @Override
+            protected CoordinatorJobBean copy(CoordinatorJobBean bean) {
+                return CoordJobGetJPAExecutor.copy(bean);
+            }
+
+            @Override
+            protected String getId(CoordinatorJobBean bean) {
+                return bean.getId();
+            }
+        };
+    }
+
+    private final String name;
+    private final int maxSize;
+    private final Map<String, T> beans;
+    private final Map<String, Long> updateStamps;
+    private long stamp;
+    private long forgottenStamp;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Create a bean cache.
+     *
+     * @param name cache name, used for instrumentation.
+     * @param maxSize maximum number of beans in the cache, the least recently used bean is evicted when it is full.
+     */
+    @SuppressWarnings("serial")
+    protected JPABeanCache(String name, int maxSize) {
+        this.name = ParamChecker.notEmpty(name, "name");
+        this.maxSize = ParamChecker.checkGTZero(maxSize, "maxSize");
+        beans = new LinkedHashMap<String, T>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, T> eldest) {
+                boolean evict = size() > JPABeanCache.this.maxSize;
+                if (evict) {
+                    evictions.incrementAndGet();
+                }
+                return evict;
+            }
+        };
+        updateStamps = new LinkedHashMap<String, Long>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                boolean forget = size() > JPABeanCache.this.maxSize;
+                if (forget) {
+                    forgottenStamp = eldest.getValue();
+                }
+                return forget;
+            }
+        };
+    }
+
+    /**
+     * Return a copy of a bean.
+     *
+     * @param bean bean to copy.
+     * @return the copy of the bean.
+     */
+    protected abstract T copy(T bean);
+
+    /**
+     * Return the ID of a bean.
+     *
+     * @param bean bean.
+     * @return the ID of the bean.
+     */
+    protected abstract String getId(T bean);
+
+    /**
+     * Return the cache name.
+     *
+     * @return the cache name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Return a copy of a cached bean.
+     *
+     * @param id bean ID.
+     * @return a copy of the cached bean, <code>null</code> if the bean is not cached.
+     */
+    public T get(String id) {
+        T bean;
+        synchronized (beans) {
+            bean = beans.get(id);
+        }
+        if (bean == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return copy(bean);
+    }
+
+    /**
+     * Cache a copy of a bean, replacing the cached bean if any.
+     *
+     * @param bean bean to cache.
+     */
+    public void put(T bean) {
+        T copy = copy(bean);
+        String id = getId(copy);
+        synchronized (beans) {
+            beans.put(id, copy);
+            stampUpdate(id);
+        }
+    }
+
+    /**
+     * Cache a copy of a loaded bean if the bean is not cached already and it has not been updated or invalidated since
+     * the stamp was taken.
+     *
+     * @param bean bean to cache.
+     * @param loadStamp stamp taken with {@link #getStamp} before the bean was loaded.
+     */
+    public void putIfAbsent(T bean, long loadStamp) {
+        T copy = copy(bean);
+        String id = getId(copy);
+        synchronized (beans) {
+            if (!beans.containsKey(id) && !isUpdatedSince(id, loadStamp)) {
+                beans.put(id, copy);
+            }
+        }
+    }
+
+    /**
+     * Remove a bean from the cache.
+     *
+     * @param id bean ID.
+     */
+    public void invalidate(String id) {
+        synchronized (beans) {
+            beans.remove(id);
+            stampUpdate(id);
+        }
+    }
+
+    /**
+     * Return the current stamp, to be taken before loading a bean to cache.
+     *
+     * @return the current stamp.
+     */
+    public long getStamp() {
+        synchronized (beans) {
+            return stamp;
+        }
+    }
+
+    // the stamps of the last updated beans are kept, a bean whose stamp was forgotten is considered updated if a
+    // forgotten stamp is newer than the load stamp
+    private void stampUpdate(String id) {
+        updateStamps.remove(id);
+        updateStamps.put(id, ++stamp);
+    }
+
+    private boolean isUpdatedSince(String id, long loadStamp) {
+        Long updateStamp = updateStamps.get(id);
+        return (updateStamp != null) ? updateStamp > loadStamp : forgottenStamp > loadStamp;
+    }
+
+    /**
+     * Remove all the beans from the cache.
+     */
+    public void clear() {
+        synchronized (beans) {
+            beans.clear();
+            updateStamps.clear();
+            forgottenStamp = ++stamp;
+        }
+    }
+
+    /**
+     * Return the number of cached beans.
+     *
+     * @return the number of cached beans.
+     */
+    public int size() {
+        synchronized (beans) {
+            return beans.size();
+        }
+    }
+
+    /**
+     * Return the number of lookups that found the bean in the cache.
+     *
+     * @return the number of cache hits.
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Return the number of lookups that did not find the bean in the cache.
+     *
+     * @return the number of cache misses.
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Return the number of beans evicted because the cache was full.
+     *
+     * @return the number of cache evictions.
+     */
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    /**
+     * Register the cache size, hits, misses and evictions as instrumentation variables.
+     *
+     * @param group instrumentation group.
+     * @param instr instrumentation to register the variables with.
+     */
+    public void instrument(String group, Instrumentation instr) {
+        instr.addVariable(group, name + ".size", new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                return (long) size();
+            }
+        });
+        instr.addVariable(group, name + ".hits", new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                return getHits();
+            }
+        });
+        instr.addVariable(group, name + ".misses", new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                return getMisses();
+            }
+        });
+        instr.addVariable(group, name + ".evictions", new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                return getEvictions();
+            }
+        });
+    }
+
+}
@@ -0,0 +1,42 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.executor.jpa;
+
+import org.apache.oozie.service.JPAService;
+
+/**
+ * A {@link JPAExecutor} that reads from or maintains the bean caches of the {@link JPAService}.
+ * <p/>
+ * The methods are called by the {@link JPAService} only when its bean caches are enabled.
+ */
+public interface JPACacheableExecutor<T> extends JPAExecutor<T> {
+
+    /**
+     * Return the result of the executor from the bean caches, before any transaction is started.
+     *
+     * @param jpaService JPA service owning the bean caches.
+     * @return the cached result, <code>null</code> if not cached, in which case the executor is executed.
+     */
+    public T getFromCache(JPAService jpaService);
+
+    /**
+     * Update the bean caches after the transaction of the executor has been committed.
+     *
+     * @param jpaService JPA service owning the bean caches.
+     * @param result result of the executor.
+     */
+    public void updateCache(JPAService jpaService, T result);
+
+}
@@ -21,6 +21,7 @@ import javax.persistence.Query;
 
 import org.apache.oozie.ErrorCode;
 import org.apache.oozie.WorkflowActionBean;
+import org.apache.oozie.service.JPAService;
 import org.apache.oozie.util.ParamChecker;
 
 /**
@@ -49,6 +50,7 @@ public class WorkflowActionGetJPAExecutor implements JPAExecutor<WorkflowActionB
     @Override
     @SuppressWarnings("unchecked")
     public WorkflowActionBean execute(EntityManager em) throws JPAExecutorException {
+        JPAService.fetchAll(em);
         List<WorkflowActionBean> waBeans;
         try {
             Query q = em.createNamedQuery("GET_ACTION");
@@ -69,7 +71,7 @@ public class WorkflowActionGetJPAExecutor implements JPAExecutor<WorkflowActionB
         }
     }
 
-    private WorkflowActionBean getBeanForRunningAction(WorkflowActionBean a) {
+    static WorkflowActionBean getBeanForRunningAction(WorkflowActionBean a) {
         if (a != null) {
             WorkflowActionBean action = new WorkflowActionBean();
             action.setId(a.getId());
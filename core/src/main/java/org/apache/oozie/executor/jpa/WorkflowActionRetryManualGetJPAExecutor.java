@@ -21,6 +21,7 @@ import javax.persistence.Query;
 
 import org.apache.oozie.ErrorCode;
 import org.apache.oozie.WorkflowActionBean;
+import org.apache.oozie.service.JPAService;
 import org.apache.oozie.util.ParamChecker;
 
 public class WorkflowActionRetryManualGetJPAExecutor implements JPAExecutor<List<WorkflowActionBean>> {
@@ -44,6 +45,7 @@ public class WorkflowActionRetryManualGetJPAExecutor implements JPAExecutor<List
      */
     @Override
     public List<WorkflowActionBean> execute(EntityManager em) throws JPAExecutorException {
+        JPAService.fetchAll(em);
         try {
             Query q = em.createNamedQuery("GET_RETRY_MANUAL_ACTIONS");
             q.setParameter("wfId", wfId);
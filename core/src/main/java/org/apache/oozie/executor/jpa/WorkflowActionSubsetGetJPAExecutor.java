@@ -23,6 +23,7 @@ import javax.persistence.Query;
 
 import org.apache.oozie.ErrorCode;
 import org.apache.oozie.WorkflowActionBean;
+import org.apache.oozie.service.JPAService;
 import org.apache.oozie.util.ParamChecker;
 import org.apache.openjpa.persistence.OpenJPAPersistence;
 
@@ -56,6 +57,7 @@ public class WorkflowActionSubsetGetJPAExecutor implements JPAExecutor<List<Work
     @Override
     @SuppressWarnings("unchecked")
     public List<WorkflowActionBean> execute(EntityManager em) throws JPAExecutorException {
+        JPAService.fetchAll(em);
         List<WorkflowActionBean> actions;
         List<WorkflowActionBean> actionList = new ArrayList<WorkflowActionBean>();
         try {
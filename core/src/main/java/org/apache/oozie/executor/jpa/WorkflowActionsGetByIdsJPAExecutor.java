@@ -0,0 +1,71 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.executor.jpa;
+
+import java.util.List;
+
+import javax.persistence.EntityManager;
+
+import org.apache.oozie.WorkflowActionBean;
+import org.apache.oozie.service.JPAService;
+
+/**
+ * Load the list of WorkflowAction for a list of IDs and return it.
+ */
+public class WorkflowActionsGetByIdsJPAExecutor extends GetByIdsJPAExecutor<WorkflowActionBean> {
+
+    /**
+     * The constructor for class {@link WorkflowActionsGetByIdsJPAExecutor}
+     *
+     * @param ids workflow action IDs
+     */
+    public WorkflowActionsGetByIdsJPAExecutor(List<String> ids) {
+        super(ids);
+    }
+
+    /* (non-Javadoc)
+     * @see org.apache.oozie.executor.jpa.JPAExecutor#getName()
+     */
+    @Override
+    public String getName() {
+        return "WorkflowActionsGetByIdsJPAExecutor";
+    }
+
+    @Override
+    protected String getEntityName() {
+        return "WorkflowActionBean";
+    }
+
+    @Override
+    protected String getIdField() {
+        return "id";
+    }
+
+    @Override
+    protected String getId(WorkflowActionBean bean) {
+        return bean.getId();
+    }
+
+    @Override
+    protected void prepare(EntityManager em) {
+        JPAService.fetchAll(em);
+    }
+
+    @Override
+    protected WorkflowActionBean getBean(WorkflowActionBean bean) {
+        return WorkflowActionGetJPAExecutor.getBeanForRunningAction(bean);
+    }
+
+}
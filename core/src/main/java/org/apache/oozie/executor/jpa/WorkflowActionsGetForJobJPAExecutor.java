@@ -23,6 +23,7 @@ import javax.persistence.Query;
 
 import org.apache.oozie.ErrorCode;
 import org.apache.oozie.WorkflowActionBean;
+import org.apache.oozie.service.JPAService;
 import org.apache.oozie.util.ParamChecker;
 
 /**
@@ -51,6 +52,7 @@ public class WorkflowActionsGetForJobJPAExecutor implements JPAExecutor<List<Wor
     @Override
     @SuppressWarnings("unchecked")
     public List<WorkflowActionBean> execute(EntityManager em) throws JPAExecutorException {
+        JPAService.fetchAll(em);
         List<WorkflowActionBean> actions;
         List<WorkflowActionBean> actionList = new ArrayList<WorkflowActionBean>();
         try {
@@ -22,8 +22,12 @@ import javax.persistence.Query;
 
 import org.apache.oozie.ErrorCode;
 import org.apache.oozie.WorkflowActionBean;
+import org.apache.oozie.service.JPAService;
 import org.apache.oozie.util.ParamChecker;
 
+/**
+ * Load the workflow actions that are pending for more than a given time.
+ */
 public class WorkflowActionsGetPendingJPAExecutor implements JPAExecutor<List<WorkflowActionBean>>{
     private long minimumPendingAgeSecs = 0;
 
@@ -49,6 +53,7 @@ public class WorkflowActionsGetPendingJPAExecutor implements JPAExecutor<List<Wo
      */
     @Override
     public List<WorkflowActionBean> execute(EntityManager em) throws JPAExecutorException {
+        JPAService.fetchAll(em);
         Timestamp ts = new Timestamp(System.currentTimeMillis() - minimumPendingAgeSecs * 1000);
         List<WorkflowActionBean> actionList = null;
         try {
@@ -0,0 +1,84 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.executor.jpa;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+import org.apache.oozie.ErrorCode;
+import org.apache.oozie.WorkflowActionBean;
+import org.apache.oozie.util.ParamChecker;
+
+/**
+ * Load a page of the summary of the workflow actions that are pending for more than a given time.
+ * <p/>
+ * The pages are ordered by action ID, each page starting after the last action ID of the previous page. Only the id,
+ * job id, type, status, external id and pending age columns are read, the returned beans have no other property set
+ * and must not be used to update the actions.
+ */
+public class WorkflowActionsGetPendingSummaryJPAExecutor implements JPAExecutor<List<WorkflowActionBean>> {
+    private final long minimumPendingAgeSecs;
+    private final String lastId;
+    private final int limit;
+
+    /**
+     * Create an executor that loads a page of pending actions.
+     *
+     * @param minimumPendingAgeSecs minimum pending age in seconds.
+     * @param lastId ID of the last action of the previous page, <code>null</code> for the first page.
+     * @param limit maximum number of actions of the page.
+     */
+    public WorkflowActionsGetPendingSummaryJPAExecutor(long minimumPendingAgeSecs, String lastId, int limit) {
+        this.minimumPendingAgeSecs = minimumPendingAgeSecs;
+        this.lastId = (lastId != null) ? lastId : "";
+        this.limit = ParamChecker.checkGTZero(limit, "limit");
+    }
+
+    /* (non-Javadoc)
+     * @see org.apache.oozie.executor.jpa.JPAExecutor#getName()
+     */
+    @Override
+    public String getName() {
+        return "WorkflowActionsGetPendingSummaryJPAExecutor";
+    }
+
+    /* (non-Javadoc)
+     * @see org.apache.oozie.executor.jpa.JPAExecutor#execute(javax.persistence.EntityManager)
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<WorkflowActionBean> execute(EntityManager em) throws JPAExecutorException {
+        Timestamp ts = new Timestamp(System.currentTimeMillis() - minimumPendingAgeSecs * 1000);
+        List<WorkflowActionBean> actionList = new ArrayList<WorkflowActionBean>();
+        try {
+            Query q = em.createNamedQuery("GET_PENDING_ACTIONS_SUMMARY_AFTER_ID");
+            q.setParameter("pendingAge", ts);
+            q.setParameter("id", lastId);
+            q.setMaxResults(limit);
+            List<Object[]> rows = q.getResultList();
+            for (Object[] arr : rows) {
+                actionList.add(WorkflowActionsRunningGetSummaryJPAExecutor.getBeanForSummaryFromArray(arr));
+            }
+        }
+        catch (IllegalStateException e) {
+            throw new JPAExecutorException(ErrorCode.E0601, e.getMessage(), e);
+        }
+        return actionList;
+    }
+}
@@ -23,6 +23,7 @@ import javax.persistence.Query;
 
 import org.apache.oozie.ErrorCode;
 import org.apache.oozie.WorkflowActionBean;
+import org.apache.oozie.service.JPAService;
 
 /**
  * JPA Executor to get running workflow actions
@@ -41,6 +42,7 @@ public class WorkflowActionsRunningGetJPAExecutor implements JPAExecutor<List<Wo
     @Override
     @SuppressWarnings("unchecked")
     public List<WorkflowActionBean> execute(EntityManager em) throws JPAExecutorException {
+        JPAService.fetchAll(em);
         List<WorkflowActionBean> actions;
         List<WorkflowActionBean> actionList = new ArrayList<WorkflowActionBean>();
         try {
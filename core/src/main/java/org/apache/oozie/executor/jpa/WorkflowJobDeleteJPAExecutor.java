@@ -17,13 +17,14 @@ package org.apache.oozie.executor.jpa;
 import javax.persistence.EntityManager;
 
 import org.apache.oozie.WorkflowJobBean;
+import org.apache.oozie.service.JPAService;
 import org.apache.oozie.util.ParamChecker;
 
 /**
  * Delete workflow job
  *
  */
-public class WorkflowJobDeleteJPAExecutor implements JPAExecutor<Void>{
+public class WorkflowJobDeleteJPAExecutor implements JPACacheableExecutor<Void>{
 
     private String wfJobId = null;
 
@@ -52,4 +53,20 @@ public class WorkflowJobDeleteJPAExecutor implements JPAExecutor<Void>{
         return "WorkflowJobDeleteJPAExecutor";
     }
 
+    /* (non-Javadoc)
+     * @see org.apache.oozie.executor.jpa.JPACacheableExecutor#getFromCache(org.apache.oozie.service.JPAService)
+     */
+    @Override
+    public Void getFromCache(JPAService jpaService) {
+        return null;
+    }
+
+    /* (non-Javadoc)
+     * @see org.apache.oozie.executor.jpa.JPACacheableExecutor#updateCache(org.apache.oozie.service.JPAService, java.lang.Object)
+     */
+    @Override
+    public void updateCache(JPAService jpaService, Void result) {
+        jpaService.getWorkflowJobCache().invalidate(wfJobId);
+    }
+
 }
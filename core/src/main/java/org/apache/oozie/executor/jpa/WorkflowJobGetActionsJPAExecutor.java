@@ -23,6 +23,7 @@ import javax.persistence.Query;
 
 import org.apache.oozie.ErrorCode;
 import org.apache.oozie.WorkflowActionBean;
+import org.apache.oozie.service.JPAService;
 import org.apache.oozie.util.ParamChecker;
 
 /**
@@ -45,6 +46,7 @@ public class WorkflowJobGetActionsJPAExecutor implements JPAExecutor<List<Workfl
     @Override
     @SuppressWarnings("unchecked")
     public List<WorkflowActionBean> execute(EntityManager em) throws JPAExecutorException {
+        JPAService.fetchAll(em);
         List<WorkflowActionBean> actions;
         List<WorkflowActionBean> actionList = new ArrayList<WorkflowActionBean>();
         try {
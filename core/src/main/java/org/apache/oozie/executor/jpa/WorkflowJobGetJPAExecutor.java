@@ -21,14 +21,18 @@ import javax.persistence.Query;
 
 import org.apache.oozie.ErrorCode;
 import org.apache.oozie.WorkflowJobBean;
+import org.apache.oozie.service.JPAService;
 import org.apache.oozie.util.ParamChecker;
 
 /**
  * Load the WorkflowJob into a Bean and return it.
+ * <p/>
+ * If the job bean caches of the {@link JPAService} are enabled the bean is returned from the cache when available.
  */
-public class WorkflowJobGetJPAExecutor implements JPAExecutor<WorkflowJobBean> {
+public class WorkflowJobGetJPAExecutor implements JPACacheableExecutor<WorkflowJobBean> {
 
     private String wfJobId = null;
+    private long cacheStamp;
 
     public WorkflowJobGetJPAExecutor(String wfJobId) {
         ParamChecker.notNull(wfJobId, "wfJobId");
@@ -68,4 +72,52 @@ public class WorkflowJobGetJPAExecutor implements JPAExecutor<WorkflowJobBean> {
             throw new JPAExecutorException(ErrorCode.E0604, wfJobId);
         }
     }
+
+    /* (non-Javadoc)
+     * @see org.apache.oozie.executor.jpa.JPACacheableExecutor#getFromCache(org.apache.oozie.service.JPAService)
+     */
+    @Override
+    public WorkflowJobBean getFromCache(JPAService jpaService) {
+        JPABeanCache<WorkflowJobBean> cache = jpaService.getWorkflowJobCache();
+        cacheStamp = cache.getStamp();
+        return cache.get(wfJobId);
+    }
+
+    /* (non-Javadoc)
+     * @see org.apache.oozie.executor.jpa.JPACacheableExecutor#updateCache(org.apache.oozie.service.JPAService, java.lang.Object)
+     */
+    @Override
+    public void updateCache(JPAService jpaService, WorkflowJobBean result) {
+        jpaService.getWorkflowJobCache().putIfAbsent(result, cacheStamp);
+    }
+
+    /**
+     * Return a copy of a workflow job bean with all its persistent fields.
+     *
+     * @param bean workflow job bean.
+     * @return the copy of the workflow job bean.
+     */
+    static WorkflowJobBean copy(WorkflowJobBean bean) {
+        WorkflowJobBean copy = new WorkflowJobBean();
+        copy.setId(bean.getId());
+        copy.setAppName(bean.getAppName());
+        copy.setAppPath(bean.getAppPath());
+        copy.setConf(bean.getConf());
+        copy.setProtoActionConf(bean.getProtoActionConf());
+        copy.setUser(bean.getUser());
+        copy.setGroup(bean.getGroup());
+        copy.setAuthToken(bean.getAuthToken());
+        copy.setLogToken(bean.getLogToken());
+        copy.setExternalId(bean.getExternalId());
+        copy.setParentId(bean.getParentId());
+        copy.setRun(bean.getRun());
+        copy.setStatus(bean.getStatus());
+        copy.setCreatedTime(bean.getCreatedTime());
+        copy.setStartTime(bean.getStartTime());
+        copy.setEndTime(bean.getEndTime());
+        copy.setLastModifiedTime(bean.getLastModifiedTime());
+        copy.setSlaXml(bean.getSlaXml());
+        copy.setWfInstance(bean.getWfInstance());
+        return copy;
+    }
 }
\ No newline at end of file
@@ -19,13 +19,14 @@ import java.util.Date;
 import javax.persistence.EntityManager;
 
 import org.apache.oozie.WorkflowJobBean;
+import org.apache.oozie.service.JPAService;
 import org.apache.oozie.util.ParamChecker;
 import org.apache.oozie.ErrorCode;
 
 /**
 * Persist the WorkflowJob bean.
 */
-public class WorkflowJobUpdateJPAExecutor implements JPAExecutor<Void> {
+public class WorkflowJobUpdateJPAExecutor implements JPACacheableExecutor<Void> {
 
     private WorkflowJobBean wfJob = null;
 
@@ -57,4 +58,20 @@ public class WorkflowJobUpdateJPAExecutor implements JPAExecutor<Void> {
         }
     }
 
-}
\ No newline at end of file
+    /* (non-Javadoc)
+     * @see org.apache.oozie.executor.jpa.JPACacheableExecutor#getFromCache(org.apache.oozie.service.JPAService)
+     */
+    @Override
+    public Void getFromCache(JPAService jpaService) {
+        return null;
+    }
+
+    /* (non-Javadoc)
+     * @see org.apache.oozie.executor.jpa.JPACacheableExecutor#updateCache(org.apache.oozie.service.JPAService, java.lang.Object)
+     */
+    @Override
+    public void updateCache(JPAService jpaService, Void result) {
+        jpaService.getWorkflowJobCache().put(wfJob);
+    }
+
+}
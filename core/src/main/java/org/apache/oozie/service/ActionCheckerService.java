@@ -15,20 +15,27 @@
 package org.apache.oozie.service;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.oozie.CoordinatorActionBean;
 import org.apache.oozie.ErrorCode;
 import org.apache.oozie.WorkflowActionBean;
+import org.apache.oozie.action.ActionExecutor;
 import org.apache.oozie.command.CommandException;
 import org.apache.oozie.command.coord.CoordActionCheckCommand;
 import org.apache.oozie.command.coord.CoordActionCheckXCommand;
 import org.apache.oozie.command.wf.ActionCheckCommand;
 import org.apache.oozie.command.wf.ActionCheckXCommand;
-import org.apache.oozie.executor.jpa.CoordActionsRunningGetJPAExecutor;
+import org.apache.oozie.executor.jpa.CoordActionsRunningGetSummaryJPAExecutor;
 import org.apache.oozie.executor.jpa.JPAExecutorException;
-import org.apache.oozie.executor.jpa.WorkflowActionsRunningGetJPAExecutor;
+import org.apache.oozie.executor.jpa.WorkflowActionsRunningGetSummaryJPAExecutor;
+import org.apache.oozie.util.Instrumentable;
+import org.apache.oozie.util.Instrumentation;
 import org.apache.oozie.util.XCallable;
 import org.apache.oozie.util.XLog;
 
@@ -37,8 +44,11 @@ import org.apache.oozie.util.XLog;
  * running actions and CoordActionCheckCommands to check the status of
  * coordinator actions. The delay between checks on the same action can be
  * configured.
+ * <p/>
+ * Workflow actions that notify their completion through a callback are polled on an exponential backoff schedule,
+ * and are not polled while a recent callback is being processed.
  */
-public class ActionCheckerService implements Service {
+public class ActionCheckerService implements Service, Instrumentable {
 
     public static final String CONF_PREFIX = Service.CONF_PREFIX + "ActionCheckerService.";
     /**
@@ -55,12 +65,40 @@ public class ActionCheckerService implements Service {
      */
     public static final String CONF_CALLABLE_BATCH_SIZE = CONF_PREFIX + "callable.batch.size";
 
+    /**
+     * If the workflow actions that notify their completion through a callback are polled on a backoff schedule.
+     */
+    public static final String CONF_ADAPTIVE_CHECK = CONF_PREFIX + "adaptive.check";
+
+    /**
+     * The maximum time, in seconds, between an ActionCheck for the same action on the backoff schedule.
+     */
+    public static final String CONF_ACTION_CHECK_MAX_DELAY = CONF_PREFIX + "action.check.max.delay";
+
     protected static final String INSTRUMENTATION_GROUP = "actionchecker";
     protected static final String INSTR_CHECK_ACTIONS_COUNTER = "checks_wf_actions";
     protected static final String INSTR_CHECK_COORD_ACTIONS_COUNTER = "checks_coord_actions";
+    protected static final String INSTR_CHECKS_AVOIDED = "checks_avoided";
+    protected static final String INSTR_SCHEDULED_ACTIONS = "scheduled_actions";
 
     private static boolean useXCommand = true;
 
+    private boolean adaptiveCheck;
+    private long maxCheckDelay;
+    private final Map<String, CheckSchedule> schedules = new HashMap<String, CheckSchedule>();
+    private final AtomicLong checksAvoided = new AtomicLong();
+
+    /**
+     * Check schedule of a workflow action notifying its completion through a callback.
+     */
+    private static class CheckSchedule {
+        private int checks;
+        private long nextCheck;
+        private long nextFixedCheck;
+        private long lastCallback;
+        private long lastSeen;
+    }
+
     /**
      * {@link ActionCheckRunnable} is the runnable which is scheduled to run and
      * queue Action checks.
@@ -112,7 +150,7 @@ public class ActionCheckerService implements Service {
             List<WorkflowActionBean> actions;
             try {
                 actions = jpaService
-                        .execute(new WorkflowActionsRunningGetJPAExecutor(actionCheckDelay));
+                        .execute(new WorkflowActionsRunningGetSummaryJPAExecutor(actionCheckDelay));
             }
             catch (JPAExecutorException je) {
                 throw new CommandException(je);
@@ -123,7 +161,15 @@ public class ActionCheckerService implements Service {
             }
             msg.append(" WF_ACTIONS : " + actions.size());
 
+            ActionCheckerService checker = Services.get().get(ActionCheckerService.class);
+            boolean adaptive = checker != null && checker.isAdaptiveCheck();
+            Map<String, Boolean> callbackTypes = new HashMap<String, Boolean>();
+            long now = System.currentTimeMillis();
             for (WorkflowActionBean action : actions) {
+                if (adaptive && hasCompletionCallback(action.getType(), callbackTypes)
+                        && !checker.isCheckDue(action.getId(), actionCheckDelay, now)) {
+                    continue;
+                }
                 Services.get().get(InstrumentationService.class).get().incr(INSTRUMENTATION_GROUP,
                         INSTR_CHECK_ACTIONS_COUNTER, 1);
                 if (useXCommand) {
@@ -133,7 +179,26 @@ public class ActionCheckerService implements Service {
                     queueCallable(new ActionCheckCommand(action.getId()));
                 }
             }
+            if (adaptive) {
+                checker.purgeSchedules(actionCheckDelay, now);
+            }
+        }
 
+        /**
+         * Return if the executor of an action type notifies the completion of the actions through a callback.
+         *
+         * @param type action type.
+         * @param callbackTypes action types already resolved in this run.
+         * @return if the executor of the action type notifies the completion of the actions through a callback.
+         */
+        private boolean hasCompletionCallback(String type, Map<String, Boolean> callbackTypes) {
+            Boolean callback = callbackTypes.get(type);
+            if (callback == null) {
+                ActionExecutor executor = Services.get().get(ActionService.class).getExecutor(type);
+                callback = executor != null && executor.hasCompletionCallback();
+                callbackTypes.put(type, callback);
+            }
+            return callback;
         }
 
         /**
@@ -149,7 +214,7 @@ public class ActionCheckerService implements Service {
 
             List<CoordinatorActionBean> cactions;
             try {
-                cactions = jpaService.execute(new CoordActionsRunningGetJPAExecutor(
+                cactions = jpaService.execute(new CoordActionsRunningGetSummaryJPAExecutor(
                         actionCheckDelay));
             }
             catch (JPAExecutorException je) {
@@ -208,6 +273,8 @@ public class ActionCheckerService implements Service {
     @Override
     public void init(Services services) {
         Configuration conf = services.getConf();
+        adaptiveCheck = conf.getBoolean(CONF_ADAPTIVE_CHECK, false);
+        maxCheckDelay = conf.getInt(CONF_ACTION_CHECK_MAX_DELAY, 3600);
         Runnable actionCheckRunnable = new ActionCheckRunnable(conf.getInt(CONF_ACTION_CHECK_DELAY, 600));
         services.get(SchedulerService.class).schedule(actionCheckRunnable, 10,
                 conf.getInt(CONF_ACTION_CHECK_INTERVAL, 60), SchedulerService.Unit.SEC);
@@ -223,6 +290,9 @@ public class ActionCheckerService implements Service {
      */
     @Override
     public void destroy() {
+        synchronized (schedules) {
+            schedules.clear();
+        }
     }
 
     /**
@@ -234,4 +304,130 @@ public class ActionCheckerService implements Service {
     public Class<? extends Service> getInterface() {
         return ActionCheckerService.class;
     }
+
+    /**
+     * Instruments the action checker service.
+     * <p/>
+     * It sets instrumentation variables for the number of action checks avoided and the number of actions on the
+     * backoff schedule.
+     *
+     * @param instr instrumentation to use.
+     */
+    public void instrument(Instrumentation instr) {
+        instr.addVariable(INSTRUMENTATION_GROUP, INSTR_CHECKS_AVOIDED, new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                return getChecksAvoided();
+            }
+        });
+        instr.addVariable(INSTRUMENTATION_GROUP, INSTR_SCHEDULED_ACTIONS, new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                return (long) getScheduledActions();
+            }
+        });
+    }
+
+    /**
+     * Return if the actions notifying their completion through a callback are polled on a backoff schedule.
+     *
+     * @return if the actions notifying their completion through a callback are polled on a backoff schedule.
+     */
+    public boolean isAdaptiveCheck() {
+        return adaptiveCheck;
+    }
+
+    /**
+     * Record the completion callback of a workflow action.
+     * <p/>
+     * The action is not polled until the action check delay has passed since the callback.
+     *
+     * @param actionId workflow action ID.
+     */
+    public void callbackReceived(String actionId) {
+        if (adaptiveCheck) {
+            long now = System.currentTimeMillis();
+            synchronized (schedules) {
+                CheckSchedule schedule = getSchedule(actionId, now);
+                schedule.lastCallback = now;
+            }
+        }
+    }
+
+    /**
+     * Return if a workflow action notifying its completion through a callback is due for a check.
+     * <p/>
+     * The first check is always due, the delay before each following check doubles, up to the configured maximum.
+     * Skipping a check the fixed schedule would have done counts as an avoided check.
+     *
+     * @param actionId workflow action ID.
+     * @param actionCheckDelay time, in seconds, between checks on the fixed schedule.
+     * @param now current time in milliseconds.
+     * @return if the action is due for a check.
+     */
+    boolean isCheckDue(String actionId, int actionCheckDelay, long now) {
+        long delay = actionCheckDelay * 1000L;
+        synchronized (schedules) {
+            CheckSchedule schedule = getSchedule(actionId, now);
+            boolean due = now - schedule.lastCallback >= delay && now >= schedule.nextCheck;
+            if (due) {
+                schedule.checks++;
+                long backoff = Math.min(delay << Math.min(schedule.checks, 30), maxCheckDelay * 1000L);
+                schedule.nextCheck = now + Math.max(backoff, delay);
+                schedule.nextFixedCheck = now + delay;
+            }
+            else if (now >= schedule.nextFixedCheck) {
+                checksAvoided.incrementAndGet();
+                schedule.nextFixedCheck = now + delay;
+            }
+            return due;
+        }
+    }
+
+    /**
+     * Remove the schedules of the actions not seen running for longer than the backoff schedule allows.
+     *
+     * @param actionCheckDelay time, in seconds, between checks on the fixed schedule.
+     * @param now current time in milliseconds.
+     */
+    void purgeSchedules(int actionCheckDelay, long now) {
+        long expiration = 2 * Math.max(actionCheckDelay, maxCheckDelay) * 1000L;
+        synchronized (schedules) {
+            Iterator<CheckSchedule> it = schedules.values().iterator();
+            while (it.hasNext()) {
+                if (now - it.next().lastSeen > expiration) {
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    private CheckSchedule getSchedule(String actionId, long now) {
+        CheckSchedule schedule = schedules.get(actionId);
+        if (schedule == null) {
+            schedule = new CheckSchedule();
+            schedules.put(actionId, schedule);
+        }
+        schedule.lastSeen = now;
+        return schedule;
+    }
+
+    /**
+     * Return the number of action checks avoided by the backoff schedule and the completion callbacks.
+     *
+     * @return the number of action checks avoided.
+     */
+    public long getChecksAvoided() {
+        return checksAvoided.get();
+    }
+
+    /**
+     * Return the number of actions on the backoff schedule.
+     *
+     * @return the number of actions on the backoff schedule.
+     */
+    public int getScheduledActions() {
+        synchronized (schedules) {
+            return schedules.size();
+        }
+    }
+
 }
@@ -14,6 +14,8 @@
  */
 package org.apache.oozie.service;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
@@ -36,6 +38,7 @@ import org.apache.oozie.util.Instrumentable;
 import org.apache.oozie.util.Instrumentation;
 import org.apache.oozie.util.PollablePriorityDelayQueue;
 import org.apache.oozie.util.PriorityDelayQueue;
+import org.apache.oozie.util.ShardedPriorityDelayQueue;
 import org.apache.oozie.util.XCallable;
 import org.apache.oozie.util.XLog;
 import org.apache.oozie.util.PriorityDelayQueue.QueueElement;
@@ -60,6 +63,16 @@ import org.apache.oozie.util.PriorityDelayQueue.QueueElement;
  * of threads is reached, commands remain the queue until threads become available. Sets up a priority queue for the
  * execution of Commands via a ThreadPool. Sets up a Delayed Queue to handle actions which will be ready for execution
  * sometime in the future.
+ * <p/>
+ * {@link #CONF_CALLABLE_CONCURRENCY} maximum concurrency for a callable type. It can be set for a specific callable
+ * type with the {@link #CONF_CALLABLE_CONCURRENCY}.[TYPE] property. Default value is 3.
+ * <p/>
+ * {@link #CONF_QUEUE_SHARDS} number of shards of each priority sub-queue. When greater than 1 a
+ * {@link ShardedPriorityDelayQueue} is used instead of a single lock queue. Default value is 1.
+ * <p/>
+ * {@link #CONF_EXECUTOR_MODE} <code>fixed</code> (default) uses {@link #CONF_THREADS} threads, <code>elastic</code>
+ * resizes the thread-pool, between {@link #CONF_THREADS} and {@link #CONF_THREADS_MAX} threads, every
+ * {@link #CONF_THREADS_ADJUST_INTERVAL} seconds based on the measured blocking ratio of the executed callables.
  */
 public class CallableQueueService implements Service, Instrumentable {
     private static final String INSTRUMENTATION_GROUP = "callablequeue";
@@ -69,6 +82,8 @@ public class CallableQueueService implements Service, Instrumentable {
     private static final String INSTR_QUEUED_COUNTER = "queued";
     private static final String INSTR_QUEUE_SIZE_SAMPLER = "queue.size";
     private static final String INSTR_THREADS_ACTIVE_SAMPLER = "threads.active";
+    private static final String INSTR_THREADS_POOL_SIZE_VARIABLE = "threads.pool.size";
+    private static final String INSTR_BLOCKING_RATIO_VARIABLE = "threads.blocking.ratio.percent";
 
     public static final String CONF_PREFIX = Service.CONF_PREFIX + "CallableQueueService.";
 
@@ -76,55 +91,93 @@ public class CallableQueueService implements Service, Instrumentable {
     public static final String CONF_THREADS = CONF_PREFIX + "threads";
     public static final String CONF_CALLABLE_CONCURRENCY = CONF_PREFIX + "callable.concurrency";
     public static final String CONF_CALLABLE_NEXT_ELIGIBLE = CONF_PREFIX + "callable.next.eligible";
+    public static final String CONF_QUEUE_SHARDS = CONF_PREFIX + "queue.shards";
+    public static final String CONF_EXECUTOR_MODE = CONF_PREFIX + "executor.mode";
+    public static final String CONF_THREADS_MAX = CONF_PREFIX + "threads.max";
+    public static final String CONF_THREADS_ADJUST_INTERVAL = CONF_PREFIX + "threads.adjust.interval";
+
+    public static final String EXECUTOR_MODE_FIXED = "fixed";
+    public static final String EXECUTOR_MODE_ELASTIC = "elastic";
 
     public static final int CONCURRENCY_DELAY = 500;
 
+    private static final String COMPOSITE_TYPE_PREFIX = "#composite#";
+
     public static final int SAFE_MODE_DELAY = 60000;
 
-    private final Map<String, AtomicInteger> activeCallables = new HashMap<String, AtomicInteger>();
+    private final ConcurrentHashMap<String, AtomicInteger> activeCallables =
+            new ConcurrentHashMap<String, AtomicInteger>();
 
     private final Map<String, Date> uniqueCallables = new ConcurrentHashMap<String, Date>();
 
     private int maxCallableConcurrency;
 
-    private boolean callableBegin(XCallable<?> callable) {
-        synchronized (activeCallables) {
-            AtomicInteger counter = activeCallables.get(callable.getType());
-            if (counter == null) {
-                counter = new AtomicInteger(1);
-                activeCallables.put(callable.getType(), counter);
-                return true;
-            }
-            else {
-                int i = counter.incrementAndGet();
-                return i <= maxCallableConcurrency;
+    private final Map<String, Integer> typeCallableConcurrency = new HashMap<String, Integer>();
+
+    private AtomicInteger getActiveCounter(String type) {
+        AtomicInteger counter = activeCallables.get(type);
+        if (counter == null) {
+            counter = new AtomicInteger();
+            AtomicInteger existing = activeCallables.putIfAbsent(type, counter);
+            if (existing != null) {
+                counter = existing;
             }
         }
+        return counter;
+    }
+
+    /**
+     * Return the maximum concurrency for a callable type.
+     * <p/>
+     * It is the value of the {@link #CONF_CALLABLE_CONCURRENCY}.[TYPE] property if set, otherwise the value of the
+     * {@link #CONF_CALLABLE_CONCURRENCY} property. Composite callables use the concurrency of the type of their first
+     * callable.
+     *
+     * @param type callable type.
+     * @return the maximum concurrency for the callable type.
+     */
+    public int getMaxConcurrency(String type) {
+        Integer max = typeCallableConcurrency.get(type);
+        if (max == null && type.startsWith(COMPOSITE_TYPE_PREFIX)) {
+            max = typeCallableConcurrency.get(type.substring(COMPOSITE_TYPE_PREFIX.length()));
+        }
+        return (max != null) ? max : maxCallableConcurrency;
+    }
+
+    private boolean callableBegin(XCallable<?> callable) {
+        int i = getActiveCounter(callable.getType()).incrementAndGet();
+        return i <= getMaxConcurrency(callable.getType());
     }
 
     private void callableEnd(XCallable<?> callable) {
-        synchronized (activeCallables) {
-            AtomicInteger counter = activeCallables.get(callable.getType());
-            if (counter == null) {
-                throw new IllegalStateException("It should not happen");
-            }
-            else {
-                counter.decrementAndGet();
-            }
+        AtomicInteger counter = activeCallables.get(callable.getType());
+        if (counter == null) {
+            throw new IllegalStateException("It should not happen");
+        }
+        else {
+            counter.decrementAndGet();
         }
     }
 
     private boolean callableReachMaxConcurrency(XCallable<?> callable) {
-        synchronized (activeCallables) {
-            AtomicInteger counter = activeCallables.get(callable.getType());
-            if (counter == null) {
-                return true;
-            }
-            else {
-                int i = counter.get();
-                return i < maxCallableConcurrency;
+        AtomicInteger counter = activeCallables.get(callable.getType());
+        if (counter == null) {
+            return true;
+        }
+        else {
+            int i = counter.get();
+            return i < getMaxConcurrency(callable.getType());
+        }
+    }
+
+    private boolean isEligibleToPoll(QueueElement<?> element) {
+        if (element != null) {
+            CallableWrapper wrapper = (CallableWrapper) element;
+            if (element.getElement() != null) {
+                return callableReachMaxConcurrency(wrapper.getElement());
             }
         }
+        return false;
     }
 
     // Callables are wrapped with the this wrapper for execution, for logging
@@ -159,6 +212,8 @@ public class CallableQueueService implements Service, Instrumentable {
                     log.trace("executing callable [{0}]", callable.getName());
 
                     removeFromUniqueCallables();
+                    long startCpu = (elasticThreads != null) ? elasticThreads.getCpuTime() : 0;
+                    long startWall = System.nanoTime();
                     try {
                         callable.call();
                         incrCounter(INSTR_EXECUTED_COUNTER, 1);
@@ -169,6 +224,9 @@ public class CallableQueueService implements Service, Instrumentable {
                         log.warn("exception callable [{0}], {1}", callable.getName(), ex.getMessage(), ex);
                     }
                     finally {
+                        if (elasticThreads != null) {
+                            elasticThreads.record(startWall, startCpu);
+                        }
                         XLog.Info.get().clear();
                     }
                 }
@@ -270,7 +328,7 @@ public class CallableQueueService implements Service, Instrumentable {
 
         @Override
         public String getType() {
-            return "#composite#" + callables.get(0).getType();
+            return COMPOSITE_TYPE_PREFIX + callables.get(0).getType();
         }
 
         @Override
@@ -379,8 +437,103 @@ public class CallableQueueService implements Service, Instrumentable {
 
     }
 
+    /**
+     * Resizes the thread-pool based on the blocking ratio of the callables executed since the last run.
+     * <p/>
+     * The blocking ratio is the fraction of the callables wall time not spent on CPU (waiting on the database, on
+     * Hadoop RPCs, etc). The thread-pool is sized to <code>CPUs / (1 - blocking ratio)</code> threads, bounded by the
+     * minimum and maximum number of threads.
+     */
+    class ElasticThreadsRunnable implements Runnable {
+        private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        private final AtomicLong wallNanos = new AtomicLong();
+        private final AtomicLong cpuNanos = new AtomicLong();
+        private final int minThreads;
+        private final int maxThreads;
+        private final int cpus;
+        private volatile double blockingRatio;
+
+        public ElasticThreadsRunnable(int minThreads, int maxThreads) {
+            this.minThreads = minThreads;
+            this.maxThreads = maxThreads;
+            cpus = Runtime.getRuntime().availableProcessors();
+        }
+
+        /**
+         * Return the CPU time of the current thread.
+         *
+         * @return the CPU time of the current thread in nanoseconds.
+         */
+        public long getCpuTime() {
+            return threadBean.getCurrentThreadCpuTime();
+        }
+
+        /**
+         * Record the wall and CPU time of a callable execution in the current thread.
+         *
+         * @param startWall wall time, in nanoseconds, when the execution started.
+         * @param startCpu CPU time of the thread, in nanoseconds, when the execution started.
+         */
+        public void record(long startWall, long startCpu) {
+            long wall = System.nanoTime() - startWall;
+            long cpu = Math.min(getCpuTime() - startCpu, wall);
+            wallNanos.addAndGet(wall);
+            cpuNanos.addAndGet(Math.max(cpu, 0));
+        }
+
+        /**
+         * Return the blocking ratio measured on the last run.
+         *
+         * @return the blocking ratio, between 0 and 1.
+         */
+        public double getBlockingRatio() {
+            return blockingRatio;
+        }
+
+        public void run() {
+            long wall = wallNanos.getAndSet(0);
+            long cpu = cpuNanos.getAndSet(0);
+            int threads = minThreads;
+            if (wall > 0) {
+                blockingRatio = Math.min((double) (wall - cpu) / wall, 0.99);
+                threads = (int) Math.ceil(cpus / (1 - blockingRatio));
+            }
+            threads = Math.max(minThreads, Math.min(maxThreads, threads));
+            setThreads(threads);
+        }
+
+        /**
+         * Resize the thread-pool.
+         * <p/>
+         * The core and maximum sizes are kept equal and all core threads are started before any other callable is
+         * queued (see the comment on the thread-pool creation in the {@link CallableQueueService#init}), to do so the
+         * resize is done holding the service lock used for queuing.
+         *
+         * @param threads new number of threads.
+         */
+        private void setThreads(int threads) {
+            synchronized (CallableQueueService.this) {
+                int current = executor.getCorePoolSize();
+                if (threads > current) {
+                    executor.setMaximumPoolSize(threads);
+                    executor.setCorePoolSize(threads);
+                    executor.prestartAllCoreThreads();
+                }
+                else if (threads < current) {
+                    executor.setCorePoolSize(threads);
+                    executor.setMaximumPoolSize(threads);
+                }
+                if (threads != current) {
+                    log.info("Callable thread-pool resized from [{0}] to [{1}] threads, blocking ratio [{2}]",
+                             current, threads, blockingRatio);
+                }
+            }
+        }
+    }
+
     private XLog log = XLog.getLog(getClass());
 
+    private ElasticThreadsRunnable elasticThreads;
     private int queueSize;
     private PriorityDelayQueue<CallableWrapper> queue;
     private AtomicLong delayQueueExecCounter = new AtomicLong(0);
@@ -419,7 +572,27 @@ public class CallableQueueService implements Service, Instrumentable {
         int threads = conf.getInt(CONF_THREADS, 10);
         boolean callableNextEligible = conf.getBoolean(CONF_CALLABLE_NEXT_ELIGIBLE, true);
 
-        if (!callableNextEligible) {
+        int shards = conf.getInt(CONF_QUEUE_SHARDS, 1);
+
+        if (shards > 1) {
+            // Sharded queue, it does not use a queue-wide lock. 'eligibleToPoll' is only checked if the callables
+            // next eligible is enabled.
+            final boolean checkEligible = callableNextEligible;
+            queue = new ShardedPriorityDelayQueue<CallableWrapper>(3, 1000 * 30, TimeUnit.MILLISECONDS, queueSize,
+                    shards) {
+                @Override
+                protected void debug(String msgTemplate, Object... msgArgs) {
+                    log.trace(msgTemplate, msgArgs);
+                }
+
+                @Override
+                protected boolean eligibleToPoll(QueueElement<?> element) {
+                    return !checkEligible || isEligibleToPoll(element);
+                }
+
+            };
+        }
+        else if (!callableNextEligible) {
             queue = new PriorityDelayQueue<CallableWrapper>(3, 1000 * 30, TimeUnit.MILLISECONDS, queueSize) {
                 @Override
                 protected void debug(String msgTemplate, Object... msgArgs) {
@@ -440,13 +613,7 @@ public class CallableQueueService implements Service, Instrumentable {
 
                 @Override
                 protected boolean eligibleToPoll(QueueElement<?> element) {
-                    if (element != null) {
-                        CallableWrapper wrapper = (CallableWrapper) element;
-                        if (element.getElement() != null) {
-                            return callableReachMaxConcurrency(wrapper.getElement());
-                        }
-                    }
-                    return false;
+                    return isEligibleToPoll(element);
                 }
 
             };
@@ -478,7 +645,35 @@ public class CallableQueueService implements Service, Instrumentable {
             });
         }
 
+        String executorMode = conf.get(CONF_EXECUTOR_MODE, EXECUTOR_MODE_FIXED).trim();
+        if (executorMode.equals(EXECUTOR_MODE_ELASTIC)) {
+            if (ManagementFactory.getThreadMXBean().isCurrentThreadCpuTimeSupported()) {
+                ManagementFactory.getThreadMXBean().setThreadCpuTimeEnabled(true);
+                int maxThreads = Math.max(threads, conf.getInt(CONF_THREADS_MAX, 100));
+                elasticThreads = new ElasticThreadsRunnable(threads, maxThreads);
+                int interval = conf.getInt(CONF_THREADS_ADJUST_INTERVAL, 30);
+                services.get(SchedulerService.class).schedule(elasticThreads, interval, interval,
+                        SchedulerService.Unit.SEC);
+                log.info("Elastic executor, [{0}] to [{1}] threads", threads, maxThreads);
+            }
+            else {
+                log.warn("Thread CPU time is not supported by the JVM, using fixed executor with [{0}] threads",
+                         threads);
+            }
+        }
+        else if (!executorMode.equals(EXECUTOR_MODE_FIXED)) {
+            log.warn("Invalid executor mode [{0}], using fixed executor with [{1}] threads", executorMode, threads);
+        }
+
         maxCallableConcurrency = conf.getInt(CONF_CALLABLE_CONCURRENCY, 3);
+        String typePrefix = CONF_CALLABLE_CONCURRENCY + ".";
+        for (Map.Entry<String, String> entry : conf) {
+            if (entry.getKey().startsWith(typePrefix)) {
+                String type = entry.getKey().substring(typePrefix.length());
+                typeCallableConcurrency.put(type, conf.getInt(entry.getKey(), maxCallableConcurrency));
+                log.info("Max concurrency for callable type [{0}] is [{1}]", type, getMaxConcurrency(type));
+            }
+        }
     }
 
     /**
@@ -513,6 +708,15 @@ public class CallableQueueService implements Service, Instrumentable {
         return CallableQueueService.class;
     }
 
+    /**
+     * Return the number of threads of the thread-pool.
+     *
+     * @return the number of threads of the thread-pool.
+     */
+    public int getThreads() {
+        return executor.getCorePoolSize();
+    }
+
     /**
      * @return int size of queue
      */
@@ -520,6 +724,15 @@ public class CallableQueueService implements Service, Instrumentable {
         return queue.size();
     }
 
+    /**
+     * Return the maximum number of callables the queue accepts, see {@link #CONF_QUEUE_SIZE}.
+     *
+     * @return the maximum number of callables the queue accepts.
+     */
+    public int getQueueCapacity() {
+        return queueSize;
+    }
+
     private synchronized boolean queue(CallableWrapper wrapper, boolean ignoreQueueSize) {
         if (!ignoreQueueSize && queue.size() >= queueSize) {
             log.warn("queue if full, ignoring queuing for [{0}]", wrapper.getElement());
@@ -647,6 +860,20 @@ public class CallableQueueService implements Service, Instrumentable {
                         return (long) executor.getActiveCount();
                     }
                 });
+        instr.addVariable(INSTRUMENTATION_GROUP, INSTR_THREADS_POOL_SIZE_VARIABLE,
+                new Instrumentation.Variable<Long>() {
+                    public Long getValue() {
+                        return (long) executor.getCorePoolSize();
+                    }
+                });
+        if (elasticThreads != null) {
+            instr.addVariable(INSTRUMENTATION_GROUP, INSTR_BLOCKING_RATIO_VARIABLE,
+                    new Instrumentation.Variable<Long>() {
+                        public Long getValue() {
+                            return Math.round(elasticThreads.getBlockingRatio() * 100);
+                        }
+                    });
+        }
     }
 
     /**
@@ -17,15 +17,20 @@ package org.apache.oozie.service;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.oozie.CoordinatorJobBean;
 import org.apache.oozie.command.coord.CoordMaterializeTransitionXCommand;
-import org.apache.oozie.executor.jpa.CoordActionsActiveCountJPAExecutor;
-import org.apache.oozie.executor.jpa.CoordJobGetRunningActionsCountJPAExecutor;
-import org.apache.oozie.executor.jpa.CoordJobUpdateJPAExecutor;
+import org.apache.oozie.executor.jpa.CoordActionsActiveCountsJPAExecutor;
 import org.apache.oozie.executor.jpa.CoordJobsToBeMaterializedJPAExecutor;
+import org.apache.oozie.executor.jpa.CoordJobsUpdateJPAExecutor;
 import org.apache.oozie.executor.jpa.JPAExecutorException;
+import org.apache.oozie.util.Instrumentation;
 import org.apache.oozie.util.XCallable;
 import org.apache.oozie.util.XLog;
 
@@ -33,6 +38,10 @@ import org.apache.oozie.util.XLog;
  * The coordinator Materialization Lookup trigger service schedule lookup trigger command for every interval (default is
  * 5 minutes ). This interval could be configured through oozie configuration defined is either oozie-default.xml or
  * oozie-site.xml using the property name oozie.service.CoordMaterializeTriggerService.lookup.interval
+ * <p/>
+ * The jobs found by a lookup can be partitioned in shards, by job ID hash, that are processed in parallel by a pool of
+ * workers. The number of shards is configured with the property
+ * oozie.service.CoordMaterializeTriggerService.lookup.shards.
  */
 public class CoordMaterializeTriggerService implements Service {
     public static final String CONF_PREFIX = Service.CONF_PREFIX + "CoordMaterializeTriggerService.";
@@ -48,39 +57,57 @@ public class CoordMaterializeTriggerService implements Service {
      * The number of callables to be queued in a batch.
      */
     public static final String CONF_CALLABLE_BATCH_SIZE = CONF_PREFIX + "callable.batch.size";
+    /**
+     * Maximum number of jobs selected by a lookup.
+     */
+    public static final String CONF_LOOKUP_LIMIT = CONF_PREFIX + "lookup.limit";
+    /**
+     * Number of shards the jobs of a lookup are partitioned in, each shard is processed by its own worker.
+     */
+    public static final String CONF_LOOKUP_SHARDS = CONF_PREFIX + "lookup.shards";
 
     private static final String INSTRUMENTATION_GROUP = "coord_job_mat";
     private static final String INSTR_MAT_JOBS_COUNTER = "jobs";
+    private static final String INSTR_LOOKUP_CRON = "lookup";
     private static final int CONF_LOOKUP_INTERVAL_DEFAULT = 300;
     private static final int CONF_MATERIALIZATION_WINDOW_DEFAULT = 3600;
+    private static final int CONF_LOOKUP_LIMIT_DEFAULT = 50;
+
+    private ExecutorService shardExecutor;
 
     /**
      * This runnable class will run in every "interval" to queue CoordMaterializeTransitionXCommand.
      */
     static class CoordMaterializeTriggerRunnable implements Runnable {
         private int materializationWindow;
+        private int lookupLimit;
+        private int shards;
+        private ExecutorService shardExecutor;
         private long delay = 0;
-        private List<XCallable<Void>> callables;
         private List<XCallable<Void>> delayedCallables;
 
         public CoordMaterializeTriggerRunnable(int materializationWindow) {
+            this(materializationWindow, CONF_LOOKUP_LIMIT_DEFAULT, 1, null);
+        }
+
+        /**
+         * @param materializationWindow materialization window, in seconds.
+         * @param lookupLimit maximum number of jobs selected by a lookup.
+         * @param shards number of shards the jobs of a lookup are partitioned in.
+         * @param shardExecutor executor running the shards, if <code>null</code> the shards are processed serially.
+         */
+        public CoordMaterializeTriggerRunnable(int materializationWindow, int lookupLimit, int shards,
+                                               ExecutorService shardExecutor) {
             this.materializationWindow = materializationWindow;
+            this.lookupLimit = lookupLimit;
+            this.shards = Math.max(1, shards);
+            this.shardExecutor = shardExecutor;
         }
 
         @Override
         public void run() {
             runCoordJobMatLookup();
 
-            if (null != callables) {
-                boolean ret = Services.get().get(CallableQueueService.class).queueSerial(callables);
-                if (ret == false) {
-                    XLog.getLog(getClass()).warn(
-                            "Unable to queue the callables commands for CoordMaterializeTriggerRunnable. "
-                                    + "Most possibly command queue is full. Queue size is :"
-                                    + Services.get().get(CallableQueueService.class).queueSize());
-                }
-                callables = null;
-            }
             if (null != delayedCallables) {
                 boolean ret = Services.get().get(CallableQueueService.class).queueSerial(delayedCallables, this.delay);
                 if (ret == false) {
@@ -101,20 +128,103 @@ public class CoordMaterializeTriggerService implements Service {
             XLog.Info.get().clear();
             XLog LOG = XLog.getLog(getClass());
             JPAService jpaService = Services.get().get(JPAService.class);
+            Instrumentation.Cron cron = new Instrumentation.Cron();
+            cron.start();
             try {
 
                 // get current date
                 Date currDate = new Date(new Date().getTime() + CONF_LOOKUP_INTERVAL_DEFAULT * 1000);
                 // get list of all jobs that have actions that should be materialized.
-                CoordJobsToBeMaterializedJPAExecutor cmatcmd = new CoordJobsToBeMaterializedJPAExecutor(currDate, 50);
+                CoordJobsToBeMaterializedJPAExecutor cmatcmd = new CoordJobsToBeMaterializedJPAExecutor(currDate,
+                                                                                                        lookupLimit);
                 List<CoordinatorJobBean> materializeJobs = jpaService.execute(cmatcmd);
                 LOG.debug("CoordMaterializeTriggerService - Curr Date= " + currDate + ", Num jobs to materialize = "
                         + materializeJobs.size());
-                for (CoordinatorJobBean coordJob : materializeJobs) {
+                if (shards == 1 || shardExecutor == null || materializeJobs.size() <= 1) {
+                    new ShardMaterializer(materializeJobs, materializationWindow).call();
+                }
+                else {
+                    runShards(materializeJobs);
+                }
+            }
+            catch (JPAExecutorException jex) {
+                LOG.warn("JPAExecutorException while attempting to materialize coordinator jobs", jex);
+            }
+            cron.stop();
+            Services.get().get(InstrumentationService.class).get().addCron(INSTRUMENTATION_GROUP, INSTR_LOOKUP_CRON,
+                                                                            cron);
+        }
+
+        /**
+         * Partition the jobs by job ID hash and process the shards in parallel, waiting for all of them to complete.
+         *
+         * @param jobs jobs to materialize.
+         */
+        private void runShards(List<CoordinatorJobBean> jobs) {
+            List<List<CoordinatorJobBean>> partitions = new ArrayList<List<CoordinatorJobBean>>(shards);
+            for (int i = 0; i < shards; i++) {
+                partitions.add(new ArrayList<CoordinatorJobBean>());
+            }
+            for (CoordinatorJobBean job : jobs) {
+                partitions.get((job.getId().hashCode() & Integer.MAX_VALUE) % shards).add(job);
+            }
+            List<Future<Void>> futures = new ArrayList<Future<Void>>(shards);
+            for (List<CoordinatorJobBean> partition : partitions) {
+                if (!partition.isEmpty()) {
+                    futures.add(shardExecutor.submit(new ShardMaterializer(partition, materializationWindow)));
+                }
+            }
+            for (Future<Void> future : futures) {
+                try {
+                    future.get();
+                }
+                catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                catch (Exception ex) {
+                    XLog.getLog(getClass()).warn("Exception while materializing a shard of coordinator jobs", ex);
+                }
+            }
+        }
+
+    }
+
+    /**
+     * Queues the materialization of a shard of the jobs found by a lookup.
+     * <p/>
+     * The active actions of all the jobs of the shard are counted with a single grouped query and the last modified
+     * time of the selected jobs is updated in a single transaction before their commands are queued.
+     */
+    static class ShardMaterializer implements Callable<Void> {
+        private List<CoordinatorJobBean> jobs;
+        private int materializationWindow;
+        private List<XCallable<Void>> callables;
+
+        ShardMaterializer(List<CoordinatorJobBean> jobs, int materializationWindow) {
+            this.jobs = jobs;
+            this.materializationWindow = materializationWindow;
+        }
+
+        @Override
+        public Void call() {
+            XLog LOG = XLog.getLog(getClass());
+            if (jobs.isEmpty()) {
+                return null;
+            }
+            JPAService jpaService = Services.get().get(JPAService.class);
+            try {
+                List<String> jobIds = new ArrayList<String>(jobs.size());
+                for (CoordinatorJobBean coordJob : jobs) {
+                    jobIds.add(coordJob.getId());
+                }
+                Map<String, Integer> activeCounts = jpaService.execute(new CoordActionsActiveCountsJPAExecutor(jobIds));
+                List<CoordinatorJobBean> selectedJobs = new ArrayList<CoordinatorJobBean>(jobs.size());
+                Date now = new Date();
+                for (CoordinatorJobBean coordJob : jobs) {
                     Services.get().get(InstrumentationService.class).get().incr(INSTRUMENTATION_GROUP,
                             INSTR_MAT_JOBS_COUNTER, 1);
-                    int numWaitingActions = jpaService
-                            .execute(new CoordActionsActiveCountJPAExecutor(coordJob.getId()));
+                    int numWaitingActions = activeCounts.get(coordJob.getId());
                     LOG.debug("Job :" + coordJob.getId() + "  numWaitingActions : " + numWaitingActions + " MatThrottle : "
                             + coordJob.getMatThrottling());
                     if (numWaitingActions >= coordJob.getMatThrottling()) {
@@ -122,17 +232,27 @@ public class CoordMaterializeTriggerService implements Service {
                                 + numWaitingActions + " actions. MatThrottle is : " + coordJob.getMatThrottling());
                         continue;
                     }
-                    queueCallable(new CoordMaterializeTransitionXCommand(coordJob.getId(), materializationWindow));
                     //update lastModifiedTime so next time others might have higher chance to get pick up
-                    coordJob.setLastModifiedTime(new Date());
-                    jpaService.execute(new CoordJobUpdateJPAExecutor(coordJob));
-
+                    coordJob.setLastModifiedTime(now);
+                    selectedJobs.add(coordJob);
+                }
+                if (selectedJobs.isEmpty()) {
+                    return null;
+                }
+                // the jobs are updated before the commands are queued so the update cannot overwrite their changes
+                jpaService.execute(new CoordJobsUpdateJPAExecutor(selectedJobs));
+                for (CoordinatorJobBean coordJob : selectedJobs) {
+                    queueCallable(new CoordMaterializeTransitionXCommand(coordJob.getId(), materializationWindow));
+                }
+                if (null != callables && !callables.isEmpty()) {
+                    queueCallables();
+                    callables = null;
                 }
-
             }
             catch (JPAExecutorException jex) {
                 LOG.warn("JPAExecutorException while attempting to materialize coordinator jobs", jex);
             }
+            return null;
         }
 
         /**
@@ -148,24 +268,33 @@ public class CoordMaterializeTriggerService implements Service {
             }
             callables.add(callable);
             if (callables.size() == Services.get().getConf().getInt(CONF_CALLABLE_BATCH_SIZE, 10)) {
-                boolean ret = Services.get().get(CallableQueueService.class).queueSerial(callables);
-                if (ret == false) {
-                    XLog.getLog(getClass()).warn(
-                            "Unable to queue the callables commands for CoordMaterializeTriggerRunnable. "
-                                    + "Most possibly command queue is full. Queue size is :"
-                                    + Services.get().get(CallableQueueService.class).queueSize());
-                }
+                queueCallables();
                 callables = new ArrayList<XCallable<Void>>();
             }
         }
 
+        private void queueCallables() {
+            boolean ret = Services.get().get(CallableQueueService.class).queueSerial(callables);
+            if (ret == false) {
+                XLog.getLog(getClass()).warn(
+                        "Unable to queue the callables commands for CoordMaterializeTriggerRunnable. "
+                                + "Most possibly command queue is full. Queue size is :"
+                                + Services.get().get(CallableQueueService.class).queueSize());
+            }
+        }
+
     }
 
     @Override
     public void init(Services services) throws ServiceException {
         Configuration conf = services.getConf();
+        int shards = conf.getInt(CONF_LOOKUP_SHARDS, 1);
+        if (shards > 1) {
+            shardExecutor = Executors.newFixedThreadPool(shards);
+        }
         Runnable lookupTriggerJobsRunnable = new CoordMaterializeTriggerRunnable(conf.getInt(
-                CONF_MATERIALIZATION_WINDOW, CONF_MATERIALIZATION_WINDOW_DEFAULT));// Default is 1 hour
+                CONF_MATERIALIZATION_WINDOW, CONF_MATERIALIZATION_WINDOW_DEFAULT),// Default is 1 hour
+                conf.getInt(CONF_LOOKUP_LIMIT, CONF_LOOKUP_LIMIT_DEFAULT), shards, shardExecutor);
         services.get(SchedulerService.class).schedule(lookupTriggerJobsRunnable, 10,
                                                       conf.getInt(CONF_LOOKUP_INTERVAL, CONF_LOOKUP_INTERVAL_DEFAULT),// Default is 5 minutes
                                                       SchedulerService.Unit.SEC);
@@ -173,6 +302,10 @@ public class CoordMaterializeTriggerService implements Service {
 
     @Override
     public void destroy() {
+        if (shardExecutor != null) {
+            shardExecutor.shutdownNow();
+            shardExecutor = null;
+        }
     }
 
     @Override
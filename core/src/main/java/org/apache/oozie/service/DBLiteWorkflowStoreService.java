@@ -30,6 +30,8 @@ import org.apache.oozie.util.Instrumentation;
 import org.apache.oozie.util.XLog;
 import org.apache.oozie.workflow.WorkflowLib;
 import org.apache.oozie.workflow.lite.DBLiteWorkflowLib;
+import org.apache.oozie.workflow.lite.LiteWorkflowApp;
+import org.apache.oozie.workflow.lite.LiteWorkflowInstance;
 
 public class DBLiteWorkflowStoreService extends LiteWorkflowStoreService implements Instrumentable {
     private boolean selectForUpdate;
@@ -39,6 +41,8 @@ public class DBLiteWorkflowStoreService extends LiteWorkflowStoreService impleme
     public static final String CONF_PREFIX = Service.CONF_PREFIX + "DBLiteWorkflowStoreService.";
     public static final String CONF_METRICS_INTERVAL_MINS = CONF_PREFIX + "status.metrics.collection.interval";
     public static final String CONF_METRICS_INTERVAL_WINDOW = CONF_PREFIX + "status.metrics.window";
+    public static final String CONF_INSTANCE_COMPRESSION = CONF_PREFIX + "instance.compression";
+    public static final String CONF_APP_CACHE_SIZE = CONF_PREFIX + "app.cache.size";
 
     private static final String INSTRUMENTATION_GROUP = "jobstatus";
     private static final String INSTRUMENTATION_GROUP_WINDOW = "windowjobstatus";
@@ -105,6 +109,8 @@ public class DBLiteWorkflowStoreService extends LiteWorkflowStoreService impleme
         int statusMetricsCollectionInterval = conf.getInt(CONF_METRICS_INTERVAL_MINS, 5);
         log = XLog.getLog(getClass());
         selectForUpdate = false;
+        LiteWorkflowInstance.setCompression(conf.getBoolean(CONF_INSTANCE_COMPRESSION, true));
+        LiteWorkflowApp.setCacheSize(conf.getInt(CONF_APP_CACHE_SIZE, 500));
 
         WorkflowJob.Status[] wfStatusArr = WorkflowJob.Status.values();
         for (WorkflowJob.Status aWfStatusArr : wfStatusArr) {
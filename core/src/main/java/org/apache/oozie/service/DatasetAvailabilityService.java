@@ -0,0 +1,479 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.oozie.command.coord.CoordActionInputCheckXCommand;
+import org.apache.oozie.util.Instrumentable;
+import org.apache.oozie.util.Instrumentation;
+
+/**
+ * The dataset availability service checks if dataset instances exist, caching the results for all the coordinator
+ * jobs of the Oozie server.
+ * <p/>
+ * Dataset instances only ever appear, a path found to exist is remembered for as long as it stays in the cache. A
+ * path found to be missing is remembered for a short time only, set by the
+ * <code>oozie.service.DatasetAvailabilityService.negative.ttl</code> property (in seconds).
+ * <p/>
+ * Paths are cached by their normalized URI and by the user and group they are checked as, a path found by a user is
+ * checked again on the file system for another user. The paths checked for datasets with a done-flag include the
+ * done-flag.
+ * The cache is bounded by the <code>oozie.service.DatasetAvailabilityService.cache.size</code> property, the least
+ * recently used paths are evicted when it is full. A cache size of zero disables the cache.
+ * <p/>
+ * If the <code>oozie.service.DatasetAvailabilityService.push.enabled</code> property is true, producers notify the
+ * service when dataset instances land, with {@link #dataAvailable} or the <code>/v1/dataavailable</code> REST
+ * endpoint. The WAITING coordinator actions register their missing paths with the service, a notification queues
+ * an input check for the actions waiting for the notified path, or for paths under it. Polling is then only a
+ * fallback, the input checks of actions with registered paths are requeued every
+ * <code>oozie.service.DatasetAvailabilityService.push.fallback.interval</code> seconds. Registrations are kept in
+ * memory, after a restart the actions register again on their next input check.
+ */
+public class DatasetAvailabilityService implements Service, Instrumentable {
+    private static final String INSTRUMENTATION_GROUP = "dataset-availability";
+
+    public static final String CONF_PREFIX = Service.CONF_PREFIX + "DatasetAvailabilityService.";
+
+    /**
+     * Maximum number of paths in the cache.
+     */
+    public static final String CONF_CACHE_SIZE = CONF_PREFIX + "cache.size";
+
+    /**
+     * Time, in seconds, missing paths are remembered.
+     */
+    public static final String CONF_NEGATIVE_TTL = CONF_PREFIX + "negative.ttl";
+
+    /**
+     * If true, WAITING coordinator actions are woken up by data availability notifications.
+     */
+    public static final String CONF_PUSH_ENABLED = CONF_PREFIX + "push.enabled";
+
+    /**
+     * Time, in seconds, between the input checks of actions waiting for notifications.
+     */
+    public static final String CONF_PUSH_FALLBACK_INTERVAL = CONF_PREFIX + "push.fallback.interval";
+
+    private static final long EXISTS = Long.MAX_VALUE;
+
+    // separates the path from the user and group in the cache keys, it cannot appear in a normalized URI
+    private static final char USER_SEPARATOR = '\u0000';
+
+    private int cacheSize;
+    private long negativeTTL;
+    private Map<String, Long> cache;
+    // cache keys by path, to invalidate a path and the paths under it without scanning the cache
+    private final TreeMap<String, Set<String>> cachedPaths = new TreeMap<String, Set<String>>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private boolean pushEnabled;
+    private long fallbackInterval;
+    private final TreeMap<String, Set<String>> waitingActions = new TreeMap<String, Set<String>>();
+    private final Map<String, Set<String>> actionPaths = new HashMap<String, Set<String>>();
+    private final AtomicLong notifications = new AtomicLong();
+    private final AtomicLong notifiedActions = new AtomicLong();
+
+    /**
+     * Initialize the dataset availability service.
+     *
+     * @param services services instance.
+     */
+    @Override
+    @SuppressWarnings("serial")
+    public void init(Services services) {
+        Configuration conf = services.getConf();
+        cacheSize = conf.getInt(CONF_CACHE_SIZE, 100000);
+        negativeTTL = conf.getInt(CONF_NEGATIVE_TTL, 30) * 1000L;
+        cache = new LinkedHashMap<String, Long>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                if (size() > cacheSize) {
+                    unindex(eldest.getKey());
+                    return true;
+                }
+                return false;
+            }
+        };
+        pushEnabled = conf.getBoolean(CONF_PUSH_ENABLED, false);
+        fallbackInterval = conf.getInt(CONF_PUSH_FALLBACK_INTERVAL, 1800) * 1000L;
+    }
+
+    /**
+     * Destroy the dataset availability service.
+     */
+    @Override
+    public void destroy() {
+        clear();
+        synchronized (waitingActions) {
+            waitingActions.clear();
+            actionPaths.clear();
+        }
+    }
+
+    /**
+     * Return the public interface for the dataset availability service.
+     *
+     * @return {@link DatasetAvailabilityService}.
+     */
+    @Override
+    public Class<? extends Service> getInterface() {
+        return DatasetAvailabilityService.class;
+    }
+
+    /**
+     * Instruments the dataset availability service.
+     * <p/>
+     * It exposes the number of cached paths, the number of checks answered from the cache (hits) and from the file
+     * system (misses), the number of registered WAITING actions, the number of notifications and the number of
+     * actions they woke up.
+     *
+     * @param instr instance to instrument the dataset availability service to.
+     */
+    public void instrument(Instrumentation instr) {
+        instr.addVariable(INSTRUMENTATION_GROUP, "size", new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                return (long) size();
+            }
+        });
+        instr.addVariable(INSTRUMENTATION_GROUP, "hits", new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                return getHits();
+            }
+        });
+        instr.addVariable(INSTRUMENTATION_GROUP, "misses", new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                return getMisses();
+            }
+        });
+        instr.addVariable(INSTRUMENTATION_GROUP, "waiting.actions", new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                return (long) getWaitingActions();
+            }
+        });
+        instr.addVariable(INSTRUMENTATION_GROUP, "notifications", new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                return notifications.get();
+            }
+        });
+        instr.addVariable(INSTRUMENTATION_GROUP, "notified.actions", new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                return notifiedActions.get();
+            }
+        });
+    }
+
+    /**
+     * Check if a path exists.
+     * <p/>
+     * The file system is checked only if the path is not cached for the user and group or if it was found missing more
+     * than the negative TTL ago.
+     *
+     * @param path path to check, for datasets with a done-flag the path of the done-flag.
+     * @param user user name.
+     * @param group group name.
+     * @param conf configuration used to create the file system.
+     * @return <code>true</code> if the path exists.
+     * @throws IOException thrown if the file system could not be checked.
+     * @throws HadoopAccessorException thrown if the file system could not be created.
+     */
+    public boolean exists(String path, String user, String group, Configuration conf) throws IOException,
+            HadoopAccessorException {
+        Boolean cached = getCached(path, user, group);
+        if (cached != null) {
+            return cached;
+        }
+        misses.incrementAndGet();
+        Path fsPath = new Path(path);
+        boolean exists = Services.get().get(HadoopAccessorService.class).createFileSystem(user, group,
+                fsPath.toUri(), conf).exists(fsPath);
+        put(path, user, group, exists);
+        return exists;
+    }
+
+    /**
+     * Return the cached result of a path check, without checking the file system.
+     *
+     * @param path path to check, for datasets with a done-flag the path of the done-flag.
+     * @param user user name.
+     * @param group group name.
+     * @return <code>true</code> or <code>false</code> if the path is cached for the user and group, <code>null</code>
+     *         if it is not cached or if it was found missing more than the negative TTL ago.
+     */
+    public Boolean getCached(String path, String user, String group) {
+        if (cacheSize > 0) {
+            String key = getKey(new Path(path)) + USER_SEPARATOR + user + ":" + group;
+            Long expiration;
+            synchronized (cache) {
+                expiration = cache.get(key);
+            }
+            if (expiration != null && expiration > System.currentTimeMillis()) {
+                hits.incrementAndGet();
+                return expiration == EXISTS;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Cache the result of a path check done by the caller, for example by listing the parent directory of the path.
+     *
+     * @param path checked path, for datasets with a done-flag the path of the done-flag.
+     * @param user user name.
+     * @param group group name.
+     * @param exists <code>true</code> if the path exists.
+     */
+    public void put(String path, String user, String group, boolean exists) {
+        if (cacheSize > 0) {
+            String key = getKey(new Path(path)) + USER_SEPARATOR + user + ":" + group;
+            long now = System.currentTimeMillis();
+            synchronized (cache) {
+                // a concurrent check may have found the path after this one
+                Long current = cache.get(key);
+                if (exists || current == null || current != EXISTS) {
+                    if (current == null) {
+                        index(key);
+                    }
+                    cache.put(key, (exists) ? EXISTS : now + negativeTTL);
+                }
+            }
+        }
+    }
+
+    /**
+     * Remove a path, and all the paths under it, from the cache.
+     * <p/>
+     * It must be called when dataset instances are deleted, for example when the output of a coordinator action is
+     * cleaned up for a rerun.
+     *
+     * @param path path to remove.
+     */
+    public void invalidate(String path) {
+        String key = getKey(new Path(path));
+        synchronized (cache) {
+            Set<String> exact = cachedPaths.remove(key);
+            if (exact != null) {
+                for (String cached : exact) {
+                    cache.remove(cached);
+                }
+            }
+            Map<String, Set<String>> under = cachedPaths.subMap(key + "/", key + "/\uffff");
+            for (Set<String> keys : under.values()) {
+                for (String cached : keys) {
+                    cache.remove(cached);
+                }
+            }
+            under.clear();
+        }
+    }
+
+    /**
+     * Remove all the paths from the cache.
+     */
+    public void clear() {
+        synchronized (cache) {
+            cache.clear();
+            cachedPaths.clear();
+        }
+    }
+
+    // adds a cache key to the index of its path, called holding the cache lock
+    private void index(String key) {
+        String path = key.substring(0, key.indexOf(USER_SEPARATOR));
+        Set<String> keys = cachedPaths.get(path);
+        if (keys == null) {
+            keys = new HashSet<String>();
+            cachedPaths.put(path, keys);
+        }
+        keys.add(key);
+    }
+
+    // removes a cache key from the index of its path, called holding the cache lock
+    private void unindex(String key) {
+        String path = key.substring(0, key.indexOf(USER_SEPARATOR));
+        Set<String> keys = cachedPaths.get(path);
+        if (keys != null) {
+            keys.remove(key);
+            if (keys.isEmpty()) {
+                cachedPaths.remove(path);
+            }
+        }
+    }
+
+    /**
+     * Return the number of cached paths.
+     *
+     * @return the number of cached paths.
+     */
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    /**
+     * Return the number of checks answered from the cache.
+     *
+     * @return the number of cache hits.
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Return the number of checks answered from the file system.
+     *
+     * @return the number of cache misses.
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Return if WAITING coordinator actions are woken up by data availability notifications.
+     *
+     * @return <code>true</code> if notifications are enabled.
+     */
+    public boolean isPushEnabled() {
+        return pushEnabled;
+    }
+
+    /**
+     * Return the time between the input checks of actions waiting for notifications.
+     *
+     * @return the fallback interval in milliseconds.
+     */
+    public long getFallbackInterval() {
+        return fallbackInterval;
+    }
+
+    /**
+     * Register the missing paths of a WAITING coordinator action, replacing its previous registration.
+     * <p/>
+     * It does nothing if notifications are not enabled.
+     *
+     * @param actionId coordinator action ID.
+     * @param paths missing paths of the action, for datasets with a done-flag the paths of the done-flags.
+     */
+    public void registerWaitingAction(String actionId, Collection<String> paths) {
+        if (pushEnabled) {
+            Set<String> keys = new HashSet<String>();
+            for (String path : paths) {
+                keys.add(getKey(new Path(path)));
+            }
+            synchronized (waitingActions) {
+                removeWaitingAction(actionId);
+                actionPaths.put(actionId, keys);
+                for (String key : keys) {
+                    Set<String> actionIds = waitingActions.get(key);
+                    if (actionIds == null) {
+                        actionIds = new HashSet<String>();
+                        waitingActions.put(key, actionIds);
+                    }
+                    actionIds.add(actionId);
+                }
+            }
+        }
+    }
+
+    /**
+     * Remove the registration of a coordinator action, it must be called when the action is no longer WAITING.
+     *
+     * @param actionId coordinator action ID.
+     */
+    public void unregisterWaitingAction(String actionId) {
+        synchronized (waitingActions) {
+            removeWaitingAction(actionId);
+        }
+    }
+
+    /**
+     * Notify that a path is available.
+     * <p/>
+     * An input check is queued for the coordinator actions waiting for the path or for paths under it, the
+     * notification removes their registration. Cached missing results for the path are discarded.
+     *
+     * @param path available path, a dataset instance or its done-flag.
+     * @return the IDs of the coordinator actions an input check was queued for.
+     */
+    public List<String> dataAvailable(String path) {
+        String key = getKey(new Path(path));
+        invalidate(path);
+        notifications.incrementAndGet();
+        Set<String> actionIds = new LinkedHashSet<String>();
+        synchronized (waitingActions) {
+            Set<String> exact = waitingActions.get(key);
+            if (exact != null) {
+                actionIds.addAll(exact);
+            }
+            for (Set<String> under : waitingActions.subMap(key + "/", key + "/\uffff").values()) {
+                actionIds.addAll(under);
+            }
+            for (String actionId : actionIds) {
+                removeWaitingAction(actionId);
+            }
+        }
+        CallableQueueService callableQueue = Services.get().get(CallableQueueService.class);
+        for (String actionId : actionIds) {
+            callableQueue.queue(new CoordActionInputCheckXCommand(actionId, true));
+        }
+        notifiedActions.addAndGet(actionIds.size());
+        return new ArrayList<String>(actionIds);
+    }
+
+    /**
+     * Return the number of coordinator actions registered as waiting for notifications.
+     *
+     * @return the number of registered actions.
+     */
+    public int getWaitingActions() {
+        synchronized (waitingActions) {
+            return actionPaths.size();
+        }
+    }
+
+    private void removeWaitingAction(String actionId) {
+        Set<String> keys = actionPaths.remove(actionId);
+        if (keys != null) {
+            for (String key : keys) {
+                Set<String> actionIds = waitingActions.get(key);
+                if (actionIds != null) {
+                    actionIds.remove(actionId);
+                    if (actionIds.isEmpty()) {
+                        waitingActions.remove(key);
+                    }
+                }
+            }
+        }
+    }
+
+    private static String getKey(Path path) {
+        return path.toUri().normalize().toString();
+    }
+
+}
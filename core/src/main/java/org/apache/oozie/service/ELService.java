@@ -14,6 +14,8 @@
  */
 package org.apache.oozie.service;
 
+import org.apache.oozie.util.Instrumentable;
+import org.apache.oozie.util.Instrumentation;
 import org.apache.oozie.util.XLog;
 import org.apache.oozie.util.ELEvaluator;
 import org.apache.oozie.ErrorCode;
@@ -32,9 +34,12 @@ import java.util.List;
  * of constant definitions to be available for EL evaluations. <p/> {@link #CONF_FUNCTIONS} list of function definitions
  * to be available for EL evalations. <p/> Definitions must be separated by a comma, definitions are trimmed. <p/> The
  * syntax for a constant definition is <code>PREFIX:NAME=CLASS_NAME#CONSTANT_NAME</code>. <p/> The syntax for a constant
- * definition is <code>PREFIX:NAME=CLASS_NAME#METHOD_NAME</code>.
+ * definition is <code>PREFIX:NAME=CLASS_NAME#METHOD_NAME</code>. <p/> {@link #CONF_PARSE_CACHE_SIZE} maximum number of
+ * parsed expressions cached by the {@link ELEvaluator} instances of all groups.
  */
-public class ELService implements Service {
+public class ELService implements Service, Instrumentable {
+
+    private static final String INSTRUMENTATION_GROUP = "el";
 
     public static final String CONF_PREFIX = Service.CONF_PREFIX + "ELService.";
 
@@ -48,6 +53,8 @@ public class ELService implements Service {
 
     public static final String CONF_GROUPS = CONF_PREFIX + "groups";
 
+    public static final String CONF_PARSE_CACHE_SIZE = CONF_PREFIX + "parse.cache.size";
+
     private final XLog log = XLog.getLog(getClass());
 
     //<Group Name>, <List of constants>
@@ -131,6 +138,33 @@ public class ELService implements Service {
             tmpFunctions.addAll(extractFunctions(services.getConf(), CONF_EXT_FUNCTIONS + group));
             functions.put(group, tmpFunctions);
         }
+        ELEvaluator.setParseCacheSize(services.getConf().getInt(CONF_PARSE_CACHE_SIZE,
+                                                                ELEvaluator.DEFAULT_PARSE_CACHE_SIZE));
+    }
+
+    /**
+     * Instruments the EL service.
+     * <p/>
+     * It exposes the size, hits and misses of the parse cache of the {@link ELEvaluator}.
+     *
+     * @param instr instance to instrument the EL service to.
+     */
+    public void instrument(Instrumentation instr) {
+        instr.addVariable(INSTRUMENTATION_GROUP, "parse.cache.size", new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                return (long) ELEvaluator.getParseCacheSize();
+            }
+        });
+        instr.addVariable(INSTRUMENTATION_GROUP, "parse.cache.hits", new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                return ELEvaluator.getParseCacheHits();
+            }
+        });
+        instr.addVariable(INSTRUMENTATION_GROUP, "parse.cache.misses", new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                return ELEvaluator.getParseCacheMisses();
+            }
+        });
     }
 
     /**
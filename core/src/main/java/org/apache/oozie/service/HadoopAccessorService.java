@@ -22,6 +22,8 @@ import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.security.UserGroupInformation;
 import org.apache.hadoop.filecache.DistributedCache;
 import org.apache.oozie.ErrorCode;
+import org.apache.oozie.util.Instrumentable;
+import org.apache.oozie.util.Instrumentation;
 import org.apache.oozie.util.ParamChecker;
 import org.apache.oozie.util.XConfiguration;
 import org.apache.oozie.util.XLog;
@@ -30,23 +32,56 @@ import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.security.PrivilegedExceptionAction;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.HashSet;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * The HadoopAccessorService returns HadoopAccessor instances configured to work on behalf of a user-group. <p/> The
  * default accessor used is the base accessor which just injects the UGI into the configuration instance used to
  * create/obtain JobClient and ileSystem instances. <p/> The HadoopAccess class to use can be configured in the
  * <code>oozie-site.xml</code> using the <code>oozie.service.HadoopAccessorService.accessor.class</code> property.
+ * <p/>
+ * The FileSystem and JobClient instances are pooled per user, group, NameNode/JobTracker URI and the values of the
+ * configuration properties they depend on (<code>fs.*</code>, <code>dfs.*</code>, <code>ipc.*</code>,
+ * <code>hadoop.rpc.*</code>, <code>hadoop.security.*</code> and, for JobClients, <code>mapred.job.tracker</code>). The
+ * other properties of the given configuration are not taken into account: a pooled instance may have been created
+ * with a configuration that differs from the caller's in those. The pools are bounded and evict the instances that
+ * have been idle for longer than the configured idle timeout. As with the Hadoop FileSystem cache, the FileSystem
+ * instances returned by the service must not be closed by their users.
  */
-public class HadoopAccessorService implements Service {
+public class HadoopAccessorService implements Service, Instrumentable {
 
     public static final String CONF_PREFIX = Service.CONF_PREFIX + "HadoopAccessorService.";
     public static final String JOB_TRACKER_WHITELIST = CONF_PREFIX + "jobTracker.whitelist";
     public static final String NAME_NODE_WHITELIST = CONF_PREFIX + "nameNode.whitelist";
+    public static final String CONF_FILESYSTEM_POOL_SIZE = CONF_PREFIX + "filesystem.pool.size";
+    public static final String CONF_JOBCLIENT_POOL_SIZE = CONF_PREFIX + "jobclient.pool.size";
+    public static final String CONF_POOL_IDLE_TIMEOUT = CONF_PREFIX + "pool.idle.timeout";
+
+    private static final String INSTRUMENTATION_GROUP = "hadoopaccessor";
+
+    /**
+     * Prefixes of the configuration properties included in the FileSystem pool key.
+     */
+    protected static final String[] FILESYSTEM_KEY_PREFIXES = {"fs.", "dfs.", "ipc.", "hadoop.rpc.", "hadoop.security."};
+
+    /**
+     * Prefixes of the configuration properties included in the JobClient pool key.
+     */
+    protected static final String[] JOBCLIENT_KEY_PREFIXES = {"mapred.job.tracker", "fs.", "dfs.", "ipc.", "hadoop.rpc.",
+            "hadoop.security."};
 
     private Set<String> jobTrackerWhitelist = new HashSet<String>();
     private Set<String> nameNodeWhitelist = new HashSet<String>();
+    private HandlePool<FileSystem> fileSystemPool = new HandlePool<FileSystem>(0, 0);
+    private HandlePool<JobClient> jobClientPool = new JobClientPool(0, 0);
 
     public void init(Services services) throws ServiceException {
         for (String name : services.getConf().getStringCollection(JOB_TRACKER_WHITELIST)) {
@@ -69,6 +104,10 @@ public class HadoopAccessorService implements Service {
         XLog.getLog(getClass()).info(
                 "NAME_NODE_WHITELIST :" + services.getConf().getStringCollection(NAME_NODE_WHITELIST)
                         + ", Total entries :" + nameNodeWhitelist.size());
+        long idleTimeout = services.getConf().getLong(CONF_POOL_IDLE_TIMEOUT, 600) * 1000;
+        fileSystemPool = new HandlePool<FileSystem>(services.getConf().getInt(CONF_FILESYSTEM_POOL_SIZE, 1000),
+                                                    idleTimeout);
+        jobClientPool = new JobClientPool(services.getConf().getInt(CONF_JOBCLIENT_POOL_SIZE, 100), idleTimeout);
         init(services.getConf());
     }
 
@@ -76,6 +115,18 @@ public class HadoopAccessorService implements Service {
     }
 
     public void destroy() {
+        fileSystemPool.clear();
+        jobClientPool.clear();
+    }
+
+    /**
+     * Instruments the Hadoop accessor service.
+     *
+     * @param instr instance to instrument the Hadoop accessor service to.
+     */
+    public void instrument(Instrumentation instr) {
+        fileSystemPool.instrument(instr, "filesystem.pool.");
+        jobClientPool.instrument(instr, "jobclient.pool.");
     }
 
     public Class<? extends Service> getInterface() {
@@ -92,13 +143,18 @@ public class HadoopAccessorService implements Service {
      */
     public JobClient createJobClient(String user, String group, JobConf conf) throws HadoopAccessorException {
         validateJobTracker(conf.get("mapred.job.tracker"));
-        conf = createConfiguration(user, group, conf);
-        try {
-            return new JobClient(conf);
-        }
-        catch (IOException e) {
-            throw new HadoopAccessorException(ErrorCode.E0902, e);
+        String key = getPoolKey(user, group, conf.get("mapred.job.tracker"), conf);
+        JobClient jobClient = jobClientPool.get(key);
+        if (jobClient == null) {
+            conf = createConfiguration(user, group, conf);
+            try {
+                jobClient = jobClientPool.put(key, newJobClient(key, conf));
+            }
+            catch (IOException e) {
+                throw new HadoopAccessorException(ErrorCode.E0902, e);
+            }
         }
+        return jobClient;
     }
 
     /**
@@ -111,9 +167,15 @@ public class HadoopAccessorService implements Service {
      */
     public FileSystem createFileSystem(String user, String group, Configuration conf) throws HadoopAccessorException {
         try {
-            validateNameNode(new URI(conf.get("fs.default.name")).getAuthority());
-            conf = createConfiguration(user, group, conf);
-            return FileSystem.get(conf);
+            URI uri = new URI(conf.get("fs.default.name"));
+            validateNameNode(uri.getAuthority());
+            String key = getPoolKey(user, group, uri, conf);
+            FileSystem fs = fileSystemPool.get(key);
+            if (fs == null) {
+                conf = createConfiguration(user, group, conf);
+                fs = fileSystemPool.put(key, FileSystem.get(conf));
+            }
+            return fs;
         }
         catch (IOException e) {
             throw new HadoopAccessorException(ErrorCode.E0902, e);
@@ -136,15 +198,104 @@ public class HadoopAccessorService implements Service {
     public FileSystem createFileSystem(String user, String group, URI uri, Configuration conf)
             throws HadoopAccessorException {
         validateNameNode(uri.getAuthority());
+        String key = getPoolKey(user, group, uri, conf);
+        FileSystem fs = fileSystemPool.get(key);
+        if (fs != null) {
+            return fs;
+        }
         conf = createConfiguration(user, group, conf);
         try {
-            return FileSystem.get(uri, conf);
+            return fileSystemPool.put(key, FileSystem.get(uri, conf));
         }
         catch (IOException e) {
             throw new HadoopAccessorException(ErrorCode.E0902, e);
         }
     }
 
+    /**
+     * Create a JobClient, if the JobClient pool is enabled the JobClient is kept open when it is closed, the pool
+     * closes it when it is evicted.
+     * <p/>
+     * It must be called with the credentials of the user the JobClient is for.
+     *
+     * @param key pool key the JobClient will be pooled with, <code>null</code> if it will not be pooled.
+     * @param conf JobConf with all necessary information to create the JobClient.
+     * @return the JobClient.
+     * @throws IOException thrown if the JobClient could not be created.
+     */
+    protected JobClient newJobClient(String key, JobConf conf) throws IOException {
+        return (jobClientPool.isEnabled() && key != null) ? new PooledJobClient(conf) : new JobClient(conf);
+    }
+
+    /**
+     * Return the key of a FileSystem in the FileSystem pool.
+     *
+     * @param user user name.
+     * @param group group name.
+     * @param uri file system URI.
+     * @param conf configuration the FileSystem is created with.
+     * @return the pool key, <code>null</code> if the URI is relative, relative URIs are not pooled.
+     */
+    protected String getPoolKey(String user, String group, URI uri, Configuration conf) {
+        ParamChecker.notEmpty(user, "user");
+        ParamChecker.notEmpty(group, "group");
+        if (uri.getScheme() == null) {
+            return null;
+        }
+        String authority = (uri.getAuthority() != null) ? uri.getAuthority() : "";
+        return getPoolKey(user, group, uri.getScheme() + "://" + authority, conf, FILESYSTEM_KEY_PREFIXES);
+    }
+
+    /**
+     * Return the key of a JobClient in the JobClient pool.
+     *
+     * @param user user name.
+     * @param group group name.
+     * @param uri JobTracker URI.
+     * @param conf configuration the JobClient is created with.
+     * @return the pool key, <code>null</code> if the URI is <code>null</code>.
+     */
+    protected String getPoolKey(String user, String group, String uri, Configuration conf) {
+        return getPoolKey(user, group, uri, conf, JOBCLIENT_KEY_PREFIXES);
+    }
+
+    private String getPoolKey(String user, String group, String uri, Configuration conf, String[] prefixes) {
+        ParamChecker.notEmpty(user, "user");
+        ParamChecker.notEmpty(group, "group");
+        if (uri == null) {
+            return null;
+        }
+        // sorted, two configurations with the same properties give the same key
+        Map<String, String> props = new TreeMap<String, String>();
+        for (Map.Entry<String, String> entry : conf) {
+            for (String prefix : prefixes) {
+                if (entry.getKey().startsWith(prefix)) {
+                    props.put(entry.getKey(), entry.getValue());
+                    break;
+                }
+            }
+        }
+        return user + "," + group + "," + uri.toLowerCase().trim() + "," + props;
+    }
+
+    /**
+     * Return the FileSystem pool.
+     *
+     * @return the FileSystem pool.
+     */
+    protected HandlePool<FileSystem> getFileSystemPool() {
+        return fileSystemPool;
+    }
+
+    /**
+     * Return the JobClient pool.
+     *
+     * @return the JobClient pool.
+     */
+    protected HandlePool<JobClient> getJobClientPool() {
+        return jobClientPool;
+    }
+
     /**
      * Validate Job tracker
      * @param jobTrackerUri
@@ -193,4 +344,266 @@ public class HadoopAccessorService implements Service {
         DistributedCache.addFileToClassPath(file, conf);
     }
 
+    /**
+     * Bounded pool of Hadoop handles keyed by user, group and URI.
+     * <p/>
+     * Handles idle for longer than the idle timeout are evicted when the pool is accessed, the least recently used
+     * handle is evicted when the pool is full. A pool with a maximum size of zero does not keep any handle.
+     */
+    protected static class HandlePool<T> {
+        private final int maxSize;
+        private final long idleTimeout;
+        private final LinkedHashMap<String, Handle<T>> handles = new LinkedHashMap<String, Handle<T>>(16, 0.75f, true);
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong misses = new AtomicLong();
+        private final AtomicLong evictions = new AtomicLong();
+
+        private static class Handle<T> {
+            private final T handle;
+            private long lastAccess;
+
+            private Handle(T handle, long lastAccess) {
+                this.handle = handle;
+                this.lastAccess = lastAccess;
+            }
+        }
+
+        /**
+         * @param maxSize maximum number of handles in the pool.
+         * @param idleTimeout time, in milliseconds, after which an unused handle is evicted.
+         */
+        public HandlePool(int maxSize, long idleTimeout) {
+            this.maxSize = maxSize;
+            this.idleTimeout = idleTimeout;
+        }
+
+        /**
+         * Return if the pool keeps handles.
+         *
+         * @return if the pool keeps handles.
+         */
+        public boolean isEnabled() {
+            return maxSize > 0;
+        }
+
+        /**
+         * Get a pooled handle.
+         *
+         * @param key pool key, if <code>null</code> the pool is bypassed.
+         * @return the pooled handle, <code>null</code> if there is none.
+         */
+        public T get(String key) {
+            if (!isEnabled() || key == null) {
+                return null;
+            }
+            List<T> evicted = new ArrayList<T>();
+            T handle = null;
+            synchronized (this) {
+                long now = System.currentTimeMillis();
+                evictIdle(now, evicted);
+                Handle<T> pooled = handles.get(key);
+                if (pooled != null) {
+                    pooled.lastAccess = now;
+                    handle = pooled.handle;
+                }
+            }
+            release(evicted);
+            if (handle != null) {
+                hits.incrementAndGet();
+            }
+            else {
+                misses.incrementAndGet();
+            }
+            return handle;
+        }
+
+        /**
+         * Add a handle to the pool.
+         * <p/>
+         * If another handle was added concurrently for the same key, the given handle is released and the pooled one
+         * is returned.
+         *
+         * @param key pool key, if <code>null</code> the pool is bypassed.
+         * @param handle handle to add.
+         * @return the pooled handle.
+         */
+        public T put(String key, T handle) {
+            if (!isEnabled() || key == null) {
+                return handle;
+            }
+            List<T> evicted = new ArrayList<T>();
+            synchronized (this) {
+                long now = System.currentTimeMillis();
+                Handle<T> pooled = handles.get(key);
+                if (pooled != null) {
+                    pooled.lastAccess = now;
+                    evicted.add(handle);
+                    handle = pooled.handle;
+                }
+                else {
+                    handles.put(key, new Handle<T>(handle, now));
+                    Iterator<Handle<T>> it = handles.values().iterator();
+                    while (handles.size() > maxSize) {
+                        evicted.add(it.next().handle);
+                        it.remove();
+                        evictions.incrementAndGet();
+                    }
+                }
+            }
+            release(evicted);
+            return handle;
+        }
+
+        // handles are in access order, the idle ones are at the head
+        private void evictIdle(long now, List<T> evicted) {
+            Iterator<Handle<T>> it = handles.values().iterator();
+            while (it.hasNext()) {
+                Handle<T> pooled = it.next();
+                if (now - pooled.lastAccess <= idleTimeout) {
+                    break;
+                }
+                evicted.add(pooled.handle);
+                it.remove();
+                evictions.incrementAndGet();
+            }
+        }
+
+        /**
+         * Remove all the handles from the pool.
+         */
+        public void clear() {
+            List<T> evicted = new ArrayList<T>();
+            synchronized (this) {
+                for (Handle<T> pooled : handles.values()) {
+                    evicted.add(pooled.handle);
+                }
+                handles.clear();
+            }
+            release(evicted);
+        }
+
+        private void release(List<T> evicted) {
+            for (T handle : evicted) {
+                try {
+                    release(handle);
+                }
+                catch (IOException ex) {
+                    XLog.getLog(getClass()).warn("Could not release pooled handle, {0}", ex.getMessage(), ex);
+                }
+            }
+        }
+
+        /**
+         * Release a handle that is no longer pooled.
+         * <p/>
+         * This implementation does nothing, pooled FileSystem instances are shared with the Hadoop FileSystem cache
+         * and must not be closed.
+         *
+         * @param handle handle to release.
+         * @throws IOException thrown if the handle could not be released.
+         */
+        protected void release(T handle) throws IOException {
+        }
+
+        /**
+         * Return the number of handles in the pool.
+         *
+         * @return the number of handles in the pool.
+         */
+        public synchronized int size() {
+            return handles.size();
+        }
+
+        /**
+         * Return the number of gets that returned a pooled handle.
+         *
+         * @return the number of gets that returned a pooled handle.
+         */
+        public long getHits() {
+            return hits.get();
+        }
+
+        /**
+         * Return the number of gets that did not return a pooled handle.
+         *
+         * @return the number of gets that did not return a pooled handle.
+         */
+        public long getMisses() {
+            return misses.get();
+        }
+
+        /**
+         * Return the number of handles evicted because they were idle or the pool was full.
+         *
+         * @return the number of evicted handles.
+         */
+        public long getEvictions() {
+            return evictions.get();
+        }
+
+        private void instrument(Instrumentation instr, String prefix) {
+            instr.addVariable(INSTRUMENTATION_GROUP, prefix + "size", new Instrumentation.Variable<Long>() {
+                public Long getValue() {
+                    return (long) size();
+                }
+            });
+            instr.addVariable(INSTRUMENTATION_GROUP, prefix + "hits", new Instrumentation.Variable<Long>() {
+                public Long getValue() {
+                    return getHits();
+                }
+            });
+            instr.addVariable(INSTRUMENTATION_GROUP, prefix + "misses", new Instrumentation.Variable<Long>() {
+                public Long getValue() {
+                    return getMisses();
+                }
+            });
+            instr.addVariable(INSTRUMENTATION_GROUP, prefix + "evictions", new Instrumentation.Variable<Long>() {
+                public Long getValue() {
+                    return getEvictions();
+                }
+            });
+        }
+    }
+
+    /**
+     * JobClient pool, evicted JobClients are closed.
+     */
+    private static class JobClientPool extends HandlePool<JobClient> {
+
+        public JobClientPool(int maxSize, long idleTimeout) {
+            super(maxSize, idleTimeout);
+        }
+
+        @Override
+        protected void release(JobClient jobClient) throws IOException {
+            if (jobClient instanceof PooledJobClient) {
+                ((PooledJobClient) jobClient).release();
+            }
+            else {
+                jobClient.close();
+            }
+        }
+    }
+
+    /**
+     * JobClient kept open by the JobClient pool, closing it does nothing.
+     */
+    protected static class PooledJobClient extends JobClient {
+
+        public PooledJobClient(JobConf conf) throws IOException {
+            super(conf);
+        }
+
+        /**
+         * Does nothing, the JobClient pool closes the JobClient when it is evicted.
+         */
+        @Override
+        public synchronized void close() {
+        }
+
+        private void release() throws IOException {
+            super.close();
+        }
+    }
+
 }
@@ -38,13 +38,20 @@ import org.apache.oozie.client.rest.JsonCoordinatorJob;
 import org.apache.oozie.client.rest.JsonSLAEvent;
 import org.apache.oozie.client.rest.JsonWorkflowAction;
 import org.apache.oozie.client.rest.JsonWorkflowJob;
+import org.apache.oozie.executor.jpa.JPABeanCache;
+import org.apache.oozie.executor.jpa.JPACacheableExecutor;
 import org.apache.oozie.executor.jpa.JPAExecutor;
 import org.apache.oozie.executor.jpa.JPAExecutorException;
 import org.apache.oozie.util.IOUtils;
 import org.apache.oozie.util.Instrumentable;
 import org.apache.oozie.util.Instrumentation;
 import org.apache.oozie.util.XLog;
+import org.apache.openjpa.event.AbstractTransactionListener;
+import org.apache.openjpa.event.TransactionEvent;
+import org.apache.openjpa.persistence.FetchPlan;
 import org.apache.openjpa.persistence.OpenJPAEntityManagerFactorySPI;
+import org.apache.openjpa.persistence.OpenJPAEntityManagerSPI;
+import org.apache.openjpa.persistence.OpenJPAPersistence;
 
 /**
  * Service that manages JPA and executes {@link JPAExecutor}.
@@ -67,9 +74,16 @@ public class JPAService implements Service, Instrumentable {
     public static final String CONF_VALIDATE_DB_CONN_EVICTION_INTERVAL = CONF_PREFIX + "validate.db.connection.eviction.interval";
     public static final String CONF_VALIDATE_DB_CONN_EVICTION_NUM = CONF_PREFIX + "validate.db.connection.eviction.num";
 
+    /**
+     * Maximum number of workflow jobs and of coordinator jobs kept in the bean caches, 0 disables the caches.
+     */
+    public static final String CONF_CACHE_SIZE = CONF_PREFIX + "cache.size";
+
 
     private EntityManagerFactory factory;
     private Instrumentation instr;
+    private JPABeanCache<WorkflowJobBean> workflowJobCache;
+    private JPABeanCache<CoordinatorJobBean> coordJobCache;
 
     private static XLog LOG;
 
@@ -85,6 +99,10 @@ public class JPAService implements Service, Instrumentable {
     @Override
     public void instrument(Instrumentation instr) {
         this.instr = instr;
+        if (isCacheEnabled()) {
+            workflowJobCache.instrument(INSTRUMENTATION_GROUP, instr);
+            coordJobCache.instrument(INSTRUMENTATION_GROUP, instr);
+        }
     }
 
     /**
@@ -106,6 +124,7 @@ public class JPAService implements Service, Instrumentable {
         boolean validateDbConn = conf.getBoolean(CONF_VALIDATE_DB_CONN, false);
         String evictionInterval = conf.get(CONF_VALIDATE_DB_CONN_EVICTION_INTERVAL, "300000").trim();
         String evictionNum = conf.get(CONF_VALIDATE_DB_CONN_EVICTION_NUM, "10").trim();
+        int cacheSize = conf.getInt(CONF_CACHE_SIZE, 0);
 
         if (!url.startsWith("jdbc:")) {
             throw new ServiceException(ErrorCode.E0608, url, "invalid JDBC URL, must start with 'jdbc:'");
@@ -175,25 +194,73 @@ public class JPAService implements Service, Instrumentable {
         LOG.info("JPA configuration: {0}", spi.getConfiguration().getConnectionProperties());
         entityManager.getTransaction().commit();
         entityManager.close();
+
+        if (cacheSize > 0) {
+            workflowJobCache = JPABeanCache.createWorkflowJobCache(cacheSize);
+            coordJobCache = JPABeanCache.createCoordJobCache(cacheSize);
+            LOG.info("Job bean caches enabled, size [{0}]", cacheSize);
+        }
     }
 
     /**
      * Destroy the JPAService
      */
     public void destroy() {
+        workflowJobCache = null;
+        coordJobCache = null;
         if (factory != null && factory.isOpen()) {
             factory.close();
         }
     }
 
+    /**
+     * Return if the job bean caches are enabled.
+     *
+     * @return if the job bean caches are enabled.
+     */
+    public boolean isCacheEnabled() {
+        return workflowJobCache != null;
+    }
+
+    /**
+     * Return the workflow job bean cache.
+     *
+     * @return the workflow job bean cache, <code>null</code> if the caches are disabled.
+     */
+    public JPABeanCache<WorkflowJobBean> getWorkflowJobCache() {
+        return workflowJobCache;
+    }
+
+    /**
+     * Return the coordinator job bean cache.
+     *
+     * @return the coordinator job bean cache, <code>null</code> if the caches are disabled.
+     */
+    public JPABeanCache<CoordinatorJobBean> getCoordJobCache() {
+        return coordJobCache;
+    }
+
     /**
      * Execute a {@link JPAExecutor}.
+     * <p/>
+     * If the job bean caches are enabled and the executor is a {@link JPACacheableExecutor}, the result is taken from
+     * the caches when available and the caches are updated once the transaction has been committed.
      *
      * @param executor JPAExecutor to execute.
      * @return return value of the JPAExecutor.
      * @throws JPAExecutorException thrown if an jpa executor failed
      */
+    @SuppressWarnings("unchecked")
     public <T> T execute(JPAExecutor<T> executor) throws JPAExecutorException {
+        JPACacheableExecutor<T> cacheable = null;
+        if (isCacheEnabled() && executor instanceof JPACacheableExecutor) {
+            cacheable = (JPACacheableExecutor<T>) executor;
+            T cached = cacheable.getFromCache(this);
+            if (cached != null) {
+                LOG.trace("JPAExecutor [{0}] result found in cache", executor.getName());
+                return cached;
+            }
+        }
         EntityManager em = getEntityManager();
         Instrumentation.Cron cron = new Instrumentation.Cron();
         try {
@@ -211,6 +278,9 @@ public class JPAService implements Service, Instrumentable {
 
                 em.getTransaction().commit();
             }
+            if (cacheable != null) {
+                cacheable.updateCache(this, t);
+            }
             return t;
         }
         finally {
@@ -243,6 +313,52 @@ public class JPAService implements Service, Instrumentable {
         }
     }
 
+    /**
+     * Run a task once the transaction of an EntityManager has completed.
+     * <p/>
+     * The task is run after the transaction has been committed and, if <code>onRollback</code> is set, after it has
+     * been rolled back. If the EntityManager has no active transaction the task is run right away.
+     *
+     * @param em entity manager.
+     * @param task task to run.
+     * @param onRollback if the task is run when the transaction is rolled back.
+     */
+    public static void afterTransaction(EntityManager em, final Runnable task, final boolean onRollback) {
+        if (!em.getTransaction().isActive()) {
+            task.run();
+            return;
+        }
+        final OpenJPAEntityManagerSPI kem = (OpenJPAEntityManagerSPI) OpenJPAPersistence.cast(em);
+        kem.addTransactionListener(new AbstractTransactionListener() {
+            @Override
+            public void afterCommitComplete(TransactionEvent event) {
+                kem.removeTransactionListener(this);
+                task.run();
+            }
+
+            @Override
+            public void afterRollbackComplete(TransactionEvent event) {
+                kem.removeTransactionListener(this);
+                if (onRollback) {
+                    task.run();
+                }
+            }
+        });
+    }
+
+    /**
+     * Fetch all the columns, including the lazy LOB columns, of the beans loaded by an EntityManager.
+     * <p/>
+     * The large LOB columns of the action beans are mapped as lazy. Beans are detached when the EntityManager is closed
+     * and the lazy columns not fetched by then are not set, executors and stores returning complete action beans call
+     * this method before loading them.
+     *
+     * @param em entity manager.
+     */
+    public static void fetchAll(EntityManager em) {
+        OpenJPAPersistence.cast(em).getFetchPlan().addFetchGroup(FetchPlan.GROUP_ALL);
+    }
+
     /**
      * Return an EntityManager. Used by the StoreService. Once the StoreService is removed this method must be removed.
      *
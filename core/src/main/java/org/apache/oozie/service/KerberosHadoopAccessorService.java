@@ -123,12 +123,18 @@ public class KerberosHadoopAccessorService extends HadoopAccessorService {
         ParamChecker.notEmpty(group, "group");
         validateJobTracker(conf.get("mapred.job.tracker"));
         try {
-            UserGroupInformation ugi = getUGI(user);
-            JobClient jobClient = ugi.doAs(new PrivilegedExceptionAction<JobClient>() {
-                public JobClient run() throws Exception {
-                    return new JobClient(conf);
-                }
-            });
+            // the pool key includes the user, pooled JobClients are only used with the UGI they were created with
+            final String key = getPoolKey(user, group, conf.get("mapred.job.tracker"), conf);
+            JobClient jobClient = getJobClientPool().get(key);
+            if (jobClient == null) {
+                UserGroupInformation ugi = getUGI(user);
+                jobClient = ugi.doAs(new PrivilegedExceptionAction<JobClient>() {
+                    public JobClient run() throws Exception {
+                        return newJobClient(key, conf);
+                    }
+                });
+                jobClient = getJobClientPool().put(key, jobClient);
+            }
             Token<DelegationTokenIdentifier> mrdt = jobClient.getDelegationToken(new Text("mr token"));
             conf.getCredentials().addToken(new Text("mr token"), mrdt);
             return jobClient;
@@ -153,15 +159,22 @@ public class KerberosHadoopAccessorService extends HadoopAccessorService {
         ParamChecker.notEmpty(user, "user");
         ParamChecker.notEmpty(group, "group");
         try {
-            validateNameNode(new URI(conf.get("fs.default.name")).getAuthority());
-            UserGroupInformation ugi = getUGI(user);
-            return ugi.doAs(new PrivilegedExceptionAction<FileSystem>() {
-                public FileSystem run() throws Exception {
-                    Configuration defaultConf = new Configuration();
-                    XConfiguration.copy(conf, defaultConf);
-                    return FileSystem.get(defaultConf);
-                }
-            });
+            URI uri = new URI(conf.get("fs.default.name"));
+            validateNameNode(uri.getAuthority());
+            String key = getPoolKey(user, group, uri, conf);
+            FileSystem fs = getFileSystemPool().get(key);
+            if (fs == null) {
+                UserGroupInformation ugi = getUGI(user);
+                fs = ugi.doAs(new PrivilegedExceptionAction<FileSystem>() {
+                    public FileSystem run() throws Exception {
+                        Configuration defaultConf = new Configuration();
+                        XConfiguration.copy(conf, defaultConf);
+                        return FileSystem.get(defaultConf);
+                    }
+                });
+                fs = getFileSystemPool().put(key, fs);
+            }
+            return fs;
         }
         catch (InterruptedException ex) {
             throw new HadoopAccessorException(ErrorCode.E0902, ex);
@@ -187,9 +200,14 @@ public class KerberosHadoopAccessorService extends HadoopAccessorService {
         ParamChecker.notEmpty(user, "user");
         ParamChecker.notEmpty(group, "group");
         validateNameNode(uri.getAuthority());
+        String key = getPoolKey(user, group, uri, conf);
+        FileSystem fs = getFileSystemPool().get(key);
+        if (fs != null) {
+            return fs;
+        }
         try {
             UserGroupInformation ugi = getUGI(user);
-            return ugi.doAs(new PrivilegedExceptionAction<FileSystem>() {
+            fs = ugi.doAs(new PrivilegedExceptionAction<FileSystem>() {
                 public FileSystem run() throws Exception {
                     Configuration defaultConf = new Configuration();
 
@@ -200,6 +218,7 @@ public class KerberosHadoopAccessorService extends HadoopAccessorService {
                     return FileSystem.get(uri, defaultConf);
                 }
             });
+            return getFileSystemPool().put(key, fs);
         }
         catch (InterruptedException ex) {
             throw new HadoopAccessorException(ErrorCode.E0902, ex);
@@ -14,20 +14,79 @@
  */
 package org.apache.oozie.service;
 
+import java.io.UnsupportedEncodingException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
 import org.apache.oozie.client.OozieClient;
 import org.apache.oozie.workflow.WorkflowApp;
 import org.apache.oozie.workflow.WorkflowException;
 import org.apache.oozie.workflow.WorkflowLib;
+import org.apache.oozie.workflow.lite.LiteWorkflowApp;
 import org.apache.oozie.service.Services;
 import org.apache.oozie.util.ParamChecker;
 
 /**
  * Service that provides workflow application definition reading, parsing and creating proto configuration.
+ * <p/>
+ * Parsed workflow definitions are cached by application path and user. A cached definition is used while the
+ * modification time and the length of the definition file do not change, a modified definition file with the same
+ * content hash reuses the cached definition without parsing it again.
  */
 public class LiteWorkflowAppService extends WorkflowAppService {
+
+    /**
+     * Maximum number of parsed workflow definitions cached, <code>0</code> disables the cache.
+     */
+    public static final String CONF_CACHE_SIZE = CONF_PREFIX + "definition.cache.size";
+
+    private static final String INSTRUMENTATION_GROUP = "workflowapp";
+    private static final String INSTR_CACHE_HITS_COUNTER = "definition_cache_hits";
+    private static final String INSTR_CACHE_MISSES_COUNTER = "definition_cache_misses";
+
+    /**
+     * A parsed workflow definition with the modification time, the length and the content hash of its file.
+     */
+    private static class CachedDefinition {
+        private long modificationTime;
+        private long length;
+        private String hash;
+        private WorkflowApp app;
+
+        private CachedDefinition(long modificationTime, long length, String hash, WorkflowApp app) {
+            this.modificationTime = modificationTime;
+            this.length = length;
+            this.hash = hash;
+            this.app = app;
+        }
+    }
+
+    private int cacheSize;
+    private Map<String, CachedDefinition> cache;
+
+    /**
+     * Initialize the lite workflow application service.
+     *
+     * @param services services instance.
+     */
+    @Override
+    public void init(Services services) {
+        super.init(services);
+        cacheSize = services.getConf().getInt(CONF_CACHE_SIZE, 500);
+        cache = new LinkedHashMap<String, CachedDefinition>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedDefinition> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
     /**
      * Parse workflow definition.
+     * <p/>
+     * The parsed definition is cached, it is parsed again only if its content changes.
      *
      * @param jobConf workflow job configuration.
      * @param authToken authorization token.
@@ -37,12 +96,59 @@ public class LiteWorkflowAppService extends WorkflowAppService {
         String appPath = ParamChecker.notEmpty(jobConf.get(OozieClient.APP_PATH), OozieClient.APP_PATH);
         String user = ParamChecker.notEmpty(jobConf.get(OozieClient.USER_NAME), OozieClient.USER_NAME);
         String group = ParamChecker.notEmpty(jobConf.get(OozieClient.GROUP_NAME), OozieClient.GROUP_NAME);
+        if (cacheSize <= 0) {
+            String workflowXml = readDefinition(appPath, user, group, authToken);
+            return parseDef(workflowXml);
+        }
+
+        // the user is part of the key, a definition is read at least once by each user
+        String key = user + "@" + appPath;
+        FileStatus status = getDefinitionStatus(appPath, user, group, authToken);
+        CachedDefinition cached;
+        synchronized (cache) {
+            cached = cache.get(key);
+        }
+        if (cached != null && cached.modificationTime == status.getModificationTime()
+                && cached.length == status.getLen()) {
+            incr(INSTR_CACHE_HITS_COUNTER);
+            return cached.app;
+        }
+
         String workflowXml = readDefinition(appPath, user, group, authToken);
-        return parseDef(workflowXml);
+        String hash = hash(workflowXml);
+        WorkflowApp app;
+        if (cached != null && cached.hash.equals(hash)) {
+            incr(INSTR_CACHE_HITS_COUNTER);
+            app = cached.app;
+        }
+        else {
+            incr(INSTR_CACHE_MISSES_COUNTER);
+            app = parseDef(workflowXml);
+        }
+        synchronized (cache) {
+            cache.put(key, new CachedDefinition(status.getModificationTime(), status.getLen(), hash, app));
+        }
+        return app;
     }
 
     public WorkflowApp parseDef(String workflowXml) throws WorkflowException {
         WorkflowLib workflowLib = Services.get().get(WorkflowStoreService.class).getWorkflowLibWithNoDB();
         return workflowLib.parseDef(workflowXml);
     }
+
+    private static String hash(String workflowXml) {
+        try {
+            return LiteWorkflowApp.digest(workflowXml.getBytes("UTF-8"));
+        }
+        catch (UnsupportedEncodingException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    private void incr(String counter) {
+        InstrumentationService instrumentation = Services.get().get(InstrumentationService.class);
+        if (instrumentation != null) {
+            instrumentation.get().incr(INSTRUMENTATION_GROUP, counter, 1);
+        }
+    }
 }
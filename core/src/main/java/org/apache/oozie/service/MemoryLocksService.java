@@ -20,6 +20,14 @@ import org.apache.oozie.util.MemoryLocks;
 
 public class MemoryLocksService implements Service, Instrumentable {
     private static final String INSTRUMENTATION_GROUP = "locks";
+
+    public static final String CONF_PREFIX = Service.CONF_PREFIX + "MemoryLocksService.";
+
+    /**
+     * Maximum number of released lock entries kept for reuse.
+     */
+    public static final String CONF_POOL_SIZE = CONF_PREFIX + "pool.size";
+
     private MemoryLocks locks;
 
     /**
@@ -29,7 +37,7 @@ public class MemoryLocksService implements Service, Instrumentable {
      */
     @Override
     public void init(Services services) {
-        locks = new MemoryLocks();
+        locks = new MemoryLocks(services.getConf().getInt(CONF_POOL_SIZE, MemoryLocks.DEFAULT_POOL_SIZE));
     }
 
     /**
@@ -52,6 +60,11 @@ public class MemoryLocksService implements Service, Instrumentable {
 
     /**
      * Instruments the memory locks service.
+     * <p/>
+     * Besides the number of active locks, for each entity type it exposes the lock wait time histogram
+     * (<code>[TYPE].wait.le.[BOUND]ms</code> and <code>[TYPE].wait.gt.[BOUND]ms</code>), the total lock wait time
+     * (<code>[TYPE].wait.total.ms</code>) and the number of lock requests that timed out
+     * (<code>[TYPE].wait.timeouts</code>).
      *
      * @param instr instance to instrument the memory locks service to.
      */
@@ -62,6 +75,34 @@ public class MemoryLocksService implements Service, Instrumentable {
                 return (long) finalLocks.size();
             }
         });
+        instr.addVariable(INSTRUMENTATION_GROUP, "pooled", new Instrumentation.Variable<Long>() {
+            public Long getValue() {
+                return (long) finalLocks.poolSize();
+            }
+        });
+        for (final String type : MemoryLocks.ENTITY_TYPES) {
+            for (int i = 0; i <= MemoryLocks.WAIT_BUCKETS.length; i++) {
+                final int bucket = i;
+                String name = (i < MemoryLocks.WAIT_BUCKETS.length)
+                        ? type + ".wait.le." + MemoryLocks.WAIT_BUCKETS[i] + "ms"
+                        : type + ".wait.gt." + MemoryLocks.WAIT_BUCKETS[i - 1] + "ms";
+                instr.addVariable(INSTRUMENTATION_GROUP, name, new Instrumentation.Variable<Long>() {
+                    public Long getValue() {
+                        return finalLocks.getWaitHistogram(type)[bucket];
+                    }
+                });
+            }
+            instr.addVariable(INSTRUMENTATION_GROUP, type + ".wait.total.ms", new Instrumentation.Variable<Long>() {
+                public Long getValue() {
+                    return finalLocks.getWaitTotal(type);
+                }
+            });
+            instr.addVariable(INSTRUMENTATION_GROUP, type + ".wait.timeouts", new Instrumentation.Variable<Long>() {
+                public Long getValue() {
+                    return finalLocks.getWaitTimeouts(type);
+                }
+            });
+        }
     }
 
     /**
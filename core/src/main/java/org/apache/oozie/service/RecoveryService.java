@@ -18,7 +18,9 @@ import java.io.IOException;
 import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.oozie.BundleActionBean;
@@ -29,6 +31,7 @@ import org.apache.oozie.ErrorCode;
 import org.apache.oozie.WorkflowActionBean;
 import org.apache.oozie.client.Job;
 import org.apache.oozie.client.OozieClient;
+import org.apache.oozie.client.OozieClient.SYSTEM_MODE;
 import org.apache.oozie.command.CommandException;
 import org.apache.oozie.command.coord.CoordActionInputCheckCommand;
 import org.apache.oozie.command.coord.CoordActionInputCheckXCommand;
@@ -51,11 +54,11 @@ import org.apache.oozie.command.wf.SignalXCommand;
 import org.apache.oozie.command.wf.SuspendXCommand;
 import org.apache.oozie.executor.jpa.BundleActionsGetWaitingOlderJPAExecutor;
 import org.apache.oozie.executor.jpa.BundleJobGetJPAExecutor;
-import org.apache.oozie.executor.jpa.CoordActionsGetForRecoveryJPAExecutor;
+import org.apache.oozie.executor.jpa.CoordActionsGetForRecoverySummaryJPAExecutor;
 import org.apache.oozie.executor.jpa.CoordActionsGetReadyGroupbyJobIDJPAExecutor;
 import org.apache.oozie.executor.jpa.CoordJobGetJPAExecutor;
 import org.apache.oozie.executor.jpa.JPAExecutorException;
-import org.apache.oozie.executor.jpa.WorkflowActionsGetPendingJPAExecutor;
+import org.apache.oozie.executor.jpa.WorkflowActionsGetPendingSummaryJPAExecutor;
 import org.apache.oozie.util.JobUtils;
 import org.apache.oozie.util.XCallable;
 import org.apache.oozie.util.XConfiguration;
@@ -68,6 +71,10 @@ import org.jdom.JDOMException;
 /**
  * The Recovery Service checks for pending actions and premater coordinator jobs older than a configured age and then
  * queues them for execution.
+ * <p/>
+ * Workflow and coordinator actions are read in pages of {@link #CONF_PAGE_SIZE} actions ordered by ID. The commands
+ * are queued only while the callable queue is below {@link #CONF_QUEUE_THRESHOLD}, otherwise the recovery waits for
+ * the queue to drain.
  */
 public class RecoveryService implements Service {
 
@@ -97,10 +104,30 @@ public class RecoveryService implements Service {
      */
     public static final String CONF_BUNDLE_OLDER_THAN = CONF_PREFIX_BUNDLE + "older.than";
 
+    /**
+     * Maximum number of workflow or coordinator actions loaded in memory at once, actions are read in pages.
+     */
+    public static final String CONF_PAGE_SIZE = CONF_PREFIX + "page.size";
+
+    /**
+     * Percentage of the callable queue capacity above which the recovery waits before queuing more callables.
+     */
+    public static final String CONF_QUEUE_THRESHOLD = CONF_PREFIX + "queue.threshold";
+
+    /**
+     * Maximum time, in seconds, a recovery run waits for the callable queue to go below the threshold. Once reached
+     * the run stops and the remaining actions are recovered by the next run.
+     */
+    public static final String CONF_QUEUE_MAX_WAIT = CONF_PREFIX + "queue.max.wait";
+
+    private static final long QUEUE_WAIT_INTERVAL = 100;
+
     private static final String INSTRUMENTATION_GROUP = "recovery";
     private static final String INSTR_RECOVERED_ACTIONS_COUNTER = "actions";
     private static final String INSTR_RECOVERED_COORD_ACTIONS_COUNTER = "coord_actions";
     private static final String INSTR_RECOVERED_BUNDLE_ACTIONS_COUNTER = "bundle_actions";
+    private static final String INSTR_QUEUE_WAITS_COUNTER = "queue_waits";
+    private static final String INSTR_STOPPED_RUNS_COUNTER = "stopped_runs";
 
     private static boolean useXCommand = true;
 
@@ -118,6 +145,12 @@ public class RecoveryService implements Service {
         private List<XCallable<?>> delayedCallables;
         private StringBuilder msg = null;
         private JPAService jpaService = null;
+        private int batchSize;
+        private int pageSize;
+        private int queueThreshold;
+        private long queueMaxWait;
+        private long queueWaited;
+        private boolean stopped;
 
         public RecoveryRunnable(long olderThan, long coordOlderThan,long bundleOlderThan) {
             this.olderThan = olderThan;
@@ -130,31 +163,40 @@ public class RecoveryService implements Service {
             XLog log = XLog.getLog(getClass());
             msg = new StringBuilder();
             jpaService = Services.get().get(JPAService.class);
+            Configuration conf = Services.get().getConf();
+            batchSize = conf.getInt(CONF_CALLABLE_BATCH_SIZE, 10);
+            pageSize = conf.getInt(CONF_PAGE_SIZE, 1000);
+            queueThreshold = Math.max(1, Services.get().get(CallableQueueService.class).getQueueCapacity()
+                    * conf.getInt(CONF_QUEUE_THRESHOLD, 80) / 100);
+            queueMaxWait = conf.getInt(CONF_QUEUE_MAX_WAIT, 60) * 1000L;
+            queueWaited = 0;
+            stopped = false;
             runWFRecovery();
-            runCoordActionRecovery();
-            runCoordActionRecoveryForReady();
-            runBundleRecovery();
+            if (!stopped) {
+                runCoordActionRecovery();
+            }
+            if (!stopped) {
+                runCoordActionRecoveryForReady();
+            }
+            if (!stopped) {
+                runBundleRecovery();
+            }
             log.debug("QUEUING [{0}] for potential recovery", msg.toString());
-            boolean ret = false;
             if (null != callables) {
-                ret = Services.get().get(CallableQueueService.class).queueSerial(callables);
-                if (ret == false) {
-                    log.warn("Unable to queue the callables commands for RecoveryService. "
-                            + "Most possibly command queue is full. Queue size is :"
-                            + Services.get().get(CallableQueueService.class).queueSize());
-                }
+                queueBatch(callables, 0);
                 callables = null;
             }
             if (null != delayedCallables) {
-                ret = Services.get().get(CallableQueueService.class).queueSerial(delayedCallables, this.delay);
-                if (ret == false) {
-                    log.warn("Unable to queue the delayedCallables commands for RecoveryService. "
-                            + "Most possibly Callable queue is full. Queue size is :"
-                            + Services.get().get(CallableQueueService.class).queueSize());
-                }
+                queueBatch(delayedCallables, this.delay);
                 delayedCallables = null;
                 this.delay = 0;
             }
+            if (stopped) {
+                Services.get().get(InstrumentationService.class).get().incr(INSTRUMENTATION_GROUP,
+                        INSTR_STOPPED_RUNS_COUNTER, 1);
+                log.warn("Recovery stopped after waiting [{0}] ms for the callable queue to go below [{1}] callables, "
+                        + "the remaining actions will be recovered by the next run", queueWaited, queueThreshold);
+            }
         }
 
         private void runBundleRecovery(){
@@ -216,57 +258,88 @@ public class RecoveryService implements Service {
             XLog.Info.get().clear();
             XLog log = XLog.getLog(getClass());
 
+            int count = 0;
             try {
-                List<CoordinatorActionBean> cactions = jpaService.execute(new CoordActionsGetForRecoveryJPAExecutor(coordOlderThan));
-                msg.append(", COORD_ACTIONS : " + cactions.size());
-                for (CoordinatorActionBean caction : cactions) {
-                    Services.get().get(InstrumentationService.class).get().incr(INSTRUMENTATION_GROUP,
-                                                                                INSTR_RECOVERED_COORD_ACTIONS_COUNTER, 1);
-                    if (caction.getStatus() == CoordinatorActionBean.Status.WAITING) {
-                        if (useXCommand) {
-                            queueCallable(new CoordActionInputCheckXCommand(caction.getId()));
-                        } else {
-                            queueCallable(new CoordActionInputCheckCommand(caction.getId()));
-                        }
-
-                        log.info("Recover a WAITTING coord action and resubmit CoordActionInputCheckXCommand :" + caction.getId());
-                    }
-                    else if (caction.getStatus() == CoordinatorActionBean.Status.SUBMITTED) {
-                        CoordinatorJobBean coordJob = jpaService.execute(new CoordJobGetJPAExecutor(caction.getJobId()));
-
-                        if (useXCommand) {
-                            queueCallable(new CoordActionStartXCommand(caction.getId(), coordJob.getUser(), coordJob
-                                    .getAuthToken()));
-                        } else {
-                            queueCallable(new CoordActionStartCommand(caction.getId(), coordJob.getUser(), coordJob
-                                    .getAuthToken()));
-                        }
-
-                        log.info("Recover a SUBMITTED coord action and resubmit CoordActionStartCommand :" + caction.getId());
-                    }
-                    else if (caction.getStatus() == CoordinatorActionBean.Status.SUSPENDED) {
-                        if (caction.getExternalId() != null) {
-                            queueCallable(new SuspendXCommand(caction.getExternalId()));
-                            log.debug("Recover a SUSPENDED coord action and resubmit SuspendXCommand :" + caction.getId());
-                        }
-                    }
-                    else if (caction.getStatus() == CoordinatorActionBean.Status.KILLED) {
-                        if (caction.getExternalId() != null) {
-                            queueCallable(new KillXCommand(caction.getExternalId()));
-                            log.debug("Recover a KILLED coord action and resubmit KillXCommand :" + caction.getId());
+                // coordinator jobs of the SUBMITTED actions of the current page
+                Map<String, CoordinatorJobBean> coordJobs = new HashMap<String, CoordinatorJobBean>();
+                String lastId = null;
+                List<CoordinatorActionBean> cactions;
+                do {
+                    cactions = jpaService.execute(new CoordActionsGetForRecoverySummaryJPAExecutor(coordOlderThan,
+                            lastId, pageSize));
+                    coordJobs.clear();
+                    for (CoordinatorActionBean caction : cactions) {
+                        lastId = caction.getId();
+                        count++;
+                        recoverCoordAction(caction, coordJobs);
+                        if (stopped) {
+                            break;
                         }
                     }
-                    else if (caction.getStatus() == CoordinatorActionBean.Status.RUNNING) {
-                        if (caction.getExternalId() != null) {
-                            queueCallable(new ResumeXCommand(caction.getExternalId()));
-                            log.debug("Recover a RUNNING coord action and resubmit ResumeXCommand :" + caction.getId());
-                        }
-                    }
-                }
+                } while (cactions.size() == pageSize && !stopped);
             }
             catch (Exception ex) {
                 log.error("Exception, {0}", ex.getMessage(), ex);
             }
+            msg.append(", COORD_ACTIONS : " + count);
+        }
+
+        /**
+         * Queue the command recovering a coordinator action.
+         *
+         * @param caction coordinator action to recover.
+         * @param coordJobs coordinator jobs already loaded, by job ID.
+         * @throws JPAExecutorException thrown if the coordinator job could not be loaded.
+         */
+        private void recoverCoordAction(CoordinatorActionBean caction, Map<String, CoordinatorJobBean> coordJobs)
+                throws JPAExecutorException {
+            XLog log = XLog.getLog(getClass());
+            Services.get().get(InstrumentationService.class).get().incr(INSTRUMENTATION_GROUP,
+                                                                        INSTR_RECOVERED_COORD_ACTIONS_COUNTER, 1);
+            if (caction.getStatus() == CoordinatorActionBean.Status.WAITING) {
+                if (useXCommand) {
+                    queueCallable(new CoordActionInputCheckXCommand(caction.getId()));
+                } else {
+                    queueCallable(new CoordActionInputCheckCommand(caction.getId()));
+                }
+
+                log.info("Recover a WAITTING coord action and resubmit CoordActionInputCheckXCommand :" + caction.getId());
+            }
+            else if (caction.getStatus() == CoordinatorActionBean.Status.SUBMITTED) {
+                CoordinatorJobBean coordJob = coordJobs.get(caction.getJobId());
+                if (coordJob == null) {
+                    coordJob = jpaService.execute(new CoordJobGetJPAExecutor(caction.getJobId()));
+                    coordJobs.put(caction.getJobId(), coordJob);
+                }
+
+                if (useXCommand) {
+                    queueCallable(new CoordActionStartXCommand(caction.getId(), coordJob.getUser(), coordJob
+                            .getAuthToken()));
+                } else {
+                    queueCallable(new CoordActionStartCommand(caction.getId(), coordJob.getUser(), coordJob
+                            .getAuthToken()));
+                }
+
+                log.info("Recover a SUBMITTED coord action and resubmit CoordActionStartCommand :" + caction.getId());
+            }
+            else if (caction.getStatus() == CoordinatorActionBean.Status.SUSPENDED) {
+                if (caction.getExternalId() != null) {
+                    queueCallable(new SuspendXCommand(caction.getExternalId()));
+                    log.debug("Recover a SUSPENDED coord action and resubmit SuspendXCommand :" + caction.getId());
+                }
+            }
+            else if (caction.getStatus() == CoordinatorActionBean.Status.KILLED) {
+                if (caction.getExternalId() != null) {
+                    queueCallable(new KillXCommand(caction.getExternalId()));
+                    log.debug("Recover a KILLED coord action and resubmit KillXCommand :" + caction.getId());
+                }
+            }
+            else if (caction.getStatus() == CoordinatorActionBean.Status.RUNNING) {
+                if (caction.getExternalId() != null) {
+                    queueCallable(new ResumeXCommand(caction.getExternalId()));
+                    log.debug("Recover a RUNNING coord action and resubmit ResumeXCommand :" + caction.getId());
+                }
+            }
         }
 
         /**
@@ -300,75 +373,93 @@ public class RecoveryService implements Service {
         private void runWFRecovery() {
             XLog.Info.get().clear();
             XLog log = XLog.getLog(getClass());
-            // queue command for action recovery
+            // queue command for action recovery, reading the pending actions one page at a time
+            int count = 0;
             try {
-                List<WorkflowActionBean> actions = null;
-                try {
-                    actions = jpaService.execute(new WorkflowActionsGetPendingJPAExecutor(olderThan));
-                }
-                catch (JPAExecutorException ex) {
-                    log.warn("Exception while reading pending actions from storage", ex);
-                }
-                //log.debug("QUEUING[{0}] pending wf actions for potential recovery", actions.size());
-                msg.append(" WF_ACTIONS " + actions.size());
-
-                for (WorkflowActionBean action : actions) {
-                    Services.get().get(InstrumentationService.class).get().incr(INSTRUMENTATION_GROUP,
-                            INSTR_RECOVERED_ACTIONS_COUNTER, 1);
-                    if (action.getStatus() == WorkflowActionBean.Status.PREP
-                            || action.getStatus() == WorkflowActionBean.Status.START_MANUAL) {
-
-                        if (useXCommand) {
-                            queueCallable(new ActionStartXCommand(action.getId(), action.getType()));
-                        } else {
-                            queueCallable(new ActionStartCommand(action.getId(), action.getType()));
-                        }
-
+                String lastId = null;
+                List<WorkflowActionBean> actions;
+                do {
+                    try {
+                        actions = jpaService.execute(new WorkflowActionsGetPendingSummaryJPAExecutor(olderThan,
+                                lastId, pageSize));
                     }
-                    else if (action.getStatus() == WorkflowActionBean.Status.START_RETRY) {
-                        Date nextRunTime = action.getPendingAge();
-                        if (useXCommand) {
-                            queueCallable(new ActionStartXCommand(action.getId(), action.getType()), nextRunTime.getTime()
-                                    - System.currentTimeMillis());
-                        } else {
-                            queueCallable(new ActionStartCommand(action.getId(), action.getType()), nextRunTime.getTime()
-                                    - System.currentTimeMillis());
-                        }
-
+                    catch (JPAExecutorException ex) {
+                        log.warn("Exception while reading pending actions from storage", ex);
+                        break;
                     }
-                    else if (action.getStatus() == WorkflowActionBean.Status.DONE
-                            || action.getStatus() == WorkflowActionBean.Status.END_MANUAL) {
-                        if (useXCommand) {
-                            queueCallable(new ActionEndXCommand(action.getId(), action.getType()));
-                        } else {
-                            queueCallable(new ActionEndCommand(action.getId(), action.getType()));
+                    for (WorkflowActionBean action : actions) {
+                        lastId = action.getId();
+                        count++;
+                        recoverWFAction(action);
+                        if (stopped) {
+                            break;
                         }
-
                     }
-                    else if (action.getStatus() == WorkflowActionBean.Status.END_RETRY) {
-                        Date nextRunTime = action.getPendingAge();
-                        if (useXCommand) {
-                            queueCallable(new ActionEndXCommand(action.getId(), action.getType()), nextRunTime.getTime()
-                                    - System.currentTimeMillis());
-                        } else {
-                            queueCallable(new ActionEndCommand(action.getId(), action.getType()), nextRunTime.getTime()
-                                    - System.currentTimeMillis());
-                        }
+                } while (actions.size() == pageSize && !stopped);
+            }
+            catch (Exception ex) {
+                log.error("Exception, {0}", ex.getMessage(), ex);
+            }
+            msg.append(" WF_ACTIONS " + count);
+        }
 
-                    }
-                    else if (action.getStatus() == WorkflowActionBean.Status.OK
-                            || action.getStatus() == WorkflowActionBean.Status.ERROR) {
-                        if (useXCommand) {
-                            queueCallable(new SignalXCommand(action.getJobId(), action.getId()));
-                        } else {
-                            queueCallable(new SignalCommand(action.getJobId(), action.getId()));
-                        }
+        /**
+         * Queue the command recovering a workflow action.
+         *
+         * @param action workflow action to recover.
+         */
+        private void recoverWFAction(WorkflowActionBean action) {
+            Services.get().get(InstrumentationService.class).get().incr(INSTRUMENTATION_GROUP,
+                    INSTR_RECOVERED_ACTIONS_COUNTER, 1);
+            if (action.getStatus() == WorkflowActionBean.Status.PREP
+                    || action.getStatus() == WorkflowActionBean.Status.START_MANUAL) {
+
+                if (useXCommand) {
+                    queueCallable(new ActionStartXCommand(action.getId(), action.getType()));
+                } else {
+                    queueCallable(new ActionStartCommand(action.getId(), action.getType()));
+                }
 
-                    }
+            }
+            else if (action.getStatus() == WorkflowActionBean.Status.START_RETRY) {
+                Date nextRunTime = action.getPendingAge();
+                if (useXCommand) {
+                    queueCallable(new ActionStartXCommand(action.getId(), action.getType()), nextRunTime.getTime()
+                            - System.currentTimeMillis());
+                } else {
+                    queueCallable(new ActionStartCommand(action.getId(), action.getType()), nextRunTime.getTime()
+                            - System.currentTimeMillis());
                 }
+
             }
-            catch (Exception ex) {
-                log.error("Exception, {0}", ex.getMessage(), ex);
+            else if (action.getStatus() == WorkflowActionBean.Status.DONE
+                    || action.getStatus() == WorkflowActionBean.Status.END_MANUAL) {
+                if (useXCommand) {
+                    queueCallable(new ActionEndXCommand(action.getId(), action.getType()));
+                } else {
+                    queueCallable(new ActionEndCommand(action.getId(), action.getType()));
+                }
+
+            }
+            else if (action.getStatus() == WorkflowActionBean.Status.END_RETRY) {
+                Date nextRunTime = action.getPendingAge();
+                if (useXCommand) {
+                    queueCallable(new ActionEndXCommand(action.getId(), action.getType()), nextRunTime.getTime()
+                            - System.currentTimeMillis());
+                } else {
+                    queueCallable(new ActionEndCommand(action.getId(), action.getType()), nextRunTime.getTime()
+                            - System.currentTimeMillis());
+                }
+
+            }
+            else if (action.getStatus() == WorkflowActionBean.Status.OK
+                    || action.getStatus() == WorkflowActionBean.Status.ERROR) {
+                if (useXCommand) {
+                    queueCallable(new SignalXCommand(action.getJobId(), action.getId()));
+                } else {
+                    queueCallable(new SignalCommand(action.getJobId(), action.getId()));
+                }
+
             }
         }
 
@@ -383,14 +474,8 @@ public class RecoveryService implements Service {
                 callables = new ArrayList<XCallable<?>>();
             }
             callables.add(callable);
-            if (callables.size() == Services.get().getConf().getInt(CONF_CALLABLE_BATCH_SIZE, 10)) {
-                boolean ret = Services.get().get(CallableQueueService.class).queueSerial(callables);
-                if (ret == false) {
-                    XLog.getLog(getClass()).warn(
-                            "Unable to queue the callables commands for RecoveryService. "
-                                    + "Most possibly command queue is full. Queue size is :"
-                                    + Services.get().get(CallableQueueService.class).queueSize());
-                }
+            if (callables.size() == batchSize) {
+                queueBatch(callables, 0);
                 callables = new ArrayList<XCallable<?>>();
             }
         }
@@ -409,17 +494,51 @@ public class RecoveryService implements Service {
             }
             this.delay = Math.max(this.delay, delay);
             delayedCallables.add(callable);
-            if (delayedCallables.size() == Services.get().getConf().getInt(CONF_CALLABLE_BATCH_SIZE, 10)) {
-                boolean ret = Services.get().get(CallableQueueService.class).queueSerial(delayedCallables, this.delay);
-                if (ret == false) {
-                    XLog.getLog(getClass()).warn("Unable to queue the delayedCallables commands for RecoveryService. "
-                            + "Most possibly Callable queue is full. Queue size is :"
-                            + Services.get().get(CallableQueueService.class).queueSize());
-                }
+            if (delayedCallables.size() == batchSize) {
+                queueBatch(delayedCallables, this.delay);
                 delayedCallables = new ArrayList<XCallable<?>>();
                 this.delay = 0;
             }
         }
+
+        /**
+         * Queue a batch of callables for serial execution.
+         * <p/>
+         * While the callable queue is above the {@link RecoveryService#CONF_QUEUE_THRESHOLD} threshold, or full, the
+         * recovery waits for it to drain. If the total wait of the run exceeds {@link
+         * RecoveryService#CONF_QUEUE_MAX_WAIT} the run is stopped, the batch is not queued and its actions are
+         * recovered by the next run.
+         *
+         * @param batch callables to queue.
+         * @param delay delay for the callables.
+         */
+        private void queueBatch(List<XCallable<?>> batch, long delay) {
+            if (Services.get().getSystemMode() == SYSTEM_MODE.SAFEMODE) {
+                // nothing is queued in safe mode, waiting for the queue to drain is pointless
+                stopped = true;
+            }
+            CallableQueueService queueService = Services.get().get(CallableQueueService.class);
+            while (!stopped) {
+                if (queueService.queueSize() < queueThreshold && queueService.queueSerial(batch, delay)) {
+                    return;
+                }
+                if (queueWaited >= queueMaxWait) {
+                    stopped = true;
+                }
+                else {
+                    Services.get().get(InstrumentationService.class).get().incr(INSTRUMENTATION_GROUP,
+                            INSTR_QUEUE_WAITS_COUNTER, 1);
+                    try {
+                        Thread.sleep(QUEUE_WAIT_INTERVAL);
+                    }
+                    catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        stopped = true;
+                    }
+                    queueWaited += QUEUE_WAIT_INTERVAL;
+                }
+            }
+        }
     }
 
     /**
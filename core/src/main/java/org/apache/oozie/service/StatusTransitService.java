@@ -15,11 +15,16 @@
 package org.apache.oozie.service;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.persistence.EntityManager;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.oozie.BundleActionBean;
@@ -37,10 +42,11 @@ import org.apache.oozie.executor.jpa.BundleJobGetJPAExecutor;
 import org.apache.oozie.executor.jpa.BundleJobUpdateJPAExecutor;
 import org.apache.oozie.executor.jpa.BundleJobsGetPendingJPAExecutor;
 import org.apache.oozie.executor.jpa.BundleJobsGetRunningJPAExecutor;
-import org.apache.oozie.executor.jpa.CoordActionsGetByLastModifiedTimeJPAExecutor;
-import org.apache.oozie.executor.jpa.CoordJobGetActionsJPAExecutor;
-import org.apache.oozie.executor.jpa.CoordJobGetJPAExecutor;
+import org.apache.oozie.executor.jpa.CoordJobGetActionStatusCountsJPAExecutor;
+import org.apache.oozie.executor.jpa.CoordJobGetActionsSummaryJPAExecutor;
+import org.apache.oozie.executor.jpa.CoordJobIdsGetByActionLastModifiedTimeJPAExecutor;
 import org.apache.oozie.executor.jpa.CoordJobUpdateJPAExecutor;
+import org.apache.oozie.executor.jpa.CoordJobsGetByIdsJPAExecutor;
 import org.apache.oozie.executor.jpa.CoordJobsGetPendingJPAExecutor;
 import org.apache.oozie.executor.jpa.JPAExecutorException;
 import org.apache.oozie.util.DateUtils;
@@ -54,15 +60,81 @@ import org.apache.oozie.util.XLog;
  * It is to update job's status according to its child actions' status. If all child actions' pending flag equals 0 (job
  * done), we reset the job's pending flag to 0. If all child actions are succeeded, we set the job's status to
  * SUCCEEDED.
+ * <p/>
+ * In incremental mode, {@link #CONF_INCREMENTAL}, the executors writing coordinator and bundle actions report the
+ * jobs of the changed actions with {@link #coordActionChanged} and {@link #bundleActionChanged}. After its first run,
+ * which checks all the pending jobs, the service only checks the reported jobs, and counts the actions of a
+ * coordinator job per status in the database instead of loading them.
  */
 public class StatusTransitService implements Service {
     public static final String CONF_PREFIX = Service.CONF_PREFIX + "StatusTransitService.";
     public static final String CONF_STATUSTRANSIT_INTERVAL = CONF_PREFIX + "statusTransit.interval";
     public static final String CONF_BACKWARD_SUPPORT_FOR_COORD_STATUS = CONF_PREFIX + "backward.support.for.coord.status";
+    public static final String CONF_INCREMENTAL = CONF_PREFIX + "incremental";
     private static int limit = -1;
     private static Date lastInstanceStartTime = null;
     private final static XLog LOG = XLog.getLog(StatusTransitRunnable.class);
 
+    private static volatile boolean incremental = false;
+    private static final Set<String> changedCoordJobIds = Collections
+            .newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private static final Set<String> changedBundleIds = Collections
+            .newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    /**
+     * Report that an action of a coordinator job has been inserted or updated.
+     * <p/>
+     * The job is reported once the transaction of the entity manager has been committed, so the service never reads
+     * the job before the change is visible. It is a no-op unless the service runs in incremental mode.
+     *
+     * @param em entity manager of the transaction changing the action.
+     * @param jobId coordinator job ID.
+     */
+    public static void coordActionChanged(EntityManager em, String jobId) {
+        if (incremental && jobId != null) {
+            reportAfterCommit(em, changedCoordJobIds, jobId);
+        }
+    }
+
+    /**
+     * Report that an action of a bundle job has been inserted or updated.
+     * <p/>
+     * The job is reported once the transaction of the entity manager has been committed, so the service never reads
+     * the job before the change is visible. It is a no-op unless the service runs in incremental mode.
+     *
+     * @param em entity manager of the transaction changing the action.
+     * @param bundleId bundle job ID.
+     */
+    public static void bundleActionChanged(EntityManager em, String bundleId) {
+        if (incremental && bundleId != null) {
+            reportAfterCommit(em, changedBundleIds, bundleId);
+        }
+    }
+
+    private static void reportAfterCommit(EntityManager em, final Set<String> changedIds, final String id) {
+        JPAService.afterTransaction(em, new Runnable() {
+            public void run() {
+                changedIds.add(id);
+            }
+        }, false);
+    }
+
+    /**
+     * Remove and return the job IDs reported so far.
+     *
+     * @param changedIds reported job IDs.
+     * @return the removed job IDs.
+     */
+    private static List<String> drain(Set<String> changedIds) {
+        List<String> ids = new ArrayList<String>();
+        Iterator<String> it = changedIds.iterator();
+        while (it.hasNext()) {
+            ids.add(it.next());
+            it.remove();
+        }
+        return ids;
+    }
+
     /**
      * StateTransitRunnable is the runnable which is scheduled to run at the configured interval.
      * <p/>
@@ -127,32 +199,51 @@ public class StatusTransitService implements Service {
             if (lastInstanceStartTime == null) {
                 LOG.info("Running bundle status service first instance");
                 // this is the first instance, we need to check for all pending jobs;
+                changedBundleIds.clear();
                 pendingJobCheckList = jpaService.execute(new BundleJobsGetPendingJPAExecutor(limit));
                 runningJobCheckList = jpaService.execute(new BundleJobsGetRunningJPAExecutor(limit));
                 bundleLists.add(pendingJobCheckList);
                 bundleLists.add(runningJobCheckList);
             }
             else {
-                LOG.info("Running bundle status service from last instance time =  "
-                        + DateUtils.convertDateToString(lastInstanceStartTime));
-                // this is not the first instance, we should only check jobs that have actions been
-                // updated >= start time of last service run;
-                List<BundleActionBean> actionList = jpaService
-                        .execute(new BundleActionsGetByLastModifiedTimeJPAExecutor(lastInstanceStartTime));
                 Set<String> bundleIds = new HashSet<String>();
-                for (BundleActionBean action : actionList) {
-                    bundleIds.add(action.getBundleId());
-                }
-                pendingJobCheckList = new ArrayList<BundleJobBean>();
-                for (String bundleId : bundleIds.toArray(new String[bundleIds.size()])) {
-                    BundleJobBean bundle = jpaService.execute(new BundleJobGetJPAExecutor(bundleId));
-                    // Running bundle job might have pending false
-                    if (bundle.isPending() || bundle.getStatus().equals(Job.Status.RUNNING)) {
-                        pendingJobCheckList.add(bundle);
+                if (incremental) {
+                    LOG.info("Running bundle status service for the bundle jobs with changed actions");
+                    bundleIds.addAll(drain(changedBundleIds));
+                }
+                else {
+                    LOG.info("Running bundle status service from last instance time =  "
+                            + DateUtils.convertDateToString(lastInstanceStartTime));
+                    // this is not the first instance, we should only check jobs that have actions been
+                    // updated >= start time of last service run;
+                    List<BundleActionBean> actionList = jpaService
+                            .execute(new BundleActionsGetByLastModifiedTimeJPAExecutor(lastInstanceStartTime));
+                    for (BundleActionBean action : actionList) {
+                        bundleIds.add(action.getBundleId());
                     }
                 }
-                runningJobCheckList = pendingJobCheckList;
-                bundleLists.add(pendingJobCheckList);
+                boolean done = false;
+                try {
+                    pendingJobCheckList = new ArrayList<BundleJobBean>();
+                    for (String bundleId : bundleIds.toArray(new String[bundleIds.size()])) {
+                        BundleJobBean bundle = jpaService.execute(new BundleJobGetJPAExecutor(bundleId));
+                        // Running bundle job might have pending false
+                        if (bundle.isPending() || bundle.getStatus().equals(Job.Status.RUNNING)) {
+                            pendingJobCheckList.add(bundle);
+                        }
+                    }
+                    runningJobCheckList = pendingJobCheckList;
+                    bundleLists.add(pendingJobCheckList);
+                    aggregateBundleJobsStatus(bundleLists);
+                    done = true;
+                }
+                finally {
+                    if (!done && incremental) {
+                        // the drained bundle jobs are checked again by the next run
+                        changedBundleIds.addAll(bundleIds);
+                    }
+                }
+                return;
             }
             aggregateBundleJobsStatus(bundleLists);
         }
@@ -248,24 +339,35 @@ public class StatusTransitService implements Service {
                         String jobId = coordJob.getId();
                         Job.Status[] coordStatus = new Job.Status[1];
                         coordStatus[0] = coordJob.getStatus();
-                        List<CoordinatorActionBean> coordActions = jpaService
-                                .execute(new CoordJobGetActionsJPAExecutor(jobId));
-                        HashMap<CoordinatorAction.Status, Integer> coordActionStatus = new HashMap<CoordinatorAction.Status, Integer>();
+                        HashMap<CoordinatorAction.Status, Integer> coordActionStatus;
+                        int coordActionsCount = 0;
                         boolean foundPending = false;
-                        for (CoordinatorActionBean cAction : coordActions) {
-                            if (!cAction.isPending()) {
-                                int counter = 0;
-                                if (coordActionStatus.containsKey(cAction.getStatus())) {
-                                    counter = coordActionStatus.get(cAction.getStatus()) + 1;
+                        if (incremental) {
+                            coordActionStatus = jpaService.execute(new CoordJobGetActionStatusCountsJPAExecutor(jobId));
+                            for (int count : coordActionStatus.values()) {
+                                coordActionsCount += count;
+                            }
+                        }
+                        else {
+                            List<CoordinatorActionBean> actions = jpaService
+                                    .execute(new CoordJobGetActionsSummaryJPAExecutor(jobId));
+                            coordActionsCount = actions.size();
+                            coordActionStatus = new HashMap<CoordinatorAction.Status, Integer>();
+                            for (CoordinatorActionBean cAction : actions) {
+                                if (!cAction.isPending()) {
+                                    int counter = 0;
+                                    if (coordActionStatus.containsKey(cAction.getStatus())) {
+                                        counter = coordActionStatus.get(cAction.getStatus()) + 1;
+                                    }
+                                    else {
+                                        ++counter;
+                                    }
+                                    coordActionStatus.put(cAction.getStatus(), counter);
                                 }
                                 else {
-                                    ++counter;
+                                    foundPending = true;
+                                    break;
                                 }
-                                coordActionStatus.put(cAction.getStatus(), counter);
-                            }
-                            else {
-                                foundPending = true;
-                                break;
                             }
                         }
 
@@ -274,25 +376,25 @@ public class StatusTransitService implements Service {
                         }
 
                         if (coordJob.isDoneMaterialization()
-                                && checkCoordTerminalStatus(coordActionStatus, coordActions, coordStatus)) {
+                                && checkCoordTerminalStatus(coordActionStatus, coordActionsCount, coordStatus)) {
                             LOG.info("Set coordinator job [" + jobId + "] status to '" + coordStatus[0].toString()
                                     + "' from '" + coordJob.getStatus() + "'");
-                            updateCoordJob(coordActionStatus, coordActions, coordJob, coordStatus[0]);
+                            updateCoordJob(coordActionStatus, coordActionsCount, coordJob, coordStatus[0]);
                         }
                         else if (coordJob.isDoneMaterialization()
-                                && checkCoordSuspendStatus(coordActionStatus, coordActions, coordStatus)) {
+                                && checkCoordSuspendStatus(coordActionStatus, coordActionsCount, coordStatus)) {
                             LOG.info("Set coordinator job [" + jobId + "] status to " + coordStatus[0].toString()
                                     + "' from '" + coordJob.getStatus() + "'");
-                            updateCoordJob(coordActionStatus, coordActions, coordJob, coordStatus[0]);
+                            updateCoordJob(coordActionStatus, coordActionsCount, coordJob, coordStatus[0]);
                         }
-                        else if (checkCoordRunningStatus(coordActionStatus, coordActions, coordStatus)) {
+                        else if (checkCoordRunningStatus(coordActionStatus, coordActionsCount, coordStatus)) {
                             LOG.info("Set coordinator job [" + jobId + "] status to " + coordStatus[0].toString()
                                     + "' from '" + coordJob.getStatus() + "'");
-                            updateCoordJob(coordActionStatus, coordActions, coordJob, coordStatus[0]);
+                            updateCoordJob(coordActionStatus, coordActionsCount, coordJob, coordStatus[0]);
                         }
                         // checking pending flag for job when user killed or suspended the job
                         else {
-                            checkCoordPending(coordActionStatus, coordActions, coordJob, true);
+                            checkCoordPending(coordActionStatus, coordActionsCount, coordJob, true);
                         }
                     }
                     catch (Exception ex) {
@@ -350,7 +452,7 @@ public class StatusTransitService implements Service {
         }
 
         private boolean checkCoordTerminalStatus(HashMap<CoordinatorAction.Status, Integer> coordActionStatus,
-                List<CoordinatorActionBean> coordActions, Job.Status[] coordStatus) {
+                int coordActionsCount, Job.Status[] coordStatus) {
             boolean ret = false;
             int totalValuesSucceed = 0;
             if (coordActionStatus.containsKey(CoordinatorAction.Status.SUCCEEDED)) {
@@ -370,18 +472,18 @@ public class StatusTransitService implements Service {
                 totalValuesTimeOut = coordActionStatus.get(CoordinatorAction.Status.TIMEDOUT);
             }
 
-            if (coordActions.size() == (totalValuesSucceed + totalValuesFailed + totalValuesKilled + totalValuesTimeOut)) {
+            if (coordActionsCount == (totalValuesSucceed + totalValuesFailed + totalValuesKilled + totalValuesTimeOut)) {
                 // If all the coordinator actions are succeeded then coordinator job should be succeeded.
-                if (coordActions.size() == totalValuesSucceed) {
+                if (coordActionsCount == totalValuesSucceed) {
                     coordStatus[0] = Job.Status.SUCCEEDED;
                     ret = true;
                 }
-                else if (coordActions.size() == totalValuesKilled) {
+                else if (coordActionsCount == totalValuesKilled) {
                     // If all the coordinator actions are KILLED then coordinator job should be KILLED.
                     coordStatus[0] = Job.Status.KILLED;
                     ret = true;
                 }
-                else if (coordActions.size() == totalValuesFailed) {
+                else if (coordActionsCount == totalValuesFailed) {
                     // If all the coordinator actions are FAILED then coordinator job should be FAILED.
                     coordStatus[0] = Job.Status.FAILED;
                     ret = true;
@@ -448,10 +550,10 @@ public class StatusTransitService implements Service {
         }
 
         private boolean checkCoordSuspendStatus(HashMap<CoordinatorAction.Status, Integer> coordActionStatus,
-                List<CoordinatorActionBean> coordActions, Job.Status[] coordStatus) {
+                int coordActionsCount, Job.Status[] coordStatus) {
             boolean ret = false;
             if (coordActionStatus.containsKey(CoordinatorAction.Status.SUSPENDED)) {
-                if (coordActions.size() == coordActionStatus.get(CoordinatorAction.Status.SUSPENDED)) {
+                if (coordActionsCount == coordActionStatus.get(CoordinatorAction.Status.SUSPENDED)) {
                     coordStatus[0] = Job.Status.SUSPENDED;
                     ret = true;
                 }
@@ -460,11 +562,11 @@ public class StatusTransitService implements Service {
         }
 
         private boolean checkCoordRunningStatus(HashMap<CoordinatorAction.Status, Integer> coordActionStatus,
-                List<CoordinatorActionBean> coordActions, Job.Status[] coordStatus) {
+                int coordActionsCount, Job.Status[] coordStatus) {
             boolean ret = false;
             if (coordActionStatus.containsKey(CoordinatorAction.Status.RUNNING)) {
                 // If all the bundle actions are succeeded then bundle job should be succeeded.
-                if (coordActions.size() == coordActionStatus.get(CoordinatorAction.Status.RUNNING)) {
+                if (coordActionsCount == coordActionStatus.get(CoordinatorAction.Status.RUNNING)) {
                     coordStatus[0] = Job.Status.RUNNING;
                     ret = true;
                 }
@@ -540,7 +642,7 @@ public class StatusTransitService implements Service {
         }
 
         private void updateCoordJob(HashMap<CoordinatorAction.Status, Integer> coordActionStatus,
-                List<CoordinatorActionBean> coordActions, CoordinatorJobBean coordJob, Job.Status coordStatus)
+                int coordActionsCount, CoordinatorJobBean coordJob, Job.Status coordStatus)
                 throws JPAExecutorException, CommandException {
             Job.Status prevStatus = coordJob.getStatus();
             // Update the Coord Job
@@ -553,7 +655,7 @@ public class StatusTransitService implements Service {
                 }
             }
 
-            checkCoordPending(coordActionStatus, coordActions, coordJob, false);
+            checkCoordPending(coordActionStatus, coordActionsCount, coordJob, false);
             coordJob.setStatus(coordStatus);
             coordJob.setStatus(StatusUtils.getStatus(coordJob));
             coordJob.setLastModifiedTime(new Date());
@@ -568,7 +670,7 @@ public class StatusTransitService implements Service {
         }
 
         private void checkCoordPending(HashMap<CoordinatorAction.Status, Integer> coordActionStatus,
-                List<CoordinatorActionBean> coordActions, CoordinatorJobBean coordJob, boolean saveToDB) throws JPAExecutorException {
+                int coordActionsCount, CoordinatorJobBean coordJob, boolean saveToDB) throws JPAExecutorException {
             boolean pendingCoordJob = coordJob.isPending();
             // Checking the coordinator pending should be updated or not
             int totalNonPendingActions = 0;
@@ -576,7 +678,7 @@ public class StatusTransitService implements Service {
                 totalNonPendingActions += coordActionStatus.get(js);
             }
 
-            if (totalNonPendingActions == coordActions.size()) {
+            if (totalNonPendingActions == coordActionsCount) {
                 pendingCoordJob = false;
             }
 
@@ -605,27 +707,44 @@ public class StatusTransitService implements Service {
             if (lastInstanceStartTime == null) {
                 LOG.info("Running coordinator status service first instance");
                 // this is the first instance, we need to check for all pending jobs;
+                changedCoordJobIds.clear();
                 pendingJobCheckList = jpaService.execute(new CoordJobsGetPendingJPAExecutor(limit));
             }
             else {
-                LOG.info("Running coordinator status service from last instance time =  "
-                        + DateUtils.convertDateToString(lastInstanceStartTime));
-                // this is not the first instance, we should only check jobs that have actions been
-                // updated >= start time of last service run;
-                List<CoordinatorActionBean> actionList = jpaService
-                        .execute(new CoordActionsGetByLastModifiedTimeJPAExecutor(lastInstanceStartTime));
-                Set<String> coordIds = new HashSet<String>();
-                for (CoordinatorActionBean action : actionList) {
-                    coordIds.add(action.getJobId());
-                }
-                pendingJobCheckList = new ArrayList<CoordinatorJobBean>();
-                for (String coordId : coordIds.toArray(new String[coordIds.size()])) {
-                    CoordinatorJobBean coordJob = jpaService.execute(new CoordJobGetJPAExecutor(coordId));
-                    // Running coord job might have pending false
-                    if (coordJob.isPending() || coordJob.getStatus().equals(Job.Status.RUNNING)) {
-                        pendingJobCheckList.add(coordJob);
+                List<String> coordIds;
+                if (incremental) {
+                    LOG.info("Running coordinator status service for the coordinator jobs with changed actions");
+                    coordIds = drain(changedCoordJobIds);
+                }
+                else {
+                    LOG.info("Running coordinator status service from last instance time =  "
+                            + DateUtils.convertDateToString(lastInstanceStartTime));
+                    // this is not the first instance, we should only check jobs that have actions been
+                    // updated >= start time of last service run;
+                    coordIds = jpaService.execute(new CoordJobIdsGetByActionLastModifiedTimeJPAExecutor(
+                            lastInstanceStartTime));
+                }
+                boolean done = false;
+                try {
+                    pendingJobCheckList = new ArrayList<CoordinatorJobBean>();
+                    List<CoordinatorJobBean> coordJobs = (coordIds.isEmpty()) ? new ArrayList<CoordinatorJobBean>()
+                            : jpaService.execute(new CoordJobsGetByIdsJPAExecutor(coordIds));
+                    for (CoordinatorJobBean coordJob : coordJobs) {
+                        // Running coord job might have pending false
+                        if (coordJob.isPending() || coordJob.getStatus().equals(Job.Status.RUNNING)) {
+                            pendingJobCheckList.add(coordJob);
+                        }
                     }
+                    aggregateCoordJobsStatus(pendingJobCheckList);
+                    done = true;
                 }
+                finally {
+                    if (!done && incremental) {
+                        // the drained coordinator jobs are checked again by the next run
+                        changedCoordJobIds.addAll(coordIds);
+                    }
+                }
+                return;
             }
             aggregateCoordJobsStatus(pendingJobCheckList);
         }
@@ -639,6 +758,11 @@ public class StatusTransitService implements Service {
     @Override
     public void init(Services services) {
         Configuration conf = services.getConf();
+        incremental = conf.getBoolean(CONF_INCREMENTAL, false);
+        if (incremental) {
+            // the first run checks all the pending jobs
+            lastInstanceStartTime = null;
+        }
         Runnable stateTransitRunnable = new StatusTransitRunnable();
         services.get(SchedulerService.class).schedule(stateTransitRunnable, 10,
                 conf.getInt(CONF_STATUSTRANSIT_INTERVAL, 60), SchedulerService.Unit.SEC);
@@ -649,6 +773,9 @@ public class StatusTransitService implements Service {
      */
     @Override
     public void destroy() {
+        incremental = false;
+        changedCoordJobIds.clear();
+        changedBundleIds.clear();
     }
 
     /**
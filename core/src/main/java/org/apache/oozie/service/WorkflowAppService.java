@@ -102,30 +102,67 @@ public abstract class WorkflowAppService implements Service {
             FileSystem fs = Services.get().get(HadoopAccessorService.class).
                     createFileSystem(user, group, uri, new Configuration());
 
-            // app path could be a directory
-            Path path = new Path(uri.getPath());
-            if (!fs.isFile(path)) {
-                path = new Path(path, "workflow.xml");
-            }
-
-            Reader reader = new InputStreamReader(fs.open(path));
+            Reader reader = new InputStreamReader(fs.open(getDefinitionStatus(fs, uri).getPath()));
             StringWriter writer = new StringWriter();
             IOUtils.copyCharStream(reader, writer);
             return writer.toString();
+        }
+        catch (Exception ex) {
+            throw toWorkflowException(appPath, ex);
+        }
+    }
 
+    /**
+     * Return the file status of the workflow definition.
+     * <p/>
+     * The file status is used to check if the workflow definition was modified without reading it.
+     *
+     * @param appPath application path.
+     * @param user user name.
+     * @param group group name.
+     * @param autToken authentication token.
+     * @return file status of the workflow definition.
+     * @throws WorkflowException thrown if the file status of the definition could not be read.
+     */
+    protected FileStatus getDefinitionStatus(String appPath, String user, String group, String autToken)
+            throws WorkflowException {
+        try {
+            URI uri = new URI(appPath);
+            FileSystem fs = Services.get().get(HadoopAccessorService.class).
+                    createFileSystem(user, group, uri, new Configuration());
+            return getDefinitionStatus(fs, uri);
         }
-        catch (IOException ex) {
-            throw new WorkflowException(ErrorCode.E0710, ex.getMessage(), ex);
+        catch (Exception ex) {
+            throw toWorkflowException(appPath, ex);
         }
-        catch (URISyntaxException ex) {
-            throw new WorkflowException(ErrorCode.E0711, appPath, ex.getMessage(), ex);
+    }
+
+    /**
+     * Return the file status of the workflow definition of an application path.
+     *
+     * @param fs file system of the application path.
+     * @param uri application path, the workflow definition or the directory containing it.
+     * @return file status of the workflow definition.
+     * @throws IOException thrown if the file status of the definition could not be read.
+     */
+    private FileStatus getDefinitionStatus(FileSystem fs, URI uri) throws IOException {
+        // app path could be a directory
+        Path path = new Path(uri.getPath());
+        FileStatus status = fs.getFileStatus(path);
+        if (status.isDir()) {
+            status = fs.getFileStatus(new Path(path, "workflow.xml"));
         }
-        catch (HadoopAccessorException ex) {
-            throw new WorkflowException(ex);
+        return status;
+    }
+
+    private WorkflowException toWorkflowException(String appPath, Exception ex) {
+        if (ex instanceof URISyntaxException) {
+            return new WorkflowException(ErrorCode.E0711, appPath, ex.getMessage(), ex);
         }
-        catch (Exception ex) {
-            throw new WorkflowException(ErrorCode.E0710, ex.getMessage(), ex);
+        if (ex instanceof HadoopAccessorException) {
+            return new WorkflowException((HadoopAccessorException) ex);
         }
+        return new WorkflowException(ErrorCode.E0710, ex.getMessage(), ex);
     }
 
     /**
@@ -0,0 +1,285 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.service;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.oozie.util.IOUtils;
+import org.apache.oozie.util.XLog;
+import org.apache.oozie.util.XLogIndex;
+import org.apache.oozie.util.XLogStreamer;
+
+/**
+ * The XLogIndexService indexes the job IDs of the rotated Oozie log files.
+ * <p/>
+ * The index files are written in the <code>index</code> subdirectory of the log directory. Rotated log files are
+ * indexed at the configured interval, the index files of the log files that do not exist anymore are deleted.
+ * If enabled, rotated log files are gzip compressed before being indexed.
+ * <p/>
+ * The {@link XLogService} streams the log of a job using the indexes, a rotated log file not indexed yet is indexed
+ * when its log is first streamed. The log files are scanned in parallel by the executor of the service.
+ */
+public class XLogIndexService implements Service {
+
+    public static final String CONF_PREFIX = Service.CONF_PREFIX + "XLogIndexService.";
+
+    /**
+     * Time interval, in seconds, at which the rotated log files are indexed.
+     */
+    public static final String CONF_INDEX_INTERVAL = CONF_PREFIX + "index.interval";
+
+    /**
+     * Minimum size, in bytes, of the log file blocks referenced by the index.
+     */
+    public static final String CONF_BLOCK_SIZE = CONF_PREFIX + "block.size";
+
+    /**
+     * If the rotated log files are gzip compressed.
+     */
+    public static final String CONF_COMPRESS = CONF_PREFIX + "compress";
+
+    /**
+     * Maximum number of log files scanned in parallel by a log request.
+     */
+    public static final String CONF_SCAN_THREADS = CONF_PREFIX + "scan.threads";
+
+    /**
+     * Maximum number of characters buffered for a log file scanned in parallel.
+     */
+    public static final String CONF_SCAN_BUFFER = CONF_PREFIX + "scan.buffer";
+
+    public static final String INDEX_DIR = "index";
+
+    private static final String INSTRUMENTATION_GROUP = "logindex";
+    private static final String INSTR_INDEXED_COUNTER = "indexed_files";
+    private static final String INSTR_COMPRESSED_COUNTER = "compressed_files";
+
+    private File indexDir;
+    private int blockSize;
+    private int scanThreads;
+    private int scanBuffer;
+    private ExecutorService scanExecutor;
+
+    /**
+     * {@link IndexRunnable} is the runnable which is scheduled to run at the configured interval and index the rotated
+     * log files, compressing them first if enabled.
+     */
+    static class IndexRunnable implements Runnable {
+        private File logDir;
+        private String logName;
+        private File indexDir;
+        private int blockSize;
+        private boolean compress;
+
+        public IndexRunnable(File logDir, String logName, File indexDir, int blockSize, boolean compress) {
+            this.logDir = logDir;
+            this.logName = logName;
+            this.indexDir = indexDir;
+            this.blockSize = blockSize;
+            this.compress = compress;
+        }
+
+        public void run() {
+            XLog log = XLog.getLog(getClass());
+            String[] children = logDir.list();
+            if (children != null) {
+                for (String child : children) {
+                    File logFile = new File(logDir, child);
+                    if (!child.startsWith(logName) || child.equals(logName) || !logFile.isFile()) {
+                        continue;
+                    }
+                    if (compress && !child.endsWith(XLogStreamer.GZIP_EXTENSION)) {
+                        try {
+                            logFile = compress(logFile);
+                            incr(INSTR_COMPRESSED_COUNTER);
+                        }
+                        catch (IOException ex) {
+                            log.warn("Could not compress log file [{0}], {1}", logFile, ex.getMessage(), ex);
+                        }
+                    }
+                    File indexFile = XLogIndex.getIndexFile(indexDir, logFile);
+                    if (indexFile.exists() && indexFile.lastModified() >= logFile.lastModified()) {
+                        continue;
+                    }
+                    try {
+                        XLogIndex index = XLogIndex.build(logFile, blockSize);
+                        index.write(indexFile);
+                        log.debug("Indexed log file [{0}], [{1}] jobs in [{2}] blocks", logFile, index.getJobs(),
+                                  index.getBlocks());
+                        incr(INSTR_INDEXED_COUNTER);
+                    }
+                    catch (IOException ex) {
+                        log.warn("Could not index log file [{0}], {1}", logFile, ex.getMessage(), ex);
+                    }
+                }
+            }
+            String[] indexes = indexDir.list();
+            if (indexes != null) {
+                for (String index : indexes) {
+                    if (index.endsWith(XLogIndex.INDEX_EXTENSION)) {
+                        String logFileName = index.substring(0, index.length() - XLogIndex.INDEX_EXTENSION.length());
+                        if (!new File(logDir, logFileName).exists()) {
+                            new File(indexDir, index).delete();
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * Compress a rotated log file with gzip, the compressed file keeps the modification time of the log file.
+         * <p/>
+         * The compressed file is written to a hidden temporary file renamed once complete, the log file is then
+         * deleted.
+         *
+         * @param logFile rotated log file.
+         * @return the compressed log file.
+         * @throws IOException thrown if the log file could not be compressed.
+         */
+        File compress(File logFile) throws IOException {
+            File gzFile = new File(logDir, logFile.getName() + XLogStreamer.GZIP_EXTENSION);
+            File tmpFile = new File(logDir, "." + gzFile.getName() + ".tmp");
+            InputStream is = new FileInputStream(logFile);
+            try {
+                OutputStream os = new GZIPOutputStream(new FileOutputStream(tmpFile), 64 * 1024);
+                IOUtils.copyStream(is, os);
+            }
+            catch (IOException ex) {
+                tmpFile.delete();
+                throw ex;
+            }
+            finally {
+                is.close();
+            }
+            tmpFile.setLastModified(logFile.lastModified());
+            if (!tmpFile.renameTo(gzFile)) {
+                tmpFile.delete();
+                throw new IOException("Could not rename [" + tmpFile + "] to [" + gzFile + "]");
+            }
+            logFile.delete();
+            return gzFile;
+        }
+
+        private void incr(String counter) {
+            InstrumentationService instrumentation = Services.get().get(InstrumentationService.class);
+            if (instrumentation != null) {
+                instrumentation.get().incr(INSTRUMENTATION_GROUP, counter, 1);
+            }
+        }
+    }
+
+    /**
+     * Initializes the {@link XLogIndexService}.
+     * <p/>
+     * The service is not used if the {@link XLogService} does not stream logs.
+     *
+     * @param services services instance.
+     */
+    @Override
+    public void init(Services services) {
+        Configuration conf = services.getConf();
+        blockSize = conf.getInt(CONF_BLOCK_SIZE, 64 * 1024);
+        scanThreads = conf.getInt(CONF_SCAN_THREADS, 4);
+        scanBuffer = conf.getInt(CONF_SCAN_BUFFER, 1024 * 1024);
+        if (scanThreads > 1) {
+            scanExecutor = Executors.newFixedThreadPool(scanThreads);
+        }
+        XLogService logService = services.get(XLogService.class);
+        if (logService != null && logService.isLogOverWS()) {
+            File logDir = new File(logService.getOozieLogPath());
+            indexDir = new File(logDir, INDEX_DIR);
+            Runnable indexRunnable = new IndexRunnable(logDir, logService.getOozieLogName(), indexDir, blockSize,
+                                                       conf.getBoolean(CONF_COMPRESS, false));
+            services.get(SchedulerService.class).schedule(indexRunnable, 10, conf.getInt(CONF_INDEX_INTERVAL, 300),
+                                                          SchedulerService.Unit.SEC);
+        }
+    }
+
+    /**
+     * Destroy the XLog Index Service.
+     */
+    @Override
+    public void destroy() {
+        if (scanExecutor != null) {
+            scanExecutor.shutdownNow();
+            scanExecutor = null;
+        }
+    }
+
+    /**
+     * Return the public interface for the log index service.
+     *
+     * @return {@link XLogIndexService}.
+     */
+    @Override
+    public Class<? extends Service> getInterface() {
+        return XLogIndexService.class;
+    }
+
+    /**
+     * Return the directory of the index files.
+     *
+     * @return the directory of the index files, <code>null</code> if the logs are not indexed.
+     */
+    public File getIndexDir() {
+        return indexDir;
+    }
+
+    /**
+     * Return the minimum size, in bytes, of the log file blocks referenced by the index.
+     *
+     * @return the minimum size of the log file blocks.
+     */
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    /**
+     * Return the executor scanning the log files in parallel.
+     *
+     * @return the executor scanning the log files, <code>null</code> if the log files are scanned sequentially.
+     */
+    public ExecutorService getScanExecutor() {
+        return scanExecutor;
+    }
+
+    /**
+     * Return the maximum number of log files scanned in parallel by a log request.
+     *
+     * @return the maximum number of log files scanned in parallel.
+     */
+    public int getScanThreads() {
+        return scanThreads;
+    }
+
+    /**
+     * Return the maximum number of characters buffered for a log file scanned in parallel.
+     *
+     * @return the maximum number of buffered characters.
+     */
+    public int getScanBuffer() {
+        return scanBuffer;
+    }
+
+}
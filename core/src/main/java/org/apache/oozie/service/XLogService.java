@@ -302,8 +302,16 @@ public class XLogService implements Service, Instrumentable {
      */
     public void streamLog(XLogStreamer.Filter filter, Date startTime, Date endTime, Writer writer) throws IOException {
         if (logOverWS) {
-            new XLogStreamer(filter, writer, oozieLogPath, oozieLogName, oozieLogRotation)
-                    .streamLog(startTime, endTime);
+            XLogIndexService indexService = Services.get().get(XLogIndexService.class);
+            File indexDir = (indexService != null) ? indexService.getIndexDir() : null;
+            int blockSize = (indexService != null) ? indexService.getBlockSize() : 0;
+            XLogStreamer streamer = new XLogStreamer(filter, writer, oozieLogPath, oozieLogName, oozieLogRotation,
+                                                     indexDir, blockSize);
+            if (indexService != null) {
+                streamer.setScanExecutor(indexService.getScanExecutor(), indexService.getScanThreads(),
+                                         indexService.getScanBuffer());
+            }
+            streamer.streamLog(startTime, endTime);
         }
         else {
             writer.write("Log streaming disabled!!");
@@ -311,6 +319,18 @@ public class XLogService implements Service, Instrumentable {
 
     }
 
+    boolean isLogOverWS() {
+        return logOverWS;
+    }
+
+    String getOozieLogPath() {
+        return oozieLogPath;
+    }
+
+    String getOozieLogName() {
+        return oozieLogName;
+    }
+
     String getLog4jProperties() {
         return log4jFileName;
     }
@@ -0,0 +1,85 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.servlet;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.oozie.ErrorCode;
+import org.apache.oozie.service.AuthorizationException;
+import org.apache.oozie.service.AuthorizationService;
+import org.apache.oozie.service.DatasetAvailabilityService;
+import org.apache.oozie.service.Services;
+import org.apache.oozie.util.XLog;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+
+/**
+ * Receives the data availability notifications of dataset producers.
+ * <p/>
+ * A <code>PUT</code> with the <code>uri</code> parameter set to the URI of a dataset instance, or of its done-flag,
+ * queues an input check for the coordinator actions waiting for it. The response lists the IDs of these actions.
+ * <p/>
+ * When security is enabled only admin users can send notifications.
+ */
+public class DataAvailabilityServlet extends JsonRestServlet {
+    private static final String INSTRUMENTATION_NAME = "dataavailable";
+
+    public static final String URI_PARAM = "uri";
+
+    public static final String ACTIONS = "actions";
+
+    private static final ResourceInfo RESOURCE_INFO = new ResourceInfo("", Arrays.asList("PUT"), Arrays.asList(
+            new ParameterInfo(URI_PARAM, String.class, true, Arrays.asList("PUT"))));
+
+    public DataAvailabilityServlet() {
+        super(INSTRUMENTATION_NAME, RESOURCE_INFO);
+    }
+
+    /**
+     * Notify the availability of a dataset instance.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void doPut(HttpServletRequest request, HttpServletResponse response) throws ServletException,
+            IOException {
+        DatasetAvailabilityService availability = Services.get().get(DatasetAvailabilityService.class);
+        if (availability == null || !availability.isPushEnabled()) {
+            throw new XServletException(HttpServletResponse.SC_BAD_REQUEST, ErrorCode.E0308);
+        }
+        try {
+            AuthorizationService auth = Services.get().get(AuthorizationService.class);
+            auth.authorizeForAdmin(getUser(request), true);
+        }
+        catch (AuthorizationException ex) {
+            throw new XServletException(HttpServletResponse.SC_UNAUTHORIZED, ex);
+        }
+        String uri = request.getParameter(URI_PARAM);
+        List<String> actionIds = availability.dataAvailable(uri);
+        XLog.getLog(getClass()).info(XLog.STD, "data available [{0}], input check queued for [{1}] actions", uri,
+                                     actionIds.size());
+        JSONArray array = new JSONArray();
+        array.addAll(actionIds);
+        JSONObject json = new JSONObject();
+        json.put(ACTIONS, array);
+        sendJsonResponse(response, HttpServletResponse.SC_OK, json);
+    }
+
+}
@@ -32,7 +32,9 @@ import org.apache.oozie.ErrorCode;
 import org.apache.oozie.client.Job.Status;
 import org.apache.oozie.client.CoordinatorJob.Timeunit;
 import org.apache.oozie.service.InstrumentationService;
+import org.apache.oozie.service.JPAService;
 import org.apache.oozie.service.Services;
+import org.apache.oozie.service.StatusTransitService;
 import org.apache.oozie.util.DateUtils;
 import org.apache.oozie.util.Instrumentation;
 import org.apache.oozie.util.ParamChecker;
@@ -337,6 +339,7 @@ public class CoordinatorStore extends Store {
         doOperation("insertCoordinatorAction", new Callable<Void>() {
             public Void call() throws StoreException {
                 entityManager.persist(action);
+                StatusTransitService.coordActionChanged(entityManager, action.getJobId());
                 return null;
             }
         });
@@ -356,6 +359,7 @@ public class CoordinatorStore extends Store {
                 q.setParameter("id", action.getId());
                 setActionQueryParameters(action, q);
                 q.executeUpdate();
+                StatusTransitService.coordActionChanged(entityManager, action.getJobId());
                 return null;
             }
         });
@@ -378,6 +382,7 @@ public class CoordinatorStore extends Store {
                 q.setParameter("status", action.getStatus().toString());
                 q.setParameter("actionXml", action.getActionXml());
                 q.executeUpdate();
+                StatusTransitService.coordActionChanged(entityManager, action.getJobId());
                 return null;
             }
         });
@@ -397,6 +402,7 @@ public class CoordinatorStore extends Store {
                 q.setParameter("id", job.getId());
                 setJobQueryParameters(job, q);
                 q.executeUpdate();
+                invalidateCache(job.getId());
                 return null;
             }
         });
@@ -411,11 +417,31 @@ public class CoordinatorStore extends Store {
                 q.setParameter("status", job.getStatus().toString());
                 q.setParameter("lastModifiedTime", new Date());
                 q.executeUpdate();
+                invalidateCache(job.getId());
                 return null;
             }
         });
     }
 
+    /**
+     * Remove a coordinator job from the job bean cache of the {@link JPAService}, if enabled.
+     * <p/>
+     * The job is removed once the transaction has been committed or rolled back, a bean loaded concurrently before
+     * the commit cannot be cached again after the job has been removed.
+     *
+     * @param id coordinator job ID.
+     */
+    private void invalidateCache(final String id) {
+        final JPAService jpaService = Services.get().get(JPAService.class);
+        if (jpaService != null && jpaService.isCacheEnabled()) {
+            JPAService.afterTransaction(entityManager, new Runnable() {
+                public void run() {
+                    jpaService.getCoordJobCache().invalidate(id);
+                }
+            }, true);
+        }
+    }
+
     private <V> V doOperation(String name, Callable<V> command) throws StoreException {
         try {
             Instrumentation.Cron cron = new Instrumentation.Cron();
@@ -510,6 +536,7 @@ public class CoordinatorStore extends Store {
                     for (CoordinatorJobBean coord : coordJobs) {
                         String jobId = coord.getId();
                         entityManager.remove(coord);
+                        invalidateCache(jobId);
                         Query g = entityManager.createNamedQuery("DELETE_COMPLETED_ACTIONS_FOR_COORDINATOR");
                         g.setParameter("jobId", jobId);
                         actionDeleted += g.executeUpdate();
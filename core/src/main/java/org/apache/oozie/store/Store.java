@@ -32,6 +32,7 @@ import javax.persistence.PersistenceUnit;
  import org.apache.oozie.client.rest.JsonWorkflowJob;
  import org.apache.oozie.client.rest.JsonSLAEvent;
  */
+import org.apache.oozie.service.JPAService;
 import org.apache.oozie.service.Services;
 import org.apache.oozie.service.StoreService;
 import org.apache.oozie.util.XLog;
@@ -51,9 +52,12 @@ public abstract class Store {
 
     /**
      * create a fresh transaction
+     * <p/>
+     * The stores return complete beans, the lazy LOB columns of the beans are fetched with the other columns.
      */
     public Store() {
         entityManager = Services.get().get(StoreService.class).getEntityManager();
+        JPAService.fetchAll(entityManager);
     }
 
     /**
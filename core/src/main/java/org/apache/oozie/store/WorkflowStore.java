@@ -33,6 +33,7 @@ import org.apache.oozie.WorkflowsInfo;
 import org.apache.oozie.client.OozieClient;
 import org.apache.oozie.client.WorkflowJob.Status;
 import org.apache.oozie.service.InstrumentationService;
+import org.apache.oozie.service.JPAService;
 import org.apache.oozie.service.SchemaService;
 import org.apache.oozie.service.Services;
 import org.apache.oozie.service.SchemaService.SchemaName;
@@ -200,6 +201,7 @@ public class WorkflowStore extends Store {
                 q.setParameter("id", wfBean.getId());
                 setWFQueryParameters(wfBean, q);
                 q.executeUpdate();
+                invalidateCache(wfBean.getId());
                 return null;
             }
         });
@@ -786,6 +788,7 @@ public class WorkflowStore extends Store {
                     for (WorkflowJobBean w : workflows) {
                         String wfId = w.getId();
                         entityManager.remove(w);
+                        invalidateCache(wfId);
                         Query g = entityManager.createNamedQuery("DELETE_ACTIONS_FOR_WORKFLOW");
                         g.setParameter("wfId", wfId);
                         actionDeleted += g.executeUpdate();
@@ -797,6 +800,25 @@ public class WorkflowStore extends Store {
         });
     }
 
+    /**
+     * Remove a workflow job from the job bean cache of the {@link JPAService}, if enabled.
+     * <p/>
+     * The job is removed once the transaction has been committed or rolled back, a bean loaded concurrently before
+     * the commit cannot be cached again after the job has been removed.
+     *
+     * @param id workflow job ID.
+     */
+    private void invalidateCache(final String id) {
+        final JPAService jpaService = Services.get().get(JPAService.class);
+        if (jpaService != null && jpaService.isCacheEnabled()) {
+            JPAService.afterTransaction(entityManager, new Runnable() {
+                public void run() {
+                    jpaService.getWorkflowJobCache().invalidate(id);
+                }
+            }, true);
+        }
+    }
+
     private <V> V doOperation(String name, Callable<V> command) throws StoreException {
         try {
             Instrumentation.Cron cron = new Instrumentation.Cron();
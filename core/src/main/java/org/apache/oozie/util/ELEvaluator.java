@@ -14,22 +14,49 @@
  */
 package org.apache.oozie.util;
 
+import org.apache.commons.el.Coercions;
+import org.apache.commons.el.Expression;
 import org.apache.commons.el.ExpressionEvaluatorImpl;
+import org.apache.commons.el.ExpressionString;
+import org.apache.commons.el.Logger;
 
 import javax.servlet.jsp.el.ELException;
-import javax.servlet.jsp.el.ExpressionEvaluator;
 import javax.servlet.jsp.el.FunctionMapper;
 import javax.servlet.jsp.el.VariableResolver;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * JSP Expression Language Evaluator. <p/> It provides a more convenient way of using the JSP EL Evaluator.
+ * JSP Expression Language Evaluator. <p/> It provides a more convenient way of using the JSP EL Evaluator. <p/> Parsed
+ * expressions are kept in a size bounded cache shared by all the evaluators, the same expression is parsed only once
+ * no matter the evaluator or the functions and variables of its context, as functions and variables are resolved when
+ * the parsed expression is evaluated. Lookups do not lock, when the cache is full it is emptied before adding a new
+ * expression.
  */
 public class ELEvaluator {
 
+    /**
+     * Default maximum number of parsed expressions in the parse cache.
+     */
+    public static final int DEFAULT_PARSE_CACHE_SIZE = 10000;
+
+    private static final Logger EL_LOGGER = new Logger(System.out);
+
+    // the commons-el cache is unbounded, it is bypassed in favor of the parse cache
+    private static final ExpressionEvaluatorImpl PARSER = new ExpressionEvaluatorImpl(true);
+
+    private static volatile int parseCacheSize = DEFAULT_PARSE_CACHE_SIZE;
+
+    private static final ConcurrentMap<String, Object> PARSE_CACHE = new ConcurrentHashMap<String, Object>();
+
+    private static final AtomicLong parseCacheHits = new AtomicLong();
+    private static final AtomicLong parseCacheMisses = new AtomicLong();
+
     /**
      * Provides functions and variables for the EL evaluator. <p/> All functions and variables in the context of an EL
      * evaluator are accessible from EL expressions.
@@ -133,9 +160,74 @@ public class ELEvaluator {
         return current.get();
     }
 
-    private Context context;
+    /**
+     * Set the maximum number of parsed expressions in the parse cache, zero disables the cache.
+     *
+     * @param size maximum number of parsed expressions.
+     */
+    public static void setParseCacheSize(int size) {
+        parseCacheSize = ParamChecker.checkGEZero(size, "size");
+        PARSE_CACHE.clear();
+    }
+
+    /**
+     * Return the number of parsed expressions in the parse cache.
+     *
+     * @return the number of parsed expressions in the parse cache.
+     */
+    public static int getParseCacheSize() {
+        return PARSE_CACHE.size();
+    }
+
+    /**
+     * Return the number of evaluations that found their parsed expression in the parse cache.
+     *
+     * @return the number of parse cache hits.
+     */
+    public static long getParseCacheHits() {
+        return parseCacheHits.get();
+    }
 
-    private ExpressionEvaluator evaluator = new ExpressionEvaluatorImpl();
+    /**
+     * Return the number of evaluations that had to parse their expression.
+     *
+     * @return the number of parse cache misses.
+     */
+    public static long getParseCacheMisses() {
+        return parseCacheMisses.get();
+    }
+
+    /**
+     * Return the parsed form of an expression, from the parse cache if there.
+     *
+     * @param expr EL expression.
+     * @return a <code>String</code> for literals, an <code>Expression</code> or an <code>ExpressionString</code>
+     *         otherwise.
+     * @throws ELException thrown if the expression could not be parsed.
+     */
+    private static Object parse(String expr) throws ELException {
+        if (expr == null) {
+            throw new ELException("Null expression string");
+        }
+        Object parsed = PARSE_CACHE.get(expr);
+        if (parsed != null) {
+            parseCacheHits.incrementAndGet();
+            return parsed;
+        }
+        parseCacheMisses.incrementAndGet();
+        parsed = PARSER.parseExpressionString(expr);
+        int maxSize = parseCacheSize;
+        if (maxSize > 0) {
+            // bounded insertion, concurrent misses may overshoot the maximum size by the number of threads
+            if (PARSE_CACHE.size() >= maxSize) {
+                PARSE_CACHE.clear();
+            }
+            PARSE_CACHE.putIfAbsent(expr, parsed);
+        }
+        return parsed;
+    }
+
+    private Context context;
 
     /**
      * Creates an ELEvaluator with no functions and no variables defined.
@@ -196,7 +288,18 @@ public class ELEvaluator {
         ELEvaluator existing = current.get();
         try {
             current.set(this);
-            return (T) evaluator.evaluate(expr, clazz, context, context);
+            Object parsed = parse(expr);
+            Object value;
+            if (parsed instanceof Expression) {
+                value = ((Expression) parsed).evaluate(context, context, EL_LOGGER);
+            }
+            else if (parsed instanceof ExpressionString) {
+                value = ((ExpressionString) parsed).evaluate(context, context, EL_LOGGER);
+            }
+            else {
+                value = parsed;
+            }
+            return (T) Coercions.coerce(value, clazz, EL_LOGGER);
         }
         catch (ELException ex) {
             if (ex.getRootCause() instanceof Exception) {
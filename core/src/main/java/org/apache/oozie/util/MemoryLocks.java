@@ -14,46 +14,150 @@
  */
 package org.apache.oozie.util;
 
-import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.concurrent.locks.Lock;
 
 /**
  * In memory resource locking that provides READ/WRITE lock capabilities.
+ * <p/>
+ * Locks are kept in a concurrent lock table, there is no global monitor on the acquisition path. A lock entry is
+ * reference counted by the threads holding or waiting for it, when the last one releases it the entry is removed from
+ * the table and returned to a bounded pool to be reused by other resources.
+ * <p/>
+ * The time spent waiting for locks is recorded in a histogram per entity type (see {@link #getEntityType}).
  */
 public class MemoryLocks {
-    final private HashMap<String, ReentrantReadWriteLock> locks = new HashMap<String, ReentrantReadWriteLock>();
+
+    /**
+     * Default maximum number of released lock entries kept for reuse.
+     */
+    public static final int DEFAULT_POOL_SIZE = 1024;
+
+    /**
+     * Upper bounds, in milliseconds, of the lock wait time histogram buckets. An additional last bucket counts the
+     * waits above the last bound.
+     */
+    public static final long[] WAIT_BUCKETS = {1, 10, 100, 1000, 10000};
+
+    /**
+     * Entity types the lock wait time is recorded for.
+     */
+    public static final String[] ENTITY_TYPES = {"wf", "coord", "bundle", "other"};
 
     private static enum Type {
         READ, WRITE
     }
 
+    final private ConcurrentHashMap<String, LockEntry> locks = new ConcurrentHashMap<String, LockEntry>();
+    final private ConcurrentLinkedQueue<LockEntry> pool = new ConcurrentLinkedQueue<LockEntry>();
+    final private AtomicInteger pooled = new AtomicInteger();
+    final private int maxPoolSize;
+    final private WaitStats[] waitStats;
+
+    /**
+     * Wait time statistics of an entity type.
+     */
+    private static class WaitStats {
+        private final AtomicLongArray histogram = new AtomicLongArray(WAIT_BUCKETS.length + 1);
+        private final AtomicLong total = new AtomicLong();
+        private final AtomicLong timeouts = new AtomicLong();
+
+        private void add(long waitMs, boolean acquired) {
+            int i = 0;
+            while (i < WAIT_BUCKETS.length && waitMs > WAIT_BUCKETS[i]) {
+                i++;
+            }
+            histogram.incrementAndGet(i);
+            total.addAndGet(waitMs);
+            if (!acquired) {
+                timeouts.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Lock table entry, it is reused for different resources once released by all its users.
+     */
+    private class LockEntry {
+        private final ReentrantReadWriteLock rwLock = new ReentrantReadWriteLock(true);
+        private final LockToken readToken = new LockToken(this, rwLock.readLock());
+        private final LockToken writeToken = new LockToken(this, rwLock.writeLock());
+        // number of threads holding or waiting for the lock, 0 means the entry is not in the table
+        private final AtomicInteger users = new AtomicInteger();
+        private volatile String resource;
+
+        private boolean use() {
+            int count = users.get();
+            while (count > 0) {
+                if (users.compareAndSet(count, count + 1)) {
+                    return true;
+                }
+                count = users.get();
+            }
+            return false;
+        }
+
+        private void unuse() {
+            if (users.decrementAndGet() == 0) {
+                String released = resource;
+                if (released != null) {
+                    locks.remove(released, this);
+                }
+                resource = null;
+                if (pooled.incrementAndGet() <= maxPoolSize) {
+                    pool.offer(this);
+                }
+                else {
+                    pooled.decrementAndGet();
+                }
+            }
+        }
+    }
+
     /**
      * Lock token returned when obtaining a lock, the token must be released when the lock is not needed anymore.
      */
     public class LockToken {
-        private final ReentrantReadWriteLock rwLock;
+        private final LockEntry entry;
         private final java.util.concurrent.locks.Lock lock;
-        private final String resource;
 
-        private LockToken(ReentrantReadWriteLock rwLock, java.util.concurrent.locks.Lock lock, String resource) {
-            this.rwLock = rwLock;
+        private LockToken(LockEntry entry, java.util.concurrent.locks.Lock lock) {
+            this.entry = entry;
             this.lock = lock;
-            this.resource = resource;
         }
 
         /**
          * Release the lock.
          */
         public void release() {
-            int val = rwLock.getQueueLength();
-            if (val == 0) {
-                synchronized (locks) {
-                    locks.remove(resource);
-                }
-            }
             lock.unlock();
+            entry.unuse();
+        }
+    }
+
+    /**
+     * Create a memory locks instance with the default pool size.
+     */
+    public MemoryLocks() {
+        this(DEFAULT_POOL_SIZE);
+    }
+
+    /**
+     * Create a memory locks instance.
+     *
+     * @param maxPoolSize maximum number of released lock entries kept for reuse.
+     */
+    public MemoryLocks(int maxPoolSize) {
+        this.maxPoolSize = maxPoolSize;
+        waitStats = new WaitStats[ENTITY_TYPES.length];
+        for (int i = 0; i < waitStats.length; i++) {
+            waitStats[i] = new WaitStats();
         }
     }
 
@@ -66,6 +170,15 @@ public class MemoryLocks {
         return locks.size();
     }
 
+    /**
+     * Return the number of released lock entries available for reuse.
+     *
+     * @return the number of released lock entries available for reuse.
+     */
+    public int poolSize() {
+        return pooled.get();
+    }
+
     /**
      * Obtain a READ lock for a source.
      *
@@ -90,41 +203,138 @@ public class MemoryLocks {
         return getLock(resource, Type.WRITE, wait);
     }
 
-    private LockToken getLock(String resource, Type type, long wait) throws InterruptedException {
-        ReentrantReadWriteLock lockEntry;
-        synchronized (locks) {
-            if (locks.containsKey(resource)) {
-                lockEntry = locks.get(resource);
+    /**
+     * Return the entity type of a resource, based on the Oozie job ID suffix.
+     *
+     * @param resource resource name.
+     * @return the entity type, one of {@link #ENTITY_TYPES}.
+     */
+    public static String getEntityType(String resource) {
+        return ENTITY_TYPES[getEntityTypeIndex(resource)];
+    }
+
+    private static int getEntityTypeIndex(String resource) {
+        if (resource.endsWith("-W")) {
+            return 0;
+        }
+        else if (resource.endsWith("-C")) {
+            return 1;
+        }
+        else if (resource.endsWith("-B")) {
+            return 2;
+        }
+        return 3;
+    }
+
+    /**
+     * Return a snapshot of the lock wait time histogram of an entity type.
+     * <p/>
+     * Each position counts the lock requests that waited up to the corresponding {@link #WAIT_BUCKETS} bound, the last
+     * position counts the ones that waited more than the last bound.
+     *
+     * @param entityType entity type, one of {@link #ENTITY_TYPES}.
+     * @return the lock wait time histogram.
+     */
+    public long[] getWaitHistogram(String entityType) {
+        AtomicLongArray histogram = getWaitStats(entityType).histogram;
+        long[] snapshot = new long[histogram.length()];
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = histogram.get(i);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Return the total time, in milliseconds, spent waiting for locks of an entity type.
+     *
+     * @param entityType entity type, one of {@link #ENTITY_TYPES}.
+     * @return the total lock wait time in milliseconds.
+     */
+    public long getWaitTotal(String entityType) {
+        return getWaitStats(entityType).total.get();
+    }
+
+    /**
+     * Return the number of lock requests of an entity type that timed out.
+     *
+     * @param entityType entity type, one of {@link #ENTITY_TYPES}.
+     * @return the number of lock requests that timed out.
+     */
+    public long getWaitTimeouts(String entityType) {
+        return getWaitStats(entityType).timeouts.get();
+    }
+
+    private WaitStats getWaitStats(String entityType) {
+        for (int i = 0; i < ENTITY_TYPES.length; i++) {
+            if (ENTITY_TYPES[i].equals(entityType)) {
+                return waitStats[i];
+            }
+        }
+        throw new IllegalArgumentException("Invalid entity type [" + entityType + "]");
+    }
+
+    private LockEntry useEntry(String resource) {
+        while (true) {
+            LockEntry entry = locks.get(resource);
+            if (entry != null) {
+                if (entry.use()) {
+                    if (resource.equals(entry.resource)) {
+                        return entry;
+                    }
+                    // the entry was released and reused for another resource
+                    entry.unuse();
+                }
+                else {
+                    // the entry is being released, wait for it to be removed from the table
+                    Thread.yield();
+                }
+                continue;
+            }
+            entry = pool.poll();
+            if (entry != null) {
+                pooled.decrementAndGet();
             }
             else {
-                lockEntry = new ReentrantReadWriteLock(true);
-                locks.put(resource, lockEntry);
+                entry = new LockEntry();
+            }
+            entry.resource = resource;
+            entry.users.set(1);
+            LockEntry existing = locks.putIfAbsent(resource, entry);
+            if (existing == null) {
+                return entry;
             }
+            entry.unuse();
         }
+    }
 
-        Lock lock = (type.equals(Type.READ)) ? lockEntry.readLock() : lockEntry.writeLock();
+    private LockToken getLock(String resource, Type type, long wait) throws InterruptedException {
+        LockEntry entry = useEntry(resource);
+        LockToken token = (type.equals(Type.READ)) ? entry.readToken : entry.writeToken;
+        Lock lock = token.lock;
 
-        if (wait == -1) {
-            lock.lock();
-        }
-        else {
-            if (wait > 0) {
-                if (!lock.tryLock(wait, TimeUnit.MILLISECONDS)) {
-                    return null;
-                }
+        long start = System.currentTimeMillis();
+        boolean acquired = false;
+        try {
+            if (wait == -1) {
+                lock.lock();
+                acquired = true;
             }
             else {
-                if (!lock.tryLock()) {
-                    return null;
+                if (wait > 0) {
+                    acquired = lock.tryLock(wait, TimeUnit.MILLISECONDS);
+                }
+                else {
+                    acquired = lock.tryLock();
                 }
             }
         }
-        synchronized (locks) {
-            if (!locks.containsKey(resource)) {
-                locks.put(resource, lockEntry);
+        finally {
+            waitStats[getEntityTypeIndex(resource)].add(System.currentTimeMillis() - start, acquired);
+            if (!acquired) {
+                entry.unuse();
             }
         }
-        return new LockToken(lockEntry, lock, resource);
+        return (acquired) ? token : null;
     }
 
 }
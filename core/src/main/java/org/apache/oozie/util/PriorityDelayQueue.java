@@ -501,7 +501,8 @@ public class PriorityDelayQueue<E> extends AbstractQueue<PriorityDelayQueue.Queu
      * @param higherQ higher priority sub-queue.
      * @param msg sub-queues msg (from-to) for debugging purposes.
      */
-    private void antiStarvation(DelayQueue<QueueElement<E>> lowerQ, DelayQueue<QueueElement<E>> higherQ, String msg) {
+    protected void antiStarvation(DelayQueue<QueueElement<E>> lowerQ, DelayQueue<QueueElement<E>> higherQ,
+                                  String msg) {
         int moved = 0;
         QueueElement<E> e = lowerQ.poll();
         while (e != null && e.getDelay(TimeUnit.MILLISECONDS) < -maxWait) {
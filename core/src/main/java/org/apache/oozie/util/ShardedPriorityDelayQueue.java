@@ -0,0 +1,331 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link PollablePriorityDelayQueue} that does not use a queue-wide lock.
+ * <p/>
+ * Each priority sub-queue is split into a number of shards, each shard is a JDK <code>DelayQueue</code> with its own
+ * lock. Elements are offered to the shards in round-robin order and polled from the highest priority shards first,
+ * thus producers and consumers only contend on the shard they are touching.
+ * <p/>
+ * The priority, delay, anti-starvation and maximum size semantics are the same as the ones of the
+ * {@link PriorityDelayQueue}. The anti-starvation check is run by a single polling thread per interval, the other
+ * polling threads do not wait for it.
+ * <p/>
+ * Because there is no queue-wide lock, the {@link #eligibleToPoll} check and the removal of the element are not
+ * atomic with respect to other pollers, an element is returned only by the thread that succeeded removing it.
+ */
+public class ShardedPriorityDelayQueue<E> extends PollablePriorityDelayQueue<E> {
+
+    private int shards;
+    private DelayQueue<QueueElement<E>>[][] shardQueues;
+    private final AtomicInteger nextOfferShard = new AtomicInteger();
+    private final AtomicInteger nextPollShard = new AtomicInteger();
+    private final AtomicLong lastAntiStarvationCheck = new AtomicLong();
+
+    /**
+     * Create a <code>ShardedPriorityDelayQueue</code>.
+     *
+     * @param priorities number of priorities the queue will support.
+     * @param maxWait max wait time for elements before they are promoted to the next higher priority.
+     * @param unit time unit of the max wait time.
+     * @param maxSize maximum size of the queue, -1 means unbounded.
+     * @param shards number of shards for each priority sub-queue.
+     */
+    @SuppressWarnings("unchecked")
+    public ShardedPriorityDelayQueue(int priorities, long maxWait, TimeUnit unit, int maxSize, int shards) {
+        super(priorities, maxWait, unit, maxSize);
+        if (shards < 1) {
+            throw new IllegalArgumentException("shards must be 1 or more");
+        }
+        this.shards = shards;
+        shardQueues = new DelayQueue[shards][priorities];
+        for (int i = 0; i < shards; i++) {
+            for (int j = 0; j < priorities; j++) {
+                shardQueues[i][j] = new DelayQueue<QueueElement<E>>();
+            }
+        }
+    }
+
+    /**
+     * Return the number of shards of each priority sub-queue.
+     *
+     * @return the number of shards of each priority sub-queue.
+     */
+    public int getShards() {
+        return shards;
+    }
+
+    /**
+     * Return an iterator over all the {@link QueueElement} elements (both expired and unexpired) in this queue. The
+     * iterator does not return the elements in any particular order and it is a snapshot of the shards as they are
+     * traversed.
+     *
+     * @return an iterator over the {@link QueueElement} elements in this queue.
+     */
+    @Override
+    public Iterator<QueueElement<E>> iterator() {
+        List<QueueElement<E>> list = new ArrayList<QueueElement<E>>();
+        for (DelayQueue<QueueElement<E>>[] shard : shardQueues) {
+            for (DelayQueue<QueueElement<E>> queue : shard) {
+                list.addAll(queue);
+            }
+        }
+        return list.iterator();
+    }
+
+    /**
+     * Return the number of elements in the queue.
+     *
+     * @return the number of elements in the queue.
+     */
+    @Override
+    public int size() {
+        int size = 0;
+        for (DelayQueue<QueueElement<E>>[] shard : shardQueues) {
+            for (DelayQueue<QueueElement<E>> queue : shard) {
+                size += queue.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Return the number of elements on each priority sub-queue, adding up all the shards of the priority.
+     *
+     * @return the number of elements on each priority sub-queue.
+     */
+    @Override
+    public int[] sizes() {
+        int[] sizes = new int[priorities];
+        for (DelayQueue<QueueElement<E>>[] shard : shardQueues) {
+            for (int i = 0; i < priorities; i++) {
+                sizes[i] += shard[i].size();
+            }
+        }
+        return sizes;
+    }
+
+    /**
+     * Insert the specified {@link QueueElement} element into the next shard of its priority sub-queue.
+     *
+     * @param queueElement the {@link QueueElement} element to add.
+     * @param ignoreSize if the queue is bound to a maximum size and the maximum size is reached, this parameter (if set
+     * to <tt>true</tt>) allows to ignore the maximum size and add the element to the queue.
+     *
+     * @return <tt>true</tt> if the element has been inserted, <tt>false</tt> if the element was not inserted (the queue
+     *         has reached its maximum size).
+     *
+     * @throws NullPointerException if the specified element is null
+     */
+    @Override
+    boolean offer(QueueElement<E> queueElement, boolean ignoreSize) {
+        if (queueElement == null) {
+            throw new NullPointerException("queueElement is NULL");
+        }
+        if (queueElement.getPriority() < 0 || queueElement.getPriority() >= priorities) {
+            throw new IllegalArgumentException("priority out of range");
+        }
+        if (queueElement.inQueue) {
+            throw new IllegalStateException("queueElement already in a queue");
+        }
+        if (!ignoreSize && currentSize != null && currentSize.get() >= getMaxSize()) {
+            return false;
+        }
+        int shard = nextShard(nextOfferShard);
+        boolean accepted = shardQueues[shard][queueElement.getPriority()].offer(queueElement);
+        debug("offer([{0}]), to P[{1}] S[{2}] delay[{3}ms] accepted[{4}]", queueElement.getElement().toString(),
+              queueElement.getPriority(), shard, queueElement.getDelay(TimeUnit.MILLISECONDS), accepted);
+        if (accepted) {
+            if (currentSize != null) {
+                currentSize.incrementAndGet();
+            }
+            queueElement.inQueue = true;
+        }
+        return accepted;
+    }
+
+    /**
+     * Retrieve and remove the oldest expired element, eligible to poll, from the highest priority sub-queue. The shards
+     * of a priority sub-queue are scanned starting from a different shard on every invocation.
+     * <p/>
+     * Invocations to this method run the anti-starvation (once every interval check).
+     *
+     * @return the element of this queue, or <tt>null</tt> if this queue has no elements with an expired delay eligible
+     *         to poll.
+     */
+    @Override
+    public QueueElement<E> poll() {
+        antiStarvation();
+        int start = nextShard(nextPollShard);
+        QueueElement<E> e = null;
+        int i = priorities;
+        for (; e == null && i > 0; i--) {
+            for (int j = 0; e == null && j < shards; j++) {
+                e = poll(shardQueues[(start + j) % shards][i - 1]);
+            }
+        }
+        if (e != null) {
+            if (currentSize != null) {
+                currentSize.decrementAndGet();
+            }
+            e.inQueue = false;
+            debug("poll(): [{0}], from P[{1}]", e.getElement().toString(), i);
+        }
+        return e;
+    }
+
+    /**
+     * Retrieve and remove an expired element eligible to poll from a shard.
+     *
+     * @param queue shard to poll.
+     * @return the element, or <tt>null</tt> if the shard has no expired elements eligible to poll.
+     */
+    private QueueElement<E> poll(DelayQueue<QueueElement<E>> queue) {
+        QueueElement<E> e = queue.poll();
+        if (e == null || eligibleToPoll(e)) {
+            return e;
+        }
+        debug("poll(): the head element [{0}] is not eligible to poll", e.getElement().toString());
+        queue.offer(e);
+        for (QueueElement<E> candidate : queue) {
+            if (candidate != e && candidate.getDelay(TimeUnit.MILLISECONDS) <= 0 && eligibleToPoll(candidate)
+                    && queue.remove(candidate)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Retrieve, but does not remove, the head of this queue, or returns <tt>null</tt> if this queue is empty.  Unlike
+     * <tt>poll</tt>, if no expired elements are available in the queue, this method returns the element that will
+     * expire next, if one exists.
+     *
+     * @return the head of this queue, or <tt>null</tt> if this queue is empty.
+     */
+    @Override
+    public QueueElement<E> peek() {
+        antiStarvation();
+        QueueElement<E> next = null;
+        for (int i = priorities - 1; i > -1; i--) {
+            for (int j = 0; j < shards; j++) {
+                QueueElement<E> e = shardQueues[j][i].peek();
+                if (e != null) {
+                    if (e.getDelay(TimeUnit.MILLISECONDS) <= 0) {
+                        debug("peek(): [{0}], from P[{1}]", e.getElement().toString(), i);
+                        return e;
+                    }
+                    if (next == null || e.getDelay(TimeUnit.MILLISECONDS) < next.getDelay(TimeUnit.MILLISECONDS)) {
+                        next = e;
+                    }
+                }
+            }
+        }
+        if (next != null) {
+            debug("peek(): [{0}], from P[{1}]", next.getElement().toString(), next.getPriority());
+        }
+        else {
+            debug("peek(): NULL");
+        }
+        return next;
+    }
+
+    /**
+     * Run the anti-starvation check every {@link #ANTI_STARVATION_INTERVAL} milliseconds.
+     * <p/>
+     * Only the thread that wins the interval runs the check, it promotes elements beyond max wait time of every shard
+     * to the same shard of the next higher priority sub-queue.
+     */
+    @Override
+    protected void antiStarvation() {
+        long last = lastAntiStarvationCheck.get();
+        long now = System.currentTimeMillis();
+        if (now - last > ANTI_STARVATION_INTERVAL && lastAntiStarvationCheck.compareAndSet(last, now)) {
+            for (int s = 0; s < shards; s++) {
+                for (int i = 0; i < priorities - 1; i++) {
+                    antiStarvation(shardQueues[s][i], shardQueues[s][i + 1],
+                                   "from P[" + i + "] to P[" + (i + 1) + "] S[" + s + "]");
+                }
+            }
+            lastAntiStarvationCheck.set(System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Remove all available elements from this queue and adds them to the given collection.
+     *
+     * @param c the collection to transfer elements into
+     * @return the number of elements transferred
+     */
+    @Override
+    public int drainTo(Collection<? super QueueElement<E>> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Remove at most the given number of available elements from this queue and adds them to the given collection.
+     *
+     * @param c the collection to transfer elements into
+     * @param maxElements the maximum number of elements to transfer
+     * @return the number of elements transferred
+     */
+    @Override
+    public int drainTo(Collection<? super QueueElement<E>> c, int maxElements) {
+        int left = maxElements;
+        int count = 0;
+        for (int i = priorities - 1; left > 0 && i > -1; i--) {
+            for (int j = 0; left > 0 && j < shards; j++) {
+                int drained = shardQueues[j][i].drainTo(c, left);
+                count += drained;
+                left -= drained;
+            }
+        }
+        if (currentSize != null) {
+            currentSize.addAndGet(-count);
+        }
+        return count;
+    }
+
+    /**
+     * Removes all of the elements from this queue. The queue will be empty after this call returns.
+     */
+    @Override
+    public void clear() {
+        for (DelayQueue<QueueElement<E>>[] shard : shardQueues) {
+            for (DelayQueue<QueueElement<E>> queue : shard) {
+                queue.clear();
+            }
+        }
+        if (currentSize != null) {
+            currentSize.set(0);
+        }
+    }
+
+    private int nextShard(AtomicInteger counter) {
+        return (counter.getAndIncrement() & Integer.MAX_VALUE) % shards;
+    }
+
+}
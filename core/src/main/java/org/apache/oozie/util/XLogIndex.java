@@ -0,0 +1,400 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of the job IDs of a rotated log file.
+ * <p/>
+ * The log file is split in blocks starting on log statements, the index maps each job ID to the blocks containing
+ * its log statements. Streaming the log of a job only reads these blocks instead of the whole file.
+ * <p/>
+ * The index is stored in a side file, it is only valid for the length and modification time of the log file it was
+ * built for. The block offsets of gzip compressed log files are offsets in their decompressed content.
+ */
+public class XLogIndex {
+
+    /**
+     * Log statement parameter indexed, the job ID.
+     */
+    public static final String INDEXED_PARAMETER = "JOB";
+
+    /**
+     * Extension of the index files.
+     */
+    public static final String INDEX_EXTENSION = ".idx";
+
+    private static final int VERSION = 2;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_PREFIX = 4 * 1024;
+    private static final byte[] MARKER = (" " + INDEXED_PARAMETER + "[").getBytes();
+    private static final String NO_VALUE = "-";
+
+    private final long fileLength;
+    private final long logModTime;
+    private final long logLength;
+    private final long[] blockOffsets;
+    private final Map<String, int[]> jobBlocks;
+
+    private XLogIndex(long fileLength, long logModTime, long logLength, long[] blockOffsets,
+                      Map<String, int[]> jobBlocks) {
+        this.fileLength = fileLength;
+        this.logModTime = logModTime;
+        this.logLength = logLength;
+        this.blockOffsets = blockOffsets;
+        this.jobBlocks = jobBlocks;
+    }
+
+    /**
+     * Build the index of a log file.
+     *
+     * @param logFile log file to index.
+     * @param blockSize minimum size of the blocks, in bytes.
+     * @return the index of the log file.
+     * @throws IOException thrown if the log file could not be read.
+     */
+    public static XLogIndex build(File logFile, int blockSize) throws IOException {
+        long fileLength = logFile.length();
+        long logModTime = logFile.lastModified();
+        List<Long> offsets = new ArrayList<Long>();
+        Map<String, List<Integer>> blocks = new HashMap<String, List<Integer>>();
+        InputStream is = XLogStreamer.openLogFile(logFile);
+        try {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            byte[] line = new byte[MAX_PREFIX];
+            int len = 0;
+            long offset = 0;
+            long lineStart = 0;
+            long blockStart = -1;
+            int read;
+            while ((read = is.read(buffer)) > 0) {
+                for (int i = 0; i < read; i++) {
+                    byte b = buffer[i];
+                    if (b == '\n') {
+                        blockStart = indexLine(line, len, lineStart, blockStart, blockSize, offsets, blocks);
+                        lineStart = offset + i + 1;
+                        len = 0;
+                    }
+                    else if (len < line.length) {
+                        line[len++] = b;
+                    }
+                }
+                offset += read;
+            }
+            indexLine(line, len, lineStart, blockStart, blockSize, offsets, blocks);
+            long[] blockOffsets = new long[offsets.size()];
+            for (int i = 0; i < blockOffsets.length; i++) {
+                blockOffsets[i] = offsets.get(i);
+            }
+            Map<String, int[]> jobBlocks = new HashMap<String, int[]>();
+            for (Map.Entry<String, List<Integer>> entry : blocks.entrySet()) {
+                int[] jobBlockList = new int[entry.getValue().size()];
+                for (int i = 0; i < jobBlockList.length; i++) {
+                    jobBlockList[i] = entry.getValue().get(i);
+                }
+                jobBlocks.put(entry.getKey(), jobBlockList);
+            }
+            return new XLogIndex(fileLength, logModTime, offset, blockOffsets, jobBlocks);
+        }
+        finally {
+            is.close();
+        }
+    }
+
+    private static long indexLine(byte[] line, int len, long lineStart, long blockStart, int blockSize,
+                                  List<Long> offsets, Map<String, List<Integer>> blocks) {
+        if (!isStatementStart(line, len)) {
+            return blockStart;
+        }
+        if (blockStart == -1 || lineStart - blockStart >= blockSize) {
+            offsets.add(lineStart);
+            blockStart = lineStart;
+        }
+        String jobId = getJobId(line, len);
+        if (jobId != null) {
+            List<Integer> jobBlockList = blocks.get(jobId);
+            if (jobBlockList == null) {
+                jobBlockList = new ArrayList<Integer>();
+                blocks.put(jobId, jobBlockList);
+            }
+            int block = offsets.size() - 1;
+            if (jobBlockList.isEmpty() || jobBlockList.get(jobBlockList.size() - 1) != block) {
+                jobBlockList.add(block);
+            }
+        }
+        return blockStart;
+    }
+
+    // a log statement starts with a 'yyyy-MM-dd HH:mm:ss,SSS' timestamp
+    private static boolean isStatementStart(byte[] line, int len) {
+        if (len < 23) {
+            return false;
+        }
+        for (int i = 0; i < 23; i++) {
+            byte b = line[i];
+            switch (i) {
+                case 4:
+                case 7:
+                    if (b != '-') {
+                        return false;
+                    }
+                    break;
+                case 10:
+                    if (b != ' ') {
+                        return false;
+                    }
+                    break;
+                case 13:
+                case 16:
+                    if (b != ':') {
+                        return false;
+                    }
+                    break;
+                case 19:
+                    if (b != ',') {
+                        return false;
+                    }
+                    break;
+                default:
+                    if (b < '0' || b > '9') {
+                        return false;
+                    }
+            }
+        }
+        return true;
+    }
+
+    private static String getJobId(byte[] line, int len) {
+        int start = indexOf(line, len, MARKER);
+        if (start == -1) {
+            return null;
+        }
+        start += MARKER.length;
+        for (int end = start; end < len; end++) {
+            if (line[end] == ']') {
+                String jobId = new String(line, start, end - start);
+                return (jobId.length() == 0 || jobId.equals(NO_VALUE)) ? null : jobId;
+            }
+        }
+        return null;
+    }
+
+    private static int indexOf(byte[] line, int len, byte[] marker) {
+        for (int i = 0; i <= len - marker.length; i++) {
+            int j = 0;
+            while (j < marker.length && line[i + j] == marker[j]) {
+                j++;
+            }
+            if (j == marker.length) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Return the index file of a log file.
+     *
+     * @param indexDir directory of the index files.
+     * @param logFile log file.
+     * @return the index file of the log file.
+     */
+    public static File getIndexFile(File indexDir, File logFile) {
+        return new File(indexDir, logFile.getName() + INDEX_EXTENSION);
+    }
+
+    /**
+     * Return the index of a log file, building and storing it if it does not exist or is not valid anymore.
+     *
+     * @param indexDir directory of the index files.
+     * @param logFile log file.
+     * @param blockSize minimum size of the blocks, in bytes, if the index has to be built.
+     * @return the index of the log file.
+     * @throws IOException thrown if the log file could not be read.
+     */
+    public static XLogIndex get(File indexDir, File logFile, int blockSize) throws IOException {
+        File indexFile = getIndexFile(indexDir, logFile);
+        XLogIndex index = null;
+        if (indexFile.exists()) {
+            try {
+                index = read(indexFile);
+            }
+            catch (IOException ex) {
+                XLog.getLog(XLogIndex.class).warn("Could not read log index [{0}], {1}", indexFile, ex.getMessage());
+            }
+        }
+        if (index == null || !index.isValid(logFile)) {
+            index = build(logFile, blockSize);
+            try {
+                index.write(indexFile);
+            }
+            catch (IOException ex) {
+                XLog.getLog(XLogIndex.class).warn("Could not write log index [{0}], {1}", indexFile, ex.getMessage());
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Read an index file.
+     *
+     * @param indexFile index file.
+     * @return the index.
+     * @throws IOException thrown if the index file could not be read.
+     */
+    public static XLogIndex read(File indexFile) throws IOException {
+        DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)));
+        try {
+            int version = dis.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported log index version [" + version + "]");
+            }
+            long fileLength = dis.readLong();
+            long logModTime = dis.readLong();
+            long logLength = dis.readLong();
+            long[] blockOffsets = new long[dis.readInt()];
+            for (int i = 0; i < blockOffsets.length; i++) {
+                blockOffsets[i] = dis.readLong();
+            }
+            int jobs = dis.readInt();
+            Map<String, int[]> jobBlocks = new HashMap<String, int[]>();
+            for (int i = 0; i < jobs; i++) {
+                String jobId = dis.readUTF();
+                int[] blocks = new int[dis.readInt()];
+                for (int j = 0; j < blocks.length; j++) {
+                    blocks[j] = dis.readInt();
+                }
+                jobBlocks.put(jobId, blocks);
+            }
+            return new XLogIndex(fileLength, logModTime, logLength, blockOffsets, jobBlocks);
+        }
+        finally {
+            dis.close();
+        }
+    }
+
+    /**
+     * Write the index to a file.
+     * <p/>
+     * The index is written to a temporary file renamed once complete.
+     *
+     * @param indexFile index file.
+     * @throws IOException thrown if the index file could not be written.
+     */
+    public void write(File indexFile) throws IOException {
+        File dir = indexFile.getParentFile();
+        if (!dir.exists() && !dir.mkdirs()) {
+            throw new IOException("Could not create log index directory [" + dir + "]");
+        }
+        File tmpFile = new File(dir, indexFile.getName() + ".tmp");
+        DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)));
+        try {
+            dos.writeInt(VERSION);
+            dos.writeLong(fileLength);
+            dos.writeLong(logModTime);
+            dos.writeLong(logLength);
+            dos.writeInt(blockOffsets.length);
+            for (long blockOffset : blockOffsets) {
+                dos.writeLong(blockOffset);
+            }
+            dos.writeInt(jobBlocks.size());
+            for (Map.Entry<String, int[]> entry : jobBlocks.entrySet()) {
+                dos.writeUTF(entry.getKey());
+                dos.writeInt(entry.getValue().length);
+                for (int block : entry.getValue()) {
+                    dos.writeInt(block);
+                }
+            }
+        }
+        finally {
+            dos.close();
+        }
+        if (indexFile.exists() && !indexFile.delete() || !tmpFile.renameTo(indexFile)) {
+            tmpFile.delete();
+            throw new IOException("Could not rename log index [" + tmpFile + "] to [" + indexFile + "]");
+        }
+    }
+
+    /**
+     * Return if the index is valid for a log file, the file must not have changed since it was indexed.
+     *
+     * @param logFile log file.
+     * @return if the index is valid for the log file.
+     */
+    public boolean isValid(File logFile) {
+        return logFile.length() == fileLength && logFile.lastModified() == logModTime;
+    }
+
+    /**
+     * Return the byte ranges of the log file containing the log statements of a job.
+     * <p/>
+     * Each range starts on a log statement, consecutive blocks are merged in a single range.
+     *
+     * @param jobId job ID.
+     * @return the list of <code>{start, end}</code> byte ranges of the log file content, empty if the job has no log statements in the file.
+     */
+    public List<long[]> getRanges(String jobId) {
+        List<long[]> ranges = new ArrayList<long[]>();
+        int[] blocks = jobBlocks.get(jobId);
+        if (blocks != null) {
+            long[] range = null;
+            int last = -2;
+            for (int block : blocks) {
+                long end = (block + 1 < blockOffsets.length) ? blockOffsets[block + 1] : logLength;
+                if (block == last + 1) {
+                    range[1] = end;
+                }
+                else {
+                    range = new long[]{blockOffsets[block], end};
+                    ranges.add(range);
+                }
+                last = block;
+            }
+        }
+        return ranges;
+    }
+
+    /**
+     * Return the number of blocks of the log file.
+     *
+     * @return the number of blocks of the log file.
+     */
+    public int getBlocks() {
+        return blockOffsets.length;
+    }
+
+    /**
+     * Return the number of jobs with log statements in the log file.
+     *
+     * @return the number of jobs with log statements in the log file.
+     */
+    public int getJobs() {
+        return jobBlocks.size();
+    }
+
+}
@@ -14,65 +14,114 @@
  */
 package org.apache.oozie.util;
 
-import org.apache.oozie.util.XLogStreamer;
-
-import java.util.ArrayList;
-import java.io.Writer;
 import java.io.IOException;
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Arrays;
 
 /**
  * Reads the input stream(log file) and applies the filters and writes it to output stream. The filtering will also
  * consider the log messages spilling over multiline.
+ * <p/>
+ * The log lines are filtered in place in a char buffer with {@link XLogStreamer.Filter#matchLine}, only the lines
+ * going through the filter are written, no string is created for the other lines.
  */
 public class XLogReader {
-    private BufferedReader logReader;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private Reader logReader;
     private Writer logWriter;
     private boolean noFilter = false;
     private XLogStreamer.Filter logFilter;
+    private boolean patternMatched = false;
+    private int lcnt = 0;
 
     public XLogReader(InputStream logFileIS, XLogStreamer.Filter filter, Writer logWriter) {
-        logReader = new BufferedReader(new InputStreamReader(logFileIS));
+        logReader = new InputStreamReader(logFileIS);
         logFilter = filter;
         this.logWriter = logWriter;
     }
 
     /**
      * Processes the Given Log and writes the output after applying the filters.
+     * <p/>
+     * Lines are terminated by '\n', '\r' or "\r\n", like for {@link java.io.BufferedReader#readLine}.
      *
      * @throws IOException
      */
     public void processLog() throws IOException {
-        String line = logReader.readLine();
-        boolean patternMatched = false;
-        int lcnt = 0;
         if (logFilter == null || !logFilter.isFilterPresent()) {
             noFilter = true;
         }
         else {
             logFilter.constructPattern();
         }
-        while (line != null) {
-            if (noFilter) {
-                logWriter.write(line + "\n");
-            }
-            else {
-                ArrayList<String> logParts = logFilter.splitLogMessage(line);
-                if (logParts != null) {
-                    patternMatched = logFilter.matches(logParts);
+        char[] buffer = new char[BUFFER_SIZE];
+        int start = 0;
+        int pos = 0;
+        int end = 0;
+        boolean skipLF = false;
+        while (true) {
+            if (pos == end) {
+                if (start > 0) {
+                    System.arraycopy(buffer, start, buffer, 0, end - start);
+                    end -= start;
+                    pos -= start;
+                    start = 0;
+                }
+                if (end == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
                 }
-                if (patternMatched) {
-                    logWriter.write(line + "\n");
+                int read = logReader.read(buffer, end, buffer.length - end);
+                if (read == -1) {
+                    if (end > start) {
+                        processLine(buffer, start, end - start);
+                    }
+                    break;
+                }
+                end += read;
+                continue;
+            }
+            char c = buffer[pos++];
+            if (skipLF) {
+                skipLF = false;
+                if (c == '\n') {
+                    start = pos;
+                    continue;
                 }
             }
-            lcnt++;
-            if (lcnt % 20 == 0) {
-                logWriter.flush();
+            if (c == '\n' || c == '\r') {
+                processLine(buffer, start, pos - 1 - start);
+                skipLF = (c == '\r');
+                start = pos;
             }
-            line = logReader.readLine();
         }
         logWriter.flush();
     }
+
+    private void processLine(char[] buffer, int offset, int length) throws IOException {
+        if (noFilter) {
+            writeLine(buffer, offset, length);
+        }
+        else {
+            int match = logFilter.matchLine(buffer, offset, length);
+            if (match != XLogStreamer.Filter.NOT_A_STATEMENT) {
+                patternMatched = (match == XLogStreamer.Filter.MATCH);
+            }
+            if (patternMatched) {
+                writeLine(buffer, offset, length);
+            }
+        }
+        lcnt++;
+        if (lcnt % 20 == 0) {
+            logWriter.flush();
+        }
+    }
+
+    private void writeLine(char[] buffer, int offset, int length) throws IOException {
+        logWriter.write(buffer, offset, length);
+        logWriter.write('\n');
+    }
 }
@@ -16,20 +16,33 @@ package org.apache.oozie.util;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Writer;
+import java.nio.CharBuffer;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
 
 /**
  * XLogStreamer streams the given log file to logWriter after applying the given filter.
+ * <p/>
+ * Rotated log files may be gzip compressed. If a scan executor is set, filtered log files are scanned in parallel
+ * and their matching lines streamed in order.
+ * <p/>
+ * If an index directory is set and the filter selects a job, only the blocks of the rotated log files containing log
+ * statements of the job are read, using the {@link XLogIndex} of the files.
  */
 public class XLogStreamer {
 
@@ -44,6 +57,8 @@ public class XLogStreamer {
         private static List<String> parameters = new ArrayList<String>();
         private boolean noFilter;
         private Pattern filterPattern;
+        private String[] levels;
+        private Token[] tokens;
 
         //TODO Patterns to be read from config file
         private static final String DEFAULT_REGEX = "[^\\]]*";
@@ -55,6 +70,71 @@ public class XLogStreamer {
         private static final String PREFIX_REGEX = TIMESTAMP_REGEX + WHITE_SPACE_REGEX + LOG_LEVEL_REGEX
                 + WHITE_SPACE_REGEX;
         private static final Pattern SPLITTER_PATTERN = Pattern.compile(PREFIX_REGEX + ALLOW_ALL_REGEX);
+        private static final int TIMESTAMP_LENGTH = 23;
+
+        /**
+         * {@link #matchLine} result for a log line that is a new log statement going through the filter.
+         */
+        public static final int MATCH = 1;
+
+        /**
+         * {@link #matchLine} result for a log line that is a new log statement not going through the filter.
+         */
+        public static final int NO_MATCH = 0;
+
+        /**
+         * {@link #matchLine} result for a log line that is not a new log statement, the continuation of a multiline
+         * log statement.
+         */
+        public static final int NOT_A_STATEMENT = -1;
+
+        // parameter values matching this pattern are literals, they are also searched as plain substrings
+        static final Pattern LITERAL_PATTERN = Pattern.compile("[\\w\\-@]+");
+
+        /**
+         * Substring searched in log lines with the Boyer-Moore-Horspool algorithm.
+         */
+        private static class Token {
+            private final char[] pattern;
+            private final int[] shifts = new int[128];
+
+            public Token(String token) {
+                pattern = token.toCharArray();
+                for (int i = 0; i < shifts.length; i++) {
+                    shifts[i] = pattern.length;
+                }
+                for (int i = 0; i < pattern.length - 1; i++) {
+                    if (pattern[i] < shifts.length) {
+                        shifts[pattern[i]] = pattern.length - 1 - i;
+                    }
+                }
+            }
+
+            /**
+             * Return if the token is contained in a range of a char buffer.
+             *
+             * @param buffer char buffer.
+             * @param start start of the range.
+             * @param end end of the range, exclusive.
+             * @return if the token is contained in the range.
+             */
+            public boolean isIn(char[] buffer, int start, int end) {
+                int last = pattern.length - 1;
+                int i = start;
+                while (i + last < end) {
+                    int j = last;
+                    while (buffer[i + j] == pattern[j]) {
+                        if (j == 0) {
+                            return true;
+                        }
+                        j--;
+                    }
+                    char c = buffer[i + last];
+                    i += (c < shifts.length) ? shifts[c] : pattern.length;
+                }
+                return false;
+            }
+        }
 
         public Filter() {
             filterParams = new HashMap<String, String>();
@@ -90,6 +170,17 @@ public class XLogStreamer {
             }
         }
 
+        /**
+         * Return the value of a filter parameter.
+         *
+         * @param filterParam filter parameter.
+         * @return the value of the filter parameter, <code>null</code> if not set.
+         */
+        public String getParameter(String filterParam) {
+            String value = filterParams.get(filterParam);
+            return (value == null || value.equals(DEFAULT_REGEX)) ? null : value;
+        }
+
         public static void defineParameter(String filterParam) {
             parameters.add(filterParam);
         }
@@ -139,11 +230,147 @@ public class XLogStreamer {
             }
         }
 
+        /**
+         * Checks if a log line is a new log statement going through the filter, without splitting it.
+         * <p/>
+         * The result is the same as {@link #splitLogMessage} followed by {@link #matches}. The timestamp and the log
+         * level are checked positionally and the literal parameter values are searched as substrings, the regular
+         * expression of the filter only runs on the lines containing them. {@link #constructPattern} must be called
+         * first.
+         *
+         * @param line char buffer containing the log line, without line terminator.
+         * @param offset offset of the log line in the buffer.
+         * @param length length of the log line.
+         * @return {@link #MATCH}, {@link #NO_MATCH} or {@link #NOT_A_STATEMENT}.
+         */
+        public int matchLine(char[] line, int offset, int length) {
+            int end = offset + length;
+            if (length < TIMESTAMP_LENGTH || !isTimestamp(line, offset)) {
+                return NOT_A_STATEMENT;
+            }
+            int i = skipWhiteSpace(line, offset + TIMESTAMP_LENGTH, end);
+            if (i == offset + TIMESTAMP_LENGTH) {
+                return NOT_A_STATEMENT;
+            }
+            int levelStart = i;
+            while (i < end && isWordChar(line[i])) {
+                i++;
+            }
+            int levelEnd = i;
+            if (levelEnd == levelStart) {
+                return NOT_A_STATEMENT;
+            }
+            i = skipWhiteSpace(line, levelEnd, end);
+            if (i == levelEnd) {
+                return NOT_A_STATEMENT;
+            }
+            int messageStart = i;
+            for (; i < end; i++) {
+                if (isLineTerminator(line[i])) {
+                    return NOT_A_STATEMENT;
+                }
+            }
+            if (levels != null && !isLevel(line, levelStart, levelEnd)) {
+                return NO_MATCH;
+            }
+            if (noFilter) {
+                return MATCH;
+            }
+            for (Token token : tokens) {
+                if (!token.isIn(line, messageStart, end)) {
+                    return NO_MATCH;
+                }
+            }
+            return filterPattern.matcher(CharBuffer.wrap(line, messageStart, end - messageStart)).matches()
+                   ? MATCH : NO_MATCH;
+        }
+
+        private static boolean isTimestamp(char[] line, int offset) {
+            for (int i = 0; i < TIMESTAMP_LENGTH; i++) {
+                char c = line[offset + i];
+                switch (i) {
+                    case 4:
+                    case 7:
+                        if (c != '-') {
+                            return false;
+                        }
+                        break;
+                    case 10:
+                        if (c != ' ') {
+                            return false;
+                        }
+                        break;
+                    case 13:
+                    case 16:
+                        if (c != ':') {
+                            return false;
+                        }
+                        break;
+                    case 19:
+                        if (c != ',') {
+                            return false;
+                        }
+                        break;
+                    default:
+                        if (c < '0' || c > '9') {
+                            return false;
+                        }
+                }
+            }
+            return true;
+        }
+
+        // same characters as the '\s' regular expression class
+        private static int skipWhiteSpace(char[] line, int i, int end) {
+            while (i < end) {
+                char c = line[i];
+                if (c != ' ' && c != '\t' && c != '\n' && c != 0x0B && c != '\f' && c != '\r') {
+                    break;
+                }
+                i++;
+            }
+            return i;
+        }
+
+        // same characters as the '\w' regular expression class
+        private static boolean isWordChar(char c) {
+            return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+        }
+
+        // line terminators not matched by the '.' regular expression
+        private static boolean isLineTerminator(char c) {
+            return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+        }
+
+        private boolean isLevel(char[] line, int start, int end) {
+            for (String level : levels) {
+                if (level.length() == end - start) {
+                    int i = 0;
+                    while (i < level.length() && Character.toUpperCase(line[start + i]) == level.charAt(i)) {
+                        i++;
+                    }
+                    if (i == level.length()) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
         /**
          * Constructs the regular expression according to the filter and assigns it to fileterPattarn. ".*" will be
          * assigned if no filters are set.
          */
         public void constructPattern() {
+            levels = (logLevels != null) ? logLevels.keySet().toArray(new String[logLevels.size()]) : null;
+            List<Token> tokenList = new ArrayList<Token>();
+            for (int i = 0; i < parameters.size(); i++) {
+                String value = filterParams.get(parameters.get(i));
+                if (value != null && LITERAL_PATTERN.matcher(value).matches()) {
+                    tokenList.add(new Token(parameters.get(i) + "[" + value + "] "));
+                }
+            }
+            tokens = tokenList.toArray(new Token[tokenList.size()]);
             if (noFilter && logLevels == null) {
                 filterPattern = Pattern.compile(ALLOW_ALL_REGEX);
                 return;
@@ -173,8 +400,36 @@ public class XLogStreamer {
     private Filter logFilter;
     private Writer logWriter;
     private long logRotation;
+    private File indexDir;
+    private int indexBlockSize;
+    private ExecutorService scanExecutor;
+    private int maxParallelFiles;
+    private int maxBufferedChars;
+
+    /**
+     * Extension of the gzip compressed rotated log files.
+     */
+    public static final String GZIP_EXTENSION = ".gz";
 
     public XLogStreamer(Filter logFilter, Writer logWriter, String logPath, String logFile, long logRotationSecs) {
+        this(logFilter, logWriter, logPath, logFile, logRotationSecs, null, 0);
+    }
+
+    /**
+     * Create a log streamer using the indexes of the rotated log files.
+     *
+     * @param logFilter log filter.
+     * @param logWriter writer to stream the log to.
+     * @param logPath log directory.
+     * @param logFile log file name.
+     * @param logRotationSecs log rotation period in seconds.
+     * @param indexDir directory of the index files, <code>null</code> to not use indexes.
+     * @param indexBlockSize minimum size of the index blocks, in bytes, for the indexes built while streaming.
+     */
+    public XLogStreamer(Filter logFilter, Writer logWriter, String logPath, String logFile, long logRotationSecs,
+                        File indexDir, int indexBlockSize) {
+        this.indexDir = indexDir;
+        this.indexBlockSize = indexBlockSize;
         this.logWriter = logWriter;
         this.logFilter = logFilter;
         if (logFile == null) {
@@ -185,9 +440,29 @@ public class XLogStreamer {
         this.logRotation = logRotationSecs * 1000l;
     }
 
+    /**
+     * Set the executor used to scan several log files in parallel.
+     * <p/>
+     * The first file is streamed as it is scanned, the matching log lines of the following files are buffered in
+     * memory until the lines of the previous files have been streamed. At most <code>maxParallelFiles</code> files are
+     * scanned at a time. A file with more than <code>maxBufferedChars</code> matching characters is not buffered, it
+     * is scanned again and streamed once the previous files have been streamed.
+     *
+     * @param scanExecutor executor to scan the log files, <code>null</code> to scan them sequentially.
+     * @param maxParallelFiles maximum number of log files scanned at a time.
+     * @param maxBufferedChars maximum number of characters buffered for a log file.
+     */
+    public void setScanExecutor(ExecutorService scanExecutor, int maxParallelFiles, int maxBufferedChars) {
+        this.scanExecutor = scanExecutor;
+        this.maxParallelFiles = maxParallelFiles;
+        this.maxBufferedChars = maxBufferedChars;
+    }
+
     /**
      * Gets the files that are modified between startTime and endTime in the given logPath and streams the log after
      * applying the filters.
+     * <p/>
+     * Rotated log files compressed with gzip, with a <code>.gz</code> extension, are decompressed while streamed.
      *
      * @param startTime
      * @param endTime
@@ -207,11 +482,268 @@ public class XLogStreamer {
         }
         File dir = new File(logPath);
         ArrayList<FileInfo> fileList = getFileList(dir, startTimeMillis, endTimeMillis, logRotation, logFile);
-        for (int i = 0; i < fileList.size(); i++) {
-            InputStream ifs;
-            ifs = new FileInputStream(fileList.get(i).getFileName());
-            XLogReader logReader = new XLogReader(ifs, logFilter, logWriter);
-            logReader.processLog();
+        String jobId = getIndexedJobId();
+        // unfiltered logs are not buffered
+        if (scanExecutor == null || maxParallelFiles < 2 || fileList.size() < 2 || logFilter == null
+                || !logFilter.isFilterPresent()) {
+            for (int i = 0; i < fileList.size(); i++) {
+                streamFile(new File(fileList.get(i).getFileName()), jobId, logWriter);
+            }
+        }
+        else {
+            streamFilesInParallel(fileList, jobId);
+        }
+    }
+
+    /**
+     * Scans the log files in parallel and streams their matching lines in the order of the files.
+     *
+     * @param fileList log files.
+     * @param jobId job ID to look up in the log indexes, <code>null</code> if the indexes are not used.
+     * @throws IOException thrown if a log file could not be read.
+     */
+    private void streamFilesInParallel(List<FileInfo> fileList, final String jobId) throws IOException {
+        // the first file is streamed directly, it is not scanned by the executor
+        List<Future<String>> futures = new ArrayList<Future<String>>();
+        futures.add(null);
+        try {
+            for (int i = 0; i < fileList.size(); i++) {
+                // the following files are scanned while the current file is streamed
+                while (futures.size() < fileList.size() && futures.size() < i + maxParallelFiles) {
+                    final File file = new File(fileList.get(futures.size()).getFileName());
+                    futures.add(scanExecutor.submit(new Callable<String>() {
+                        public String call() throws IOException {
+                            BoundedWriter writer = new BoundedWriter(maxBufferedChars);
+                            try {
+                                streamFile(file, jobId, writer);
+                            }
+                            catch (BoundedWriter.OverflowException ex) {
+                                return null;
+                            }
+                            return writer.toString();
+                        }
+                    }));
+                }
+                Future<String> future = futures.set(i, null);
+                String buffered = (future != null) ? future.get() : null;
+                if (buffered != null) {
+                    logWriter.write(buffered);
+                }
+                else {
+                    streamFile(new File(fileList.get(i).getFileName()), jobId, logWriter);
+                }
+                logWriter.flush();
+            }
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while streaming the log");
+        }
+        catch (ExecutionException ex) {
+            if (ex.getCause() instanceof IOException) {
+                throw (IOException) ex.getCause();
+            }
+            throw new IOException(ex.getCause().toString());
+        }
+        finally {
+            for (Future<String> future : futures) {
+                if (future != null) {
+                    future.cancel(true);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writer buffering at most a maximum number of characters, it fails once the maximum is exceeded.
+     */
+    private static class BoundedWriter extends Writer {
+
+        @SuppressWarnings("serial")
+        private static class OverflowException extends IOException {
+        }
+
+        private StringBuilder buffer = new StringBuilder();
+        private int maxChars;
+
+        private BoundedWriter(int maxChars) {
+            this.maxChars = maxChars;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            if (buffer.length() + len > maxChars) {
+                throw new OverflowException();
+            }
+            buffer.append(cbuf, off, len);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public String toString() {
+            return buffer.toString();
+        }
+    }
+
+    /**
+     * Streams the matching lines of a log file, using the index of the file if the file has been rotated.
+     *
+     * @param file log file.
+     * @param jobId job ID to look up in the log indexes, <code>null</code> if the indexes are not used.
+     * @param writer writer to stream the matching lines to.
+     * @throws IOException thrown if the log file could not be read.
+     */
+    private void streamFile(File file, String jobId, Writer writer) throws IOException {
+        if (!file.exists()) {
+            // compressed since listed
+            File gzFile = new File(file.getPath() + GZIP_EXTENSION);
+            if (gzFile.exists()) {
+                file = gzFile;
+            }
+        }
+        if (jobId != null && !file.getName().equals(logFile)) {
+            streamRanges(file, XLogIndex.get(indexDir, file, indexBlockSize).getRanges(jobId), writer);
+        }
+        else {
+            InputStream ifs = openLogFile(file);
+            try {
+                new XLogReader(ifs, logFilter, writer).processLog();
+            }
+            finally {
+                ifs.close();
+            }
+        }
+    }
+
+    /**
+     * Open a log file, decompressing it if it has a <code>.gz</code> extension.
+     *
+     * @param file log file.
+     * @return the input stream of the log file content.
+     * @throws IOException thrown if the log file could not be opened.
+     */
+    public static InputStream openLogFile(File file) throws IOException {
+        InputStream is = new FileInputStream(file);
+        if (file.getName().endsWith(GZIP_EXTENSION)) {
+            try {
+                is = new GZIPInputStream(is, 64 * 1024);
+            }
+            catch (IOException ex) {
+                is.close();
+                throw ex;
+            }
+        }
+        return is;
+    }
+
+    /**
+     * Return the job ID to look up in the log indexes.
+     *
+     * @return the job ID selected by the filter, <code>null</code> if the indexes cannot be used.
+     */
+    private String getIndexedJobId() {
+        if (indexDir == null || logFilter == null) {
+            return null;
+        }
+        String jobId = logFilter.getParameter(XLogIndex.INDEXED_PARAMETER);
+        // index lookups are only done for literal job IDs, the filter parameters are regular expressions
+        return (jobId != null && Filter.LITERAL_PATTERN.matcher(jobId).matches()) ? jobId : null;
+    }
+
+    /**
+     * Streams byte ranges of a log file, each range starts on a log statement.
+     *
+     * @param file log file.
+     * @param ranges <code>{start, end}</code> byte ranges of the log file content.
+     * @param writer writer to stream the matching lines to.
+     * @throws IOException thrown if the log file could not be read.
+     */
+    private void streamRanges(File file, List<long[]> ranges, Writer writer) throws IOException {
+        if (ranges.isEmpty()) {
+            return;
+        }
+        InputStream ifs = openLogFile(file);
+        try {
+            long position = 0;
+            for (long[] range : ranges) {
+                while (position < range[0]) {
+                    long skipped = ifs.skip(range[0] - position);
+                    if (skipped <= 0) {
+                        throw new IOException("Unexpected end of log file [" + file + "]");
+                    }
+                    position += skipped;
+                }
+                new XLogReader(new RangeInputStream(ifs, range[1] - range[0]), logFilter, writer).processLog();
+                position = range[1];
+            }
+        }
+        finally {
+            ifs.close();
+        }
+    }
+
+    /**
+     * Input stream reading a number of bytes of the underlying stream, closing it does not close the underlying
+     * stream.
+     */
+    private static class RangeInputStream extends FilterInputStream {
+        private long remaining;
+
+        public RangeInputStream(InputStream is, long length) {
+            super(is);
+            remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = super.read();
+            if (b != -1) {
+                remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int read = super.read(b, off, (int) Math.min(len, remaining));
+            if (read > 0) {
+                remaining -= read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(Math.min(n, remaining));
+            remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(super.available(), remaining);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void close() {
         }
     }
 
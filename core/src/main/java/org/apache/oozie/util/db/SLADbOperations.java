@@ -107,12 +107,21 @@ public class SLADbOperations {
         slaStore.insertSLAEvent(sla);
     }
 
-    public static void writeSlaRegistrationEvent(Element eSla,
-                                                 String slaId, SlaAppType appType, String user, String groupName, XLog log)
-            throws Exception {
-        // System.out.println("BBBBB SLA added");
+    /**
+     * Create the SLA registration event of a job or action without persisting it.
+     *
+     * @param eSla SLA info element, it may be <code>null</code>.
+     * @param slaId SLA ID.
+     * @param appType application type.
+     * @param user user name.
+     * @param groupName group name.
+     * @return the SLA registration event, <code>null</code> if there is no SLA info element.
+     * @throws Exception thrown if the SLA info element is invalid.
+     */
+    public static SLAEventBean createSlaRegistrationEvent(Element eSla, String slaId, SlaAppType appType, String user,
+                                                          String groupName) throws Exception {
         if (eSla == null) {
-            return;
+            return null;
         }
         //System.out.println("Writing REG AAAAA " + slaId);
         SLAEventBean sla = new SLAEventBean();
@@ -178,6 +187,16 @@ public class SLADbOperations {
         sla.setGroupName(groupName);
         sla.setJobStatus(Status.CREATED);
         sla.setStatusTimestamp(new Date());
+        return sla;
+    }
+
+    public static void writeSlaRegistrationEvent(Element eSla,
+                                                 String slaId, SlaAppType appType, String user, String groupName, XLog log)
+            throws Exception {
+        SLAEventBean sla = createSlaRegistrationEvent(eSla, slaId, appType, user, groupName);
+        if (sla == null) {
+            return;
+        }
 
         //SLAStore slaStore = (SLAStore) Services.get().get(StoreService.class)
         //        .getStore(SLAStore.class, store);
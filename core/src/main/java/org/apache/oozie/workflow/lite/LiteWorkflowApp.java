@@ -19,15 +19,22 @@ import org.apache.hadoop.util.ReflectionUtils;
 import org.apache.oozie.workflow.WorkflowApp;
 import org.apache.oozie.workflow.WorkflowException;
 import org.apache.oozie.util.ParamChecker;
+import org.apache.oozie.util.WritableUtils;
 import org.apache.oozie.util.XLog;
 import org.apache.oozie.ErrorCode;
 
+import java.io.ByteArrayInputStream;
 import java.io.DataInput;
+import java.io.DataInputStream;
 import java.io.DataOutput;
 import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -39,6 +46,25 @@ public class LiteWorkflowApp implements Writable, WorkflowApp {
     private Map<String, NodeDef> nodesMap = new LinkedHashMap<String, NodeDef>();
     private boolean complete = false;
 
+    // computed once the definition is complete, it does not change anymore
+    private byte[] serializedForm;
+    private String digest;
+    private String[] nodeNames;
+    private Map<String, Integer> nodeIndexes;
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private static int cacheSize = 500;
+
+    // complete definitions read from workflow instances, by digest
+    private static final Map<String, LiteWorkflowApp> CACHE = new LinkedHashMap<String, LiteWorkflowApp>(16, 0.75f,
+                                                                                                         true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, LiteWorkflowApp> eldest) {
+            return size() > cacheSize;
+        }
+    };
+
     LiteWorkflowApp() {
     }
 
@@ -178,4 +204,137 @@ public class LiteWorkflowApp implements Writable, WorkflowApp {
         }
     }
 
+    /**
+     * Return the serialized form of the definition.
+     * <p/>
+     * The serialized form of a complete definition is computed once.
+     *
+     * @return the serialized form of the definition.
+     */
+    public synchronized byte[] getSerializedForm() {
+        if (!complete) {
+            return WritableUtils.toByteArray(this);
+        }
+        if (serializedForm == null) {
+            serializedForm = WritableUtils.toByteArray(this);
+        }
+        return serializedForm;
+    }
+
+    /**
+     * Return the SHA-256 digest of the serialized form of the definition, as an hexadecimal string.
+     *
+     * @return the digest of the serialized form of the definition.
+     */
+    public synchronized String getDigest() {
+        if (digest == null || !complete) {
+            digest = digest(getSerializedForm());
+        }
+        return digest;
+    }
+
+    /**
+     * Return the SHA-256 digest of bytes as an hexadecimal string.
+     *
+     * @param bytes bytes to digest.
+     * @return the digest of the bytes.
+     */
+    public static String digest(byte[] bytes) {
+        try {
+            byte[] sha = MessageDigest.getInstance("SHA-256").digest(bytes);
+            char[] hex = new char[sha.length * 2];
+            for (int i = 0; i < sha.length; i++) {
+                hex[2 * i] = HEX[(sha[i] >> 4) & 0xF];
+                hex[2 * i + 1] = HEX[sha[i] & 0xF];
+            }
+            return new String(hex);
+        }
+        catch (NoSuchAlgorithmException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
+    /**
+     * Return the index of a node in the sorted list of the node names, used to encode node names.
+     *
+     * @param nodeName node name.
+     * @return the index of the node, <code>-1</code> if the node is not defined.
+     */
+    synchronized int getNodeIndex(String nodeName) {
+        initNodeNames();
+        Integer index = nodeIndexes.get(nodeName);
+        return (index != null) ? index : -1;
+    }
+
+    /**
+     * Return the name of a node from its index in the sorted list of the node names.
+     *
+     * @param index node index.
+     * @return the node name.
+     * @throws IOException thrown if the index is not valid.
+     */
+    synchronized String getNodeName(int index) throws IOException {
+        initNodeNames();
+        if (index < 0 || index >= nodeNames.length) {
+            throw new IOException("Invalid node index [" + index + "] for workflow definition [" + name + "]");
+        }
+        return nodeNames[index];
+    }
+
+    private void initNodeNames() {
+        if (nodeNames == null || !complete) {
+            nodeNames = nodesMap.keySet().toArray(new String[nodesMap.size()]);
+            Arrays.sort(nodeNames);
+            nodeIndexes = new HashMap<String, Integer>();
+            for (int i = 0; i < nodeNames.length; i++) {
+                nodeIndexes.put(nodeNames[i], i);
+            }
+        }
+    }
+
+    /**
+     * Return the definition read from a serialized form.
+     * <p/>
+     * Complete definitions are cached by digest, the cached definitions are shared by the workflow instances. The
+     * digest is written along with user content, a cached definition is reused only if its serialized form is the
+     * same as the given one.
+     *
+     * @param digest digest of the serialized form.
+     * @param serializedForm serialized form.
+     * @return the definition.
+     * @throws IOException thrown if the definition could not be read.
+     */
+    static LiteWorkflowApp get(String digest, byte[] serializedForm) throws IOException {
+        boolean cacheable;
+        synchronized (CACHE) {
+            LiteWorkflowApp app = CACHE.get(digest);
+            if (app != null && Arrays.equals(app.serializedForm, serializedForm)) {
+                return app;
+            }
+            cacheable = app == null;
+        }
+        LiteWorkflowApp app = new LiteWorkflowApp();
+        app.readFields(new DataInputStream(new ByteArrayInputStream(serializedForm)));
+        if (app.complete && cacheable) {
+            app.serializedForm = serializedForm;
+            app.digest = digest;
+            synchronized (CACHE) {
+                CACHE.put(digest, app);
+            }
+        }
+        return app;
+    }
+
+    /**
+     * Set the maximum number of definitions cached by digest.
+     *
+     * @param size maximum number of cached definitions, <code>0</code> disables the cache.
+     */
+    public static void setCacheSize(int size) {
+        synchronized (CACHE) {
+            cacheSize = size;
+            CACHE.clear();
+        }
+    }
+
 }
@@ -17,7 +17,9 @@ package org.apache.oozie.workflow.lite;
 import org.apache.oozie.service.XLogService;
 import org.apache.oozie.service.DagXLogInfoService;
 import org.apache.oozie.client.OozieClient;
+import org.apache.hadoop.io.Text;
 import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.io.WritableUtils;
 import org.apache.hadoop.util.ReflectionUtils;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.oozie.workflow.WorkflowApp;
@@ -29,7 +31,9 @@ import org.apache.oozie.util.XConfiguration;
 import org.apache.oozie.ErrorCode;
 
 import java.io.DataInput;
+import java.io.DataInputStream;
 import java.io.DataOutput;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.ByteArrayOutputStream;
 import java.io.ByteArrayInputStream;
@@ -37,6 +41,10 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
 
 //TODO javadoc
 public class LiteWorkflowInstance implements Writable, WorkflowInstance {
@@ -48,6 +56,12 @@ public class LiteWorkflowInstance implements Writable, WorkflowInstance {
     private static String ROOT = PATH_SEPARATOR;
     private static String TRANSITION_SEPARATOR = "#";
 
+    // the legacy format starts with the length of the instance ID, it cannot be 0xFFFF
+    private static final int COMPACT_MARKER = 0xFFFF;
+    private static final int COMPACT_VERSION = 1;
+
+    private static volatile boolean compress = true;
+
     private static class NodeInstance {
         String nodeName;
         boolean started = false;
@@ -539,36 +553,181 @@ public class LiteWorkflowInstance implements Writable, WorkflowInstance {
         this.status = status;
     }
 
+    /**
+     * Set if the workflow instances are written compressed.
+     *
+     * @param compress if the workflow instances are written compressed.
+     */
+    public static void setCompression(boolean compress) {
+        LiteWorkflowInstance.compress = compress;
+    }
+
+    /**
+     * Writes the workflow instance in the compact format.
+     * <p/>
+     * The compact format starts with a marker that cannot start the legacy format, the version and the compression
+     * flag. The workflow definition is written in its cached serialized form with its digest, node names are encoded
+     * as indexes in the sorted list of the definition node names.
+     *
+     * @param dOut data output.
+     * @throws IOException thrown if the instance could not be written.
+     */
     @Override
     public void write(DataOutput dOut) throws IOException {
-        dOut.writeUTF(instanceId);
+        dOut.writeShort(COMPACT_MARKER);
+        dOut.writeByte(COMPACT_VERSION);
+        boolean compressed = compress;
+        dOut.writeBoolean(compressed);
+        if (compressed) {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            try {
+                DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(baos, deflater));
+                writeCompact(out);
+                out.close();
+            }
+            finally {
+                deflater.end();
+            }
+            WritableUtils.writeVInt(dOut, baos.size());
+            dOut.write(baos.toByteArray());
+        }
+        else {
+            writeCompact(dOut);
+        }
+    }
 
-        //Hadoop Configuration has to get its act right
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        conf.writeXml(baos);
-        baos.close();
-        byte[] array = baos.toByteArray();
-        dOut.writeInt(array.length);
-        dOut.write(array);
-
-        def.write(dOut);
-        dOut.writeUTF(status.toString());
-        dOut.writeInt(executionPaths.size());
+    private void writeCompact(DataOutput out) throws IOException {
+        Text.writeString(out, instanceId);
+        WritableUtils.writeVInt(out, conf.size());
+        for (Map.Entry<String, String> entry : conf) {
+            Text.writeString(out, entry.getKey());
+            Text.writeString(out, entry.getValue());
+        }
+        byte[] app = def.getSerializedForm();
+        Text.writeString(out, def.getDigest());
+        WritableUtils.writeVInt(out, app.length);
+        out.write(app);
+        Text.writeString(out, status.toString());
+        WritableUtils.writeVInt(out, executionPaths.size());
         for (Map.Entry<String, NodeInstance> entry : executionPaths.entrySet()) {
-            dOut.writeUTF(entry.getKey());
-            dOut.writeUTF(entry.getValue().nodeName);
-            dOut.writeBoolean(entry.getValue().started);
+            Text.writeString(out, entry.getKey());
+            writeNodeName(out, entry.getValue().nodeName, "");
+            out.writeBoolean(entry.getValue().started);
         }
-        dOut.writeInt(persistentVars.size());
+        WritableUtils.writeVInt(out, persistentVars.size());
         for (Map.Entry<String, String> entry : persistentVars.entrySet()) {
-            dOut.writeUTF(entry.getKey());
-            dOut.writeUTF(entry.getValue());
+            String key = entry.getKey();
+            int index = key.indexOf(WorkflowInstance.NODE_VAR_SEPARATOR);
+            if (index > 0) {
+                writeNodeName(out, key.substring(0, index), key.substring(index + 1));
+            }
+            else {
+                WritableUtils.writeVInt(out, 0);
+                Text.writeString(out, key);
+            }
+            Text.writeString(out, entry.getValue());
+        }
+    }
+
+    // a defined node name is written as its index + 1 followed by the suffix, other names as 0 followed by the name
+    private void writeNodeName(DataOutput out, String nodeName, String suffix) throws IOException {
+        int index = def.getNodeIndex(nodeName);
+        if (index > -1) {
+            WritableUtils.writeVInt(out, index + 1);
+            Text.writeString(out, suffix);
+        }
+        else {
+            WritableUtils.writeVInt(out, 0);
+            Text.writeString(out, (suffix.length() == 0) ? nodeName
+                                  : nodeName + WorkflowInstance.NODE_VAR_SEPARATOR + suffix);
+        }
+    }
+
+    private String readNodeName(DataInput in, String separator) throws IOException {
+        int index = WritableUtils.readVInt(in);
+        String suffix = Text.readString(in);
+        if (index == 0) {
+            return suffix;
         }
+        String nodeName = def.getNodeName(index - 1);
+        return (separator == null) ? nodeName : nodeName + separator + suffix;
     }
 
+    /**
+     * Reads a workflow instance written in the compact format or in the legacy format.
+     *
+     * @param dIn data input.
+     * @throws IOException thrown if the instance could not be read.
+     */
     @Override
     public void readFields(DataInput dIn) throws IOException {
-        instanceId = dIn.readUTF();
+        int marker = dIn.readUnsignedShort();
+        if (marker != COMPACT_MARKER) {
+            readLegacyFields(marker, dIn);
+            return;
+        }
+        int version = dIn.readByte();
+        if (version != COMPACT_VERSION) {
+            throw new IOException("Unsupported workflow instance format version [" + version + "]");
+        }
+        if (dIn.readBoolean()) {
+            byte[] bytes = new byte[WritableUtils.readVInt(dIn)];
+            dIn.readFully(bytes);
+            Inflater inflater = new Inflater();
+            try {
+                readCompact(new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(bytes), inflater)));
+            }
+            finally {
+                inflater.end();
+            }
+        }
+        else {
+            readCompact(dIn);
+        }
+        refreshLog();
+    }
+
+    private void readCompact(DataInput in) throws IOException {
+        instanceId = Text.readString(in);
+        int confSize = WritableUtils.readVInt(in);
+        conf = new XConfiguration();
+        for (int x = 0; x < confSize; x++) {
+            String name = Text.readString(in);
+            conf.set(name, Text.readString(in));
+        }
+        String digest = Text.readString(in);
+        byte[] app = new byte[WritableUtils.readVInt(in)];
+        in.readFully(app);
+        def = LiteWorkflowApp.get(digest, app);
+        status = Status.valueOf(Text.readString(in));
+        int numExPaths = WritableUtils.readVInt(in);
+        for (int x = 0; x < numExPaths; x++) {
+            String path = Text.readString(in);
+            NodeInstance nodeInstance = new NodeInstance(readNodeName(in, null));
+            nodeInstance.started = in.readBoolean();
+            executionPaths.put(path, nodeInstance);
+        }
+        int numVars = WritableUtils.readVInt(in);
+        for (int x = 0; x < numVars; x++) {
+            String vName = readNodeName(in, WorkflowInstance.NODE_VAR_SEPARATOR);
+            persistentVars.put(vName, Text.readString(in));
+        }
+    }
+
+    /**
+     * Reads a workflow instance written in the legacy format, all the fields written as strings.
+     *
+     * @param idLength length of the instance ID, already read.
+     * @param dIn data input.
+     * @throws IOException thrown if the instance could not be read.
+     */
+    private void readLegacyFields(int idLength, DataInput dIn) throws IOException {
+        byte[] utf = new byte[idLength + 2];
+        utf[0] = (byte) (idLength >> 8);
+        utf[1] = (byte) idLength;
+        dIn.readFully(utf, 2, idLength);
+        instanceId = DataInputStream.readUTF(new DataInputStream(new ByteArrayInputStream(utf)));
 
         //Hadoop Configuration has to get its act right
         int len = dIn.readInt();
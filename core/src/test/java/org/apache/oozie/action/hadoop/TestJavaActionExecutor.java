@@ -21,6 +21,7 @@ import org.apache.hadoop.mapred.JobConf;
 import org.apache.hadoop.mapred.JobClient;
 import org.apache.hadoop.mapred.RunningJob;
 import org.apache.hadoop.mapred.JobID;
+import org.apache.hadoop.mapred.JobStatus;
 import org.apache.hadoop.security.token.Token;
 import org.apache.hadoop.security.token.TokenIdentifier;
 import org.apache.hadoop.filecache.DistributedCache;
@@ -58,6 +59,7 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Properties;
+import java.util.Set;
 
 public class TestJavaActionExecutor extends ActionExecutorTestCase {
 
@@ -495,6 +497,48 @@ public class TestJavaActionExecutor extends ActionExecutorTestCase {
         assertEquals(WorkflowAction.Status.ERROR, context.getAction().getStatus());
     }
 
+    public void testBatchCheck() throws Exception {
+        Services.get().destroy();
+        setSystemProperty(JavaActionExecutor.CONF_BATCH_CHECK, "true");
+        setSystemProperty(JavaActionExecutor.CONF_BATCH_CHECK_TTL, "1");
+        new Services().init();
+        RunningJobsCache.clear();
+
+        String actionXml = "<java>" +
+                "<job-tracker>" + getJobTrackerUri() + "</job-tracker>" +
+                "<name-node>" + getNameNodeUri() + "</name-node>" +
+                "<main-class>" + LauncherMainTester.class.getName() + "</main-class>" +
+                "</java>";
+        Context context = createContext(actionXml);
+        final RunningJob runningJob = submitAction(context);
+        String launcherId = context.getAction().getExternalId();
+        ActionExecutor ae = new JavaActionExecutor();
+        ae.check(context, context.getAction());
+
+        // the check took a snapshot of the incomplete jobs, the action is running if its launcher is in it
+        Set<String> incompleteJobs = RunningJobsCache.getIncompleteJobs(getJobTrackerUri(), getTestUser(),
+                getTestGroup(), 60 * 1000, new RunningJobsCache.Loader() {
+            public JobStatus[] load() throws Exception {
+                fail();
+                return null;
+            }
+        });
+        assertNotNull(incompleteJobs);
+        if (incompleteJobs.contains(launcherId)) {
+            assertEquals("RUNNING", context.getAction().getExternalStatus());
+        }
+
+        waitFor(60 * 1000, new Predicate() {
+            public boolean evaluate() throws Exception {
+                return runningJob.isComplete();
+            }
+        });
+        assertTrue(runningJob.isSuccessful());
+        Thread.sleep(1100);
+        ae.check(context, context.getAction());
+        assertEquals("SUCCEEDED", context.getAction().getExternalStatus());
+    }
+
     public void testKill() throws Exception {
         String actionXml = "<java>" +
                 "<job-tracker>" + getJobTrackerUri() + "</job-tracker>" +
@@ -16,12 +16,17 @@ package org.apache.oozie.command.coord;
 
 import java.sql.Timestamp;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 import org.apache.oozie.CoordinatorActionBean;
 import org.apache.oozie.CoordinatorJobBean;
 import org.apache.oozie.SLAEventBean;
 import org.apache.oozie.client.CoordinatorJob;
 import org.apache.oozie.client.CoordinatorJob.Timeunit;
+import org.apache.oozie.client.SLAEvent;
 import org.apache.oozie.executor.jpa.CoordActionGetJPAExecutor;
 import org.apache.oozie.executor.jpa.CoordJobGetActionsJPAExecutor;
 import org.apache.oozie.executor.jpa.CoordJobGetJPAExecutor;
@@ -30,10 +35,12 @@ import org.apache.oozie.executor.jpa.CoordJobInsertJPAExecutor;
 import org.apache.oozie.executor.jpa.JPAExecutorException;
 import org.apache.oozie.executor.jpa.SLAEventsGetForSeqIdJPAExecutor;
 import org.apache.oozie.local.LocalOozie;
+import org.apache.oozie.service.InstrumentationService;
 import org.apache.oozie.service.JPAService;
 import org.apache.oozie.service.Services;
 import org.apache.oozie.test.XDataTestCase;
 import org.apache.oozie.util.DateUtils;
+import org.apache.oozie.util.Instrumentation;
 
 public class TestCoordMaterializeTransitionXCommand extends XDataTestCase {
     protected Services services;
@@ -109,6 +116,47 @@ public class TestCoordMaterializeTransitionXCommand extends XDataTestCase {
         checkCoordActionsTimeout(job.getId() + "@1", 300);
     }
 
+    /**
+     * Test : the materialized actions and their SLA registration events are inserted in one batch. The job XML,
+     * coord-matd-job.xml, has an <code>sla:info</code> element in its action.
+     *
+     * @throws Exception
+     */
+    public void testBatchMaterialization() throws Exception {
+        Date startTime = DateUtils.parseDateUTC("2009-03-06T10:00Z");
+        Date endTime = DateUtils.parseDateUTC("2009-03-06T11:00Z");
+        CoordinatorJobBean job = addRecordToCoordJobTable(CoordinatorJob.Status.RUNNING, startTime, endTime, null);
+        assertTrue(job.getJobXml().contains("sla:info"));
+        long actionInserts = getJPACounter("CoordActionInsertJPAExecutor");
+        long slaInserts = getJPACounter("SLAEventInsertJPAExecutor");
+        long batches = getJPACounter("BatchJPAExecutor");
+        new CoordMaterializeTransitionXCommand(job.getId(), 3600).call();
+
+        // the actions and their SLA events are not inserted one by one
+        assertEquals(actionInserts, getJPACounter("CoordActionInsertJPAExecutor"));
+        assertEquals(slaInserts, getJPACounter("SLAEventInsertJPAExecutor"));
+        assertEquals(batches + 1, getJPACounter("BatchJPAExecutor"));
+        checkCoordActions(job.getId(), job.getMatThrottling(), null);
+
+        // but they are all persisted, each action with its SLA registration event
+        JPAService jpaService = Services.get().get(JPAService.class);
+        List<SLAEventBean> slaEvents = jpaService.execute(new SLAEventsGetForSeqIdJPAExecutor(-1, 10, new long[1]));
+        assertEquals(job.getMatThrottling(), slaEvents.size());
+        Set<String> slaIds = new HashSet<String>();
+        for (SLAEventBean slaEvent : slaEvents) {
+            assertEquals(SLAEvent.SlaAppType.COORDINATOR_ACTION, slaEvent.getAppType());
+            assertEquals(SLAEvent.Status.CREATED, slaEvent.getJobStatus());
+            slaIds.add(slaEvent.getSlaId());
+        }
+        for (int i = 1; i <= job.getMatThrottling(); i++) {
+            assertTrue(slaIds.contains(job.getId() + "@" + i));
+        }
+
+        CoordinatorJobBean materialized = jpaService.execute(new CoordJobGetJPAExecutor(job.getId()));
+        assertEquals(job.getMatThrottling(), materialized.getLastActionNumber());
+        assertEquals(DateUtils.parseDateUTC("2009-03-06T10:15Z"), materialized.getNextMaterializedTime());
+    }
+
     public void testMatLookupCommand1() throws Exception {
         Date startTime = DateUtils.parseDateUTC("2009-02-01T01:00Z");
         Date endTime = DateUtils.parseDateUTC("2009-02-03T23:59Z");
@@ -196,6 +244,12 @@ public class TestCoordMaterializeTransitionXCommand extends XDataTestCase {
         return coordJob;
     }
 
+    private long getJPACounter(String name) {
+        Instrumentation instr = Services.get().get(InstrumentationService.class).get();
+        Map<String, Instrumentation.Element<Long>> counters = instr.getCounters().get("jpa");
+        return (counters != null && counters.containsKey(name)) ? counters.get(name).getValue() : 0;
+    }
+
     private void checkCoordJobs(String jobId, CoordinatorJob.Status expectedStatus) {
         try {
             JPAService jpaService = Services.get().get(JPAService.class);
@@ -0,0 +1,164 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.command.wf;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.oozie.WorkflowActionBean;
+import org.apache.oozie.WorkflowJobBean;
+import org.apache.oozie.client.OozieClient;
+import org.apache.oozie.client.WorkflowAction;
+import org.apache.oozie.client.WorkflowJob;
+import org.apache.oozie.command.XCommand;
+import org.apache.oozie.executor.jpa.WorkflowActionsGetForJobJPAExecutor;
+import org.apache.oozie.executor.jpa.WorkflowJobGetJPAExecutor;
+import org.apache.oozie.executor.jpa.WorkflowJobInsertJPAExecutor;
+import org.apache.oozie.service.InstrumentationService;
+import org.apache.oozie.service.JPAService;
+import org.apache.oozie.service.LiteWorkflowStoreService;
+import org.apache.oozie.service.Services;
+import org.apache.oozie.test.XDataTestCase;
+import org.apache.oozie.util.Instrumentation;
+import org.apache.oozie.workflow.WorkflowInstance;
+import org.apache.oozie.workflow.lite.ActionNodeDef;
+import org.apache.oozie.workflow.lite.EndNodeDef;
+import org.apache.oozie.workflow.lite.ForkNodeDef;
+import org.apache.oozie.workflow.lite.JoinNodeDef;
+import org.apache.oozie.workflow.lite.LiteWorkflowApp;
+import org.apache.oozie.workflow.lite.StartNodeDef;
+
+public class TestSignalXCommand extends XDataTestCase {
+    private static final int FORKED_ACTIONS = 5;
+
+    private Services services;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        services = new Services();
+        services.init();
+        cleanUpDBTables();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        services.destroy();
+        super.tearDown();
+    }
+
+    /**
+     * Test : starting a job with a fork inserts all the forked actions and updates the job in one transaction.
+     *
+     * @throws Exception
+     */
+    public void testSignalUnitOfWork() throws Exception {
+        WorkflowJobBean job = addForkedRecordToWfJobTable();
+        long transactions = signal(job.getId());
+        assertEquals(1, transactions);
+
+        JPAService jpaService = Services.get().get(JPAService.class);
+        job = jpaService.execute(new WorkflowJobGetJPAExecutor(job.getId()));
+        assertEquals(WorkflowJob.Status.RUNNING, job.getStatus());
+        List<WorkflowActionBean> actions = jpaService.execute(new WorkflowActionsGetForJobJPAExecutor(job.getId()));
+        assertEquals(FORKED_ACTIONS, actions.size());
+        for (WorkflowActionBean action : actions) {
+            assertEquals(WorkflowAction.Status.PREP, action.getStatus());
+            assertTrue(action.isPending());
+        }
+    }
+
+    /**
+     * Test : the write transactions per signal with and without the command unit of work.
+     *
+     * @throws Exception
+     */
+    public void testTransactionsPerSignal() throws Exception {
+        int jobs = 20;
+        List<String> ids = new ArrayList<String>();
+        for (int i = 0; i < jobs * 2; i++) {
+            ids.add(addForkedRecordToWfJobTable().getId());
+        }
+
+        Services.get().getConf().setBoolean(XCommand.CONF_UNIT_OF_WORK, false);
+        long before = 0;
+        for (String id : ids.subList(0, jobs)) {
+            before += signal(id);
+        }
+
+        Services.get().getConf().setBoolean(XCommand.CONF_UNIT_OF_WORK, true);
+        long after = 0;
+        for (String id : ids.subList(jobs, jobs * 2)) {
+            after += signal(id);
+        }
+
+        assertEquals(jobs * (FORKED_ACTIONS + 1), before);
+        assertEquals(jobs, after);
+    }
+
+    /**
+     * Start a job and return the number of write transactions it took.
+     */
+    private long signal(String jobId) throws Exception {
+        long writes = getWriteTransactions();
+        new SignalXCommand("signal", 1, jobId).call();
+        return getWriteTransactions() - writes;
+    }
+
+    private long getWriteTransactions() {
+        Instrumentation instr = Services.get().get(InstrumentationService.class).get();
+        Map<String, Instrumentation.Element<Long>> counters = instr.getCounters().get("jpa");
+        long count = 0;
+        if (counters != null) {
+            for (Map.Entry<String, Instrumentation.Element<Long>> entry : counters.entrySet()) {
+                String name = entry.getKey();
+                if (name.endsWith("UpdateJPAExecutor") || name.endsWith("InsertJPAExecutor")
+                        || name.equals("BatchJPAExecutor")) {
+                    count += entry.getValue().getValue();
+                }
+            }
+        }
+        return count;
+    }
+
+    private WorkflowJobBean addForkedRecordToWfJobTable() throws Exception {
+        List<String> forked = new ArrayList<String>();
+        for (int i = 0; i < FORKED_ACTIONS; i++) {
+            forked.add("a" + i);
+        }
+        LiteWorkflowApp app = new LiteWorkflowApp("testApp", "<workflow-app/>", new StartNodeDef("fork"))
+                .addNode(new ForkNodeDef("fork", forked));
+        for (String name : forked) {
+            app.addNode(new ActionNodeDef(name, "<test/>", LiteWorkflowStoreService.LiteActionHandler.class, "join",
+                                          "end"));
+        }
+        app.addNode(new JoinNodeDef("join", "end")).addNode(new EndNodeDef("end"));
+
+        Configuration conf = new Configuration();
+        conf.set(OozieClient.APP_PATH, new Path(getAppPath(), "workflow.xml").toString());
+        conf.set(OozieClient.LOG_TOKEN, "testToken");
+        conf.set(OozieClient.USER_NAME, getTestUser());
+        conf.set(OozieClient.GROUP_NAME, getTestGroup());
+        injectKerberosInfo(conf);
+        WorkflowJobBean job = createWorkflow(app, conf, "auth", WorkflowJob.Status.PREP,
+                                             WorkflowInstance.Status.PREP);
+        Services.get().get(JPAService.class).execute(new WorkflowJobInsertJPAExecutor(job));
+        return job;
+    }
+
+}
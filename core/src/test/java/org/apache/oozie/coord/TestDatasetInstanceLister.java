@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.coord;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.oozie.service.DatasetAvailabilityService;
+import org.apache.oozie.service.Services;
+import org.apache.oozie.test.XFsTestCase;
+
+public class TestDatasetInstanceLister extends XFsTestCase {
+    private Services services;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        services = new Services();
+        services.init();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        services.destroy();
+        super.tearDown();
+    }
+
+    public void testIsAvailable() throws Exception {
+        Path month = new Path(getFsTestCaseDir(), "2009/09");
+        getFileSystem().create(new Path(month, "10/_SUCCESS")).close();
+        getFileSystem().create(new Path(month, "08/_SUCCESS")).close();
+        getFileSystem().mkdirs(new Path(month, "07"));
+
+        DatasetInstanceLister lister = new DatasetInstanceLister(getTestUser(), getTestGroup(), new Configuration(),
+                                                                 "_SUCCESS");
+        assertTrue(lister.isAvailable(month + "/10"));
+        assertFalse(lister.isAvailable(month + "/09"));
+        assertTrue(lister.isAvailable(month + "/08"));
+        assertFalse(lister.isAvailable(month + "/07"));
+        assertEquals(1, lister.getListed());
+
+        // a missing parent directory is listed once too
+        assertFalse(lister.isAvailable(getFsTestCaseDir() + "/2009/08/31"));
+        assertFalse(lister.isAvailable(getFsTestCaseDir() + "/2009/08/30"));
+        assertEquals(2, lister.getListed());
+
+        lister = new DatasetInstanceLister(getTestUser(), getTestGroup(), new Configuration(), "");
+        assertTrue(lister.isAvailable(month + "/07"));
+        assertFalse(lister.isAvailable(month + "/09"));
+        assertEquals(1, lister.getListed());
+    }
+
+    public void testAvailabilityCache() throws Exception {
+        DatasetAvailabilityService availability = Services.get().get(DatasetAvailabilityService.class);
+        assertNotNull(availability);
+        Path month = new Path(getFsTestCaseDir(), "2009/09");
+        getFileSystem().create(new Path(month, "10/_SUCCESS")).close();
+
+        // a cached instance is not listed
+        assertTrue(availability.exists(month + "/10/_SUCCESS", getTestUser(), getTestGroup(), new Configuration()));
+        long hits = availability.getHits();
+        DatasetInstanceLister lister = new DatasetInstanceLister(getTestUser(), getTestGroup(), new Configuration(),
+                                                                 "_SUCCESS");
+        assertTrue(lister.isAvailable(month + "/10"));
+        assertEquals(hits + 1, availability.getHits());
+        assertEquals(0, lister.getListed());
+
+        // the listed instances are cached
+        assertFalse(lister.isAvailable(month + "/09"));
+        assertEquals(1, lister.getListed());
+        long misses = availability.getMisses();
+        assertFalse(availability.exists(month + "/09/_SUCCESS", getTestUser(), getTestGroup(), new Configuration()));
+        assertEquals(misses, availability.getMisses());
+        assertEquals(hits + 2, availability.getHits());
+    }
+
+}
@@ -0,0 +1,59 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.coord;
+
+import java.util.Calendar;
+
+import org.apache.oozie.test.XTestCase;
+import org.apache.oozie.util.DateUtils;
+import org.apache.oozie.util.ELEvaluator;
+
+public class TestUriTemplate extends XTestCase {
+
+    public void testCompile() throws Exception {
+        assertNotNull(UriTemplate.compile("hdfs://nn:9000/data/${YEAR}/${MONTH}/${DAY}/${HOUR}/${MINUTE}"));
+        assertNotNull(UriTemplate.compile("hdfs://nn:9000/data/${YEAR}${MONTH}${DAY}_${ HOUR }"));
+        assertNotNull(UriTemplate.compile("hdfs://nn:9000/data/static"));
+        assertNull(UriTemplate.compile("${nameNode}/data/${YEAR}"));
+        assertNull(UriTemplate.compile("hdfs://nn:9000/data/${coord:formatTime(YEAR, 'yyyy')}"));
+        assertNull(UriTemplate.compile("hdfs://nn:9000/data/$YEAR"));
+        assertNull(UriTemplate.compile("hdfs://nn:9000/data/${YEAR"));
+        assertNull(UriTemplate.compile("hdfs://nn:9000/data/\\${YEAR}"));
+    }
+
+    public void testExpand() throws Exception {
+        String template = "hdfs://nn:9000/data/${YEAR}/${MONTH}/${DAY}/${HOUR}/${MINUTE}/part";
+        UriTemplate compiled = UriTemplate.compile(template);
+        Calendar cal = Calendar.getInstance(DateUtils.getTimeZone("UTC"));
+        cal.setTime(DateUtils.parseDateUTC("2009-02-01T08:05Z"));
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            String instance = DateUtils.formatDateUTC(cal);
+            ELEvaluator eval = CoordELEvaluator.createURIELEvaluator(instance);
+            assertEquals(eval.evaluate(template, String.class), compiled.expand(cal));
+            sb.setLength(0);
+            assertEquals(eval.evaluate(template, String.class), compiled.appendTo(sb, cal).toString());
+            cal.add(Calendar.MINUTE, 97);
+        }
+    }
+
+    public void testExpandTimeZone() throws Exception {
+        UriTemplate compiled = UriTemplate.compile("/data/${YEAR}-${MONTH}-${DAY}T${HOUR}");
+        Calendar cal = Calendar.getInstance(DateUtils.getTimeZone("America/Los_Angeles"));
+        cal.setTime(DateUtils.parseDateUTC("2010-01-01T03:00Z"));
+        assertEquals("/data/2009-12-31T19", compiled.expand(cal));
+    }
+
+}
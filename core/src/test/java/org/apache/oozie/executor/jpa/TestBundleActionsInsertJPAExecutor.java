@@ -0,0 +1,72 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.executor.jpa;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.oozie.BundleActionBean;
+import org.apache.oozie.BundleJobBean;
+import org.apache.oozie.client.Job;
+import org.apache.oozie.local.LocalOozie;
+import org.apache.oozie.service.JPAService;
+import org.apache.oozie.service.Services;
+import org.apache.oozie.test.XDataTestCase;
+
+public class TestBundleActionsInsertJPAExecutor extends XDataTestCase {
+    Services services;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        services = new Services();
+        services.init();
+        cleanUpDBTables();
+        LocalOozie.start();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        LocalOozie.stop();
+        services.destroy();
+        super.tearDown();
+    }
+
+    public void testBundleActionsInsertUpdateAndGetByIds() throws Exception {
+        BundleJobBean job = addRecordToBundleJobTable(Job.Status.RUNNING, false);
+        BundleActionBean action1 = createBundleAction(job.getId(), "action1", 0, Job.Status.PREP);
+        BundleActionBean action2 = createBundleAction(job.getId(), "action2", 1, Job.Status.RUNNING);
+
+        JPAService jpaService = Services.get().get(JPAService.class);
+        assertNotNull(jpaService);
+        jpaService.execute(new BundleActionsInsertJPAExecutor(Arrays.asList(action1, action2)));
+
+        List<BundleActionBean> actions = jpaService.execute(new BundleActionsGetByIdsJPAExecutor(Arrays.asList(
+                action2.getBundleActionId(), action1.getBundleActionId())));
+        assertEquals(2, actions.size());
+        assertEquals(action2.getBundleActionId(), actions.get(0).getBundleActionId());
+        assertEquals(action1.getBundleActionId(), actions.get(1).getBundleActionId());
+
+        action1.setStatus(Job.Status.SUCCEEDED);
+        action2.setStatus(Job.Status.KILLED);
+        jpaService.execute(new BundleActionsUpdateJPAExecutor(Arrays.asList(action1, action2)));
+
+        actions = jpaService.execute(new BundleActionsGetByIdsJPAExecutor(Arrays.asList(
+                action1.getBundleActionId(), action2.getBundleActionId())));
+        assertEquals(Job.Status.SUCCEEDED, actions.get(0).getStatus());
+        assertEquals(Job.Status.KILLED, actions.get(1).getStatus());
+    }
+
+}
@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.executor.jpa;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.oozie.CoordinatorActionBean;
+import org.apache.oozie.CoordinatorJobBean;
+import org.apache.oozie.ErrorCode;
+import org.apache.oozie.client.CoordinatorAction;
+import org.apache.oozie.client.CoordinatorJob;
+import org.apache.oozie.local.LocalOozie;
+import org.apache.oozie.service.JPAService;
+import org.apache.oozie.service.Services;
+import org.apache.oozie.test.XDataTestCase;
+
+public class TestCoordActionsGetByIdsJPAExecutor extends XDataTestCase {
+    Services services;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        services = new Services();
+        services.init();
+        cleanUpDBTables();
+        LocalOozie.start();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        LocalOozie.stop();
+        services.destroy();
+        super.tearDown();
+    }
+
+    public void testCoordActionsGetByIds() throws Exception {
+        CoordinatorJobBean job = addRecordToCoordJobTable(CoordinatorJob.Status.RUNNING, false, false);
+        CoordinatorActionBean action1 = addRecordToCoordActionTable(job.getId(), 1, CoordinatorAction.Status.WAITING,
+                "coord-action-get.xml", 0);
+        CoordinatorActionBean action2 = addRecordToCoordActionTable(job.getId(), 2, CoordinatorAction.Status.RUNNING,
+                "coord-action-get.xml", 0);
+
+        JPAService jpaService = Services.get().get(JPAService.class);
+        assertNotNull(jpaService);
+        List<CoordinatorActionBean> actions = jpaService.execute(new CoordActionsGetByIdsJPAExecutor(Arrays.asList(
+                action2.getId(), action1.getId())));
+        assertEquals(2, actions.size());
+        assertEquals(action2.getId(), actions.get(0).getId());
+        assertEquals(CoordinatorAction.Status.RUNNING, actions.get(0).getStatus());
+        assertEquals(action1.getId(), actions.get(1).getId());
+        assertEquals(CoordinatorAction.Status.WAITING, actions.get(1).getStatus());
+
+        try {
+            jpaService.execute(new CoordActionsGetByIdsJPAExecutor(Arrays.asList(action1.getId(), "invalid")));
+            fail();
+        }
+        catch (JPAExecutorException ex) {
+            assertEquals(ErrorCode.E0605, ex.getErrorCode());
+        }
+    }
+
+    /**
+     * Test : the lazy columns are loaded with the actions, they are set once the entity manager is closed even if the
+     * beans are not copied.
+     *
+     * @throws Exception
+     */
+    public void testLazyColumnsFetched() throws Exception {
+        CoordinatorJobBean job = addRecordToCoordJobTable(CoordinatorJob.Status.RUNNING, false, false);
+        CoordinatorActionBean action = addRecordToCoordActionTable(job.getId(), 1, CoordinatorAction.Status.WAITING,
+                "coord-action-get.xml", 0);
+
+        JPAService jpaService = Services.get().get(JPAService.class);
+        List<CoordinatorActionBean> actions = jpaService.execute(new CoordActionsGetByIdsJPAExecutor(Arrays
+                .asList(action.getId())) {
+            @Override
+            protected CoordinatorActionBean getBean(CoordinatorActionBean bean) {
+                return bean;
+            }
+        });
+        assertEquals(1, actions.size());
+        assertNotNull(actions.get(0).getActionXml());
+        assertEquals(action.getActionXml(), actions.get(0).getActionXml());
+        assertEquals(action.getMissingDependencies(), actions.get(0).getMissingDependencies());
+    }
+
+}
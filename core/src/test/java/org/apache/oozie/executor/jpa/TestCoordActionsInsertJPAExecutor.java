@@ -0,0 +1,68 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.executor.jpa;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.oozie.CoordinatorActionBean;
+import org.apache.oozie.CoordinatorJobBean;
+import org.apache.oozie.client.CoordinatorAction;
+import org.apache.oozie.client.CoordinatorJob;
+import org.apache.oozie.local.LocalOozie;
+import org.apache.oozie.service.JPAService;
+import org.apache.oozie.service.Services;
+import org.apache.oozie.test.XDataTestCase;
+
+public class TestCoordActionsInsertJPAExecutor extends XDataTestCase {
+    Services services;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        services = new Services();
+        services.init();
+        cleanUpDBTables();
+        LocalOozie.start();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        LocalOozie.stop();
+        services.destroy();
+        super.tearDown();
+    }
+
+    public void testCoordActionsInsertAndGetByIds() throws Exception {
+        CoordinatorJobBean job = addRecordToCoordJobTable(CoordinatorJob.Status.RUNNING, false, false);
+        CoordinatorActionBean action1 = createCoordAction(job.getId(), 1, CoordinatorAction.Status.WAITING,
+                "coord-action-get.xml", 0);
+        CoordinatorActionBean action2 = createCoordAction(job.getId(), 2, CoordinatorAction.Status.READY,
+                "coord-action-get.xml", 0);
+
+        JPAService jpaService = Services.get().get(JPAService.class);
+        assertNotNull(jpaService);
+        jpaService.execute(new CoordActionsInsertJPAExecutor(Arrays.asList(action1, action2)));
+
+        List<CoordinatorActionBean> actions = jpaService.execute(new CoordActionsGetByIdsJPAExecutor(Arrays.asList(
+                action1.getId(), action2.getId())));
+        assertEquals(2, actions.size());
+        assertEquals(action1.getId(), actions.get(0).getId());
+        assertEquals(CoordinatorAction.Status.WAITING, actions.get(0).getStatus());
+        assertEquals(action2.getId(), actions.get(1).getId());
+        assertEquals(CoordinatorAction.Status.READY, actions.get(1).getStatus());
+    }
+
+}
@@ -0,0 +1,85 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.executor.jpa;
+
+import java.util.Date;
+import java.util.List;
+
+import org.apache.oozie.CoordinatorActionBean;
+import org.apache.oozie.CoordinatorJobBean;
+import org.apache.oozie.client.CoordinatorAction;
+import org.apache.oozie.client.CoordinatorJob;
+import org.apache.oozie.service.JPAService;
+import org.apache.oozie.service.Services;
+import org.apache.oozie.test.XDataTestCase;
+
+public class TestCoordJobGetActionsSummaryJPAExecutor extends XDataTestCase {
+    Services services;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        services = new Services();
+        services.init();
+        cleanUpDBTables();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        services.destroy();
+        super.tearDown();
+    }
+
+    public void testCoordJobGetActionsSummary() throws Exception {
+        CoordinatorJobBean job = addRecordToCoordJobTable(CoordinatorJob.Status.RUNNING, false, false);
+        CoordinatorActionBean action = addRecordToCoordActionTable(job.getId(), 1, CoordinatorAction.Status.RUNNING,
+                "coord-action-get.xml", 1);
+
+        JPAService jpaService = Services.get().get(JPAService.class);
+        assertNotNull(jpaService);
+        List<CoordinatorActionBean> actions = jpaService.execute(new CoordJobGetActionsSummaryJPAExecutor(job.getId()));
+        assertEquals(1, actions.size());
+        CoordinatorActionBean summary = actions.get(0);
+        assertEquals(action.getId(), summary.getId());
+        assertEquals(job.getId(), summary.getJobId());
+        assertEquals(CoordinatorAction.Status.RUNNING, summary.getStatus());
+        assertEquals(action.getExternalId(), summary.getExternalId());
+        // the pending flag is not carried, as with CoordJobGetActionsJPAExecutor
+        assertFalse(summary.isPending());
+        // LOB columns are not read
+        assertNull(summary.getActionXml());
+        assertNull(summary.getCreatedConf());
+
+        // lazy LOB columns are still loaded on full, detached, beans
+        CoordinatorActionBean bean = jpaService.execute(new CoordActionGetForExternalIdJPAExecutor(action
+                .getExternalId()));
+        assertEquals(action.getActionXml(), bean.getActionXml());
+        assertEquals(action.getCreatedConf(), bean.getCreatedConf());
+    }
+
+    public void testCoordJobIdsGetByActionLastModifiedTime() throws Exception {
+        Date start = new Date();
+        CoordinatorJobBean job = addRecordToCoordJobTable(CoordinatorJob.Status.RUNNING, false, false);
+        addRecordToCoordActionTable(job.getId(), 1, CoordinatorAction.Status.RUNNING, "coord-action-get.xml", 0);
+        addRecordToCoordActionTable(job.getId(), 2, CoordinatorAction.Status.RUNNING, "coord-action-get.xml", 0);
+
+        JPAService jpaService = Services.get().get(JPAService.class);
+        List<String> jobIds = jpaService.execute(new CoordJobIdsGetByActionLastModifiedTimeJPAExecutor(new Date(
+                start.getTime() - 60 * 1000)));
+        assertEquals(1, jobIds.size());
+        assertEquals(job.getId(), jobIds.get(0));
+    }
+
+}
@@ -0,0 +1,180 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.executor.jpa;
+
+import java.util.Arrays;
+
+import org.apache.oozie.CoordinatorJobBean;
+import org.apache.oozie.ErrorCode;
+import org.apache.oozie.WorkflowJobBean;
+import org.apache.oozie.client.CoordinatorJob;
+import org.apache.oozie.client.WorkflowJob;
+import org.apache.oozie.service.JPAService;
+import org.apache.oozie.service.Services;
+import org.apache.oozie.test.XDataTestCase;
+import org.apache.oozie.workflow.WorkflowInstance;
+
+public class TestJPABeanCache extends XDataTestCase {
+    Services services;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        setSystemProperty(JPAService.CONF_CACHE_SIZE, "2");
+        services = new Services();
+        services.init();
+        cleanUpDBTables();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        services.destroy();
+        super.tearDown();
+    }
+
+    public void testCoordJobCache() throws Exception {
+        JPAService jpaService = Services.get().get(JPAService.class);
+        assertTrue(jpaService.isCacheEnabled());
+        JPABeanCache<CoordinatorJobBean> cache = jpaService.getCoordJobCache();
+        CoordinatorJobBean job = addRecordToCoordJobTable(CoordinatorJob.Status.RUNNING, false, false);
+
+        CoordinatorJobBean bean = jpaService.execute(new CoordJobGetJPAExecutor(job.getId()));
+        assertEquals(0, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.size());
+
+        // hits return copies, changing them does not change the cached bean
+        bean.setStatus(CoordinatorJob.Status.SUSPENDED);
+        bean = jpaService.execute(new CoordJobGetJPAExecutor(job.getId()));
+        assertEquals(1, cache.getHits());
+        assertEquals(CoordinatorJob.Status.RUNNING, bean.getStatus());
+        assertEquals(job.getAppPath(), bean.getAppPath());
+        assertEquals(job.getJobXml(), bean.getJobXml());
+        assertEquals(job.getTimeUnit(), bean.getTimeUnit());
+        assertEquals(job.getLastActionNumber(), bean.getLastActionNumber());
+
+        // updates are written through
+        bean.setStatus(CoordinatorJob.Status.SUSPENDED);
+        jpaService.execute(new CoordJobUpdateJPAExecutor(bean));
+        bean = jpaService.execute(new CoordJobGetJPAExecutor(job.getId()));
+        assertEquals(2, cache.getHits());
+        assertEquals(CoordinatorJob.Status.SUSPENDED, bean.getStatus());
+
+        // bulk updates are written through
+        bean.setStatus(CoordinatorJob.Status.RUNNING);
+        jpaService.execute(new CoordJobsUpdateJPAExecutor(Arrays.asList(bean)));
+        bean = jpaService.execute(new CoordJobGetJPAExecutor(job.getId()));
+        assertEquals(3, cache.getHits());
+        assertEquals(CoordinatorJob.Status.RUNNING, bean.getStatus());
+
+        // deletes invalidate the cached bean
+        jpaService.execute(new CoordJobDeleteJPAExecutor(job.getId()));
+        assertEquals(0, cache.size());
+        try {
+            jpaService.execute(new CoordJobGetJPAExecutor(job.getId()));
+            fail();
+        }
+        catch (JPAExecutorException ex) {
+            assertEquals(ErrorCode.E0604, ex.getErrorCode());
+        }
+        assertEquals(2, cache.getMisses());
+    }
+
+    public void testWorkflowJobCache() throws Exception {
+        JPAService jpaService = Services.get().get(JPAService.class);
+        JPABeanCache<WorkflowJobBean> cache = jpaService.getWorkflowJobCache();
+        WorkflowJobBean job = addRecordToWfJobTable(WorkflowJob.Status.RUNNING, WorkflowInstance.Status.RUNNING);
+
+        jpaService.execute(new WorkflowJobGetJPAExecutor(job.getId()));
+        WorkflowJobBean bean = jpaService.execute(new WorkflowJobGetJPAExecutor(job.getId()));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(job.getConf(), bean.getConf());
+        assertEquals(job.getLogToken(), bean.getLogToken());
+        assertEquals(WorkflowInstance.Status.RUNNING, bean.getWorkflowInstance().getStatus());
+
+        // updates done in a unit of work batch are written through once committed
+        bean.setStatus(WorkflowJob.Status.SUSPENDED);
+        jpaService.execute(new BatchJPAExecutor(Arrays.<JPAExecutor<?>>asList(new WorkflowJobUpdateJPAExecutor(bean))));
+        bean = jpaService.execute(new WorkflowJobGetJPAExecutor(job.getId()));
+        assertEquals(2, cache.getHits());
+        assertEquals(WorkflowJob.Status.SUSPENDED, bean.getStatus());
+
+        jpaService.execute(new WorkflowJobDeleteJPAExecutor(job.getId()));
+        assertEquals(0, cache.size());
+    }
+
+    public void testLoadRacingUpdate() throws Exception {
+        JPAService jpaService = Services.get().get(JPAService.class);
+        JPABeanCache<CoordinatorJobBean> cache = jpaService.getCoordJobCache();
+        CoordinatorJobBean job = addRecordToCoordJobTable(CoordinatorJob.Status.RUNNING, false, false);
+
+        // a bean loaded before a concurrent invalidation is not cached
+        long stamp = cache.getStamp();
+        cache.invalidate(job.getId());
+        cache.putIfAbsent(job, stamp);
+        assertEquals(0, cache.size());
+
+        // a bean loaded after the invalidation is cached
+        cache.putIfAbsent(job, cache.getStamp());
+        assertEquals(1, cache.size());
+
+        // the stamps of the beans updated before the last ones are forgotten, their loads are not cached either
+        cache.clear();
+        CoordinatorJobBean job2 = addRecordToCoordJobTable(CoordinatorJob.Status.RUNNING, false, false);
+        CoordinatorJobBean job3 = addRecordToCoordJobTable(CoordinatorJob.Status.RUNNING, false, false);
+        stamp = cache.getStamp();
+        cache.invalidate(job.getId());
+        cache.invalidate(job2.getId());
+        cache.invalidate(job3.getId());
+        cache.putIfAbsent(job, stamp);
+        assertEquals(0, cache.size());
+    }
+
+    public void testEviction() throws Exception {
+        JPAService jpaService = Services.get().get(JPAService.class);
+        JPABeanCache<CoordinatorJobBean> cache = jpaService.getCoordJobCache();
+        CoordinatorJobBean job1 = addRecordToCoordJobTable(CoordinatorJob.Status.RUNNING, false, false);
+        CoordinatorJobBean job2 = addRecordToCoordJobTable(CoordinatorJob.Status.RUNNING, false, false);
+        CoordinatorJobBean job3 = addRecordToCoordJobTable(CoordinatorJob.Status.RUNNING, false, false);
+
+        jpaService.execute(new CoordJobGetJPAExecutor(job1.getId()));
+        jpaService.execute(new CoordJobGetJPAExecutor(job2.getId()));
+        // job1 becomes the most recently used
+        jpaService.execute(new CoordJobGetJPAExecutor(job1.getId()));
+        jpaService.execute(new CoordJobGetJPAExecutor(job3.getId()));
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+
+        long misses = cache.getMisses();
+        jpaService.execute(new CoordJobGetJPAExecutor(job1.getId()));
+        assertEquals(misses, cache.getMisses());
+        jpaService.execute(new CoordJobGetJPAExecutor(job2.getId()));
+        assertEquals(misses + 1, cache.getMisses());
+    }
+
+    public void testCacheDisabled() throws Exception {
+        services.destroy();
+        setSystemProperty(JPAService.CONF_CACHE_SIZE, "0");
+        services = new Services();
+        services.init();
+        JPAService jpaService = Services.get().get(JPAService.class);
+        assertFalse(jpaService.isCacheEnabled());
+        assertNull(jpaService.getCoordJobCache());
+        CoordinatorJobBean job = addRecordToCoordJobTable(CoordinatorJob.Status.RUNNING, false, false);
+        assertNotNull(jpaService.execute(new CoordJobGetJPAExecutor(job.getId())));
+    }
+
+}
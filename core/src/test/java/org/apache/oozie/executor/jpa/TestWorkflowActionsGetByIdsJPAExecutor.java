@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.executor.jpa;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.oozie.ErrorCode;
+import org.apache.oozie.WorkflowActionBean;
+import org.apache.oozie.WorkflowJobBean;
+import org.apache.oozie.client.WorkflowAction;
+import org.apache.oozie.client.WorkflowJob;
+import org.apache.oozie.local.LocalOozie;
+import org.apache.oozie.service.JPAService;
+import org.apache.oozie.service.Services;
+import org.apache.oozie.test.XDataTestCase;
+import org.apache.oozie.workflow.WorkflowInstance;
+
+public class TestWorkflowActionsGetByIdsJPAExecutor extends XDataTestCase {
+    Services services;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        services = new Services();
+        services.init();
+        cleanUpDBTables();
+        LocalOozie.start();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        LocalOozie.stop();
+        services.destroy();
+        super.tearDown();
+    }
+
+    public void testWorkflowActionsGetByIds() throws Exception {
+        WorkflowJobBean job = addRecordToWfJobTable(WorkflowJob.Status.RUNNING, WorkflowInstance.Status.RUNNING);
+        WorkflowActionBean action1 = addRecordToWfActionTable(job.getId(), "1", WorkflowAction.Status.PREP);
+        WorkflowActionBean action2 = addRecordToWfActionTable(job.getId(), "2", WorkflowAction.Status.RUNNING);
+        WorkflowActionBean action3 = addRecordToWfActionTable(job.getId(), "3", WorkflowAction.Status.OK);
+
+        JPAService jpaService = Services.get().get(JPAService.class);
+        assertNotNull(jpaService);
+        List<WorkflowActionBean> actions = jpaService.execute(new WorkflowActionsGetByIdsJPAExecutor(Arrays.asList(
+                action3.getId(), action1.getId(), action3.getId())));
+        assertEquals(2, actions.size());
+        assertEquals(action3.getId(), actions.get(0).getId());
+        assertEquals(WorkflowAction.Status.OK, actions.get(0).getStatus());
+        assertEquals(action1.getId(), actions.get(1).getId());
+        assertEquals(WorkflowAction.Status.PREP, actions.get(1).getStatus());
+
+        actions = jpaService.execute(new WorkflowActionsGetByIdsJPAExecutor(Arrays.asList(action2.getId())));
+        assertEquals(1, actions.size());
+        assertEquals(job.getId(), actions.get(0).getJobId());
+
+        try {
+            jpaService.execute(new WorkflowActionsGetByIdsJPAExecutor(Arrays.asList(action1.getId(), "invalid")));
+            fail();
+        }
+        catch (JPAExecutorException ex) {
+            assertEquals(ErrorCode.E0605, ex.getErrorCode());
+        }
+    }
+
+    /**
+     * Test : the lazy columns are loaded with the actions, they are set once the entity manager is closed even if the
+     * beans are not copied.
+     *
+     * @throws Exception
+     */
+    public void testLazyColumnsFetched() throws Exception {
+        WorkflowJobBean job = addRecordToWfJobTable(WorkflowJob.Status.RUNNING, WorkflowInstance.Status.RUNNING);
+        WorkflowActionBean action1 = addRecordToWfActionTable(job.getId(), "1", WorkflowAction.Status.PREP);
+        WorkflowActionBean action2 = addRecordToWfActionTable(job.getId(), "2", WorkflowAction.Status.RUNNING);
+
+        JPAService jpaService = Services.get().get(JPAService.class);
+        List<WorkflowActionBean> actions = jpaService.execute(new WorkflowActionsGetByIdsJPAExecutor(Arrays.asList(
+                action1.getId(), action2.getId())) {
+            @Override
+            protected WorkflowActionBean getBean(WorkflowActionBean bean) {
+                return bean;
+            }
+        });
+        assertEquals(2, actions.size());
+        assertEquals(action1.getConf(), actions.get(0).getConf());
+        assertEquals(action2.getConf(), actions.get(1).getConf());
+    }
+
+}
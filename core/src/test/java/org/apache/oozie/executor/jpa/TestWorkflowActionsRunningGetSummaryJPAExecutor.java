@@ -0,0 +1,55 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.executor.jpa;
+
+import java.util.List;
+
+import org.apache.oozie.WorkflowActionBean;
+import org.apache.oozie.WorkflowJobBean;
+import org.apache.oozie.client.WorkflowAction;
+import org.apache.oozie.client.WorkflowJob;
+import org.apache.oozie.service.JPAService;
+import org.apache.oozie.service.Services;
+import org.apache.oozie.workflow.WorkflowInstance;
+
+public class TestWorkflowActionsRunningGetSummaryJPAExecutor extends TestWorkflowActionsRunningGetJPAExecutor {
+
+    public void testWfActionsRunningGetSummary() throws Exception {
+        WorkflowJobBean job = addRecordToWfJobTable(WorkflowJob.Status.RUNNING, WorkflowInstance.Status.RUNNING);
+        addRecordToWfActionTable(job.getId(), "1", WorkflowAction.Status.OK);
+        WorkflowActionBean action = addRecordToWfActionTableWithRunningStatus(job.getId(), "2",
+                WorkflowAction.Status.RUNNING);
+        Thread.sleep(2000);
+
+        JPAService jpaService = Services.get().get(JPAService.class);
+        assertNotNull(jpaService);
+        List<WorkflowActionBean> list = jpaService.execute(new WorkflowActionsRunningGetSummaryJPAExecutor(1));
+        assertEquals(1, list.size());
+        WorkflowActionBean summary = list.get(0);
+        assertEquals(action.getId(), summary.getId());
+        assertEquals(job.getId(), summary.getJobId());
+        assertEquals(action.getType(), summary.getType());
+        assertEquals(WorkflowAction.Status.RUNNING, summary.getStatus());
+        assertTrue(summary.isPending());
+        // LOB columns are not read
+        assertNull(summary.getConf());
+        assertNull(summary.getData());
+
+        // lazy LOB columns are still loaded on full beans
+        WorkflowActionBean bean = jpaService.execute(new WorkflowActionGetJPAExecutor(action.getId()));
+        assertEquals(action.getConf(), bean.getConf());
+    }
+
+}
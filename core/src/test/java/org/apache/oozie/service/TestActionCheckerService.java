@@ -219,4 +219,47 @@ public class TestActionCheckerService extends XDataTestCase {
     }
 
 
+    /**
+     * Tests the backoff schedule of the actions notifying their completion through a callback. </p> The first check
+     * is due, the delay between the following checks doubles up to the maximum delay, and the actions are not checked
+     * after a recent callback. The checks the fixed schedule would have done are counted as avoided.
+     *
+     * @throws Exception
+     */
+    public void testAdaptiveCheckSchedule() throws Exception {
+        assertFalse(Services.get().get(ActionCheckerService.class).isAdaptiveCheck());
+        services.destroy();
+        setSystemProperty(ActionCheckerService.CONF_ADAPTIVE_CHECK, "true");
+        setSystemProperty(ActionCheckerService.CONF_ACTION_CHECK_MAX_DELAY, "40");
+        services = new Services();
+        services.init();
+        ActionCheckerService checker = Services.get().get(ActionCheckerService.class);
+        assertTrue(checker.isAdaptiveCheck());
+        assertTrue(services.get(ActionService.class).getExecutor("java").hasCompletionCallback());
+
+        long now = System.currentTimeMillis();
+        assertTrue(checker.isCheckDue("a1", 10, now));
+        assertFalse(checker.isCheckDue("a1", 10, now + 10 * 1000));
+        assertEquals(1, checker.getChecksAvoided());
+        assertTrue(checker.isCheckDue("a1", 10, now + 20 * 1000));
+        assertFalse(checker.isCheckDue("a1", 10, now + 30 * 1000));
+        assertFalse(checker.isCheckDue("a1", 10, now + 40 * 1000));
+        assertFalse(checker.isCheckDue("a1", 10, now + 50 * 1000));
+        assertEquals(4, checker.getChecksAvoided());
+        assertTrue(checker.isCheckDue("a1", 10, now + 60 * 1000));
+        // capped by the maximum delay
+        assertTrue(checker.isCheckDue("a1", 10, now + 100 * 1000));
+
+        // a recent callback skips the check
+        checker.callbackReceived("a2");
+        now = System.currentTimeMillis();
+        assertFalse(checker.isCheckDue("a2", 10, now));
+        assertTrue(checker.isCheckDue("a2", 10, now + 10 * 1000));
+
+        // schedules of actions no longer running are purged
+        assertEquals(2, checker.getScheduledActions());
+        checker.purgeSchedules(10, now + 200 * 1000);
+        assertEquals(0, checker.getScheduledActions());
+    }
+
 }
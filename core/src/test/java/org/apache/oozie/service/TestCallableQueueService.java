@@ -286,6 +286,39 @@ public class TestCallableQueueService extends XTestCase {
         services.destroy();
     }
 
+    public void testTypeConcurrencyLimit() throws Exception {
+        Services services = new Services();
+        services.getConf().setInt(CallableQueueService.CONF_CALLABLE_CONCURRENCY + ".type", 1);
+        services.init();
+
+        CLCallable.resetConcurrency();
+        final CallableQueueService queueservice = services.get(CallableQueueService.class);
+        assertEquals(1, queueservice.getMaxConcurrency("type"));
+        assertEquals(1, queueservice.getMaxConcurrency("#composite#type"));
+        assertEquals(3, queueservice.getMaxConcurrency("other"));
+
+        for (int i = 0; i < 5; i++) {
+            queueservice.queue(new CLCallable(), 10);
+        }
+
+        float originalRatio = XTestCase.WAITFOR_RATIO;
+        try{
+            XTestCase.WAITFOR_RATIO = 1;
+            waitFor(3000, new Predicate() {
+                public boolean evaluate() throws Exception {
+                    return queueservice.queueSize() == 0;
+                }
+            });
+        }
+        finally {
+            XTestCase.WAITFOR_RATIO = originalRatio;
+        }
+
+        assertEquals(1, CLCallable.getConcurrency());
+
+        services.destroy();
+    }
+
     /**
      * When using config 'oozie.service.CallableQueueService.callable.next.eligible' true, the next other type of callables
      * should be invoked when top one in the queue is reached max concurrency.
@@ -428,6 +461,74 @@ public class TestCallableQueueService extends XTestCase {
         services.destroy();
     }
 
+    public void testShardedQueue() throws Exception {
+        EXEC_ORDER = new AtomicLong();
+        setSystemProperty(CallableQueueService.CONF_QUEUE_SHARDS, "4");
+        setSystemProperty(CallableQueueService.CONF_THREADS, "1");
+        Services services = new Services();
+        services.init();
+
+        CallableQueueService queueservice = services.get(CallableQueueService.class);
+
+        final MyCallable callable1 = new MyCallable(0, 200);
+        final MyCallable callable2 = new MyCallable(0, 200);
+        final MyCallable callableLow = new MyCallable();
+        final MyCallable callableHigh = new MyCallable(1, 10);
+        final MyCallable callableDelayed = new MyCallable();
+
+        long scheduled = System.currentTimeMillis();
+        queueservice.queue(callableDelayed, 1000);
+        queueservice.queue(callable1);
+        queueservice.queue(callable2);
+        queueservice.queue(callableLow);
+        queueservice.queue(callableHigh);
+
+        waitFor(3000, new Predicate() {
+            public boolean evaluate() throws Exception {
+                return callable1.executed != 0 && callable2.executed != 0 && callableLow.executed != 0 &&
+                        callableHigh.executed != 0 && callableDelayed.executed != 0;
+            }
+        });
+        assertTrue(callableHigh.order < callableLow.order);
+        assertTrue(callableDelayed.executed >= scheduled + 1000);
+        assertEquals(0, queueservice.queueSize());
+
+        services.destroy();
+    }
+
+    public void testElasticExecutor() throws Exception {
+        setSystemProperty(CallableQueueService.CONF_EXECUTOR_MODE, CallableQueueService.EXECUTOR_MODE_ELASTIC);
+        setSystemProperty(CallableQueueService.CONF_THREADS, "1");
+        setSystemProperty(CallableQueueService.CONF_THREADS_MAX, "5");
+        setSystemProperty(CallableQueueService.CONF_THREADS_ADJUST_INTERVAL, "1");
+        Services services = new Services();
+        services.init();
+
+        final CallableQueueService queueservice = services.get(CallableQueueService.class);
+        assertEquals(1, queueservice.getThreads());
+
+        // sleeping callables are fully blocking, the thread-pool must grow to the max
+        for (int i = 0; i < 20; i++) {
+            queueservice.queue(new MyCallable("type" + i, 0, 200));
+        }
+        waitFor(10000, new Predicate() {
+            public boolean evaluate() throws Exception {
+                return queueservice.getThreads() == 5;
+            }
+        });
+        assertEquals(5, queueservice.getThreads());
+
+        // without callables the thread-pool must shrink back to the min
+        waitFor(10000, new Predicate() {
+            public boolean evaluate() throws Exception {
+                return queueservice.queueSize() == 0 && queueservice.getThreads() == 1;
+            }
+        });
+        assertEquals(1, queueservice.getThreads());
+
+        services.destroy();
+    }
+
     public void testQueueUniquenessWithSameKey() throws Exception {
         EXEC_ORDER = new AtomicLong();
         Services services = new Services();
@@ -17,6 +17,9 @@ package org.apache.oozie.service;
 import java.io.IOException;
 import java.io.Reader;
 import java.util.Date;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
 import org.apache.oozie.CoordinatorJobBean;
@@ -99,6 +102,43 @@ public class TestCoordMaterializeTriggerService extends XDataTestCase {
         assertEquals(CoordinatorJob.Status.RUNNING, coordJob.getStatus());
     }
 
+    /**
+     * Test sharded mode. The jobs of the lookup are partitioned in shards processed in parallel, all of them should be
+     * picked up for materialization.
+     *
+     * @throws Exception
+     */
+    public void testCoordMaterializeTriggerServiceShards() throws Exception {
+        Date start = DateUtils.parseDateUTC("2009-02-01T01:00Z");
+        Date end = DateUtils.parseDateUTC("2009-02-20T23:59Z");
+        CoordinatorJobBean[] jobs = new CoordinatorJobBean[6];
+        for (int i = 0; i < jobs.length; i++) {
+            jobs[i] = addRecordToCoordJobTable(CoordinatorJob.Status.PREP, start, end, false, false, 0);
+        }
+
+        Thread.sleep(3000);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            Runnable runnable = new CoordMaterializeTriggerRunnable(3600, 50, 3, executor);
+            runnable.run();
+        }
+        finally {
+            executor.shutdown();
+        }
+
+        final JPAService jpaService = Services.get().get(JPAService.class);
+        for (final CoordinatorJobBean job : jobs) {
+            waitFor(10 * 1000, new Predicate() {
+                public boolean evaluate() throws Exception {
+                    CoordinatorJobBean coordJob = jpaService.execute(new CoordJobGetJPAExecutor(job.getId()));
+                    return coordJob.getStatus() == CoordinatorJob.Status.RUNNING;
+                }
+            });
+            CoordinatorJobBean coordJob = jpaService.execute(new CoordJobGetJPAExecutor(job.getId()));
+            assertEquals(CoordinatorJob.Status.RUNNING, coordJob.getStatus());
+        }
+    }
+
     @Override
     protected CoordinatorJobBean createCoordJob(CoordinatorJob.Status status, Date start, Date end, boolean pending, boolean doneMatd, int lastActionNum) throws Exception {
         Path appPath = new Path(getFsTestCaseDir(), "coord");
@@ -0,0 +1,146 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.service;
+
+import java.util.Arrays;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.oozie.test.XFsTestCase;
+
+public class TestDatasetAvailabilityService extends XFsTestCase {
+    private Services services;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        setSystemProperty(DatasetAvailabilityService.CONF_NEGATIVE_TTL, "1");
+        services = new Services();
+        services.init();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        services.destroy();
+        super.tearDown();
+    }
+
+    public void testExists() throws Exception {
+        DatasetAvailabilityService availability = Services.get().get(DatasetAvailabilityService.class);
+        assertNotNull(availability);
+        Path dir = new Path(getFsTestCaseDir(), "2011/01/01");
+        String doneFlag = dir.toString() + "/_SUCCESS";
+        Configuration conf = new Configuration();
+
+        assertFalse(availability.exists(doneFlag, getTestUser(), getTestGroup(), conf));
+        assertEquals(1, availability.getMisses());
+
+        // missing paths are remembered until the negative TTL expires
+        getFileSystem().create(new Path(doneFlag)).close();
+        assertFalse(availability.exists(doneFlag, getTestUser(), getTestGroup(), conf));
+        assertEquals(1, availability.getHits());
+        Thread.sleep(1100);
+        assertTrue(availability.exists(doneFlag, getTestUser(), getTestGroup(), conf));
+        assertEquals(2, availability.getMisses());
+
+        // existing paths are remembered, paths are normalized
+        assertTrue(availability.exists(dir.toString() + "//_SUCCESS", getTestUser(), getTestGroup(), conf));
+        assertEquals(2, availability.getHits());
+        assertEquals(1, availability.size());
+
+        // paths found by a user are checked again for another user
+        assertTrue(availability.exists(doneFlag, getTestUser2(), getTestGroup(), conf));
+        assertEquals(3, availability.getMisses());
+        assertEquals(2, availability.size());
+
+        // invalidating a directory removes the paths under it
+        getFileSystem().delete(dir, true);
+        availability.invalidate(dir.toString());
+        assertEquals(0, availability.size());
+        assertFalse(availability.exists(doneFlag, getTestUser(), getTestGroup(), conf));
+        assertEquals(4, availability.getMisses());
+    }
+
+    public void testInvalidate() throws Exception {
+        services.destroy();
+        setSystemProperty(DatasetAvailabilityService.CONF_CACHE_SIZE, "3");
+        services = new Services();
+        services.init();
+        DatasetAvailabilityService availability = Services.get().get(DatasetAvailabilityService.class);
+        String dir = getFsTestCaseDir().toString();
+        availability.put(dir + "/a/_SUCCESS", getTestUser(), getTestGroup(), true);
+        availability.put(dir + "/a/b/_SUCCESS", getTestUser2(), getTestGroup(), true);
+        availability.put(dir + "/ab/_SUCCESS", getTestUser(), getTestGroup(), true);
+        assertEquals(3, availability.size());
+
+        // only the path and the paths under it are removed
+        availability.invalidate(dir + "/a");
+        assertEquals(1, availability.size());
+        assertNull(availability.getCached(dir + "/a/_SUCCESS", getTestUser(), getTestGroup()));
+        assertNull(availability.getCached(dir + "/a/b/_SUCCESS", getTestUser2(), getTestGroup()));
+        assertEquals(Boolean.TRUE, availability.getCached(dir + "/ab/_SUCCESS", getTestUser(), getTestGroup()));
+
+        // evicted paths are not invalidated again
+        for (int i = 0; i < 3; i++) {
+            availability.put(dir + "/x/" + i, getTestUser(), getTestGroup(), false);
+        }
+        assertEquals(3, availability.size());
+        assertNull(availability.getCached(dir + "/ab/_SUCCESS", getTestUser(), getTestGroup()));
+        availability.invalidate(dir + "/ab");
+        assertEquals(3, availability.size());
+        availability.invalidate(dir + "/x");
+        assertEquals(0, availability.size());
+    }
+
+    public void testDataAvailable() throws Exception {
+        services.destroy();
+        setSystemProperty(DatasetAvailabilityService.CONF_PUSH_ENABLED, "true");
+        services = new Services();
+        services.init();
+        DatasetAvailabilityService availability = Services.get().get(DatasetAvailabilityService.class);
+        assertTrue(availability.isPushEnabled());
+        String dir1 = getFsTestCaseDir() + "/2011/01/01";
+        String dir2 = getFsTestCaseDir() + "/2011/01/02";
+        availability.registerWaitingAction("a1", Arrays.asList(dir1 + "/_SUCCESS", dir2 + "/_SUCCESS"));
+        availability.registerWaitingAction("a2", Arrays.asList(dir2 + "/_SUCCESS"));
+        availability.registerWaitingAction("a3", Arrays.asList(dir2 + "/_SUCCESS"));
+        assertEquals(3, availability.getWaitingActions());
+        availability.unregisterWaitingAction("a3");
+        assertEquals(2, availability.getWaitingActions());
+
+        // notifying an instance directory wakes up the actions waiting for its done-flag
+        assertEquals(Arrays.asList("a1"), availability.dataAvailable(dir1));
+        assertEquals(1, availability.getWaitingActions());
+        assertEquals(Arrays.asList("a2"), availability.dataAvailable(dir2 + "/_SUCCESS"));
+        assertEquals(0, availability.getWaitingActions());
+        assertTrue(availability.dataAvailable(dir2).isEmpty());
+    }
+
+    public void testCacheDisabled() throws Exception {
+        services.destroy();
+        setSystemProperty(DatasetAvailabilityService.CONF_CACHE_SIZE, "0");
+        services = new Services();
+        services.init();
+        DatasetAvailabilityService availability = Services.get().get(DatasetAvailabilityService.class);
+        Path path = new Path(getFsTestCaseDir(), "_SUCCESS");
+        getFileSystem().create(path).close();
+        assertTrue(availability.exists(path.toString(), getTestUser(), getTestGroup(), new Configuration()));
+        assertTrue(availability.exists(path.toString(), getTestUser(), getTestGroup(), new Configuration()));
+        assertEquals(0, availability.getHits());
+        assertEquals(2, availability.getMisses());
+        assertEquals(0, availability.size());
+    }
+
+}
@@ -19,7 +19,10 @@ import org.apache.hadoop.mapred.JobConf;
 import org.apache.hadoop.mapred.JobClient;
 import org.apache.hadoop.fs.FileSystem;
 
+import java.io.IOException;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
 
 public class TestHadoopAccessorService extends XTestCase {
 
@@ -78,4 +81,83 @@ public class TestHadoopAccessorService extends XTestCase {
         assertNotNull(fs);
     }
 
+    public void testPooling() throws Exception {
+        HadoopAccessorService has = Services.get().get(HadoopAccessorService.class);
+        JobConf conf = new JobConf();
+        conf.set("mapred.job.tracker", getJobTrackerUri());
+        conf.set("fs.default.name", getNameNodeUri());
+        injectKerberosInfo(conf);
+        URI uri = new URI(getNameNodeUri());
+        String user = getTestUser();
+        String group = getTestGroup();
+
+        FileSystem fs = has.createFileSystem(user, group, conf);
+        assertSame(fs, has.createFileSystem(user, group, conf));
+        assertSame(fs, has.createFileSystem(user, group, new URI(getNameNodeUri() + "/user/" + user), conf));
+        assertEquals(1, has.getFileSystemPool().size());
+        assertEquals(2, has.getFileSystemPool().getHits());
+
+        // handles are pooled per user
+        FileSystem fs2 = has.createFileSystem(getTestUser2(), group, uri, conf);
+        assertNotNull(fs2);
+        assertEquals(2, has.getFileSystemPool().size());
+
+        // handles are pooled per value of the properties they depend on
+        JobConf otherConf = new JobConf(conf);
+        otherConf.set("oozie.test.property", "value");
+        assertSame(fs, has.createFileSystem(user, group, otherConf));
+        assertEquals(2, has.getFileSystemPool().size());
+        otherConf.set("dfs.test.property", "value");
+        assertNotNull(has.createFileSystem(user, group, otherConf));
+        assertEquals(3, has.getFileSystemPool().size());
+
+        // closing a pooled JobClient keeps it open for the next user
+        JobClient jc = has.createJobClient(user, group, conf);
+        jc.close();
+        JobClient jc2 = has.createJobClient(user, group, conf);
+        assertSame(jc, jc2);
+        assertNotNull(jc2.getClusterStatus());
+        assertEquals(1, has.getJobClientPool().size());
+    }
+
+    public void testHandlePool() throws Exception {
+        final List<String> released = new ArrayList<String>();
+        HadoopAccessorService.HandlePool<String> pool = new HadoopAccessorService.HandlePool<String>(2, 500) {
+            @Override
+            protected void release(String handle) throws IOException {
+                released.add(handle);
+            }
+        };
+        assertNull(pool.get("a"));
+        assertEquals("a1", pool.put("a", "a1"));
+        assertEquals("a1", pool.put("a", "a2"));
+        assertEquals("a2", released.get(0));
+        assertEquals("a1", pool.get("a"));
+        assertEquals(1, pool.getHits());
+        assertEquals(1, pool.getMisses());
+
+        // the least recently used handle is evicted when the pool is full
+        pool.put("b", "b1");
+        pool.get("a");
+        pool.put("c", "c1");
+        assertEquals(2, pool.size());
+        assertNull(pool.get("b"));
+        assertEquals("b1", released.get(1));
+
+        // idle handles are evicted
+        Thread.sleep(600);
+        assertNull(pool.get("a"));
+        assertEquals(0, pool.size());
+        assertEquals(3, pool.getEvictions());
+        assertEquals(4, released.size());
+
+        // the pool is bypassed for null keys and when disabled
+        assertEquals("x", pool.put(null, "x"));
+        assertNull(pool.get(null));
+        HadoopAccessorService.HandlePool<String> disabled = new HadoopAccessorService.HandlePool<String>(0, 500);
+        assertFalse(disabled.isEnabled());
+        disabled.put("a", "a1");
+        assertNull(disabled.get("a"));
+    }
+
 }
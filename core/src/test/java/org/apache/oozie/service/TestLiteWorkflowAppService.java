@@ -143,6 +143,45 @@ public class TestLiteWorkflowAppService extends XTestCase {
         }
     }
 
+    public void testDefinitionCache() throws Exception {
+        Services services = new Services();
+        try {
+            services.init();
+
+            String workflowXml = IOUtils.getResourceAsString("wf-schema-valid.xml", -1);
+            File file = new File(getTestCaseDir(), "workflow.xml");
+            Writer writer = new FileWriter(file);
+            writer.write(workflowXml);
+            writer.close();
+
+            WorkflowAppService wps = services.get(WorkflowAppService.class);
+            Configuration jobConf = new XConfiguration();
+            jobConf.set(OozieClient.APP_PATH, "file://" + getTestCaseDir());
+            jobConf.set(OozieClient.USER_NAME, getTestUser());
+            jobConf.set(OozieClient.GROUP_NAME, "group");
+            injectKerberosInfo(jobConf);
+
+            WorkflowApp app = wps.parseDef(jobConf, "authToken");
+            assertEquals("test-wf", app.getName());
+            assertSame(app, wps.parseDef(jobConf, "authToken"));
+
+            // same content, different modification time
+            file.setLastModified(file.lastModified() - 60 * 1000);
+            assertSame(app, wps.parseDef(jobConf, "authToken"));
+
+            // different content
+            writer = new FileWriter(file);
+            writer.write(workflowXml.replace("name=\"test-wf\"", "name=\"test-wf-changed\""));
+            writer.close();
+            file.setLastModified(file.lastModified() + 60 * 1000);
+            WorkflowApp changed = wps.parseDef(jobConf, "authToken");
+            assertNotSame(app, changed);
+            assertEquals("test-wf-changed", changed.getName());
+        }
+        finally {
+            services.destroy();
+        }
+    }
 
     public void testExtSchema() throws Exception {
         setSystemProperty(SchemaService.WF_CONF_EXT_SCHEMAS, "wf-ext-schema.xsd");
@@ -16,6 +16,8 @@ package org.apache.oozie.service;
 
 import java.util.Date;
 
+import javax.persistence.EntityManager;
+
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
 import org.apache.oozie.BundleActionBean;
@@ -37,6 +39,7 @@ import org.apache.oozie.executor.jpa.BundleActionGetJPAExecutor;
 import org.apache.oozie.executor.jpa.BundleJobGetJPAExecutor;
 import org.apache.oozie.executor.jpa.CoordActionGetJPAExecutor;
 import org.apache.oozie.executor.jpa.CoordActionInsertJPAExecutor;
+import org.apache.oozie.executor.jpa.CoordActionUpdateJPAExecutor;
 import org.apache.oozie.executor.jpa.CoordJobGetJPAExecutor;
 import org.apache.oozie.executor.jpa.CoordJobUpdateJPAExecutor;
 import org.apache.oozie.executor.jpa.JPAExecutorException;
@@ -420,6 +423,84 @@ public class TestStatusTransitService extends XDataTestCase {
         assertFalse(job.isPending());
     }
 
+    /**
+     * Test : in incremental mode, the first run checks the pending coordinator jobs, the following runs check the
+     * coordinator jobs with changed actions.
+     *
+     * @throws Exception
+     */
+    public void testCoordStatusTransitServiceIncremental() throws Exception {
+        services.destroy();
+        setSystemProperty(StatusTransitService.CONF_INCREMENTAL, "true");
+        services = new Services();
+        services.init();
+
+        Date start = DateUtils.parseDateUTC("2009-02-01T01:00Z");
+        Date end = DateUtils.parseDateUTC("2009-02-02T23:59Z");
+        CoordinatorJobBean job = addRecordToCoordJobTable(CoordinatorJob.Status.RUNNING, start, end, true, true, 2);
+        CoordinatorActionBean action1 = addRecordToCoordActionTable(job.getId(), 1, CoordinatorAction.Status.RUNNING,
+                "coord-action-get.xml", 0);
+        CoordinatorActionBean action2 = addRecordToCoordActionTable(job.getId(), 2, CoordinatorAction.Status.RUNNING,
+                "coord-action-get.xml", 0);
+
+        JPAService jpaService = Services.get().get(JPAService.class);
+        Runnable runnable = new StatusTransitRunnable();
+        runnable.run();
+        job = jpaService.execute(new CoordJobGetJPAExecutor(job.getId()));
+        assertEquals(CoordinatorJob.Status.RUNNING, job.getStatus());
+        assertFalse(job.isPending());
+
+        action1.setStatus(CoordinatorAction.Status.SUCCEEDED);
+        jpaService.execute(new CoordActionUpdateJPAExecutor(action1));
+        action2.setStatus(CoordinatorAction.Status.SUCCEEDED);
+        jpaService.execute(new CoordActionUpdateJPAExecutor(action2));
+        runnable.run();
+        job = jpaService.execute(new CoordJobGetJPAExecutor(job.getId()));
+        assertEquals(CoordinatorJob.Status.SUCCEEDED, job.getStatus());
+    }
+
+    /**
+     * Test : in incremental mode, a coordinator job with changed actions is reported once the transaction changing the
+     * actions has been committed, a run during the transaction does not lose the change.
+     *
+     * @throws Exception
+     */
+    public void testCoordStatusTransitServiceIncrementalReportsAfterCommit() throws Exception {
+        services.destroy();
+        setSystemProperty(StatusTransitService.CONF_INCREMENTAL, "true");
+        services = new Services();
+        services.init();
+
+        Date start = DateUtils.parseDateUTC("2009-02-01T01:00Z");
+        Date end = DateUtils.parseDateUTC("2009-02-02T23:59Z");
+        CoordinatorJobBean job = addRecordToCoordJobTable(CoordinatorJob.Status.RUNNING, start, end, true, true, 2);
+        CoordinatorActionBean action1 = addRecordToCoordActionTable(job.getId(), 1, CoordinatorAction.Status.RUNNING,
+                "coord-action-get.xml", 0);
+        CoordinatorActionBean action2 = addRecordToCoordActionTable(job.getId(), 2, CoordinatorAction.Status.RUNNING,
+                "coord-action-get.xml", 0);
+
+        JPAService jpaService = Services.get().get(JPAService.class);
+        Runnable runnable = new StatusTransitRunnable();
+        runnable.run();
+
+        EntityManager em = jpaService.getEntityManager();
+        em.getTransaction().begin();
+        action1.setStatus(CoordinatorAction.Status.SUCCEEDED);
+        new CoordActionUpdateJPAExecutor(action1).execute(em);
+        action2.setStatus(CoordinatorAction.Status.SUCCEEDED);
+        new CoordActionUpdateJPAExecutor(action2).execute(em);
+        // the job is not reported yet
+        runnable.run();
+        em.getTransaction().commit();
+        em.close();
+
+        job = jpaService.execute(new CoordJobGetJPAExecutor(job.getId()));
+        assertEquals(CoordinatorJob.Status.RUNNING, job.getStatus());
+        runnable.run();
+        job = jpaService.execute(new CoordJobGetJPAExecutor(job.getId()));
+        assertEquals(CoordinatorJob.Status.SUCCEEDED, job.getStatus());
+    }
+
     /**
      * Tests functionality of the StatusTransitService Runnable command. </p> Insert a coordinator job with RUNNING and
      * pending true and coordinator actions with TIMEDOUT state. Then, runs the StatusTransitService runnable and
@@ -0,0 +1,128 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.servlet;
+
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.oozie.service.DatasetAvailabilityService;
+import org.apache.oozie.service.Services;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.JSONValue;
+
+public class TestDataAvailabilityServlet extends DagServletTestCase {
+
+    static {
+        new DataAvailabilityServlet();
+    }
+
+    public void testDataAvailable() throws Exception {
+        setSystemProperty(DatasetAvailabilityService.CONF_PUSH_ENABLED, "true");
+        runTest("/v1/dataavailable", DataAvailabilityServlet.class, false, new Callable<Void>() {
+            public Void call() throws Exception {
+                String dir = getFsTestCaseDir() + "/2011/01/01";
+                DatasetAvailabilityService availability = Services.get().get(DatasetAvailabilityService.class);
+                availability.registerWaitingAction("a1", Arrays.asList(dir + "/_SUCCESS"));
+
+                Map<String, String> params = new HashMap<String, String>();
+                params.put(DataAvailabilityServlet.URI_PARAM, dir);
+                URL url = createURL("", params);
+                HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+                conn.setRequestMethod("PUT");
+                assertEquals(HttpServletResponse.SC_OK, conn.getResponseCode());
+                JSONObject json = (JSONObject) JSONValue.parse(new InputStreamReader(conn.getInputStream()));
+                JSONArray actions = (JSONArray) json.get(DataAvailabilityServlet.ACTIONS);
+                assertEquals(Arrays.asList("a1"), actions);
+                assertEquals(0, availability.getWaitingActions());
+
+                // no action is waiting anymore
+                conn = (HttpURLConnection) url.openConnection();
+                conn.setRequestMethod("PUT");
+                assertEquals(HttpServletResponse.SC_OK, conn.getResponseCode());
+                json = (JSONObject) JSONValue.parse(new InputStreamReader(conn.getInputStream()));
+                assertTrue(((JSONArray) json.get(DataAvailabilityServlet.ACTIONS)).isEmpty());
+                return null;
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testBadRequest() throws Exception {
+        setSystemProperty(DatasetAvailabilityService.CONF_PUSH_ENABLED, "true");
+        runTest("/v1/dataavailable", DataAvailabilityServlet.class, false, new Callable<Void>() {
+            public Void call() throws Exception {
+                // missing URI
+                URL url = createURL("", Collections.EMPTY_MAP);
+                HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+                conn.setRequestMethod("PUT");
+                assertEquals(HttpServletResponse.SC_BAD_REQUEST, conn.getResponseCode());
+
+                // unsupported method
+                Map<String, String> params = new HashMap<String, String>();
+                params.put(DataAvailabilityServlet.URI_PARAM, getFsTestCaseDir().toString());
+                url = createURL("", params);
+                conn = (HttpURLConnection) url.openConnection();
+                conn.setRequestMethod("POST");
+                assertEquals(HttpServletResponse.SC_BAD_REQUEST, conn.getResponseCode());
+                return null;
+            }
+        });
+    }
+
+    public void testPushDisabled() throws Exception {
+        runTest("/v1/dataavailable", DataAvailabilityServlet.class, false, new Callable<Void>() {
+            public Void call() throws Exception {
+                Map<String, String> params = new HashMap<String, String>();
+                params.put(DataAvailabilityServlet.URI_PARAM, getFsTestCaseDir().toString());
+                URL url = createURL("", params);
+                HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+                conn.setRequestMethod("PUT");
+                assertEquals(HttpServletResponse.SC_BAD_REQUEST, conn.getResponseCode());
+                return null;
+            }
+        });
+    }
+
+    public void testUnauthorized() throws Exception {
+        setSystemProperty(DatasetAvailabilityService.CONF_PUSH_ENABLED, "true");
+        runTest("/v1/dataavailable", DataAvailabilityServlet.class, true, new Callable<Void>() {
+            public Void call() throws Exception {
+                String dir = getFsTestCaseDir() + "/2011/01/01";
+                DatasetAvailabilityService availability = Services.get().get(DatasetAvailabilityService.class);
+                availability.registerWaitingAction("a1", Arrays.asList(dir + "/_SUCCESS"));
+
+                // only admin users can notify when security is enabled
+                Map<String, String> params = new HashMap<String, String>();
+                params.put(DataAvailabilityServlet.URI_PARAM, dir);
+                URL url = createURL("", params);
+                HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+                conn.setRequestMethod("PUT");
+                assertEquals(HttpServletResponse.SC_UNAUTHORIZED, conn.getResponseCode());
+                assertEquals(1, availability.getWaitingActions());
+                return null;
+            }
+        });
+    }
+
+}
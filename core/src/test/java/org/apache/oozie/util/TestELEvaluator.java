@@ -14,12 +14,17 @@
  */
 package org.apache.oozie.util;
 
+import org.apache.commons.el.ExpressionEvaluatorImpl;
 import org.apache.oozie.test.XTestCase;
 
 import javax.servlet.jsp.el.ELException;
 import java.lang.reflect.Method;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class TestELEvaluator extends XTestCase {
 
@@ -164,4 +169,123 @@ public class TestELEvaluator extends XTestCase {
         }
     }
 
+    public static String functionD(String s) {
+        return s + "d";
+    }
+
+    public static String functionE(String s) {
+        return s + "e";
+    }
+
+    public void testParseCache() throws Exception {
+        ELEvaluator.setParseCacheSize(2);
+        try {
+            ELEvaluator.Context support1 = new ELEvaluator.Context();
+            support1.setVariable("a", "A");
+            support1.addFunction("a", "a", TestELEvaluator.class.getMethod("functionE", String.class));
+            ELEvaluator.Context support2 = new ELEvaluator.Context();
+            support2.setVariable("a", "B");
+            support2.addFunction("a", "a", TestELEvaluator.class.getMethod("functionD", String.class));
+
+            long misses = ELEvaluator.getParseCacheMisses();
+            assertEquals("A", new ELEvaluator(support1).evaluate("${a}", String.class));
+            assertEquals(misses + 1, ELEvaluator.getParseCacheMisses());
+
+            // the parsed expression is shared, variables are resolved from the evaluator context
+            long hits = ELEvaluator.getParseCacheHits();
+            assertEquals("B", new ELEvaluator(support2).evaluate("${a}", String.class));
+            assertEquals(hits + 1, ELEvaluator.getParseCacheHits());
+            assertEquals(1, ELEvaluator.getParseCacheSize());
+
+            // and so are functions, resolved from the function mapper of the evaluator
+            assertEquals("xe", new ELEvaluator(support1).evaluate("${a:a('x')}", String.class));
+            assertEquals("xd", new ELEvaluator(support2).evaluate("${a:a('x')}", String.class));
+            assertEquals(hits + 2, ELEvaluator.getParseCacheHits());
+
+            // literals and coercions
+            assertEquals("literal", new ELEvaluator(support1).evaluate("literal", String.class));
+            assertEquals(new Integer(3), new ELEvaluator(support1).evaluate("${1 + 2}", Integer.class));
+            assertEquals(2, ELEvaluator.getParseCacheSize());
+
+            ELEvaluator.setParseCacheSize(0);
+            hits = ELEvaluator.getParseCacheHits();
+            assertEquals("A", new ELEvaluator(support1).evaluate("${a}", String.class));
+            assertEquals("A", new ELEvaluator(support1).evaluate("${a}", String.class));
+            assertEquals(hits, ELEvaluator.getParseCacheHits());
+            assertEquals(0, ELEvaluator.getParseCacheSize());
+        }
+        finally {
+            ELEvaluator.setParseCacheSize(ELEvaluator.DEFAULT_PARSE_CACHE_SIZE);
+        }
+    }
+
+    /**
+     * Evaluation throughput of a dataset URI template through the commons-el evaluator and its own parse cache, the
+     * previous evaluation path, and through the parse cache, from several threads. It only runs if the
+     * <code>oozie.test.benchmark</code> system property is set to <code>true</code>.
+     */
+    public void testUriTemplateThroughput() throws Exception {
+        if (!Boolean.getBoolean("oozie.test.benchmark")) {
+            return;
+        }
+        final String template = "hdfs://localhost:9000/data/${YEAR}/${MONTH}/${DAY}/${HOUR}/${MINUTE}";
+        final ELEvaluator evaluator = new ELEvaluator();
+        evaluator.setVariable("YEAR", 2011);
+        evaluator.setVariable("MONTH", "01");
+        evaluator.setVariable("DAY", "02");
+        evaluator.setVariable("HOUR", "03");
+        evaluator.setVariable("MINUTE", "04");
+        final ELEvaluator.Context context = evaluator.getContext();
+        int threads = 8;
+        int iterations = 20000;
+        long commonsEl = throughput(threads, iterations, new Callable<String>() {
+            public String call() throws Exception {
+                return (String) new ExpressionEvaluatorImpl().evaluate(template, String.class, context, context);
+            }
+        });
+        long parseCache = throughput(threads, iterations, new Callable<String>() {
+            public String call() throws Exception {
+                return evaluator.evaluate(template, String.class);
+            }
+        });
+        XLog log = XLog.getLog(getClass());
+        log.info("URI template evaluation, [{0}] threads, commons-el cache: [{1}] ops/sec", threads, commonsEl);
+        log.info("URI template evaluation, [{0}] threads, parse cache: [{1}] ops/sec", threads, parseCache);
+    }
+
+    private long throughput(int threads, final int iterations, final Callable<String> evaluation) throws Exception {
+        for (int i = 0; i < iterations / 10; i++) {
+            evaluation.call();
+        }
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(threads);
+        final AtomicInteger errors = new AtomicInteger();
+        for (int i = 0; i < threads; i++) {
+            new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        start.await();
+                        for (int j = 0; j < iterations; j++) {
+                            if (!"hdfs://localhost:9000/data/2011/01/02/03/04".equals(evaluation.call())) {
+                                errors.incrementAndGet();
+                            }
+                        }
+                    }
+                    catch (Exception ex) {
+                        errors.incrementAndGet();
+                    }
+                    finally {
+                        done.countDown();
+                    }
+                }
+            }).start();
+        }
+        long time = System.nanoTime();
+        start.countDown();
+        assertTrue(done.await(120, TimeUnit.SECONDS));
+        long elapsed = Math.max(1, System.nanoTime() - time);
+        assertEquals(0, errors.get());
+        return threads * iterations * 1000000000L / elapsed;
+    }
+
 }
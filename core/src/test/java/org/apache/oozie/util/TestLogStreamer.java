@@ -15,10 +15,16 @@
 package org.apache.oozie.util;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.io.StringWriter;
+import java.io.Writer;
 import java.util.Date;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPOutputStream;
 
 import org.apache.oozie.test.XTestCase;
 import org.apache.oozie.util.XLogStreamer;
@@ -94,4 +100,67 @@ public class TestLogStreamer extends XTestCase {
         assertEquals(true, out[2].contains("_L4_"));
         assertEquals(true, out[3].contains("_L7_"));
     }
+
+    public void testStreamCompressedLogInParallel() throws Exception {
+        long currTime = System.currentTimeMillis();
+        XLogStreamer.Filter.reset();
+        XLogStreamer.Filter.defineParameter("USER");
+        XLogStreamer.Filter.defineParameter("GROUP");
+        XLogStreamer.Filter.defineParameter("TOKEN");
+        XLogStreamer.Filter.defineParameter("APP");
+        XLogStreamer.Filter.defineParameter("JOB");
+        XLogStreamer.Filter.defineParameter("ACTION");
+        XLogStreamer.Filter xf = new XLogStreamer.Filter();
+        xf.setParameter("JOB", "14-200904160239--example-forkjoinwf");
+
+        for (int i = 0; i < 6; i++) {
+            String name = (i == 5) ? "test.log" : "test.log." + i;
+            Writer writer;
+            if (i % 2 == 0 && i != 5) {
+                name += XLogStreamer.GZIP_EXTENSION;
+                writer = new OutputStreamWriter(new GZIPOutputStream(new FileOutputStream(new File(getTestCaseDir(),
+                                                                                                   name))));
+            }
+            else {
+                writer = new FileWriter(new File(getTestCaseDir(), name));
+            }
+            for (int j = 0; j < 100; j++) {
+                String job = (j % 3 == 0) ? "14-200904160239--example-forkjoinwf" : "-";
+                writer.write("2009-06-24 02:43:13,958 DEBUG _F" + i + "L" + j + "_:323 - USER[oozie] GROUP[-] TOKEN[-] "
+                             + "APP[example-forkjoinwf] JOB[" + job + "] ACTION[-] End workflow state change\n");
+            }
+            writer.close();
+            new File(getTestCaseDir(), name).setLastModified(currTime - 10000 + i * 1000);
+        }
+
+        StringWriter sequential = new StringWriter();
+        new XLogStreamer(xf, sequential, getTestCaseDir(), "test.log", 3600).streamLog(null, null);
+        String[] out = sequential.toString().split("\n");
+        assertEquals(6 * 34, out.length);
+        assertTrue(out[0].contains("_F0L0_"));
+        assertTrue(out[out.length - 1].contains("_F5L99_"));
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            StringWriter parallel = new StringWriter();
+            XLogStreamer streamer = new XLogStreamer(xf, parallel, getTestCaseDir(), "test.log", 3600,
+                                                     new File(getTestCaseDir(), "index"), 512);
+            streamer.setScanExecutor(executor, 3, 1024 * 1024);
+            streamer.streamLog(null, null);
+            assertEquals(sequential.toString(), parallel.toString());
+            assertTrue(new File(getTestCaseDir(), "index/test.log.0.gz" + XLogIndex.INDEX_EXTENSION).exists());
+
+            // the files with more matching lines than the buffer are streamed after the previous files
+            StringWriter bounded = new StringWriter();
+            streamer = new XLogStreamer(xf, bounded, getTestCaseDir(), "test.log", 3600,
+                                        new File(getTestCaseDir(), "index"), 512);
+            streamer.setScanExecutor(executor, 3, 100);
+            streamer.streamLog(null, null);
+            assertEquals(sequential.toString(), bounded.toString());
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
 }
@@ -214,4 +214,73 @@ public class TestMemoryLocks extends XTestCase {
         assertEquals("a:1-L a:1-U a:2-L a:2-U", sb.toString().trim());
     }
 
+    public void testLockEntryReuse() throws Exception {
+        MemoryLocks.LockToken token = locks.getWriteLock("a", -1);
+        assertNotNull(token);
+        assertEquals(1, locks.size());
+        assertEquals(0, locks.poolSize());
+        token.release();
+        assertEquals(0, locks.size());
+        assertEquals(1, locks.poolSize());
+
+        token = locks.getReadLock("b", -1);
+        assertNotNull(token);
+        assertEquals(1, locks.size());
+        assertEquals(0, locks.poolSize());
+        MemoryLocks.LockToken token2 = locks.getReadLock("b", -1);
+        assertNotNull(token2);
+        assertEquals(1, locks.size());
+        assertNull(locks.getWriteLock("b", 0));
+        token.release();
+        token2.release();
+        assertEquals(0, locks.size());
+        assertEquals(1, locks.poolSize());
+    }
+
+    public void testPoolSize() throws Exception {
+        locks = new MemoryLocks(1);
+        MemoryLocks.LockToken token1 = locks.getWriteLock("a", -1);
+        MemoryLocks.LockToken token2 = locks.getWriteLock("b", -1);
+        assertEquals(2, locks.size());
+        token1.release();
+        token2.release();
+        assertEquals(0, locks.size());
+        assertEquals(1, locks.poolSize());
+    }
+
+    public void testEntityType() throws Exception {
+        assertEquals("wf", MemoryLocks.getEntityType("0000000-000000000000000-oozie-test-W"));
+        assertEquals("coord", MemoryLocks.getEntityType("0000000-000000000000000-oozie-test-C"));
+        assertEquals("bundle", MemoryLocks.getEntityType("0000000-000000000000000-oozie-test-B"));
+        assertEquals("other", MemoryLocks.getEntityType("a"));
+    }
+
+    public void testWaitHistogram() throws Exception {
+        String coordId = "0000000-000000000000000-oozie-test-C";
+        StringBuffer sb = new StringBuffer("");
+        Locker l1 = new WriteLocker(coordId, 1, -1, sb);
+        Locker l2 = new WriteLocker(coordId, 2, 50, sb);
+
+        new Thread(l1).start();
+        Thread.sleep(500);
+        new Thread(l2).start();
+        Thread.sleep(500);
+        l1.finish();
+        Thread.sleep(500);
+        l2.finish();
+        Thread.sleep(500);
+
+        long[] histogram = locks.getWaitHistogram("coord");
+        assertEquals(MemoryLocks.WAIT_BUCKETS.length + 1, histogram.length);
+        long count = 0;
+        for (long bucket : histogram) {
+            count += bucket;
+        }
+        assertEquals(2, count);
+        assertEquals(1, histogram[2]);
+        assertEquals(1, locks.getWaitTimeouts("coord"));
+        assertTrue(locks.getWaitTotal("coord") >= 50);
+        assertEquals(0, locks.getWaitHistogram("wf")[0]);
+    }
+
 }
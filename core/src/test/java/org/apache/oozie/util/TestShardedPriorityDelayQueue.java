@@ -0,0 +1,228 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.util;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.oozie.util.PriorityDelayQueue.QueueElement;
+
+public class TestShardedPriorityDelayQueue extends TestCase {
+
+    public void testQueueConstructor() throws Exception {
+        try {
+            new ShardedPriorityDelayQueue<Integer>(1, 1000, TimeUnit.MILLISECONDS, -1, 0);
+            fail();
+        }
+        catch (IllegalArgumentException ex) {
+        }
+        ShardedPriorityDelayQueue<Integer> q =
+                new ShardedPriorityDelayQueue<Integer>(3, 1000, TimeUnit.MILLISECONDS, -1, 4);
+        assertEquals(3, q.getPriorities());
+        assertEquals(4, q.getShards());
+    }
+
+    public void testBoundUnboundQueueSize() {
+        PriorityDelayQueue<Integer> q = new ShardedPriorityDelayQueue<Integer>(1, 1000, TimeUnit.MILLISECONDS, -1, 2);
+        assertEquals(0, q.size());
+        assertTrue(q.offer(new QueueElement<Integer>(1)));
+        assertTrue(q.offer(new QueueElement<Integer>(1)));
+        assertTrue(q.offer(new QueueElement<Integer>(1)));
+        assertEquals(3, q.size());
+
+        q = new ShardedPriorityDelayQueue<Integer>(1, 1000, TimeUnit.MILLISECONDS, 1, 2);
+        assertTrue(q.offer(new QueueElement<Integer>(1)));
+        assertEquals(1, q.size());
+        assertFalse(q.offer(new QueueElement<Integer>(1)));
+        assertEquals(1, q.size());
+        assertNotNull(q.poll());
+        assertEquals(0, q.size());
+        assertTrue(q.offer(new QueueElement<Integer>(1)));
+        assertEquals(1, q.size());
+    }
+
+    public void testPoll() throws Exception {
+        PriorityDelayQueue<Integer> q = new ShardedPriorityDelayQueue<Integer>(3, 500, TimeUnit.MILLISECONDS, -1, 3);
+
+        q.offer(new QueueElement<Integer>(2, 0, 10, TimeUnit.MILLISECONDS));
+        assertNull(q.poll());
+        Thread.sleep(11);
+        assertEquals((Integer) 2, q.poll().getElement());
+        assertEquals(0, q.size());
+
+        // priorities are honored across shards
+        q.offer(new QueueElement<Integer>(10, 0, 0, TimeUnit.MILLISECONDS));
+        q.offer(new QueueElement<Integer>(11, 0, 0, TimeUnit.MILLISECONDS));
+        q.offer(new QueueElement<Integer>(30, 2, 0, TimeUnit.MILLISECONDS));
+        q.offer(new QueueElement<Integer>(20, 1, 0, TimeUnit.MILLISECONDS));
+        q.offer(new QueueElement<Integer>(31, 2, 0, TimeUnit.MILLISECONDS));
+
+        assertEquals(2, q.poll().getPriority());
+        assertEquals(2, q.poll().getPriority());
+        assertEquals((Integer) 20, q.poll().getElement());
+        assertEquals(0, q.poll().getPriority());
+        assertEquals(0, q.poll().getPriority());
+        assertNull(q.poll());
+        assertEquals(0, q.size());
+    }
+
+    public void testPeek() throws Exception {
+        PriorityDelayQueue<Integer> q = new ShardedPriorityDelayQueue<Integer>(3, 500, TimeUnit.MILLISECONDS, -1, 2);
+
+        q.offer(new QueueElement<Integer>(10, 0, 0, TimeUnit.MILLISECONDS));
+        q.offer(new QueueElement<Integer>(30, 2, 0, TimeUnit.MILLISECONDS));
+        assertEquals((Integer) 30, q.peek().getElement());
+        assertNotNull(q.poll());
+        assertEquals((Integer) 10, q.peek().getElement());
+        assertNotNull(q.poll());
+
+        q.offer(new QueueElement<Integer>(30, 2, 200, TimeUnit.MILLISECONDS));
+        q.offer(new QueueElement<Integer>(10, 0, 100, TimeUnit.MILLISECONDS));
+        assertEquals((Integer) 10, q.peek().getElement());
+        q.clear();
+        assertNull(q.peek());
+    }
+
+    public void testEligibleToPoll() throws Exception {
+        PriorityDelayQueue<Integer> q = new ShardedPriorityDelayQueue<Integer>(1, 500, TimeUnit.MILLISECONDS, -1, 1) {
+            @Override
+            protected boolean eligibleToPoll(QueueElement<?> element) {
+                return ((Integer) element.getElement()) % 2 == 0;
+            }
+        };
+        q.offer(new QueueElement<Integer>(1));
+        Thread.sleep(5);
+        q.offer(new QueueElement<Integer>(2));
+        q.offer(new QueueElement<Integer>(4, 0, 1000, TimeUnit.MILLISECONDS));
+        assertEquals((Integer) 2, q.poll().getElement());
+        assertNull(q.poll());
+        assertEquals(2, q.size());
+    }
+
+    public void testAntiStarvation() throws Exception {
+        PriorityDelayQueue<Integer> q = new ShardedPriorityDelayQueue<Integer>(3, 500, TimeUnit.MILLISECONDS, -1, 2);
+        q.offer(new QueueElement<Integer>(1));
+        q.peek();
+        assertEquals(1, q.sizes()[0]);
+        Thread.sleep(600);
+        q.peek();
+        assertEquals(1, q.sizes()[1]);
+        Thread.sleep(600);
+        q.peek();
+        assertEquals(1, q.sizes()[2]);
+    }
+
+    public void testIteratorDrainClear() throws Exception {
+        PriorityDelayQueue<Integer> q = new ShardedPriorityDelayQueue<Integer>(3, 500, TimeUnit.MILLISECONDS, 10, 2);
+        q.offer(new QueueElement<Integer>(1, 1, 1000, TimeUnit.MILLISECONDS));
+        q.offer(new QueueElement<Integer>(10, 0, 0, TimeUnit.MILLISECONDS));
+        q.offer(new QueueElement<Integer>(30, 2, 0, TimeUnit.MILLISECONDS));
+
+        int size = 0;
+        for (QueueElement<Integer> e : q) {
+            assertNotNull(e);
+            size++;
+        }
+        assertEquals(3, size);
+
+        List<QueueElement<Integer>> drained = new ArrayList<QueueElement<Integer>>();
+        assertEquals(2, q.drainTo(drained));
+        assertEquals((Integer) 30, drained.get(0).getElement());
+        assertEquals(1, q.size());
+        q.clear();
+        assertEquals(0, q.size());
+    }
+
+    public void testConcurrentOfferPoll() throws Exception {
+        contention(new ShardedPriorityDelayQueue<Integer>(3, 30000, TimeUnit.MILLISECONDS, -1, 4), 4, 1000);
+    }
+
+    /**
+     * Contention benchmark, it runs the same producer/consumer load on the single lock queue and on the sharded queue
+     * and logs the elapsed time of each. It only runs if the <code>oozie.test.benchmark</code> system property is set
+     * to <code>true</code>.
+     */
+    public void testContentionBenchmark() throws Exception {
+        if (!Boolean.getBoolean("oozie.test.benchmark")) {
+            return;
+        }
+        int threads = 16;
+        int elements = 20000;
+        long single = contention(new PriorityDelayQueue<Integer>(3, 30000, TimeUnit.MILLISECONDS, -1),
+                                 threads, elements);
+        long sharded = contention(new ShardedPriorityDelayQueue<Integer>(3, 30000, TimeUnit.MILLISECONDS, -1, threads),
+                                  threads, elements);
+        XLog log = XLog.getLog(getClass());
+        log.info("PriorityDelayQueue        [{0}] threads, [{1}] elements: {2}ms", threads, elements, single);
+        log.info("ShardedPriorityDelayQueue [{0}] threads, [{1}] elements: {2}ms", threads, elements, sharded);
+    }
+
+    private long contention(final PriorityDelayQueue<Integer> queue, int threads, final int elements)
+            throws Exception {
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(threads * 2);
+        final AtomicInteger consumed = new AtomicInteger();
+        final int total = threads * elements;
+        for (int i = 0; i < threads; i++) {
+            new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        start.await();
+                        for (int j = 0; j < elements; j++) {
+                            queue.offer(new QueueElement<Integer>(j, j % 3, 0, TimeUnit.MILLISECONDS));
+                        }
+                    }
+                    catch (InterruptedException ex) {
+                        throw new RuntimeException(ex);
+                    }
+                    finally {
+                        done.countDown();
+                    }
+                }
+            }).start();
+            new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        start.await();
+                        while (consumed.get() < total) {
+                            if (queue.poll() != null) {
+                                consumed.incrementAndGet();
+                            }
+                        }
+                    }
+                    catch (InterruptedException ex) {
+                        throw new RuntimeException(ex);
+                    }
+                    finally {
+                        done.countDown();
+                    }
+                }
+            }).start();
+        }
+        long time = System.currentTimeMillis();
+        start.countDown();
+        assertTrue(done.await(120, TimeUnit.SECONDS));
+        time = System.currentTimeMillis() - time;
+        assertEquals(total, consumed.get());
+        assertEquals(0, queue.size());
+        return time;
+    }
+
+}
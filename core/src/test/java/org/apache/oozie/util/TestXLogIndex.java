@@ -0,0 +1,127 @@
+/**
+ * Copyright (c) 2010 Yahoo! Inc. All rights reserved.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License. See accompanying LICENSE file.
+ */
+package org.apache.oozie.util;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+
+import org.apache.oozie.test.XTestCase;
+
+public class TestXLogIndex extends XTestCase {
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        XLogStreamer.Filter.reset();
+        XLogStreamer.Filter.defineParameter("USER");
+        XLogStreamer.Filter.defineParameter("GROUP");
+        XLogStreamer.Filter.defineParameter("TOKEN");
+        XLogStreamer.Filter.defineParameter("APP");
+        XLogStreamer.Filter.defineParameter("JOB");
+        XLogStreamer.Filter.defineParameter("ACTION");
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        XLogStreamer.Filter.reset();
+        super.tearDown();
+    }
+
+    private void writeLog(File file, int statements) throws IOException {
+        FileWriter fw = new FileWriter(file);
+        for (int i = 0; i < statements; i++) {
+            String job = (i % 10 == 0) ? "0000001-110101000000000-oozie-W" : "0000002-110101000000000-oozie-W";
+            fw.write("2011-01-01 10:00:00," + (100 + i % 900) + "  INFO _L" + i + "_:323 - USER[u] GROUP[g] TOKEN[-] "
+                     + "APP[app] JOB[" + job + "] ACTION[-] statement " + i + "\n");
+            if (i % 7 == 0) {
+                fw.write("_C" + i + "_ continuation line\n");
+            }
+            if (i % 13 == 0) {
+                fw.write("2011-01-01 10:00:01,000  INFO _N" + i + "_:323 - USER[-] GROUP[-] TOKEN[-] APP[-] JOB[-] "
+                         + "ACTION[-] no job\n");
+            }
+        }
+        fw.close();
+    }
+
+    public void testBuild() throws Exception {
+        File logFile = new File(getTestCaseDir(), "test.log.1");
+        writeLog(logFile, 200);
+        XLogIndex index = XLogIndex.build(logFile, 1024);
+        assertTrue(index.getBlocks() > 10);
+        assertEquals(2, index.getJobs());
+        assertTrue(index.isValid(logFile));
+        assertTrue(index.getRanges("0000003-110101000000000-oozie-W").isEmpty());
+
+        List<long[]> ranges = index.getRanges("0000001-110101000000000-oozie-W");
+        assertFalse(ranges.isEmpty());
+        long previousEnd = -1;
+        for (long[] range : ranges) {
+            assertTrue(range[0] > previousEnd);
+            assertTrue(range[1] > range[0]);
+            previousEnd = range[1];
+        }
+        // the other job has statements in every block
+        assertEquals(1, index.getRanges("0000002-110101000000000-oozie-W").size());
+        assertEquals(logFile.length(), index.getRanges("0000002-110101000000000-oozie-W").get(0)[1]);
+
+        File indexFile = XLogIndex.getIndexFile(new File(getTestCaseDir(), "index"), logFile);
+        index.write(indexFile);
+        XLogIndex read = XLogIndex.read(indexFile);
+        assertEquals(index.getBlocks(), read.getBlocks());
+        assertEquals(index.getJobs(), read.getJobs());
+        List<long[]> readRanges = read.getRanges("0000001-110101000000000-oozie-W");
+        assertEquals(ranges.size(), readRanges.size());
+        for (int i = 0; i < ranges.size(); i++) {
+            assertEquals(ranges.get(i)[0], readRanges.get(i)[0]);
+            assertEquals(ranges.get(i)[1], readRanges.get(i)[1]);
+        }
+
+        // the index is not valid anymore once the log file changes
+        FileWriter fw = new FileWriter(logFile, true);
+        fw.write("more\n");
+        fw.close();
+        assertFalse(read.isValid(logFile));
+    }
+
+    public void testStreamLogWithIndex() throws Exception {
+        writeLog(new File(getTestCaseDir(), "test.log.1"), 300);
+        writeLog(new File(getTestCaseDir(), "test.log"), 50);
+        File indexDir = new File(getTestCaseDir(), "index");
+
+        XLogStreamer.Filter filter = new XLogStreamer.Filter();
+        filter.setParameter("JOB", "0000001-110101000000000-oozie-W");
+        StringWriter expected = new StringWriter();
+        new XLogStreamer(filter, expected, getTestCaseDir(), "test.log", 3600).streamLog(null, null);
+        assertTrue(expected.toString().contains("_C70_"));
+        assertFalse(expected.toString().contains("_C7_"));
+
+        StringWriter indexed = new StringWriter();
+        new XLogStreamer(filter, indexed, getTestCaseDir(), "test.log", 3600, indexDir, 512).streamLog(null, null);
+        assertEquals(expected.toString(), indexed.toString());
+
+        // rotated files are indexed, the active file is not
+        assertTrue(new File(indexDir, "test.log.1" + XLogIndex.INDEX_EXTENSION).exists());
+        assertFalse(new File(indexDir, "test.log" + XLogIndex.INDEX_EXTENSION).exists());
+
+        indexed = new StringWriter();
+        new XLogStreamer(filter, indexed, getTestCaseDir(), "test.log", 3600, indexDir, 512).streamLog(null, null);
+        assertEquals(expected.toString(), indexed.toString());
+    }
+
+}
@@ -16,10 +16,17 @@ package org.apache.oozie.util;
 
 import org.apache.oozie.util.XLogStreamer;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.apache.oozie.test.XTestCase;
 
@@ -58,4 +65,128 @@ public class TestXLogReader extends XTestCase {
         assertEquals(true, out[2].contains("_L3A_"));
         assertEquals(true, out[3].contains("_L3B_"));
     }
+
+    private static final String[] LINES = {
+            "2009-06-24 02:43:13,958 DEBUG _L1_:323 - USER[oozie] GROUP[-] TOKEN[-] APP[wf] JOB[0000001-W] ACTION[-] a",
+            "2009-06-24 02:43:13,961  INFO _L2_:317 - USER[-] GROUP[-] TOKEN[-] APP[wf] JOB[0000001-W] ACTION[-] b",
+            "2009-06-24 02:43:13,961\tinfo\t_L3_:317 - USER[-] GROUP[-] TOKEN[-] APP[wf] JOB[0000001-W] ACTION[-] c",
+            "2009-06-24 02:43:13,986  WARN _L4_:539 - USER[-] GROUP[-] TOKEN[-] APP[wf] JOB[0000002-W] ACTION[-] d",
+            "_L5_ continuation JOB[0000001-W] ",
+            "2009-06-24 02:43:14,431  WARN _L6_:661 - No job jar file set.",
+            "2009-06-24 02:43:14,431 ERROR _L7_:661 - USER[-] GROUP[-] TOKEN[-] APP[-] JOB[0000001-W] ACTION[0000001-W@a] e",
+            "2009-06-24 02:43:14,43  INFO _L8_:661 - USER[-] GROUP[-] TOKEN[-] APP[-] JOB[0000001-W] ACTION[-] f",
+            "2009-06-24 02:43:14,431 INFO",
+            "2009-06-24 02:43:14,431 INFO ",
+            "2009-06-24 02:43:14,431 INFO  ",
+            "2009-06-24 02:43:14,431  INFO _L9_:661 - USER[-] GROUP[-] TOKEN[-] APP[-] JOB[0000001-W] ACTION[-] \u2028g",
+            "",
+            "2009-06-24 02:43:14,431 DEBUG _L10_:661 - USER[-] GROUP[-] TOKEN[-] APP[-] JOB[0000001-W]x ACTION[-] h"};
+
+    private XLogStreamer.Filter createFilter(String level, String... params) {
+        XLogStreamer.Filter filter = new XLogStreamer.Filter();
+        filter.setLogLevel(level);
+        for (int i = 0; i < params.length; i += 2) {
+            filter.setParameter(params[i], params[i + 1]);
+        }
+        filter.constructPattern();
+        return filter;
+    }
+
+    private int regexMatch(XLogStreamer.Filter filter, String line) {
+        ArrayList<String> logParts = filter.splitLogMessage(line);
+        if (logParts == null) {
+            return XLogStreamer.Filter.NOT_A_STATEMENT;
+        }
+        return filter.matches(logParts) ? XLogStreamer.Filter.MATCH : XLogStreamer.Filter.NO_MATCH;
+    }
+
+    public void testMatchLine() throws Exception {
+        defineParameters();
+        List<XLogStreamer.Filter> filters = new ArrayList<XLogStreamer.Filter>();
+        filters.add(createFilter(null, "JOB", "0000001-W"));
+        filters.add(createFilter("DEBUG|WARN", "JOB", "0000001-W"));
+        filters.add(createFilter("INFO"));
+        filters.add(createFilter("ERROR", "ACTION", "0000001-W@a"));
+        filters.add(createFilter(null, "JOB", "0000001-W", "USER", "oozie"));
+        filters.add(createFilter(null, "JOB", "000000[12]-W"));
+        filters.add(createFilter("FOO"));
+        for (XLogStreamer.Filter filter : filters) {
+            for (String line : LINES) {
+                char[] buffer = ("xx" + line + "yy").toCharArray();
+                assertEquals(line, regexMatch(filter, line), filter.matchLine(buffer, 2, line.length()));
+            }
+        }
+    }
+
+    private void defineParameters() {
+        XLogStreamer.Filter.reset();
+        XLogStreamer.Filter.defineParameter("USER");
+        XLogStreamer.Filter.defineParameter("GROUP");
+        XLogStreamer.Filter.defineParameter("TOKEN");
+        XLogStreamer.Filter.defineParameter("APP");
+        XLogStreamer.Filter.defineParameter("JOB");
+        XLogStreamer.Filter.defineParameter("ACTION");
+    }
+
+    /**
+     * Compares the log filtering with the previous line splitting and regular expression filtering on a generated log
+     * file. It only runs if the <code>oozie.test.benchmark</code> system property is set to <code>true</code>. The size
+     * of the log file, in MB, is set with the <code>oozie.test.xlog.benchmark.mb</code> system property, 16 MB by
+     * default.
+     */
+    public void testFilterBenchmark() throws Exception {
+        if (!Boolean.getBoolean("oozie.test.benchmark")) {
+            return;
+        }
+        defineParameters();
+        int mb = Integer.parseInt(System.getProperty("oozie.test.xlog.benchmark.mb", "16"));
+        File logFile = new File(getTestCaseDir(), "oozie.log");
+        Writer writer = new BufferedWriter(new FileWriter(logFile));
+        long size = 0;
+        for (int i = 0; size < mb * 1024L * 1024L; i++) {
+            String line = "2011-01-01 10:" + (10 + i % 50) + ":00," + (100 + i % 900) + ((i % 5 == 0) ? " DEBUG" : "  INFO")
+                    + " CallableQueueService:" + (i % 500) + " - USER[user" + (i % 7) + "] GROUP[-] TOKEN[-] APP[app"
+                    + (i % 13) + "] JOB[" + String.format("%07d", i % 1000) + "-110101000000000-oozie-oozi-W] ACTION["
+                    + String.format("%07d", i % 1000) + "-110101000000000-oozie-oozi-W@action] statement " + i + "\n";
+            if (i % 100 == 0) {
+                line += "java.io.IOException: test\n\tat org.apache.oozie.Test.run(Test.java:" + i + ")\n";
+            }
+            writer.write(line);
+            size += line.length();
+        }
+        writer.close();
+        XLogStreamer.Filter filter = new XLogStreamer.Filter();
+        filter.setParameter("JOB", "0000500-110101000000000-oozie-oozi-W");
+        filter.setLogLevel("DEBUG|INFO");
+
+        long regexTime = System.currentTimeMillis();
+        StringWriter expected = new StringWriter();
+        filter.constructPattern();
+        BufferedReader reader = new BufferedReader(new FileReader(logFile));
+        boolean patternMatched = false;
+        String line = reader.readLine();
+        while (line != null) {
+            ArrayList<String> logParts = filter.splitLogMessage(line);
+            if (logParts != null) {
+                patternMatched = filter.matches(logParts);
+            }
+            if (patternMatched) {
+                expected.write(line + "\n");
+            }
+            line = reader.readLine();
+        }
+        reader.close();
+        regexTime = System.currentTimeMillis() - regexTime;
+
+        long bufferTime = System.currentTimeMillis();
+        StringWriter sw = new StringWriter();
+        new XLogReader(new FileInputStream(logFile), filter, sw).processLog();
+        bufferTime = System.currentTimeMillis() - bufferTime;
+
+        assertTrue(expected.toString().length() > 0);
+        assertEquals(expected.toString(), sw.toString());
+        XLog.getLog(getClass()).info("XLogReader benchmark, {0} MB: regex filtering [{1}] ms, buffer filtering [{2}] ms",
+                                     mb, regexTime, bufferTime);
+    }
+
 }
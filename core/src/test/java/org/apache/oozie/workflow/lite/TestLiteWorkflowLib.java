@@ -23,6 +23,8 @@ import org.apache.oozie.util.WritableUtils;
 import org.apache.oozie.util.XConfiguration;
 import org.apache.oozie.ErrorCode;
 
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -704,6 +706,80 @@ public class TestLiteWorkflowLib extends XTestCase {
         assertEquals(WorkflowInstance.Status.SUCCEEDED, job.getStatus());
     }
 
+    public void testCompactJobPersistance() throws Exception {
+        LiteWorkflowApp def = new LiteWorkflowApp("wf", "<worklfow-app/>", new StartNodeDef("one"))
+                .addNode(new NodeDef("one", null, AsynchNodeHandler.class, Arrays.asList(new String[]{"end"})))
+                .addNode(new EndNodeDef("end"));
+        XConfiguration conf = new XConfiguration();
+        for (int i = 0; i < 100; i++) {
+            conf.set("property." + i, "value." + i);
+        }
+
+        LiteWorkflowInstance job = new LiteWorkflowInstance(def, conf, "1");
+        job.start();
+        job.setVar("a", "A");
+        job.setVar("one" + WorkflowInstance.NODE_VAR_SEPARATOR + "x", "X");
+        job.setVar("other" + WorkflowInstance.NODE_VAR_SEPARATOR + "y", "Y");
+
+        LiteWorkflowInstance.setCompression(false);
+        byte[] uncompressed = WritableUtils.toByteArray(job);
+        LiteWorkflowInstance.setCompression(true);
+        byte[] compressed = WritableUtils.toByteArray(job);
+        assertTrue(compressed.length < uncompressed.length);
+        assertTrue(uncompressed.length < legacyForm(job, "/", "one").length);
+
+        for (byte[] array : new byte[][]{uncompressed, compressed, legacyForm(job, "/", "one")}) {
+            LiteWorkflowInstance read = WritableUtils.fromByteArray(array, LiteWorkflowInstance.class);
+            assertEquals("1", read.getId());
+            assertEquals(WorkflowInstance.Status.RUNNING, read.getStatus());
+            assertEquals("value.99", read.getConf().get("property.99"));
+            assertEquals("A", read.getVar("a"));
+            assertEquals("X", read.getVar("one" + WorkflowInstance.NODE_VAR_SEPARATOR + "x"));
+            assertEquals("Y", read.getVar("other" + WorkflowInstance.NODE_VAR_SEPARATOR + "y"));
+            assertEquals(def.getDigest(), ((LiteWorkflowApp) read.getApp()).getDigest());
+            read.signal("/", "");
+            assertEquals(WorkflowInstance.Status.SUCCEEDED, read.getStatus());
+        }
+
+        // instances with the same definition share the cached definition
+        LiteWorkflowInstance job1 = WritableUtils.fromByteArray(compressed, LiteWorkflowInstance.class);
+        LiteWorkflowInstance job2 = WritableUtils.fromByteArray(uncompressed, LiteWorkflowInstance.class);
+        assertSame(job1.getApp(), job2.getApp());
+
+        // a definition with a colliding digest does not get the cached definition
+        LiteWorkflowApp other = new LiteWorkflowApp("other", "<worklfow-app/>", new StartNodeDef("end"))
+                .addNode(new EndNodeDef("end"));
+        LiteWorkflowApp read = LiteWorkflowApp.get(def.getDigest(), other.getSerializedForm());
+        assertNotSame(job1.getApp(), read);
+        assertEquals("other", read.getName());
+        assertSame(job1.getApp(), LiteWorkflowApp.get(def.getDigest(), def.getSerializedForm()));
+    }
+
+    // the format written before the compact format
+    private byte[] legacyForm(LiteWorkflowInstance job, String path, String nodeName) throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        DataOutputStream dOut = new DataOutputStream(baos);
+        dOut.writeUTF(job.getId());
+        ByteArrayOutputStream confBaos = new ByteArrayOutputStream();
+        job.getConf().writeXml(confBaos);
+        dOut.writeInt(confBaos.size());
+        dOut.write(confBaos.toByteArray());
+        ((LiteWorkflowApp) job.getApp()).write(dOut);
+        dOut.writeUTF(job.getStatus().toString());
+        dOut.writeInt(1);
+        dOut.writeUTF(path);
+        dOut.writeUTF(nodeName);
+        dOut.writeBoolean(true);
+        Map<String, String> vars = job.getAllVars();
+        dOut.writeInt(vars.size());
+        for (Map.Entry<String, String> entry : vars.entrySet()) {
+            dOut.writeUTF(entry.getKey());
+            dOut.writeUTF(entry.getValue());
+        }
+        dOut.close();
+        return baos.toByteArray();
+    }
+
 
     public void testImmediateError() throws WorkflowException {
         LiteWorkflowApp workflowDef = new LiteWorkflowApp("testWf", "<worklfow-app/>", new StartNodeDef("one"))